@@ -0,0 +1,287 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.ade.galleries;
+
+import org.opencms.cache.A_CmsVfsDependencyCache;
+import org.opencms.db.CmsDriverManager;
+import org.opencms.file.CmsGroup;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsUser;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsRole;
+import org.opencms.util.CmsStringUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.logging.Log;
+
+/**
+ * Short-lived cache for the data the gallery dialog needs when it is opened, shared by all users.<p>
+ *
+ * The gallery folder lists, category trees and search results of the first result page are cached with a key
+ * containing the project, the site root and the permission fingerprint of the user. Users with the same groups and
+ * roles and without access control entries of their own have the same fingerprint, so they share the entries.<p>
+ *
+ * Entries are removed when resources they depend on are changed in the offline project. Since the search index is
+ * updated asynchronously after a change, entries also expire after {@link #MAX_AGE} milliseconds.<p>
+ *
+ * @since 11.0.0
+ */
+public final class CmsGalleryCache extends A_CmsVfsDependencyCache<Object> {
+
+    /** Key prefix for category trees. */
+    public static final String KIND_CATEGORIES = "categories";
+
+    /** Key prefix for gallery folder lists. */
+    public static final String KIND_GALLERIES = "galleries";
+
+    /** Key prefix for search results. */
+    public static final String KIND_SEARCH = "search";
+
+    /** The maximum age of an entry in milliseconds. */
+    public static final long MAX_AGE = 30000;
+
+    /** The maximum number of entries, expired entries are removed if the cache gets larger. */
+    public static final int MAX_ENTRIES = 2000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsGalleryCache.class);
+
+    /** The cache instance. */
+    private static CmsGalleryCache m_instance;
+
+    /** The permission fingerprints by project and user id. */
+    private final Map<String, String> m_fingerprints = new ConcurrentHashMap<String, String>();
+
+    /** Counts the fingerprint invalidations, to avoid caching fingerprints computed before an invalidation. */
+    private final AtomicLong m_fingerprintVersion = new AtomicLong();
+
+    /**
+     * Creates a new cache and registers it as event listener.<p>
+     */
+    private CmsGalleryCache() {
+
+        super(MAX_AGE, MAX_ENTRIES);
+    }
+
+    /**
+     * Returns the cache instance, creating it on first access.<p>
+     *
+     * @return the cache instance
+     */
+    public static synchronized CmsGalleryCache getInstance() {
+
+        if (m_instance == null) {
+            m_instance = new CmsGalleryCache();
+        }
+        return m_instance;
+    }
+
+    /**
+     * @see org.opencms.cache.A_CmsVfsDependencyCache#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_RESOURCE_MODIFIED:
+            case I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED:
+                // lock changes are ignored by the base class, but the permissions may have been changed
+                Object change = event.getData().get(I_CmsEventListener.KEY_CHANGE);
+                if ((change != null) && change.equals(Integer.valueOf(CmsDriverManager.NOTHING_CHANGED))) {
+                    return;
+                }
+                if (!(change instanceof Integer)
+                    || ((((Integer)change).intValue() & CmsDriverManager.CHANGED_ACCESSCONTROL) != 0)) {
+                    // the change may have added the first access control entry of a user
+                    clearFingerprints();
+                }
+                uncacheResource((CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE));
+                break;
+            case I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED:
+                // fired at the end of a bulk import, which also writes access control entries
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                // the published access control entries are used in the online project now
+                clearFingerprints();
+                super.cmsEvent(event);
+                break;
+            case I_CmsEventListener.EVENT_USER_MODIFIED:
+            case I_CmsEventListener.EVENT_GROUP_MODIFIED:
+            case I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES:
+                clearFingerprints();
+                break;
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+                clearFingerprints();
+                super.cmsEvent(event);
+                break;
+            default:
+                super.cmsEvent(event);
+                break;
+        }
+    }
+
+    /**
+     * Returns a cached value, loading it if necessary.<p>
+     *
+     * @param <V> the value type
+     * @param cms the current users context
+     * @param kind the kind of value, one of the <code>KIND_</code> constants
+     * @param key the key identifying the value within the project, site and permission fingerprint of the user
+     * @param dependencies the root paths of the folders the value depends on, <code>null</code> for all paths
+     * @param foldersOnly true if the value only depends on folders, e.g. a list of galleries
+     * @param loader the loader for the value
+     *
+     * @return the value, which is shared and must not be modified
+     *
+     * @throws CmsException if loading the value fails
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(
+        CmsObject cms,
+        String kind,
+        String key,
+        Collection<String> dependencies,
+        boolean foldersOnly,
+        I_CmsLoader<V> loader)
+    throws CmsException {
+
+        String fullKey = kind
+            + "|"
+            + cms.getRequestContext().getCurrentProject().getUuid()
+            + "|"
+            + cms.getRequestContext().getSiteRoot()
+            + "|"
+            + getPermissionFingerprint(cms)
+            + "|"
+            + key;
+        List<String> folders = null;
+        if (dependencies != null) {
+            folders = new ArrayList<String>(dependencies.size());
+            for (String path : dependencies) {
+                folders.add(CmsStringUtil.joinPaths(path, "/"));
+            }
+        }
+        return (V)getValue(
+            fullKey,
+            cms.getRequestContext().getCurrentProject().isOnlineProject(),
+            folders,
+            foldersOnly,
+            loader);
+    }
+
+    /**
+     * Returns the permission fingerprint of the current user.<p>
+     *
+     * The fingerprint is computed from the groups and roles of the user. If there are access control entries for the
+     * user in the current project, or the groups can not be read, the user id is part of the fingerprint, so the
+     * entries are not shared.<p>
+     *
+     * The fingerprints are cached per project until a user, group or access control entry is changed.<p>
+     *
+     * @param cms the current users context
+     *
+     * @return the permission fingerprint
+     */
+    public String getPermissionFingerprint(CmsObject cms) {
+
+        CmsUser user = cms.getRequestContext().getCurrentUser();
+        String key = cms.getRequestContext().getCurrentProject().getUuid() + "|" + user.getId();
+        String fingerprint = m_fingerprints.get(key);
+        if (fingerprint == null) {
+            long version = m_fingerprintVersion.get();
+            fingerprint = computeFingerprint(cms, user);
+            if (version == m_fingerprintVersion.get()) {
+                m_fingerprints.put(key, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Removes the cached permission fingerprints.<p>
+     */
+    private void clearFingerprints() {
+
+        m_fingerprintVersion.incrementAndGet();
+        m_fingerprints.clear();
+    }
+
+    /**
+     * Computes the permission fingerprint of a user.<p>
+     *
+     * @param cms the current users context
+     * @param user the user
+     *
+     * @return the fingerprint
+     */
+    private String computeFingerprint(CmsObject cms, CmsUser user) {
+
+        TreeSet<String> principals = new TreeSet<String>();
+        try {
+            for (CmsGroup group : cms.getGroupsOfUser(user.getName(), false)) {
+                principals.add("g:" + group.getId());
+            }
+            for (CmsRole role : OpenCms.getRoleManager().getRolesOfUser(cms, user.getName(), "", true, false, true)) {
+                principals.add("r:" + role.getFqn());
+            }
+            if (!cms.getResourcesForPrincipal(user.getId(), null, false).isEmpty()) {
+                principals.add("u:" + user.getId());
+            }
+        } catch (CmsException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            principals = new TreeSet<String>(Collections.singleton("u:" + user.getId()));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String principal : principals) {
+                digest.update(principal.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte)0);
+            }
+            return Hex.encodeHexString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every Java runtime
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -65,6 +65,7 @@ import org.opencms.gwt.CmsGwtService;
 import org.opencms.gwt.CmsIconUtil;
 import org.opencms.gwt.CmsRpcException;
 import org.opencms.gwt.CmsVfsService;
+import org.opencms.gwt.shared.CmsCategoryTreeEntry;
 import org.opencms.gwt.shared.CmsListInfoBean;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.i18n.CmsMessages;
@@ -885,9 +886,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
             }
             data.setSitemapSiteSelectorOptions(sitemapOptionBuilder.getOptions());
             data.setDefaultScope(OpenCms.getWorkplaceManager().getGalleryDefaultScope());
-            CmsCoreService service = new CmsCoreService();
-            service.setCms(getCmsObject());
-            data.setCategories(service.getCategoriesForSitePath(data.getReferenceSitePath()));
+            data.setCategories(getCategories(data.getReferenceSitePath()));
         } catch (Exception e) {
             LOG.error(e.getLocalizedMessage(), e);
         }
@@ -2208,6 +2207,28 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         return initialSearchObj;
     }
 
+    /**
+     * Returns the category tree for the given site path, using the shared gallery cache.<p>
+     *
+     * @param sitePath the site path
+     *
+     * @return the category tree entries
+     *
+     * @throws CmsException if reading the categories fails
+     */
+    private List<CmsCategoryTreeEntry> getCategories(final String sitePath) throws CmsException {
+
+        final CmsObject cms = getCmsObject();
+        return new ArrayList<CmsCategoryTreeEntry>(
+            CmsGalleryCache.getInstance().get(
+                cms,
+                CmsGalleryCache.KIND_CATEGORIES,
+                OpenCms.getWorkplaceManager().getWorkplaceLocale(cms) + "|" + sitePath,
+                null,
+                true,
+                () -> CmsCoreService.getCategoriesForSitePathStatic(cms, sitePath)));
+    }
+
     /**
      * Get default types for gallery together with visibility.<p>
      *
@@ -2226,56 +2247,22 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
      * @return the list of galleries
      *
      */
-    @SuppressWarnings("deprecation")
-    private List<CmsResource> getGalleriesByType(int galleryTypeId) {
-
-        List<CmsResource> galleries = new ArrayList<CmsResource>();
-
-        // We swallow errors in this method because we don't  want a failure to read some folders (e.g. because of permission problems) to
-        // cause an empty gallery list as a result
-
-        try {
-            galleries.addAll(
-                getCmsObject().readResources(
-                    "/",
-                    CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(galleryTypeId)));
-        } catch (Exception e) {
-            LOG.error("Could not read site galleries: " + e.getLocalizedMessage(), e);
-        }
-
-        String siteRoot = getCmsObject().getRequestContext().getSiteRoot();
-        // if the current site is NOT the root site - add all other galleries from the system path
-
-        try {
-            if (!siteRoot.equals("")) {
-                List<CmsResource> systemGalleries = null;
-                // get the galleries in the /system/ folder
-                systemGalleries = getCmsObject().readResources(
-                    CmsWorkplace.VFS_PATH_SYSTEM,
-                    CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(galleryTypeId));
-                if (systemGalleries != null) {
-                    // add the found system galleries to the result
-                    galleries.addAll(systemGalleries);
-                }
-            }
-        } catch (Exception e) {
-            LOG.info("Could not read system galleries: " + e.getLocalizedMessage(), e);
-        }
+    private List<CmsResource> getGalleriesByType(final int galleryTypeId) {
 
         try {
-            if (!OpenCms.getSiteManager().isSharedFolder(siteRoot)) {
-                String shared = OpenCms.getSiteManager().getSharedFolder();
-                List<CmsResource> sharedGalleries = getCmsObject().readResources(
-                    shared,
-                    CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(galleryTypeId));
-                if (sharedGalleries != null) {
-                    galleries.addAll(sharedGalleries);
-                }
-            }
-        } catch (Exception e) {
-            LOG.info("Could not read shared galleries: " + e.getLocalizedMessage(), e);
+            return new ArrayList<CmsResource>(
+                CmsGalleryCache.getInstance().get(
+                    getCmsObject(),
+                    CmsGalleryCache.KIND_GALLERIES,
+                    String.valueOf(galleryTypeId),
+                    null,
+                    true,
+                    () -> readGalleriesByType(galleryTypeId)));
+        } catch (CmsException e) {
+            // reading the galleries does not throw exceptions
+            LOG.error(e.getLocalizedMessage(), e);
+            return readGalleriesByType(galleryTypeId);
         }
-        return galleries;
     }
 
     /**
@@ -2606,6 +2593,53 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         return rootFolders;
     }
 
+    /**
+     * Returns the root paths the cached results of a search depend on.<p>
+     *
+     * @param params the search parameters
+     *
+     * @return the searched galleries and folders, or <code>null</code> if the search is not restricted to folders
+     */
+    private List<String> getSearchCacheDependencies(CmsGallerySearchParameters params) {
+
+        List<String> result = new ArrayList<String>();
+        if (params.getGalleries() != null) {
+            result.addAll(params.getGalleries());
+        }
+        if (params.getFolders() != null) {
+            result.addAll(params.getFolders());
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Returns the key for caching the results of a search.<p>
+     *
+     * @param params the search parameters
+     * @param searchObj the search data the parameters were prepared from
+     *
+     * @return the cache key
+     */
+    private String getSearchCacheKey(CmsGallerySearchParameters params, CmsGallerySearchBean searchObj) {
+
+        StringBuffer key = new StringBuffer(256);
+        key.append(params.getResourceTypes()).append('|');
+        key.append(params.getGalleries()).append('|');
+        key.append(params.getFolders()).append('|');
+        key.append(params.getCategories()).append('|');
+        key.append(params.getSearchWords()).append('|');
+        key.append(params.getLocale()).append('|');
+        key.append(params.getMatchesPerPage()).append('|');
+        key.append(params.getSortOrder()).append('|');
+        key.append(params.getScope()).append('|');
+        key.append(params.getReferencePath()).append('|');
+        key.append(searchObj.getDateCreatedStart()).append('-').append(searchObj.getDateCreatedEnd()).append('|');
+        key.append(searchObj.getDateModifiedStart()).append('-').append(searchObj.getDateModifiedEnd()).append('|');
+        key.append(params.isIgnoreSearchExclude()).append('|');
+        key.append(searchObj.isIncludeExpired());
+        return key.toString();
+    }
+
     /**
      * Returns the workplace locale from the current user's settings.<p>
      *
@@ -2865,6 +2899,65 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         return result;
     }
 
+    /**
+     * Reads the available galleries for the given gallery-type.<p>
+     *
+     * @param galleryTypeId the gallery-type
+     *
+     * @return the list of galleries
+     */
+    @SuppressWarnings("deprecation")
+    private List<CmsResource> readGalleriesByType(int galleryTypeId) {
+
+        List<CmsResource> galleries = new ArrayList<CmsResource>();
+
+        // We swallow errors in this method because we don't  want a failure to read some folders (e.g. because of permission problems) to
+        // cause an empty gallery list as a result
+
+        try {
+            galleries.addAll(
+                getCmsObject().readResources(
+                    "/",
+                    CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(galleryTypeId)));
+        } catch (Exception e) {
+            LOG.error("Could not read site galleries: " + e.getLocalizedMessage(), e);
+        }
+
+        String siteRoot = getCmsObject().getRequestContext().getSiteRoot();
+        // if the current site is NOT the root site - add all other galleries from the system path
+
+        try {
+            if (!siteRoot.equals("")) {
+                List<CmsResource> systemGalleries = null;
+                // get the galleries in the /system/ folder
+                systemGalleries = getCmsObject().readResources(
+                    CmsWorkplace.VFS_PATH_SYSTEM,
+                    CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(galleryTypeId));
+                if (systemGalleries != null) {
+                    // add the found system galleries to the result
+                    galleries.addAll(systemGalleries);
+                }
+            }
+        } catch (Exception e) {
+            LOG.info("Could not read system galleries: " + e.getLocalizedMessage(), e);
+        }
+
+        try {
+            if (!OpenCms.getSiteManager().isSharedFolder(siteRoot)) {
+                String shared = OpenCms.getSiteManager().getSharedFolder();
+                List<CmsResource> sharedGalleries = getCmsObject().readResources(
+                    shared,
+                    CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(galleryTypeId));
+                if (sharedGalleries != null) {
+                    galleries.addAll(sharedGalleries);
+                }
+            }
+        } catch (Exception e) {
+            LOG.info("Could not read shared galleries: " + e.getLocalizedMessage(), e);
+        }
+        return galleries;
+    }
+
     /**
      * Returns a map with gallery type names associated with the list of available galleries for this type.<p>
      *
@@ -2965,8 +3058,21 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         CmsObject searchCms = getSearchCms(searchObj);
         searchBean.init(searchCms);
 
-        CmsGallerySearchResultList searchResults = OpenCms.getSearchManager().getIndexSolr(
-            "Solr Offline").gallerySearch(searchCms, params);
+        CmsGallerySearchResultList searchResults;
+        if (params.getResultPage() <= 1) {
+            // the first page is requested whenever the gallery dialog is opened, share it between users
+            CmsGallerySearchResultList cachedResults = CmsGalleryCache.getInstance().get(
+                searchCms,
+                CmsGalleryCache.KIND_SEARCH,
+                getSearchCacheKey(params, searchObj),
+                getSearchCacheDependencies(params),
+                false,
+                () -> searchIndex(searchCms, params));
+            // the cached list is shared, so the pages are calculated on a copy
+            searchResults = new CmsGallerySearchResultList(cachedResults);
+        } else {
+            searchResults = searchIndex(searchCms, params);
+        }
         searchResults.calculatePages(params.getResultPage(), params.getMatchesPerPage());
 
         // set only the result dependent search params for this search
@@ -2987,6 +3093,22 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         return searchObjBean;
     }
 
+    /**
+     * Executes a gallery search in the offline Solr index.<p>
+     *
+     * @param searchCms the cms context used for the search
+     * @param params the search parameters
+     *
+     * @return the search results
+     *
+     * @throws CmsException if the search fails
+     */
+    private CmsGallerySearchResultList searchIndex(CmsObject searchCms, CmsGallerySearchParameters params)
+    throws CmsException {
+
+        return OpenCms.getSearchManager().getIndexSolr("Solr Offline").gallerySearch(searchCms, params);
+    }
+
     /**
      * Sets the last opened gallery information for the current user.<p>
      *
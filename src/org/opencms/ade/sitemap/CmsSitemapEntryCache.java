@@ -0,0 +1,176 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.ade.sitemap;
+
+import org.opencms.ade.sitemap.shared.CmsClientSitemapEntry;
+import org.opencms.cache.A_CmsVfsDependencyCache;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.util.CmsStringUtil;
+
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * Cache for the client sitemap entry beans created by the sitemap editor service.<p>
+ *
+ * Creating a client entry reads the default file, the properties, the locks, the aliases and the permissions of a
+ * navigation element. The sitemap editor requests the same entries again and again, e.g. when opening a tree level
+ * or when reloading the editor, so the beans are cached per user, project, site and workplace locale.<p>
+ *
+ * An entry is removed if a resource is changed inside its folder or in one of its parent folders, including
+ * lock changes, since these determine the lock state and the blocking locks shown for the entry. Aliases are not
+ * changed by events, and the release and expiration state depends on the current time, so entries also expire
+ * after {@link #MAX_AGE} milliseconds.<p>
+ *
+ * @since 11.0.0
+ */
+public final class CmsSitemapEntryCache extends A_CmsVfsDependencyCache<CmsClientSitemapEntry> {
+
+    /** The maximum age of an entry in milliseconds. */
+    public static final long MAX_AGE = 60000;
+
+    /** The maximum number of entries, expired entries are removed if the cache gets larger. */
+    public static final int MAX_ENTRIES = 20000;
+
+    /** The cache instance. */
+    private static CmsSitemapEntryCache m_instance;
+
+    /**
+     * Creates a new cache and registers it as event listener.<p>
+     */
+    private CmsSitemapEntryCache() {
+
+        super(MAX_AGE, MAX_ENTRIES);
+    }
+
+    /**
+     * Returns the cache instance, creating it on first access.<p>
+     *
+     * @return the cache instance
+     */
+    public static synchronized CmsSitemapEntryCache getInstance() {
+
+        if (m_instance == null) {
+            m_instance = new CmsSitemapEntryCache();
+        }
+        return m_instance;
+    }
+
+    /**
+     * @see org.opencms.cache.A_CmsVfsDependencyCache#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_RESOURCE_MODIFIED:
+            case I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED:
+                // unlike the base class, lock changes are not ignored since entries show the lock state
+                uncacheResource((CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE));
+                break;
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+            case I_CmsEventListener.EVENT_USER_MODIFIED:
+            case I_CmsEventListener.EVENT_GROUP_MODIFIED:
+            case I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES:
+                // publishing changes the state of offline entries, principal changes their permissions
+                clear();
+                break;
+            default:
+                super.cmsEvent(event);
+                break;
+        }
+    }
+
+    /**
+     * Returns the client sitemap entry for a resource, creating it if necessary.<p>
+     *
+     * @param cms the current users context
+     * @param resource the resource of the navigation element
+     * @param isRoot true if the entry is a root entry
+     * @param locale the workplace locale used for the entry
+     * @param loader the loader which creates the entry
+     *
+     * @return a copy of the client entry, which may be modified by the caller, or <code>null</code>
+     *
+     * @throws CmsException if creating the entry fails
+     */
+    public CmsClientSitemapEntry get(
+        CmsObject cms,
+        CmsResource resource,
+        boolean isRoot,
+        Locale locale,
+        I_CmsLoader<CmsClientSitemapEntry> loader)
+    throws CmsException {
+
+        String key = cms.getRequestContext().getCurrentUser().getId()
+            + "|"
+            + cms.getRequestContext().getCurrentProject().getUuid()
+            + "|"
+            + cms.getRequestContext().getSiteRoot()
+            + "|"
+            + locale
+            + "|"
+            + isRoot
+            + "|"
+            + resource.getStructureId();
+        String path = resource.isFolder()
+        ? CmsStringUtil.joinPaths(resource.getRootPath(), "/")
+        : resource.getRootPath();
+        return getValue(
+            key,
+            cms.getRequestContext().getCurrentProject().isOnlineProject(),
+            Collections.singletonList(path),
+            false,
+            loader);
+    }
+
+    /**
+     * Copies a client entry, without its sub entries.<p>
+     *
+     * The cached entries are copied, since the caller sets the position and the sub entries of the returned entry.<p>
+     *
+     * @param entry the client entry
+     *
+     * @return the copy
+     */
+    @Override
+    protected CmsClientSitemapEntry copy(CmsClientSitemapEntry entry) {
+
+        CmsClientSitemapEntry result = new CmsClientSitemapEntry(entry);
+        // not copied by the copy constructor
+        result.setResourceTypeId(entry.getResourceTypeId());
+        result.setNavModeIcon(entry.getNavModeIcon());
+        result.setVfsModeIcon(entry.getVfsModeIcon());
+        result.setPosition(-1);
+        return result;
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsCollectionsGenericWrapper;
+import org.opencms.util.CmsStringUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache for values computed from the resources below some root paths.<p>
+ *
+ * An offline entry is removed if a resource is changed inside one of the folders it depends on, or if one of the
+ * parent folders of these is changed. Online entries are removed when a project is published. Since not every
+ * change the values depend on is announced by an event, entries also expire after a maximum age.<p>
+ *
+ * Values loaded while the cache is invalidated are not stored, so a slow loader can not put an outdated value into
+ * the cache.<p>
+ *
+ * @param <V> the type of the cached values
+ *
+ * @since 11.0.0
+ */
+public abstract class A_CmsVfsDependencyCache<V> extends CmsVfsCache {
+
+    /**
+     * Loads a value which is not cached yet.<p>
+     *
+     * @param <V> the value type
+     */
+    public interface I_CmsLoader<V> {
+
+        /**
+         * Loads the value.<p>
+         *
+         * @return the value, or <code>null</code> if there is nothing to cache
+         *
+         * @throws CmsException if something goes wrong
+         */
+        V load() throws CmsException;
+    }
+
+    /**
+     * A cached value together with the paths it depends on.<p>
+     *
+     * @param <V> the type of the cached value
+     */
+    private static final class Entry<V> {
+
+        /** The time the entry was created. */
+        final long m_created = System.currentTimeMillis();
+
+        /** The root paths the value depends on, with trailing slash for folders, or <code>null</code> for all. */
+        final List<String> m_dependencies;
+
+        /** True if the value only depends on folders. */
+        final boolean m_foldersOnly;
+
+        /** True if the value was read in the online project. */
+        final boolean m_online;
+
+        /** The cached value. */
+        final V m_value;
+
+        /**
+         * Creates a new entry.<p>
+         *
+         * @param value the value
+         * @param online true if the value was read in the online project
+         * @param dependencies the root paths the value depends on, <code>null</code> to depend on all paths
+         * @param foldersOnly true if the value only depends on folders
+         */
+        Entry(V value, boolean online, Collection<String> dependencies, boolean foldersOnly) {
+
+            m_value = value;
+            m_online = online;
+            m_foldersOnly = foldersOnly;
+            m_dependencies = dependencies == null ? null : new ArrayList<String>(dependencies);
+        }
+
+        /**
+         * Checks if the entry depends on the given resource.<p>
+         *
+         * @param rootPath the root path of the changed resource
+         * @param isFolder true if the changed resource is a folder
+         *
+         * @return true if the entry depends on the resource
+         */
+        boolean dependsOn(String rootPath, boolean isFolder) {
+
+            if (m_foldersOnly && !isFolder) {
+                return false;
+            }
+            if (m_dependencies == null) {
+                return true;
+            }
+            String path = isFolder ? CmsStringUtil.joinPaths(rootPath, "/") : rootPath;
+            for (String dependency : m_dependencies) {
+                // the resource is the dependency or inside it, or it is a parent folder of the dependency
+                if (path.startsWith(dependency) || (isFolder && dependency.startsWith(path))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** The cached entries by key. */
+    private final Map<String, Entry<V>> m_entries = new ConcurrentHashMap<String, Entry<V>>();
+
+    /** Number of cache hits. */
+    private final AtomicLong m_hits = new AtomicLong();
+
+    /** The maximum age of an entry in milliseconds. */
+    private final long m_maxAge;
+
+    /** The maximum number of entries, expired entries are removed if the cache gets larger. */
+    private final int m_maxEntries;
+
+    /** Number of cache misses. */
+    private final AtomicLong m_misses = new AtomicLong();
+
+    /** Counts the invalidations, to avoid caching values which were read before an invalidation. */
+    private final AtomicLong m_version = new AtomicLong();
+
+    /**
+     * Creates a new cache and registers it as event listener.<p>
+     *
+     * @param maxAge the maximum age of an entry in milliseconds
+     * @param maxEntries the maximum number of entries
+     */
+    protected A_CmsVfsDependencyCache(long maxAge, int maxEntries) {
+
+        m_maxAge = maxAge;
+        m_maxEntries = maxEntries;
+        OpenCms.addCmsEventListener(
+            this,
+            new int[] {
+                I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCE_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCES_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCE_CREATED,
+                I_CmsEventListener.EVENT_RESOURCE_COPIED,
+                I_CmsEventListener.EVENT_RESOURCE_MOVED,
+                I_CmsEventListener.EVENT_RESOURCE_DELETED,
+                I_CmsEventListener.EVENT_PROPERTY_MODIFIED,
+                I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+                I_CmsEventListener.EVENT_USER_MODIFIED,
+                I_CmsEventListener.EVENT_GROUP_MODIFIED,
+                I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES,
+                I_CmsEventListener.EVENT_CLEAR_CACHES,
+                I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES,
+                I_CmsEventListener.EVENT_CLEAR_OFFLINE_CACHES});
+    }
+
+    /**
+     * Removes all entries.<p>
+     *
+     * This is used after changes which are not announced by events.<p>
+     */
+    public void clear() {
+
+        m_version.incrementAndGet();
+        m_entries.clear();
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_RESOURCE_CREATED:
+            case I_CmsEventListener.EVENT_PROPERTY_MODIFIED:
+                uncacheResource((CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE));
+                break;
+            case I_CmsEventListener.EVENT_RESOURCE_COPIED:
+                uncacheResources(
+                    CmsCollectionsGenericWrapper.<CmsResource> list(
+                        event.getData().get(I_CmsEventListener.KEY_RESOURCES)));
+                break;
+            default:
+                super.cmsEvent(event);
+                break;
+        }
+    }
+
+    /**
+     * Returns the number of cache hits since startup.<p>
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+
+        return m_hits.get();
+    }
+
+    /**
+     * Returns the number of cache misses since startup.<p>
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+
+        return m_misses.get();
+    }
+
+    /**
+     * Returns the number of cached entries.<p>
+     *
+     * @return the number of cached entries
+     */
+    public int size() {
+
+        return m_entries.size();
+    }
+
+    /**
+     * Returns the value to store in the cache or to return from the cache.<p>
+     *
+     * The default implementation returns the given value, so cached values are shared.<p>
+     *
+     * @param value the value
+     *
+     * @return the value or a copy of it
+     */
+    protected V copy(V value) {
+
+        return value;
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#flush(boolean)
+     */
+    @Override
+    protected void flush(boolean online) {
+
+        m_version.incrementAndGet();
+        Iterator<Entry<V>> it = m_entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().m_online == online) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns a cached value, loading it if necessary.<p>
+     *
+     * @param key the key of the value
+     * @param online true if the value is read in the online project
+     * @param dependencies the root paths the value depends on, with trailing slash for folders, or <code>null</code>
+     *      to depend on all paths
+     * @param foldersOnly true if the value only depends on folders
+     * @param loader the loader for the value
+     *
+     * @return the value, see {@link #copy(Object)}
+     *
+     * @throws CmsException if loading the value fails
+     */
+    protected V getValue(
+        String key,
+        boolean online,
+        Collection<String> dependencies,
+        boolean foldersOnly,
+        I_CmsLoader<? extends V> loader)
+    throws CmsException {
+
+        long now = System.currentTimeMillis();
+        Entry<V> entry = m_entries.get(key);
+        if ((entry != null) && !isExpired(entry, now)) {
+            m_hits.incrementAndGet();
+            return copy(entry.m_value);
+        }
+        m_misses.incrementAndGet();
+        long version = m_version.get();
+        V value = loader.load();
+        if (m_entries.size() >= m_maxEntries) {
+            removeExpired(now);
+            if (m_entries.size() >= m_maxEntries) {
+                m_entries.clear();
+            }
+        }
+        if ((value != null) && (version == m_version.get())) {
+            m_entries.put(key, new Entry<V>(copy(value), online, dependencies, foldersOnly));
+        }
+        return value;
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#uncacheResource(org.opencms.file.CmsResource)
+     */
+    @Override
+    protected void uncacheResource(CmsResource resource) {
+
+        m_version.incrementAndGet();
+        if (resource == null) {
+            // unknown change, remove everything depending on the offline project
+            flush(false);
+            return;
+        }
+        Iterator<Entry<V>> it = m_entries.values().iterator();
+        while (it.hasNext()) {
+            Entry<V> entry = it.next();
+            if (!entry.m_online && entry.dependsOn(resource.getRootPath(), resource.isFolder())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Checks if an entry is expired.<p>
+     *
+     * @param entry the entry
+     * @param now the current time
+     *
+     * @return true if the entry is expired
+     */
+    private boolean isExpired(Entry<V> entry, long now) {
+
+        return (now - entry.m_created) > m_maxAge;
+    }
+
+    /**
+     * Removes the expired entries.<p>
+     *
+     * @param now the current time
+     */
+    private void removeExpired(long now) {
+
+        Iterator<Entry<V>> it = m_entries.values().iterator();
+        while (it.hasNext()) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.CmsRequestContext;
+import org.opencms.file.CmsResource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * State of a bulk delete, attached to the request context of the deleting user.<p>
+ *
+ * While a bulk delete is active, the driver manager does not flush the caches or fire an event for each deleted
+ * resource, but collects the deleted resources. When the bulk delete is finished, the caches are flushed once and
+ * a single event for all deleted resources is fired. The permissions and locks are checked for each resource
+ * as usual.<p>
+ *
+ * @see CmsSecurityManager#startBulkDelete(CmsRequestContext)
+ * @see CmsSecurityManager#finishBulkDelete(CmsRequestContext)
+ *
+ * @since 11.0.0
+ */
+public class CmsBulkDeleteContext {
+
+    /** Name of the request context attribute holding the bulk delete context. */
+    public static final String ATTRIBUTE_BULK_DELETE = "org.opencms.db.CmsBulkDeleteContext";
+
+    /** The deleted resources. */
+    private List<CmsResource> m_resources = new ArrayList<CmsResource>();
+
+    /**
+     * Returns the bulk delete context of the given database context.<p>
+     *
+     * @param dbc the database context
+     *
+     * @return the bulk delete context, or <code>null</code> if no bulk delete is active
+     */
+    public static CmsBulkDeleteContext get(CmsDbContext dbc) {
+
+        CmsRequestContext context = dbc.getRequestContext();
+        if (context == null) {
+            return null;
+        }
+        return (CmsBulkDeleteContext)context.getAttribute(ATTRIBUTE_BULK_DELETE);
+    }
+
+    /**
+     * Adds deleted resources.<p>
+     *
+     * @param resources the deleted resources
+     */
+    public void addResources(Collection<CmsResource> resources) {
+
+        m_resources.addAll(resources);
+    }
+
+    /**
+     * Returns the deleted resources.<p>
+     *
+     * @return the deleted resources
+     */
+    public List<CmsResource> getResources() {
+
+        return m_resources;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.CmsRequestContext;
+import org.opencms.file.CmsResource;
+import org.opencms.security.CmsAccessControlEntry;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * State of a bulk import, attached to the request context of the importing user.<p>
+ *
+ * While a bulk import is active, the driver manager skips the permission checks for imported resources
+ * (the user was checked for the root administrator role once when starting the import), does not flush the
+ * caches or fire events for each imported resource, and collects the access control entries so they can be
+ * written in JDBC batches. After each chunk of {@link #CHUNK_SIZE} imported resources, and when the bulk import is
+ * finished, the pending entries are written, the caches are flushed once and a single event for the resources
+ * imported since then is fired. So the memory used by the context is bounded, and the caches do not stay outdated
+ * until the end of a large import.<p>
+ *
+ * @see CmsSecurityManager#startBulkImport(CmsRequestContext)
+ * @see CmsSecurityManager#finishBulkImport(CmsRequestContext)
+ *
+ * @since 11.0.0
+ */
+public class CmsBulkImportContext {
+
+    /** Name of the request context attribute holding the bulk import context. */
+    public static final String ATTRIBUTE_BULK_IMPORT = "org.opencms.db.CmsBulkImportContext";
+
+    /** The number of pending rows after which the access control entries are written. */
+    public static final int BATCH_SIZE = 500;
+
+    /** The default number of imported resources after which the caches are flushed and an event is fired. */
+    public static final int CHUNK_SIZE = 1000;
+
+    /** The resource ids of the pending access control entries, their existing entries are replaced. */
+    private Set<CmsUUID> m_aceResourceIds = new LinkedHashSet<CmsUUID>();
+
+    /** The pending access control entries. */
+    private List<CmsAccessControlEntry> m_aces = new ArrayList<CmsAccessControlEntry>();
+
+    /** The number of imported resources after which the caches are flushed and an event is fired. */
+    private int m_chunkSize;
+
+    /** The resources imported since the last flush. */
+    private List<CmsResource> m_resources = new ArrayList<CmsResource>();
+
+    /**
+     * Creates a new bulk import context with the default chunk size.<p>
+     */
+    public CmsBulkImportContext() {
+
+        this(CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new bulk import context.<p>
+     *
+     * @param chunkSize the number of imported resources after which the caches are flushed and an event is fired
+     */
+    public CmsBulkImportContext(int chunkSize) {
+
+        m_chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Returns the bulk import context of the given database context.<p>
+     *
+     * @param dbc the database context
+     *
+     * @return the bulk import context, or <code>null</code> if no bulk import is active
+     */
+    public static CmsBulkImportContext get(CmsDbContext dbc) {
+
+        CmsRequestContext context = dbc.getRequestContext();
+        if (context == null) {
+            return null;
+        }
+        return (CmsBulkImportContext)context.getAttribute(ATTRIBUTE_BULK_IMPORT);
+    }
+
+    /**
+     * Adds the access control entries of an imported resource, replacing its existing entries.<p>
+     *
+     * @param resourceId the resource id
+     * @param aces the access control entries
+     */
+    public void addAccessControlEntries(CmsUUID resourceId, List<CmsAccessControlEntry> aces) {
+
+        m_aceResourceIds.add(resourceId);
+        m_aces.addAll(aces);
+    }
+
+    /**
+     * Adds an imported resource.<p>
+     *
+     * @param resource the imported resource
+     */
+    public void addResource(CmsResource resource) {
+
+        m_resources.add(resource);
+    }
+
+    /**
+     * Returns the pending access control entries.<p>
+     *
+     * @return the pending access control entries
+     */
+    public List<CmsAccessControlEntry> getAccessControlEntries() {
+
+        return m_aces;
+    }
+
+    /**
+     * Returns the resource ids whose access control entries are replaced by the pending entries.<p>
+     *
+     * @return the resource ids
+     */
+    public Set<CmsUUID> getAccessControlEntryResourceIds() {
+
+        return m_aceResourceIds;
+    }
+
+    /**
+     * Returns the resources imported since the last flush.<p>
+     *
+     * @return the imported resources
+     */
+    public List<CmsResource> getResources() {
+
+        return m_resources;
+    }
+
+    /**
+     * Checks if enough access control entries are pending to write them in a batch.<p>
+     *
+     * @return <code>true</code> if the pending access control entries should be written
+     */
+    public boolean isBatchFull() {
+
+        return (m_aces.size() + m_aceResourceIds.size()) >= BATCH_SIZE;
+    }
+
+    /**
+     * Checks if enough resources have been imported to flush the caches and fire an event for them.<p>
+     *
+     * @return <code>true</code> if the imported resources should be flushed
+     */
+    public boolean isChunkFull() {
+
+        return m_resources.size() >= m_chunkSize;
+    }
+
+    /**
+     * Removes the pending access control entries after they have been written.<p>
+     */
+    public void resetAccessControlEntries() {
+
+        m_aces = new ArrayList<CmsAccessControlEntry>();
+        m_aceResourceIds = new LinkedHashSet<CmsUUID>();
+    }
+
+    /**
+     * Removes the imported resources after the caches have been flushed and the event has been fired.<p>
+     */
+    public void resetResources() {
+
+        m_resources = new ArrayList<CmsResource>();
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.file.CmsDataAccessException;
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsStringUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.logging.Log;
+
+/**
+ * Content addressed storage for file contents.<p>
+ *
+ * If configured, file contents at or above a size threshold are not stored in the content tables of the database,
+ * but as files in a directory of the (local or shared) file system. The file name is the SHA-256 hash of the content,
+ * and the database only stores a short reference containing the hash.<p>
+ *
+ * Since the reference is copied by the SQL statements which move contents between the offline, online and history
+ * content tables, identical contents are only stored once, no matter how many siblings, projects or historical
+ * versions use them.<p>
+ *
+ * Files in the store are never modified once written. They are also never deleted by OpenCms, since a single file may
+ * be referenced by many content rows.<p>
+ *
+ * The store is configured in <code>opencms.properties</code>:
+ * <ul>
+ * <li><code>db.contentstore.path</code>: the directory of the store; if not set, all contents are kept in the database</li>
+ * <li><code>db.contentstore.threshold</code>: the minimum content size in bytes for using the store</li>
+ * </ul>
+ *
+ * @since 11.0.0
+ */
+public class CmsContentStore {
+
+    /** Default for the minimum content size (in bytes) for using the store. */
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    /** Configuration key for the store directory. */
+    public static final String PARAM_PATH = "db.contentstore.path";
+
+    /** Configuration key for the minimum content size. */
+    public static final String PARAM_THRESHOLD = "db.contentstore.threshold";
+
+    /** The prefix of the references stored in the database instead of the content. */
+    public static final String REFERENCE_PREFIX = "ocms-cas:sha256:";
+
+    /** The store which keeps all contents in the database. */
+    public static final CmsContentStore DISABLED = new CmsContentStore(null, Integer.MAX_VALUE);
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsContentStore.class);
+
+    /** The prefix of the references, as bytes. */
+    private static final byte[] REFERENCE_PREFIX_BYTES = REFERENCE_PREFIX.getBytes(StandardCharsets.US_ASCII);
+
+    /** The length of a reference in bytes. */
+    private static final int REFERENCE_LENGTH = REFERENCE_PREFIX_BYTES.length + 64;
+
+    /** The directory of the store, <code>null</code> if disabled. */
+    private final File m_directory;
+
+    /** The minimum content size for using the store. */
+    private final int m_threshold;
+
+    /**
+     * Creates a new content store.<p>
+     *
+     * @param directory the directory of the store, <code>null</code> to keep all contents in the database
+     * @param threshold the minimum content size for using the store
+     */
+    public CmsContentStore(File directory, int threshold) {
+
+        m_directory = directory;
+        m_threshold = Math.max(REFERENCE_LENGTH + 1, threshold);
+    }
+
+    /**
+     * Creates the content store from the <code>opencms.properties</code> configuration.<p>
+     *
+     * @param config the configuration
+     *
+     * @return the configured content store, or {@link #DISABLED}
+     */
+    public static CmsContentStore create(CmsParameterConfiguration config) {
+
+        String path = config.get(PARAM_PATH);
+        if (CmsStringUtil.isEmptyOrWhitespaceOnly(path)) {
+            return DISABLED;
+        }
+        File directory = new File(path.trim());
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            LOG.error("Could not create content store directory " + directory + ", contents are kept in the database.");
+            return DISABLED;
+        }
+        CmsContentStore store = new CmsContentStore(directory, config.getInteger(PARAM_THRESHOLD, DEFAULT_THRESHOLD));
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(". Content store       : " + directory.getAbsolutePath());
+        }
+        return store;
+    }
+
+    /**
+     * Checks if the given value read from the database is a reference to the content store.<p>
+     *
+     * @param value the value read from the database
+     *
+     * @return <code>true</code> if the value is a reference
+     */
+    public static boolean isReference(byte[] value) {
+
+        if ((value == null) || (value.length != REFERENCE_LENGTH)) {
+            return false;
+        }
+        for (int i = 0; i < REFERENCE_PREFIX_BYTES.length; i++) {
+            if (value[i] != REFERENCE_PREFIX_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the directory of the store.<p>
+     *
+     * @return the directory of the store, <code>null</code> if disabled
+     */
+    public File getDirectory() {
+
+        return m_directory;
+    }
+
+    /**
+     * Returns the minimum content size for using the store.<p>
+     *
+     * @return the minimum content size
+     */
+    public int getThreshold() {
+
+        return m_threshold;
+    }
+
+    /**
+     * Checks if the store is enabled.<p>
+     *
+     * @return <code>true</code> if the store is enabled
+     */
+    public boolean isEnabled() {
+
+        return m_directory != null;
+    }
+
+    /**
+     * Returns the content for a value read from the content column of the database.<p>
+     *
+     * If the value is a reference, the content is read from the store, otherwise the value itself is returned.<p>
+     *
+     * @param value the value read from the database
+     *
+     * @return the content
+     *
+     * @throws CmsDataAccessException if the referenced content can not be read
+     */
+    public byte[] resolve(byte[] value) throws CmsDataAccessException {
+
+        if (!isReference(value)) {
+            return value;
+        }
+        File file = getFile(getHash(value));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Content too large: " + file);
+            }
+            byte[] result = new byte[(int)size];
+            ByteBuffer buffer = ByteBuffer.wrap(result);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Unexpected end of file: " + file);
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new CmsDbIoException(Messages.get().container(Messages.ERR_CONTENT_STORE_READ_1, file), e);
+        }
+    }
+
+    /**
+     * Returns the value to write into the content column of the database for the given content.<p>
+     *
+     * If the store is enabled and the content is large enough, the content is written to the store
+     * (unless it already exists there), and a reference is returned. Otherwise the content itself is returned.<p>
+     *
+     * @param content the content
+     *
+     * @return the value to write to the database
+     *
+     * @throws CmsDataAccessException if writing the content fails
+     */
+    public byte[] store(byte[] content) throws CmsDataAccessException {
+
+        if (!isEnabled() || (content == null) || ((content.length < m_threshold) && !isReference(content))) {
+            // contents which look like a reference are always stored, so reading them back is unambiguous
+            return content;
+        }
+        String hash = hash(content);
+        File file = getFile(hash);
+        if (!file.exists()) {
+            try {
+                File dir = file.getParentFile();
+                if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+                    throw new IOException("Could not create directory " + dir);
+                }
+                // write to a temporary file first, so that no incomplete file is ever visible under the hash name
+                File temp = File.createTempFile(hash, ".tmp", dir);
+                try {
+                    Files.write(temp.toPath(), content);
+                    try {
+                        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(temp.toPath(), file.toPath());
+                    }
+                } catch (FileAlreadyExistsException e) {
+                    // written concurrently by another thread or server, the content is identical
+                } finally {
+                    Files.deleteIfExists(temp.toPath());
+                }
+            } catch (IOException e) {
+                throw new CmsDbIoException(Messages.get().container(Messages.ERR_CONTENT_STORE_WRITE_1, file), e);
+            }
+        }
+        return (REFERENCE_PREFIX + hash).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the file for the given hash.<p>
+     *
+     * The files are distributed over two directory levels to keep the directories small.<p>
+     *
+     * @param hash the hash
+     *
+     * @return the file
+     *
+     * @throws CmsDataAccessException if the store is not enabled
+     */
+    protected File getFile(String hash) throws CmsDataAccessException {
+
+        if (m_directory == null) {
+            throw new CmsDbIoException(Messages.get().container(Messages.ERR_CONTENT_STORE_DISABLED_1, hash));
+        }
+        return new File(new File(new File(m_directory, hash.substring(0, 2)), hash.substring(2, 4)), hash);
+    }
+
+    /**
+     * Extracts the hash from a reference.<p>
+     *
+     * @param reference the reference
+     *
+     * @return the hash
+     */
+    private String getHash(byte[] reference) {
+
+        return new String(
+            reference,
+            REFERENCE_PREFIX_BYTES.length,
+            REFERENCE_LENGTH - REFERENCE_PREFIX_BYTES.length,
+            StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Calculates the SHA-256 hash of the given content as hex string.<p>
+     *
+     * @param content the content
+     *
+     * @return the hash
+     */
+    private String hash(byte[] content) {
+
+        try {
+            return Hex.encodeHexString(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every Java runtime
+            throw new IllegalStateException(e);
+        }
+    }
+}
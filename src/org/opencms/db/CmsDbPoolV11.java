@@ -33,19 +33,49 @@ import org.opencms.main.OpenCms;
 import org.opencms.security.I_CmsCredentialsResolver;
 import org.opencms.util.CmsStringUtil;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
 
 import com.google.common.collect.Maps;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 /**
- * Database connection pool class using HikariCP.
+ * Database connection pool class using HikariCP.<p>
+ *
+ * Optionally, a pool can have a read only replica of the database, configured with the same keys as the pool
+ * itself below <code>db.pool.&lt;name&gt;.replica</code>, e.g. <code>db.pool.default.replica.jdbcUrl</code>.
+ * The driver, user and password of the pool are used for the replica if they are not configured for it.
+ * The replica is used for reading the online project by the connections returned by {@link #getReadConnection()},
+ * all other connections are connections to the primary database.<p>
+ *
+ * Since the replica may lag behind the primary database, all reads use the primary database while the online
+ * project is written, i.e. while a project is published, and for the consistency window configured with
+ * <code>db.pool.&lt;name&gt;.replica.consistencyWindow</code> in milliseconds afterwards, so that the caches
+ * flushed after publishing are not filled with outdated data.<p>
+ *
+ * The replica is connected to lazily on the first read, so an unreachable replica does not delay the startup.
+ * If no connection to the replica can be established, the primary database is used, and the replica is not
+ * tried again for {@link #REPLICA_RETRY_INTERVAL} milliseconds.<p>
+ *
+ * The routing statistics of each pool are available via JMX with the name {@link #MBEAN_NAME_PREFIX} followed by
+ * the pool name, the connection statistics of the underlying HikariCP pools are registered by HikariCP.<p>
  */
-public final class CmsDbPoolV11 {
+public final class CmsDbPoolV11 implements I_CmsDbPoolMXBean {
+
+    /** The default consistency window after writing the online project in milliseconds. */
+    public static final int DEFAULT_CONSISTENCY_WINDOW = 5000;
 
     /** Prefix for database keys. */
     public static final String KEY_DATABASE = "db.";
@@ -62,6 +92,9 @@ public final class CmsDbPoolV11 {
     /** Key for connection waiting. */
     public static final String KEY_CONNECT_WAITS = "wait";
 
+    /** Key for the consistency window of the replica. */
+    public static final String KEY_CONSISTENCY_WINDOW = "consistencyWindow";
+
     /** Key for the entity manager pool size. */
     public static final String KEY_ENTITY_MANAGER_POOL_SIZE = "entityMangerPoolSize";
 
@@ -86,12 +119,18 @@ public final class CmsDbPoolV11 {
     /** Key for pool user. */
     public static final String KEY_POOL_USER = "user";
 
+    /** Key for the read only replica of a pool. */
+    public static final String KEY_REPLICA = "replica";
+
     /** Key for vfs pool. */
     public static final String KEY_POOL_VFS = "vfs";
 
     /** Key for user name. */
     public static final String KEY_USERNAME = "user";
 
+    /** The prefix of the names of the pool MXBeans. */
+    public static final String MBEAN_NAME_PREFIX = "org.opencms:type=DbPool,name=";
+
     /** The name of the opencms default pool. */
     public static final String OPENCMS_DEFAULT_POOL_NAME = "default";
 
@@ -101,6 +140,12 @@ public final class CmsDbPoolV11 {
     /** The prefix used for opencms JDBC pools. */
     public static final String OPENCMS_URL_PREFIX = "opencms:";
 
+    /** The time after a failed connection to the replica in which the replica is not used, in milliseconds. */
+    public static final long REPLICA_RETRY_INTERVAL = 30000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsDbPoolV11.class);
+
     /** Map of default test queries. */
     private static Map<String, String> testQueries = Maps.newHashMap();
 
@@ -117,6 +162,33 @@ public final class CmsDbPoolV11 {
     /** The HikariCP data source. */
     private HikariDataSource m_dataSource;
 
+    /** The time after writing the online project in which the replica is not used, in milliseconds. */
+    private long m_consistencyWindow;
+
+    /** The number of reads of the online project which used the primary database because of the consistency window. */
+    private AtomicLong m_guardedReads = new AtomicLong();
+
+    /** The name of the MXBean, <code>null</code> if not registered. */
+    private ObjectName m_mbeanName;
+
+    /** The number of running writes of the online project. */
+    private AtomicInteger m_onlineWrites = new AtomicInteger();
+
+    /** The time until which the online project is read from the primary database. */
+    private volatile long m_primaryReadsUntil;
+
+    /** The HikariCP data source of the replica, <code>null</code> if no replica is configured. */
+    private HikariDataSource m_replicaDataSource;
+
+    /** The number of failed attempts to get a connection to the replica. */
+    private AtomicLong m_replicaFailures = new AtomicLong();
+
+    /** The number of reads of the online project from the replica. */
+    private AtomicLong m_replicaReads = new AtomicLong();
+
+    /** The time until which the replica is not used after a failed connection. */
+    private volatile long m_replicaRetryAfter;
+
     /**
      * Default constructor.<p>
      *
@@ -170,6 +242,26 @@ public final class CmsDbPoolV11 {
             CmsLog.INIT.info(
                 Messages.get().getBundle().key(Messages.INIT_JDBC_POOL_2, getPoolUrl(), m_dataSource.getJdbcUrl()));
         }
+
+        String replicaKey = key + '.' + KEY_REPLICA;
+        m_consistencyWindow = config.getInteger(
+            KEY_DATABASE_POOL + '.' + replicaKey + '.' + KEY_CONSISTENCY_WINDOW,
+            DEFAULT_CONSISTENCY_WINDOW);
+        String replicaUrl = config.getString(KEY_DATABASE_POOL + '.' + replicaKey + '.' + KEY_JDBC_URL, null);
+        if (!CmsStringUtil.isEmptyOrWhitespaceOnly(replicaUrl)) {
+            // the replica pool is started lazily on the first connection, so that it can not block the startup
+            m_replicaDataSource = new HikariDataSource();
+            createReplicaConfig(config, replicaKey, hikariConf).copyStateTo(m_replicaDataSource);
+            if (CmsLog.INIT.isInfoEnabled()) {
+                CmsLog.INIT.info(
+                    Messages.get().getBundle().key(
+                        Messages.INIT_JDBC_REPLICA_3,
+                        getPoolUrl(),
+                        m_replicaDataSource.getJdbcUrl(),
+                        Long.valueOf(m_consistencyWindow)));
+            }
+        }
+        registerMBean(key);
     }
 
     /**
@@ -277,9 +369,32 @@ public final class CmsDbPoolV11 {
      */
     public void close() throws Exception {
 
+        if (m_mbeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(m_mbeanName);
+            } catch (Exception e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+            m_mbeanName = null;
+        }
+        if (m_replicaDataSource != null) {
+            m_replicaDataSource.close();
+        }
         m_dataSource.close();
     }
 
+    /**
+     * Finishes a write of the online project, started with {@link #startOnlineWrite()}.<p>
+     *
+     * The replica is used again when no other write is running and the consistency window has passed.<p>
+     */
+    public void finishOnlineWrite() {
+
+        // set the end of the window first, so that there is no gap before the replica is used again
+        m_primaryReadsUntil = System.currentTimeMillis() + m_consistencyWindow;
+        m_onlineWrites.decrementAndGet();
+    }
+
     /**
      * Returns the number of active connections.<p>
      *
@@ -301,6 +416,22 @@ public final class CmsDbPoolV11 {
         return m_dataSource.getConnection();
     }
 
+    /**
+     * @see org.opencms.db.I_CmsDbPoolMXBean#getConsistencyWindow()
+     */
+    public long getConsistencyWindow() {
+
+        return m_consistencyWindow;
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsDbPoolMXBean#getGuardedReadCount()
+     */
+    public long getGuardedReadCount() {
+
+        return m_guardedReads.get();
+    }
+
     /**
      * Gets the number of idle connections.<p>
      *
@@ -320,4 +451,161 @@ public final class CmsDbPoolV11 {
 
         return m_poolUrl;
     }
+
+    /**
+     * Gets a database connection for reading the online project.<p>
+     *
+     * This is a connection to the replica, if a replica is configured and the online project has not been written
+     * recently, and a connection to the primary database otherwise. If no connection to the replica can be
+     * established, a connection to the primary database is returned, and the replica is not used for
+     * {@link #REPLICA_RETRY_INTERVAL} milliseconds.<p>
+     *
+     * @return the database connection
+     * @throws SQLException if something goes wrong
+     */
+    public Connection getReadConnection() throws SQLException {
+
+        if (m_replicaDataSource == null) {
+            return m_dataSource.getConnection();
+        }
+        if (isConsistencyGuardActive()) {
+            m_guardedReads.incrementAndGet();
+            return m_dataSource.getConnection();
+        }
+        if (System.currentTimeMillis() < m_replicaRetryAfter) {
+            return m_dataSource.getConnection();
+        }
+        try {
+            Connection con = m_replicaDataSource.getConnection();
+            m_replicaReads.incrementAndGet();
+            return con;
+        } catch (SQLException | RuntimeException e) {
+            // a RuntimeException is thrown by HikariCP if the lazily started replica pool can not be initialized
+            m_replicaRetryAfter = System.currentTimeMillis() + REPLICA_RETRY_INTERVAL;
+            m_replicaFailures.incrementAndGet();
+            LOG.warn(
+                Messages.get().getBundle().key(Messages.LOG_REPLICA_CONNECTION_FAILED_1, getPoolUrl()),
+                e);
+            return m_dataSource.getConnection();
+        }
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsDbPoolMXBean#getReplicaActiveConnections()
+     */
+    public int getReplicaActiveConnections() {
+
+        HikariPoolMXBean replicaPool = getReplicaPool();
+        return replicaPool != null ? replicaPool.getActiveConnections() : 0;
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsDbPoolMXBean#getReplicaFailureCount()
+     */
+    public long getReplicaFailureCount() {
+
+        return m_replicaFailures.get();
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsDbPoolMXBean#getReplicaIdleConnections()
+     */
+    public int getReplicaIdleConnections() {
+
+        HikariPoolMXBean replicaPool = getReplicaPool();
+        return replicaPool != null ? replicaPool.getIdleConnections() : 0;
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsDbPoolMXBean#getReplicaReadCount()
+     */
+    public long getReplicaReadCount() {
+
+        return m_replicaReads.get();
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsDbPoolMXBean#isConsistencyGuardActive()
+     */
+    public boolean isConsistencyGuardActive() {
+
+        return (m_onlineWrites.get() > 0) || (System.currentTimeMillis() < m_primaryReadsUntil);
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsDbPoolMXBean#isReplicaConfigured()
+     */
+    public boolean isReplicaConfigured() {
+
+        return m_replicaDataSource != null;
+    }
+
+    /**
+     * Starts a write of the online project, e.g. publishing a project.<p>
+     *
+     * Until the write is finished with {@link #finishOnlineWrite()}, all reads use the primary database.<p>
+     */
+    public void startOnlineWrite() {
+
+        m_onlineWrites.incrementAndGet();
+    }
+
+    /**
+     * Creates the HikariCP configuration of the replica of a pool.<p>
+     *
+     * @param config the configuration object with the properties
+     * @param replicaKey the name of the replica (without the opencms prefix)
+     * @param primaryConf the HikariCP configuration of the pool
+     *
+     * @return the HikariCP configuration for the replica
+     */
+    private static HikariConfig createReplicaConfig(
+        CmsParameterConfiguration config,
+        String replicaKey,
+        HikariConfig primaryConf) {
+
+        HikariConfig result = createHikariConfig(config, replicaKey);
+        if (result.getDriverClassName() == null) {
+            result.setDriverClassName(primaryConf.getDriverClassName());
+        }
+        if (result.getUsername() == null) {
+            result.setUsername(primaryConf.getUsername());
+            result.setPassword(primaryConf.getPassword());
+        }
+        result.setReadOnly(true);
+        return result;
+    }
+
+    /**
+     * Returns the HikariCP pool of the replica.<p>
+     *
+     * @return the pool of the replica, or <code>null</code> if no replica is configured or it has not been started yet
+     */
+    private HikariPoolMXBean getReplicaPool() {
+
+        return m_replicaDataSource != null ? m_replicaDataSource.getHikariPoolMXBean() : null;
+    }
+
+    /**
+     * Registers this pool as MXBean.<p>
+     *
+     * @param key the name of the pool (without the opencms: prefix)
+     */
+    private void registerMBean(String key) {
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME_PREFIX + key);
+            if (server.isRegistered(name)) {
+                // registered by a previous deployment of the web application
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            m_mbeanName = name;
+        } catch (Exception e) {
+            LOG.error(
+                Messages.get().getBundle().key(Messages.LOG_REGISTER_POOL_MBEAN_FAILED_1, MBEAN_NAME_PREFIX + key),
+                e);
+        }
+    }
 }
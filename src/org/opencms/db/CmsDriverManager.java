@@ -37,6 +37,7 @@ import org.opencms.db.log.CmsLogEntryType;
 import org.opencms.db.log.CmsLogFilter;
 import org.opencms.db.timing.CmsDefaultProfilingHandler;
 import org.opencms.db.timing.CmsProfilingInvocationHandler;
+import org.opencms.db.timing.CmsRequestProfilingHandler;
 import org.opencms.db.urlname.CmsUrlNameMappingEntry;
 import org.opencms.db.urlname.CmsUrlNameMappingFilter;
 import org.opencms.file.CmsDataAccessException;
@@ -242,6 +243,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** "driver.vfs" string in the configuration-file. */
     public static final String CONFIGURATION_VFS = "driver.vfs";
 
+    /** The number of resources for which the historical versions are deleted together when pruning the history. */
+    public static final int HISTORY_PRUNE_CHUNK_SIZE = 500;
+
     /** DBC attribute key needed to fix publishing behavior involving siblings. */
     public static final String KEY_CHANGED_AND_DELETED = "changedAndDeleted";
 
@@ -335,6 +339,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Constant mode parameter to read all files and folders in the {@link #readChangedResourcesInsideProject(CmsDbContext, CmsUUID, CmsReadChangedProjectResourceMode)}} method. */
     private static final CmsReadChangedProjectResourceMode RCPRM_FOLDERS_ONLY_MODE = new CmsReadChangedProjectResourceMode();
 
+    /** The store for large file contents. */
+    private CmsContentStore m_contentStore = CmsContentStore.DISABLED;
+
     /** The history driver. */
     private I_CmsHistoryDriver m_historyDriver;
 
@@ -347,8 +354,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** The lock manager. */
     private CmsLockManager m_lockManager;
 
-    /** The log entry cache. */
-    private List<CmsLogEntry> m_log = new ArrayList<CmsLogEntry>();
+    /** The queue for the log entries which have not been written to the database yet. */
+    private CmsLogWriter m_logWriter = new CmsLogWriter(
+        CmsLogWriter.DEFAULT_BATCH_SIZE,
+        CmsLogWriter.DEFAULT_CAPACITY,
+        CmsLogWriter.DEFAULT_FLUSH_INTERVAL);
 
     /** Local reference to the memory monitor to avoid multiple lookups through the OpenCms singleton. */
     private CmsMemoryMonitor m_monitor;
@@ -454,6 +464,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
         // set the publish engine
         driverManager.m_publishEngine = publishEngine;
 
+        // set the content store, must be available before the drivers are initialized
+        driverManager.m_contentStore = CmsContentStore.create(config);
+
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_DRIVER_MANAGER_START_PHASE2_0));
         }
@@ -533,6 +546,20 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
         dbc.clear();
 
+        // start writing the log entries in the background
+        driverManager.m_logWriter = new CmsLogWriter(
+            config.getInteger(CmsLogWriter.PARAM_BATCH_SIZE, CmsLogWriter.DEFAULT_BATCH_SIZE),
+            config.getInteger(CmsLogWriter.PARAM_CAPACITY, CmsLogWriter.DEFAULT_CAPACITY),
+            config.getInteger(CmsLogWriter.PARAM_FLUSH_INTERVAL, (int)CmsLogWriter.DEFAULT_FLUSH_INTERVAL));
+        final CmsSecurityManager finalSecurityManager = securityManager;
+        driverManager.m_logWriter.start(new CmsLogWriter.I_CmsLogFlushAction() {
+
+            public void flush() throws Exception {
+
+                finalSecurityManager.updateLog();
+            }
+        });
+
         // register the driver manager for required events
         org.opencms.main.OpenCms.addCmsEventListener(
             driverManager,
@@ -1630,6 +1657,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
         if (resource.isFolder()) {
             resourcePath = CmsFileUtil.addTrailingSeparator(resourcePath);
         }
+        // during a bulk import, the permissions have been checked once for the whole import
+        CmsBulkImportContext bulkImport = importCase ? CmsBulkImportContext.get(dbc) : null;
 
         try {
             synchronized (this) {
@@ -1649,7 +1678,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                                 dbc.removeSiteRoot(resourcePath)));
                     }
                 }
-                if (CmsResourceTypeJsp.isJsp(resource)) {
+                if (CmsResourceTypeJsp.isJsp(resource) && (bulkImport == null)) {
                     // security check when trying to create a new jsp file
                     m_securityManager.checkRoleForResource(dbc, CmsRole.VFS_MANAGER, parentFolder);
                 }
@@ -1685,7 +1714,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 }
 
                 // check the permissions
-                if (currentResourceByName == null) {
+                if (bulkImport != null) {
+                    // already checked
+                } else if (currentResourceByName == null) {
                     // resource does not exist - check parent folder
                     m_securityManager.checkPermissions(
                         dbc,
@@ -1930,16 +1961,26 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 }
             }
         } finally {
-            // clear the internal caches
-            m_monitor.clearAccessControlListCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            if (bulkImport != null) {
+                // caches are flushed and events are fired once for each chunk of the bulk import
+                if (newResource != null) {
+                    bulkImport.addResource(newResource);
+                    if (bulkImport.isChunkFull()) {
+                        flushBulkImport(dbc, bulkImport);
+                    }
+                }
+            } else {
+                // clear the internal caches
+                m_monitor.clearAccessControlListCache();
+                m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
 
-            if (newResource != null) {
-                // fire an event that a new resource has been created
-                OpenCms.fireCmsEvent(
-                    new CmsEvent(
-                        I_CmsEventListener.EVENT_RESOURCE_CREATED,
-                        Collections.<String, Object> singletonMap(I_CmsEventListener.KEY_RESOURCE, newResource)));
+                if (newResource != null) {
+                    // fire an event that a new resource has been created
+                    OpenCms.fireCmsEvent(
+                        new CmsEvent(
+                            I_CmsEventListener.EVENT_RESOURCE_CREATED,
+                            Collections.<String, Object> singletonMap(I_CmsEventListener.KEY_RESOURCE, newResource)));
+                }
             }
         }
         return newResource;
@@ -3048,6 +3089,13 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         }
 
+        CmsBulkDeleteContext bulkDelete = CmsBulkDeleteContext.get(dbc);
+        if (bulkDelete != null) {
+            // the caches are flushed and the event is fired once when the bulk delete is finished
+            bulkDelete.addResources(resources);
+            return;
+        }
+
         // flush all caches
         m_monitor.clearAccessControlListCache();
         m_monitor.flushCache(
@@ -3174,6 +3222,18 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public void destroy() {
 
         try {
+            // stop the background log writer and write the remaining entries
+            m_logWriter.shutDown();
+            if ((m_projectDriver != null) && !m_logWriter.isEmpty()) {
+                CmsDbContext dbc = new CmsDbContext();
+                try {
+                    updateLog(dbc);
+                } catch (Throwable t) {
+                    LOG.error(t.getLocalizedMessage(), t);
+                } finally {
+                    dbc.clear();
+                }
+            }
             if (m_projectDriver != null) {
                 try {
                     m_projectDriver.destroy();
@@ -3388,6 +3448,49 @@ public final class CmsDriverManager implements I_CmsEventListener {
         publishList.initialize();
     }
 
+    /**
+     * Finishes a bulk delete.<p>
+     *
+     * Flushes the caches and fires a single {@link I_CmsEventListener#EVENT_RESOURCE_DELETED} event
+     * for all deleted resources.<p>
+     *
+     * @param dbc the current database context
+     * @param bulkDelete the bulk delete context
+     */
+    public void finishBulkDelete(CmsDbContext dbc, CmsBulkDeleteContext bulkDelete) {
+
+        if (bulkDelete.getResources().isEmpty()) {
+            return;
+        }
+        m_monitor.clearAccessControlListCache();
+        m_monitor.flushCache(
+            CmsMemoryMonitor.CacheType.PROPERTY,
+            CmsMemoryMonitor.CacheType.PROPERTY_LIST,
+            CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
+
+        Map<String, Object> eventData = new HashMap<String, Object>();
+        eventData.put(I_CmsEventListener.KEY_RESOURCES, new ArrayList<CmsResource>(bulkDelete.getResources()));
+        eventData.put(I_CmsEventListener.KEY_DBCONTEXT, dbc);
+        OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_DELETED, eventData));
+    }
+
+    /**
+     * Finishes a bulk import.<p>
+     *
+     * Writes the pending access control entries, flushes the caches and fires a single
+     * {@link I_CmsEventListener#EVENT_RESOURCES_AND_PROPERTIES_MODIFIED} event for the resources imported since
+     * the last chunk was flushed.<p>
+     *
+     * @param dbc the current database context
+     * @param bulkImport the bulk import context
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void finishBulkImport(CmsDbContext dbc, CmsBulkImportContext bulkImport) throws CmsException {
+
+        flushBulkImport(dbc, bulkImport);
+    }
+
     /**
      * Returns the list of access control entries of a resource given its name.<p>
      *
@@ -3816,6 +3919,16 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return new ArrayList<CmsGroup>(allChildren);
     }
 
+    /**
+     * Returns the store for large file contents.<p>
+     *
+     * @return the content store
+     */
+    public CmsContentStore getContentStore() {
+
+        return m_contentStore;
+    }
+
     /**
      * Returns the date when the resource was last visited by the user.<p>
      *
@@ -4167,6 +4280,16 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return m_projectDriver.readLog(dbc, filter);
     }
 
+    /**
+     * Returns the writer used for the log entries which have not been written to the database yet.<p>
+     *
+     * @return the log writer
+     */
+    public CmsLogWriter getLogWriter() {
+
+        return m_logWriter;
+    }
+
     /**
      * Returns the next publish tag for the published historical resources.<p>
      *
@@ -4990,8 +5113,6 @@ public final class CmsDriverManager implements I_CmsEventListener {
         List<CmsAccessControlEntry> acEntries)
     throws CmsException {
 
-        I_CmsUserDriver userDriver = getUserDriver(dbc);
-        userDriver.removeAccessControlEntries(dbc, dbc.currentProject(), resource.getResourceId());
         List<CmsAccessControlEntry> fixedAces = new ArrayList<>();
         for (CmsAccessControlEntry entry : acEntries) {
             if (entry.getResource() == null) {
@@ -5003,7 +5124,18 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
             fixedAces.add(entry);
         }
+        CmsBulkImportContext bulkImport = CmsBulkImportContext.get(dbc);
+        if (bulkImport != null) {
+            // written in batches, the cache is cleared at the end of the bulk import
+            bulkImport.addAccessControlEntries(resource.getResourceId(), fixedAces);
+            if (bulkImport.isBatchFull()) {
+                writeBulkAccessControlEntries(dbc, bulkImport);
+            }
+            return;
+        }
 
+        I_CmsUserDriver userDriver = getUserDriver(dbc);
+        userDriver.removeAccessControlEntries(dbc, dbc.currentProject(), resource.getResourceId());
         Iterator<CmsAccessControlEntry> i = fixedAces.iterator();
         while (i.hasNext()) {
             userDriver.writeAccessControlEntry(dbc, dbc.currentProject(), i.next());
@@ -5011,6 +5143,36 @@ public final class CmsDriverManager implements I_CmsEventListener {
         m_monitor.clearAccessControlListCache();
     }
 
+    /**
+     * Imports the given relations in JDBC batches.<p>
+     *
+     * Relations which are defined in the content of the source resource are skipped.<p>
+     *
+     * @param dbc the current database context
+     * @param relations the relations to import
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void importRelations(CmsDbContext dbc, List<CmsRelation> relations) throws CmsException {
+
+        List<CmsRelation> validRelations = new ArrayList<CmsRelation>(relations.size());
+        for (CmsRelation relation : relations) {
+            if (relation.getType().isDefinedInContent()) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn(
+                        Messages.get().getBundle().key(
+                            Messages.ERR_ADD_RELATION_IN_CONTENT_3,
+                            relation.getSourcePath(),
+                            relation.getTargetPath(),
+                            relation.getType().getName()));
+                }
+                continue;
+            }
+            validRelations.add(relation);
+        }
+        getVfsDriver(dbc).createRelations(dbc, dbc.currentProject().getUuid(), validRelations);
+    }
+
     /**
      * Imports a rewrite alias.<p>
      *
@@ -5435,8 +5597,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /**
      * Adds the given log entry to the current user's log.<p>
      *
-     * This operation works only on memory, to get the log entries actually
-     * written to DB you have to call the {@link #updateLog(CmsDbContext)} method.<p>
+     * This operation works only on memory, the log entries are written to the DB
+     * asynchronously by the {@link CmsLogWriter}. To get the log entries actually
+     * written to DB immediately you have to call the {@link #updateLog(CmsDbContext)} method.<p>
      *
      * @param dbc the current database context
      * @param logEntry the log entry to create
@@ -5466,7 +5629,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
         // prevent several entries for the same operation
         dbc.setAttribute(CmsLogEntry.ATTR_LOG_ENTRY, Boolean.TRUE);
         // keep it for later
-        m_log.add(logEntry);
+        if (!m_logWriter.add(logEntry)) {
+            // the background writer can not keep up, write the entries in the current thread
+            try {
+                updateLog(dbc);
+            } catch (CmsDataAccessException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
     }
 
     /**
@@ -5707,6 +5877,21 @@ public final class CmsDriverManager implements I_CmsEventListener {
         getSubscriptionDriver().markResourceAsVisitedBy(dbc, poolName, resource, user);
     }
 
+    /**
+     * Marks the given resources as visited.<p>
+     *
+     * @param dbc the database context
+     * @param poolName the name of the database pool to use
+     * @param visits the visits to write, at most one per user and resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void markResourcesAsVisited(CmsDbContext dbc, String poolName, List<CmsVisitEntry> visits)
+    throws CmsException {
+
+        getSubscriptionDriver().markResourcesAsVisited(dbc, poolName, visits);
+    }
+
     /**
      * Moves a resource.<p>
      *
@@ -6033,9 +6218,76 @@ public final class CmsDriverManager implements I_CmsEventListener {
         addPool(pool);
     }
 
+    /**
+     * Deletes the versions from the history tables like
+     * {@link #deleteHistoricalVersions(CmsDbContext, int, int, long, I_CmsReport)}, but with set based queries.<p>
+     *
+     * The versions to delete are computed for all resources with grouped queries, and are then deleted with
+     * batched statements in chunks of {@link #HISTORY_PRUNE_CHUNK_SIZE} resources. The progress is reported
+     * after each chunk. In a dry run, the versions to delete are only counted.<p>
+     *
+     * @param dbc the current database context
+     * @param versionsToKeep number of versions to keep, is ignored if negative
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param dryRun <code>true</code> to only count the versions to delete
+     * @param report the report for output logging
+     *
+     * @return the number of deleted versions, or the number of versions to delete in a dry run
+     *
+     * @throws CmsException if operation was not successful
+     */
+    public int pruneHistoricalVersions(
+        CmsDbContext dbc,
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        boolean dryRun,
+        I_CmsReport report)
+    throws CmsException {
+
+        int result = 0;
+        report.println(Messages.get().container(Messages.RPT_START_DELETE_VERSIONS_0), I_CmsReport.FORMAT_HEADLINE);
+        if (dryRun) {
+            report.println(Messages.get().container(Messages.RPT_PRUNE_VERSIONS_DRY_RUN_0), I_CmsReport.FORMAT_NOTE);
+        }
+        if (versionsToKeep >= 0) {
+            report.println(
+                Messages.get().container(Messages.RPT_START_DELETE_ACT_VERSIONS_1, new Integer(versionsToKeep)),
+                I_CmsReport.FORMAT_HEADLINE);
+            result += pruneHistoryEntries(dbc, false, versionsToKeep, -1, dryRun, report);
+            report.println(
+                Messages.get().container(Messages.RPT_END_DELETE_ACT_VERSIONS_0),
+                I_CmsReport.FORMAT_HEADLINE);
+        }
+        if ((versionsDeleted >= 0) || (timeDeleted >= 0)) {
+            if (timeDeleted >= 0) {
+                report.println(
+                    Messages.get().container(
+                        Messages.RPT_START_DELETE_DEL_VERSIONS_2,
+                        new Integer(versionsDeleted),
+                        new Date(timeDeleted)),
+                    I_CmsReport.FORMAT_HEADLINE);
+            } else {
+                report.println(
+                    Messages.get().container(Messages.RPT_START_DELETE_DEL_VERSIONS_1, new Integer(versionsDeleted)),
+                    I_CmsReport.FORMAT_HEADLINE);
+            }
+            result += pruneHistoryEntries(dbc, true, versionsDeleted, timeDeleted, dryRun, report);
+            report.println(
+                Messages.get().container(Messages.RPT_END_DELETE_DEL_VERSIONS_0),
+                I_CmsReport.FORMAT_HEADLINE);
+        }
+        report.println(Messages.get().container(Messages.RPT_END_DELETE_VERSIONS_0), I_CmsReport.FORMAT_HEADLINE);
+        return result;
+    }
+
     /**
      * Publishes the given publish job.<p>
      *
+     * While the job is running, the online project is read from the primary databases of the pools,
+     * see {@link CmsDbPoolV11#startOnlineWrite()}.<p>
+     *
      * @param cms the cms context
      * @param dbc the db context
      * @param publishList the list of resources to publish
@@ -6046,6 +6298,10 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public void publishJob(CmsObject cms, CmsDbContext dbc, CmsPublishList publishList, I_CmsReport report)
     throws CmsException {
 
+        // read the online project from the primary databases until the replicas have caught up
+        for (CmsDbPoolV11 pool : m_pools.values()) {
+            pool.startOnlineWrite();
+        }
         try {
             // check state and lock
             List<CmsResource> allResources = new ArrayList<CmsResource>(publishList.getFolderList());
@@ -6120,6 +6376,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
         } finally {
             // clear the cache again
             m_monitor.clearCache();
+            for (CmsDbPoolV11 pool : m_pools.values()) {
+                pool.finishOnlineWrite();
+            }
         }
     }
 
@@ -7516,6 +7775,67 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return new ArrayList<CmsProperty>(properties);
     }
 
+    /**
+     * Reads all property objects of the given resources.<p>
+     *
+     * The properties directly attached to resources which are not found in the property cache are
+     * read with a single database query, so reading the properties of many resources (e.g. of all
+     * entries of a navigation level) does not cause one round trip per resource.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources where the properties are read from
+     * @param search true, if the properties should be searched on all parent folders  if not found on the resource
+     *
+     * @return the lists of properties (as returned by {@link #readPropertyObjects(CmsDbContext, CmsResource, boolean)})
+     *      by structure id of the resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        Collection<CmsResource> resources,
+        boolean search)
+    throws CmsException {
+
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        boolean useCache = dbc.getProjectId().isNullUUID();
+
+        // collect the resources where the attached properties are not cached yet
+        List<CmsResource> missing = new ArrayList<CmsResource>();
+        for (CmsResource resource : resources) {
+            if (!useCache
+                || (m_monitor.getCachedPropertyList(
+                    getCacheKey(CACHE_ALL_PROPERTIES, false, projectId, resource.getRootPath())) == null)) {
+                missing.add(resource);
+            }
+        }
+        Map<CmsUUID, List<CmsProperty>> attached = Collections.emptyMap();
+        if (!missing.isEmpty()) {
+            attached = getVfsDriver(dbc).readPropertyObjects(dbc, dbc.currentProject(), missing);
+            for (CmsResource resource : missing) {
+                List<CmsProperty> properties = attached.get(resource.getStructureId());
+                CmsProperty.setFrozen(properties);
+                if (useCache) {
+                    m_monitor.cachePropertyList(
+                        getCacheKey(CACHE_ALL_PROPERTIES, false, projectId, resource.getRootPath()),
+                        properties);
+                }
+            }
+        }
+
+        Map<CmsUUID, List<CmsProperty>> result = new HashMap<CmsUUID, List<CmsProperty>>();
+        for (CmsResource resource : resources) {
+            List<CmsProperty> properties = search ? null : attached.get(resource.getStructureId());
+            if (properties != null) {
+                result.put(resource.getStructureId(), new ArrayList<CmsProperty>(properties));
+            } else {
+                // either cached, or the parent folders have to be searched
+                result.put(resource.getStructureId(), readPropertyObjects(dbc, resource, search));
+            }
+        }
+        return result;
+    }
+
     /**
      * Reads the resources that were published in a publish task for a given publish history ID.<p>
      *
@@ -7685,6 +8005,61 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return resource;
     }
 
+    /**
+     * Reads a batch of the resources below the given path matching the filter criteria.<p>
+     *
+     * The resources are read in the order of their root paths. Unlike
+     * {@link #readResources(CmsDbContext, CmsResource, CmsResourceFilter, boolean)}, the result is not cached,
+     * so that large subtrees can be processed batch by batch with constant memory.<p>
+     *
+     * @param dbc the current database context
+     * @param parent the parent folder
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all subresources
+     * @param after the position returned for the previous batch, or <code>null</code> to read the first batch
+     * @param batchSize the number of resources to read from the database
+     * @param result the list to which the resources matching the filter and readable by the current user are added
+     *
+     * @return the position to pass as <code>after</code> for reading the next batch,
+     *      or <code>null</code> if there are no more resources
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public CmsResource readResourceBatch(
+        CmsDbContext dbc,
+        CmsResource parent,
+        CmsResourceFilter filter,
+        boolean readTree,
+        CmsResource after,
+        int batchSize,
+        List<CmsResource> result)
+    throws CmsException {
+
+        List<CmsResource> resourceList = getVfsDriver(dbc).readResourceTree(
+            dbc,
+            dbc.currentProject().getUuid(),
+            (readTree ? parent.getRootPath() : parent.getStructureId().toString()),
+            filter.getType(),
+            filter.getState(),
+            filter.getModifiedAfter(),
+            filter.getModifiedBefore(),
+            filter.getReleaseAfter(),
+            filter.getReleaseBefore(),
+            filter.getExpireAfter(),
+            filter.getExpireBefore(),
+            getReadMode(filter, readTree),
+            after,
+            batchSize);
+        CmsResource position = resourceList.size() < batchSize ? null : resourceList.get(resourceList.size() - 1);
+        // HACK: do not take care of permissions if reading organizational units
+        if (!parent.getRootPath().startsWith("/system/orgunits/")) {
+            // apply permission filter
+            resourceList = filterPermissions(dbc, resourceList, filter);
+        }
+        result.addAll(updateContextDates(dbc, resourceList, filter));
+        return position;
+    }
+
     /**
      * Reads all resources below the given path matching the filter criteria,
      * including the full tree below the path only in case the <code>readTree</code>
@@ -7727,14 +8102,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 filter.getReleaseBefore(),
                 filter.getExpireAfter(),
                 filter.getExpireBefore(),
-                (readTree ? CmsDriverManager.READMODE_INCLUDE_TREE : CmsDriverManager.READMODE_EXCLUDE_TREE)
-                    | (filter.excludeType() ? CmsDriverManager.READMODE_EXCLUDE_TYPE : 0)
-                    | (filter.excludeState() ? CmsDriverManager.READMODE_EXCLUDE_STATE : 0)
-                    | ((filter.getOnlyFolders() != null)
-                    ? (filter.getOnlyFolders().booleanValue()
-                    ? CmsDriverManager.READMODE_ONLY_FOLDERS
-                    : CmsDriverManager.READMODE_ONLY_FILES)
-                    : 0));
+                getReadMode(filter, readTree));
 
             // HACK: do not take care of permissions if reading organizational units
             if (!parent.getRootPath().startsWith("/system/orgunits/")) {
@@ -7750,6 +8118,39 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * All resources are read with as few database round trips as possible. Ids of missing resources,
+     * resources not matching the filter and resources the current user has no read permissions for
+     * are skipped.<p>
+     *
+     * @param dbc the current database context
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in the order of the given structure ids
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(
+        CmsDbContext dbc,
+        Collection<CmsUUID> structureIds,
+        CmsResourceFilter filter)
+    throws CmsException {
+
+        if (structureIds.isEmpty()) {
+            return new ArrayList<CmsResource>();
+        }
+        List<CmsResource> resourceList = getVfsDriver(dbc).readResources(
+            dbc,
+            getProjectIdForContext(dbc),
+            structureIds,
+            filter.includeDeleted());
+        resourceList = filterPermissions(dbc, resourceList, filter);
+        return updateContextDates(dbc, resourceList, filter);
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -9436,22 +9837,31 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         synchronized (m_publishListUpdateLock) {
 
-            if (m_log.isEmpty()) {
+            if (m_logWriter.isEmpty()) {
                 return;
             }
 
-            List<CmsLogEntry> log = new ArrayList<CmsLogEntry>(m_log);
-            m_log.clear();
-            String logTableEnabledStr = (String)OpenCms.getRuntimeProperty(PARAM_LOG_TABLE_ENABLED);
-            if (Boolean.parseBoolean(logTableEnabledStr)) { // defaults to 'false' if value not set
-                m_projectDriver.log(dbc, log);
+            List<CmsLogEntry> log = m_logWriter.drain();
+            if (log.isEmpty()) {
+                return;
             }
             CmsLogToPublishListChangeConverter converter = new CmsLogToPublishListChangeConverter();
             for (CmsLogEntry entry : log) {
                 converter.add(entry);
             }
-            m_projectDriver.deleteUserPublishListEntries(dbc, converter.getPublishListDeletions());
-            m_projectDriver.writeUserPublishListEntries(dbc, converter.getPublishListAdditions());
+            try {
+                // writing the publish list entries can be repeated, since existing entries are replaced
+                m_projectDriver.deleteUserPublishListEntries(dbc, converter.getPublishListDeletions());
+                m_projectDriver.writeUserPublishListEntries(dbc, converter.getPublishListAdditions());
+            } catch (CmsDataAccessException e) {
+                m_logWriter.requeue(log);
+                throw e;
+            }
+            String logTableEnabledStr = (String)OpenCms.getRuntimeProperty(PARAM_LOG_TABLE_ENABLED);
+            if (Boolean.parseBoolean(logTableEnabledStr)) { // defaults to 'false' if value not set
+                // not queued again if this fails, since the rows written before the error would be duplicated
+                m_projectDriver.log(dbc, log);
+            }
         }
     }
 
@@ -10335,7 +10745,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             CmsLog.INIT.error(Messages.get().getBundle().key(Messages.INIT_DRIVER_FAILED_1, driverKey));
         }
         Object result = newDriverInstance(dbc, configManager, driverName, drivers);
-        if ("true".equalsIgnoreCase(System.getProperty("opencms.profile.drivers"))) {
+        if ("true".equalsIgnoreCase(System.getProperty("opencms.profile.drivers"))
+            || CmsRequestProfilingHandler.isEnabled()) {
             result = wrapDriverInProfilingProxy(result);
         }
         return result;
@@ -11240,6 +11651,26 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return projectId;
     }
 
+    /**
+     * Returns the read mode flags for reading resources with the given filter.<p>
+     *
+     * @param filter the resource filter
+     * @param readTree <code>true</code> to read all subresources
+     *
+     * @return the read mode flags
+     */
+    private int getReadMode(CmsResourceFilter filter, boolean readTree) {
+
+        return (readTree ? CmsDriverManager.READMODE_INCLUDE_TREE : CmsDriverManager.READMODE_EXCLUDE_TREE)
+            | (filter.excludeType() ? CmsDriverManager.READMODE_EXCLUDE_TYPE : 0)
+            | (filter.excludeState() ? CmsDriverManager.READMODE_EXCLUDE_STATE : 0)
+            | ((filter.getOnlyFolders() != null)
+            ? (filter.getOnlyFolders().booleanValue()
+            ? CmsDriverManager.READMODE_ONLY_FOLDERS
+            : CmsDriverManager.READMODE_ONLY_FILES)
+            : 0);
+    }
+
     /**
      * Returns if and what state needs to be updated.<p>
      *
@@ -11454,6 +11885,77 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return allUsers;
     }
 
+    /**
+     * Deletes the historical versions of either the existing or the deleted resources in chunks.<p>
+     *
+     * @param dbc the current database context
+     * @param deleted <code>true</code> to delete the versions of deleted resources
+     * @param versionsToKeep number of versions to keep, is ignored if negative
+     * @param time versions published before this time will also be deleted, is ignored if negative
+     * @param dryRun <code>true</code> to only count the versions to delete
+     * @param report the report for output logging
+     *
+     * @return the number of deleted versions, or the number of versions to delete in a dry run
+     *
+     * @throws CmsException if reading the versions to delete fails
+     */
+    private int pruneHistoryEntries(
+        CmsDbContext dbc,
+        boolean deleted,
+        int versionsToKeep,
+        long time,
+        boolean dryRun,
+        I_CmsReport report)
+    throws CmsException {
+
+        List<CmsHistoryPruneCandidate> candidates = getHistoryDriver(dbc).readPruneCandidates(
+            dbc,
+            deleted,
+            versionsToKeep,
+            time);
+        if (candidates.isEmpty()) {
+            report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
+            return 0;
+        }
+        int versions = 0;
+        for (CmsHistoryPruneCandidate candidate : candidates) {
+            versions += candidate.getVersions();
+        }
+        report.println(
+            Messages.get().container(
+                Messages.RPT_PRUNE_VERSIONS_FOUND_2,
+                Integer.valueOf(versions),
+                Integer.valueOf(candidates.size())),
+            I_CmsReport.FORMAT_NOTE);
+        if (dryRun) {
+            return versions;
+        }
+
+        int result = 0;
+        for (int start = 0; start < candidates.size(); start += HISTORY_PRUNE_CHUNK_SIZE) {
+            List<CmsHistoryPruneCandidate> chunk = candidates.subList(
+                start,
+                Math.min(candidates.size(), start + HISTORY_PRUNE_CHUNK_SIZE));
+            try {
+                result += getHistoryDriver(dbc).deleteEntries(dbc, chunk);
+                report.println(
+                    Messages.get().container(
+                        Messages.RPT_PRUNE_VERSIONS_PROGRESS_3,
+                        Integer.valueOf(start + chunk.size()),
+                        Integer.valueOf(candidates.size()),
+                        Integer.valueOf(result)),
+                    I_CmsReport.FORMAT_DEFAULT);
+            } catch (CmsDataAccessException e) {
+                // continue with the next chunk, the versions of this chunk are deleted by the next run
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
+                    I_CmsReport.FORMAT_ERROR);
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+        return result;
+    }
+
     /**
      * Reads all resources that are inside and changed in a specified project.<p>
      *
@@ -11993,4 +12495,60 @@ public final class CmsDriverManager implements I_CmsEventListener {
             new CmsProfilingInvocationHandler(newDriverInstance, CmsDefaultProfilingHandler.INSTANCE));
     }
 
+    /**
+     * Flushes a chunk of a bulk import.<p>
+     *
+     * Writes the pending access control entries, flushes the caches and fires a single
+     * {@link I_CmsEventListener#EVENT_RESOURCES_AND_PROPERTIES_MODIFIED} event for the resources imported since
+     * the last flush, which are then removed from the bulk import context.<p>
+     *
+     * @param dbc the current database context
+     * @param bulkImport the bulk import context
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private void flushBulkImport(CmsDbContext dbc, CmsBulkImportContext bulkImport) throws CmsException {
+
+        try {
+            writeBulkAccessControlEntries(dbc, bulkImport);
+        } finally {
+            m_monitor.clearAccessControlListCache();
+            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            if (!bulkImport.getResources().isEmpty()) {
+                OpenCms.fireCmsEvent(
+                    new CmsEvent(
+                        I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED,
+                        Collections.<String, Object> singletonMap(
+                            I_CmsEventListener.KEY_RESOURCES,
+                            new ArrayList<CmsResource>(bulkImport.getResources()))));
+                bulkImport.resetResources();
+            }
+        }
+    }
+
+    /**
+     * Writes the pending access control entries of a bulk import.<p>
+     *
+     * @param dbc the current database context
+     * @param bulkImport the bulk import context
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private void writeBulkAccessControlEntries(CmsDbContext dbc, CmsBulkImportContext bulkImport)
+    throws CmsException {
+
+        if (bulkImport.getAccessControlEntryResourceIds().isEmpty()) {
+            return;
+        }
+        try {
+            getUserDriver(dbc).replaceAccessControlEntries(
+                dbc,
+                dbc.currentProject(),
+                bulkImport.getAccessControlEntryResourceIds(),
+                bulkImport.getAccessControlEntries());
+        } finally {
+            bulkImport.resetAccessControlEntries();
+        }
+    }
+
 }
@@ -0,0 +1,113 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.util.CmsUUID;
+
+/**
+ * The historical versions of a resource which are deleted when the history is pruned.<p>
+ *
+ * All versions of the structure entry with a publish tag up to and including {@link #getPublishTag()} are
+ * deleted, the versions of the resource entry and the content are deleted as far as no remaining structure
+ * version of any sibling uses them.<p>
+ *
+ * @see I_CmsHistoryDriver#readPruneCandidates(CmsDbContext, boolean, int, long)
+ * @see I_CmsHistoryDriver#deleteEntries(CmsDbContext, java.util.List)
+ *
+ * @since 11.0.0
+ */
+public class CmsHistoryPruneCandidate {
+
+    /** The newest publish tag to delete. */
+    private int m_publishTag;
+
+    /** The resource id. */
+    private CmsUUID m_resourceId;
+
+    /** The structure id. */
+    private CmsUUID m_structureId;
+
+    /** The number of structure versions to delete. */
+    private int m_versions;
+
+    /**
+     * Creates a new prune candidate.<p>
+     *
+     * @param structureId the structure id
+     * @param resourceId the resource id
+     * @param publishTag the newest publish tag to delete
+     * @param versions the number of structure versions to delete
+     */
+    public CmsHistoryPruneCandidate(CmsUUID structureId, CmsUUID resourceId, int publishTag, int versions) {
+
+        m_structureId = structureId;
+        m_resourceId = resourceId;
+        m_publishTag = publishTag;
+        m_versions = versions;
+    }
+
+    /**
+     * Returns the newest publish tag to delete.<p>
+     *
+     * @return the newest publish tag to delete
+     */
+    public int getPublishTag() {
+
+        return m_publishTag;
+    }
+
+    /**
+     * Returns the resource id.<p>
+     *
+     * @return the resource id
+     */
+    public CmsUUID getResourceId() {
+
+        return m_resourceId;
+    }
+
+    /**
+     * Returns the structure id.<p>
+     *
+     * @return the structure id
+     */
+    public CmsUUID getStructureId() {
+
+        return m_structureId;
+    }
+
+    /**
+     * Returns the number of structure versions to delete.<p>
+     *
+     * @return the number of structure versions to delete
+     */
+    public int getVersions() {
+
+        return m_versions;
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.db.log.CmsLogEntry;
+import org.opencms.main.CmsLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Collects the log entries created by the driver manager and writes them to the database
+ * in batches from a background thread.<p>
+ *
+ * Producers only append to a lock-free queue. The writer thread flushes the queue either when
+ * the configured batch size is reached or when the flush interval has passed. The queue is bounded:
+ * if it grows beyond its capacity (e.g. because the database is slow), {@link #add(CmsLogEntry)}
+ * reports this to the caller, which is then expected to flush synchronously, so producers never drop entries.<p>
+ *
+ * If the user publish lists derived from a batch can not be written, the batch is queued again with
+ * {@link #requeue(List)} and written with the next flush, ahead of the entries queued in the meantime.
+ * Rows of the optional log table which can not be written are not retried, they are only reported as error.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsLogWriter {
+
+    /** Default for the maximum number of queued entries before producers have to flush synchronously. */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /** Default for the number of queued entries which triggers an asynchronous flush. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** Default for the maximum time in milliseconds entries stay in the queue. */
+    public static final long DEFAULT_FLUSH_INTERVAL = 5000;
+
+    /** Configuration key for the batch size. */
+    public static final String PARAM_BATCH_SIZE = "log.writer.batchsize";
+
+    /** Configuration key for the queue capacity. */
+    public static final String PARAM_CAPACITY = "log.writer.capacity";
+
+    /** Configuration key for the flush interval in milliseconds. */
+    public static final String PARAM_FLUSH_INTERVAL = "log.writer.interval";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsLogWriter.class);
+
+    /** Number of entries queued since startup. */
+    private final AtomicLong m_addedCount = new AtomicLong();
+
+    /** The number of queued entries which triggers an asynchronous flush. */
+    private final int m_batchSize;
+
+    /** The maximum number of queued entries. */
+    private final int m_capacity;
+
+    /** Number of failed flushes since startup. */
+    private final AtomicLong m_failedFlushCount = new AtomicLong();
+
+    /** Number of flushes which actually wrote entries. */
+    private final AtomicLong m_flushCount = new AtomicLong();
+
+    /** The flush interval in milliseconds. */
+    private final long m_flushInterval;
+
+    /** Number of times the queue capacity was exceeded. */
+    private final AtomicLong m_overflowCount = new AtomicLong();
+
+    /** The queued log entries. */
+    private final ConcurrentLinkedQueue<CmsLogEntry> m_queue = new ConcurrentLinkedQueue<CmsLogEntry>();
+
+    /** The monitor used to wake up the writer thread. */
+    private final Object m_signal = new Object();
+
+    /** The entries of failed flushes which are written before the queued entries. */
+    private final List<CmsLogEntry> m_requeued = new ArrayList<CmsLogEntry>();
+
+    /** Number of entries queued again after a failed flush. */
+    private final AtomicLong m_requeuedCount = new AtomicLong();
+
+    /** The current number of queued entries (the queue itself has no constant time size). */
+    private final AtomicInteger m_size = new AtomicInteger();
+
+    /** The writer thread, <code>null</code> if not started. */
+    private Thread m_thread;
+
+    /** Number of entries taken from the queue for writing. */
+    private final AtomicLong m_writtenCount = new AtomicLong();
+
+    /**
+     * Creates a new log writer.<p>
+     *
+     * @param batchSize the number of queued entries which triggers an asynchronous flush
+     * @param capacity the maximum number of queued entries before producers have to flush synchronously
+     * @param flushInterval the maximum time in milliseconds entries stay in the queue
+     */
+    public CmsLogWriter(int batchSize, int capacity, long flushInterval) {
+
+        m_batchSize = Math.max(1, batchSize);
+        m_capacity = Math.max(m_batchSize, capacity);
+        m_flushInterval = Math.max(100, flushInterval);
+    }
+
+    /**
+     * Queues a log entry.<p>
+     *
+     * @param entry the log entry to queue
+     *
+     * @return <code>false</code> if the queue capacity is exceeded and the caller should flush synchronously
+     */
+    public boolean add(CmsLogEntry entry) {
+
+        m_queue.offer(entry);
+        m_addedCount.incrementAndGet();
+        int size = m_size.incrementAndGet();
+        if (size == m_batchSize) {
+            // only the producer crossing the threshold has to wake up the writer
+            synchronized (m_signal) {
+                m_signal.notifyAll();
+            }
+        }
+        if (size > m_capacity) {
+            m_overflowCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes all currently queued entries from the queue and returns them in insertion order.<p>
+     *
+     * @return the queued entries
+     */
+    public List<CmsLogEntry> drain() {
+
+        List<CmsLogEntry> result = new ArrayList<CmsLogEntry>(Math.max(16, m_size.get()));
+        synchronized (m_requeued) {
+            result.addAll(m_requeued);
+            m_size.addAndGet(-m_requeued.size());
+            m_requeued.clear();
+        }
+        CmsLogEntry entry;
+        while ((entry = m_queue.poll()) != null) {
+            m_size.decrementAndGet();
+            result.add(entry);
+        }
+        m_writtenCount.addAndGet(result.size());
+        return result;
+    }
+
+    /**
+     * Returns the number of entries queued since startup.<p>
+     *
+     * @return the number of entries queued since startup
+     */
+    public long getAddedCount() {
+
+        return m_addedCount.get();
+    }
+
+    /**
+     * Returns the batch size.<p>
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+
+        return m_batchSize;
+    }
+
+    /**
+     * Returns the queue capacity.<p>
+     *
+     * @return the queue capacity
+     */
+    public int getCapacity() {
+
+        return m_capacity;
+    }
+
+    /**
+     * Returns the number of failed flushes since startup.<p>
+     *
+     * @return the number of failed flushes
+     */
+    public long getFailedFlushCount() {
+
+        return m_failedFlushCount.get();
+    }
+
+    /**
+     * Returns the number of flushes which wrote at least one entry.<p>
+     *
+     * @return the number of flushes
+     */
+    public long getFlushCount() {
+
+        return m_flushCount.get();
+    }
+
+    /**
+     * Returns the flush interval in milliseconds.<p>
+     *
+     * @return the flush interval
+     */
+    public long getFlushInterval() {
+
+        return m_flushInterval;
+    }
+
+    /**
+     * Returns how often the queue capacity has been exceeded.<p>
+     *
+     * @return the overflow count
+     */
+    public long getOverflowCount() {
+
+        return m_overflowCount.get();
+    }
+
+    /**
+     * Returns the number of entries queued again after a failed flush since startup.<p>
+     *
+     * @return the number of entries queued again
+     */
+    public long getRequeuedCount() {
+
+        return m_requeuedCount.get();
+    }
+
+    /**
+     * Returns the number of entries taken from the queue for writing since startup.<p>
+     *
+     * @return the number of written entries
+     */
+    public long getWrittenCount() {
+
+        return m_writtenCount.get();
+    }
+
+    /**
+     * Checks if there are no queued entries.<p>
+     *
+     * @return <code>true</code> if there are no queued entries
+     */
+    public boolean isEmpty() {
+
+        return m_size.get() <= 0;
+    }
+
+    /**
+     * Queues the entries of a failed flush again, so that they are returned first by the next {@link #drain()}.<p>
+     *
+     * @param entries the entries returned by {@link #drain()} which could not be written
+     */
+    public void requeue(List<CmsLogEntry> entries) {
+
+        if (entries.isEmpty()) {
+            return;
+        }
+        synchronized (m_requeued) {
+            // entries of an earlier failed flush are already part of the given entries
+            m_requeued.addAll(0, entries);
+            m_size.addAndGet(entries.size());
+        }
+        m_writtenCount.addAndGet(-entries.size());
+        m_requeuedCount.addAndGet(entries.size());
+    }
+
+    /**
+     * Returns the current number of queued entries.<p>
+     *
+     * @return the current number of queued entries
+     */
+    public int size() {
+
+        return m_size.get();
+    }
+
+    /**
+     * Starts the background writer thread.<p>
+     *
+     * @param flushAction the action which writes the queued entries, usually by calling {@link #drain()}
+     */
+    public synchronized void start(final I_CmsLogFlushAction flushAction) {
+
+        if (m_thread != null) {
+            return;
+        }
+        m_thread = new Thread("OpenCms: Log writer") {
+
+            @Override
+            public void run() {
+
+                while (!isInterrupted()) {
+                    try {
+                        synchronized (m_signal) {
+                            if (m_size.get() < m_batchSize) {
+                                m_signal.wait(m_flushInterval);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // shutdown requested
+                        break;
+                    }
+                    flush(flushAction);
+                }
+            }
+        };
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    /**
+     * Stops the background writer thread and waits for it to finish.<p>
+     *
+     * Entries still in the queue are not written, the caller is responsible for the final flush.<p>
+     */
+    public void shutDown() {
+
+        Thread thread;
+        synchronized (this) {
+            thread = m_thread;
+            m_thread = null;
+        }
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(m_flushInterval);
+        } catch (InterruptedException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "queued: "
+            + size()
+            + ", added: "
+            + getAddedCount()
+            + ", written: "
+            + getWrittenCount()
+            + ", flushes: "
+            + getFlushCount()
+            + ", overflows: "
+            + getOverflowCount()
+            + ", failed flushes: "
+            + getFailedFlushCount()
+            + ", requeued: "
+            + getRequeuedCount();
+    }
+
+    /**
+     * Executes the given flush action, keeping track of the statistics.<p>
+     *
+     * @param flushAction the flush action
+     */
+    protected void flush(I_CmsLogFlushAction flushAction) {
+
+        if (isEmpty()) {
+            return;
+        }
+        try {
+            flushAction.flush();
+            m_flushCount.incrementAndGet();
+        } catch (Throwable t) {
+            // the writer thread must not die
+            m_failedFlushCount.incrementAndGet();
+            LOG.error(t.getLocalizedMessage(), t);
+        }
+    }
+
+    /**
+     * The action used by the writer thread to write the queued entries.<p>
+     */
+    public interface I_CmsLogFlushAction {
+
+        /**
+         * Writes the queued entries.<p>
+         *
+         * @throws Exception if something goes wrong
+         */
+        void flush() throws Exception;
+    }
+}
@@ -1866,6 +1866,60 @@ public final class CmsSecurityManager {
         return publishList;
     }
 
+    /**
+     * Finishes a bulk delete started with {@link #startBulkDelete(CmsRequestContext)}.<p>
+     *
+     * The caches are flushed and a single event for all deleted resources is fired.
+     * Does nothing if no bulk delete is active.<p>
+     *
+     * @param context the current request context
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void finishBulkDelete(CmsRequestContext context) throws CmsException {
+
+        CmsBulkDeleteContext bulkDelete = (CmsBulkDeleteContext)context.removeAttribute(
+            CmsBulkDeleteContext.ATTRIBUTE_BULK_DELETE);
+        if (bulkDelete == null) {
+            return;
+        }
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            m_driverManager.finishBulkDelete(dbc, bulkDelete);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_BULK_DELETE_0), e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
+    /**
+     * Finishes a bulk import started with {@link #startBulkImport(CmsRequestContext)}.<p>
+     *
+     * The pending access control entries are written, the caches are flushed and a single event
+     * for all imported resources is fired. Does nothing if no bulk import is active.<p>
+     *
+     * @param context the current request context
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void finishBulkImport(CmsRequestContext context) throws CmsException {
+
+        CmsBulkImportContext bulkImport = (CmsBulkImportContext)context.removeAttribute(
+            CmsBulkImportContext.ATTRIBUTE_BULK_IMPORT);
+        if (bulkImport == null) {
+            return;
+        }
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            m_driverManager.finishBulkImport(dbc, bulkImport);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_BULK_IMPORT_0), e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Returns the list of access control entries of a resource given its name.<p>
      *
@@ -3212,7 +3266,10 @@ public final class CmsSecurityManager {
         CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
         try {
             checkOfflineProject(dbc);
-            checkPermissions(dbc, resource, CmsPermissionSet.ACCESS_CONTROL, true, CmsResourceFilter.ALL);
+            if (CmsBulkImportContext.get(dbc) == null) {
+                // during a bulk import, the permissions have been checked once for the whole import
+                checkPermissions(dbc, resource, CmsPermissionSet.ACCESS_CONTROL, true, CmsResourceFilter.ALL);
+            }
             m_driverManager.importAccessControlEntries(dbc, resource, acEntries);
         } catch (Exception e) {
             dbc.report(
@@ -3224,6 +3281,31 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Imports the given relations with as few database round trips as possible.<p>
+     *
+     * There are no permission checks on the single resources, instead the current user needs
+     * the {@link CmsRole#ROOT_ADMIN} role.<p>
+     *
+     * @param context the current request context
+     * @param relations the relations to import
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void importRelations(CmsRequestContext context, List<CmsRelation> relations) throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            checkOfflineProject(dbc);
+            checkRole(dbc, CmsRole.ROOT_ADMIN);
+            m_driverManager.importRelations(dbc, relations);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_IMPORT_RELATIONS_0), e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Creates a new resource with the provided content and properties.<p>
      *
@@ -3680,6 +3762,31 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Marks the given resources as visited, as collected by the visit buffer of the subscription manager.<p>
+     *
+     * @param context the request context
+     * @param poolName the name of the database pool to use
+     * @param visits the visits to write, at most one per user and resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void markResourcesAsVisited(CmsRequestContext context, String poolName, List<CmsVisitEntry> visits)
+    throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            m_driverManager.markResourcesAsVisited(dbc, poolName, visits);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_MARK_RESOURCES_AS_VISITED_1, Integer.valueOf(visits.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Returns a new publish list that contains all resources of both given publish lists.<p>
      *
@@ -3838,6 +3945,63 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Deletes the versions from the history tables, keeping the given number of versions per resource,
+     * using set based queries and chunked deletes.<p>
+     *
+     * @param context the current request context
+     * @param versionsToKeep number of versions to keep, is ignored if negative
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param dryRun <code>true</code> to only count the versions to delete
+     * @param report the report for output logging
+     *
+     * @return the number of deleted versions, or the number of versions to delete in a dry run
+     *
+     * @throws CmsException if operation was not successful
+     * @throws CmsRoleViolationException if the current user does not own the role {@link CmsRole#WORKPLACE_MANAGER}
+     *
+     * @see CmsDriverManager#pruneHistoricalVersions(CmsDbContext, int, int, long, boolean, I_CmsReport)
+     */
+    public int pruneHistoricalVersions(
+        CmsRequestContext context,
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        boolean dryRun,
+        I_CmsReport report)
+    throws CmsException, CmsRoleViolationException {
+
+        int result = 0;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            CmsFolder root = readFolder(dbc, "/", CmsResourceFilter.ALL);
+            checkRole(dbc, CmsRole.WORKPLACE_MANAGER.forOrgUnit(null));
+            checkPermissions(dbc, root, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL);
+            result = m_driverManager.pruneHistoricalVersions(
+                dbc,
+                versionsToKeep,
+                versionsDeleted,
+                timeDeleted,
+                dryRun,
+                report);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(
+                    Messages.ERR_DELETE_HISTORY_4,
+                    new Object[] {
+                        "/",
+                        new Integer(versionsToKeep),
+                        new Integer(versionsDeleted),
+                        new Date(timeDeleted)}),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Publishes the resources of a specified publish list.<p>
      *
@@ -4919,6 +5083,40 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads all property objects of the given resources.<p>
+     *
+     * @param context the context of the current request
+     * @param resources the resources where the properties are mapped to
+     * @param search <code>true</code>, if the properties should be searched on all parent folders  if not found on the resource
+     *
+     * @return the lists of <code>{@link CmsProperty}</code> objects by structure id of the resource
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#readPropertyObjects(java.util.Collection, boolean)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsRequestContext context,
+        Collection<CmsResource> resources,
+        boolean search)
+    throws CmsException {
+
+        Map<CmsUUID, List<CmsProperty>> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readPropertyObjects(dbc, resources, search);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_PROPS_FOR_RESOURCES_1, Integer.valueOf(resources.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Reads the resources that were published in a publish task for a given publish history ID.<p>
      *
@@ -5076,6 +5274,52 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads a batch of the resources below the given path matching the filter criteria.<p>
+     *
+     * @param context the current request context
+     * @param parent the parent folder
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all subresources
+     * @param after the position returned for the previous batch, or <code>null</code> to read the first batch
+     * @param batchSize the number of resources to read from the database
+     * @param result the list to which the resources matching the filter and readable by the current user are added
+     *
+     * @return the position to pass as <code>after</code> for reading the next batch,
+     *      or <code>null</code> if there are no more resources
+     *
+     * @throws CmsSecurityException if the user has insufficient permission for the given resource (read is required)
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#readResourceCursor(String, CmsResourceFilter, boolean, int)
+     */
+    public CmsResource readResourceBatch(
+        CmsRequestContext context,
+        CmsResource parent,
+        CmsResourceFilter filter,
+        boolean readTree,
+        CmsResource after,
+        int batchSize,
+        List<CmsResource> result)
+    throws CmsException, CmsSecurityException {
+
+        CmsResource position = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            // check the access permissions
+            checkPermissions(dbc, parent, CmsPermissionSet.ACCESS_READ, true, CmsResourceFilter.ALL);
+            position = m_driverManager.readResourceBatch(dbc, parent, filter, readTree, after, batchSize, result);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_RESOURCES_1, context.removeSiteRoot(parent.getRootPath())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return position;
+    }
+
     /**
      * Reads all resources below the given path matching the filter criteria,
      * including the full tree below the path only in case the <code>readTree</code>
@@ -5116,6 +5360,43 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * Missing resources, resources not matching the filter and resources the current user
+     * has no read permissions for are skipped.<p>
+     *
+     * @param context the current request context
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in the order of the given structure ids
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#readResources(java.util.Collection, CmsResourceFilter)
+     */
+    public List<CmsResource> readResources(
+        CmsRequestContext context,
+        Collection<CmsUUID> structureIds,
+        CmsResourceFilter filter)
+    throws CmsException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readResources(dbc, structureIds, filter);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_RESOURCES_FOR_IDS_1, Integer.valueOf(structureIds.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -6149,6 +6430,61 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Starts a bulk delete for the given request context.<p>
+     *
+     * While deleting resources with the same request context, the permissions and locks are checked as usual,
+     * but the caches are not flushed and no events are fired until {@link #finishBulkDelete(CmsRequestContext)}
+     * is called.<p>
+     *
+     * @param context the current request context
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsBulkDeleteContext
+     */
+    public void startBulkDelete(CmsRequestContext context) throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            checkOfflineProject(dbc);
+            context.setAttribute(CmsBulkDeleteContext.ATTRIBUTE_BULK_DELETE, new CmsBulkDeleteContext());
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_BULK_DELETE_0), e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
+    /**
+     * Starts a bulk import for the given request context.<p>
+     *
+     * The current user needs the {@link CmsRole#ROOT_ADMIN} role. This is checked once here, while importing
+     * resources and access control entries with the same request context the permissions on the single resources
+     * are not checked, and the caches are flushed and events are fired only once for each chunk of
+     * {@link CmsBulkImportContext#CHUNK_SIZE} imported resources and when {@link #finishBulkImport(CmsRequestContext)}
+     * is called.<p>
+     *
+     * @param context the current request context
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsBulkImportContext
+     */
+    public void startBulkImport(CmsRequestContext context) throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            checkOfflineProject(dbc);
+            checkRole(dbc, CmsRole.ROOT_ADMIN);
+            context.setAttribute(CmsBulkImportContext.ATTRIBUTE_BULK_IMPORT, new CmsBulkImportContext());
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_BULK_IMPORT_0), e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Subscribes the user or group to the resource.<p>
      *
@@ -6463,8 +6799,8 @@ public final class CmsSecurityManager {
      */
     public void updateLog() throws CmsException {
 
-        if (m_dbContextFactory == null) {
-            // already shutdown
+        if ((m_dbContextFactory == null) || (m_driverManager == null)) {
+            // not initialized yet or already shutdown
             return;
         }
         CmsDbContext dbc = m_dbContextFactory.getDbContext();
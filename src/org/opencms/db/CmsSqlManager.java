@@ -127,4 +127,31 @@ public class CmsSqlManager {
 
         return m_driverManager.getIdleConnections(dbPoolUrl);
     }
+
+    /**
+     * Returns the writer for the log entries, which provides statistics about the queued and written entries.<p>
+     *
+     * @return the log writer
+     */
+    public CmsLogWriter getLogWriter() {
+
+        return m_driverManager.getLogWriter();
+    }
+
+    /**
+     * Returns a connection for reading the online project using the given pool identified by its full url.<p>
+     *
+     * This is a connection to the replica of the pool, if one is configured and the online project
+     * has not been written recently.<p>
+     *
+     * @param dbPoolUrl the pool url
+     * @return a database connection
+     * @throws SQLException if something goes wrong
+     *
+     * @see CmsDbPoolV11#getReadConnection()
+     */
+    public Connection getReadConnectionByUrl(String dbPoolUrl) throws SQLException {
+
+        return CmsDriverManager.m_pools.get(dbPoolUrl).getReadConnection();
+    }
 }
\ No newline at end of file
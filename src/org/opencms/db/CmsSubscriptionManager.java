@@ -34,14 +34,24 @@ import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
 import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsPrincipal;
 import org.opencms.security.CmsRole;
 import org.opencms.security.CmsRoleViolationException;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
 
 /**
  * Manager that provides methods to subscribe resources to users, read subscribed or unvisited resources and more.<p>
@@ -50,12 +60,21 @@ import java.util.List;
  */
 public class CmsSubscriptionManager {
 
+    /** The default interval in milliseconds for writing the buffered visits. */
+    public static final long DEFAULT_VISIT_FLUSH_INTERVAL = 5000;
+
     /** The default maximum number of visited resources to store per user. */
     private static final int DEFAULT_MAX_VISITEDCOUNT = 1000;
 
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSubscriptionManager.class);
+
     /** The security manager to access the cms. */
     protected CmsSecurityManager m_securityManager;
 
+    /** The admin context used to write the buffered visits. */
+    private CmsObject m_cms;
+
     /** Indicates if the subscription functionality is enabled. */
     private boolean m_enabled;
 
@@ -68,6 +87,12 @@ public class CmsSubscriptionManager {
     /** The name of the database pool to use. */
     private String m_poolName;
 
+    /** The buffer for the visits, <code>null</code> if visits are written immediately. */
+    private CmsVisitBuffer m_visitBuffer;
+
+    /** The interval in milliseconds for writing the buffered visits, 0 to write visits immediately. */
+    private long m_visitFlushInterval = DEFAULT_VISIT_FLUSH_INTERVAL;
+
     /**
      * Initializes a new CmsSubscriptionManager, called from the configuration.<p>
      */
@@ -89,6 +114,13 @@ public class CmsSubscriptionManager {
      */
     public long getDateLastVisitedBy(CmsObject cms, CmsUser user, CmsResource resource) throws CmsException {
 
+        CmsVisitBuffer buffer = m_visitBuffer;
+        if (buffer != null) {
+            Long pending = buffer.getPendingVisit(user.getId(), resource.getStructureId());
+            if (pending != null) {
+                return pending.longValue();
+            }
+        }
         return m_securityManager.getDateLastVisitedBy(cms.getRequestContext(), getPoolName(), user, resource);
     }
 
@@ -106,7 +138,7 @@ public class CmsSubscriptionManager {
     public long getDateLastVisitedBy(CmsObject cms, CmsUser user, String resourcePath) throws CmsException {
 
         CmsResource resource = cms.readResource(resourcePath, CmsResourceFilter.ALL);
-        return m_securityManager.getDateLastVisitedBy(cms.getRequestContext(), getPoolName(), user, resource);
+        return getDateLastVisitedBy(cms, user, resource);
     }
 
     /**
@@ -136,6 +168,16 @@ public class CmsSubscriptionManager {
         return m_poolName;
     }
 
+    /**
+     * Returns the interval in milliseconds for writing the buffered visits.<p>
+     *
+     * @return the interval in milliseconds, 0 if visits are written immediately
+     */
+    public long getVisitFlushInterval() {
+
+        return m_visitFlushInterval;
+    }
+
     /**
      * Initializes this subscription manager with the OpenCms system configuration.<p>
      *
@@ -147,6 +189,19 @@ public class CmsSubscriptionManager {
 
         OpenCms.getRoleManager().checkRole(cms, CmsRole.ROOT_ADMIN);
         m_frozen = true;
+        if (isEnabled() && (m_visitFlushInterval > 0)) {
+            try {
+                m_cms = OpenCms.initCmsObject(cms);
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+                return;
+            }
+            m_visitBuffer = new CmsVisitBuffer(
+                visits -> m_securityManager.markResourcesAsVisited(m_cms.getRequestContext(), getPoolName(), visits),
+                CmsVisitBuffer.DEFAULT_BATCH_SIZE,
+                m_visitFlushInterval);
+            m_visitBuffer.start();
+        }
     }
 
     /**
@@ -173,6 +228,11 @@ public class CmsSubscriptionManager {
         if (!isEnabled()) {
             throw new CmsRuntimeException(Messages.get().container(Messages.ERR_SUBSCRIPTION_MANAGER_DISABLED_0));
         }
+        CmsVisitBuffer buffer = m_visitBuffer;
+        if (buffer != null) {
+            buffer.add(new CmsVisitEntry(user.getId(), System.currentTimeMillis(), resource.getStructureId()));
+            return;
+        }
         m_securityManager.markResourceAsVisitedBy(cms.getRequestContext(), getPoolName(), resource, user);
     }
 
@@ -209,6 +269,8 @@ public class CmsSubscriptionManager {
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
+     * Visits which have not been written to the database yet are included in the result.<p>
+     *
      * @param cms the current users context
      * @param filter the filter that is used to get the visited resources
      *
@@ -218,7 +280,19 @@ public class CmsSubscriptionManager {
      */
     public List<CmsResource> readResourcesVisitedBy(CmsObject cms, CmsVisitedByFilter filter) throws CmsException {
 
-        return m_securityManager.readResourcesVisitedBy(cms.getRequestContext(), getPoolName(), filter);
+        List<CmsResource> result = m_securityManager.readResourcesVisitedBy(
+            cms.getRequestContext(),
+            getPoolName(),
+            filter);
+        CmsVisitBuffer buffer = m_visitBuffer;
+        if ((buffer == null) || (filter.getUser() == null)) {
+            return result;
+        }
+        Map<CmsUUID, Long> pending = buffer.getPendingVisits(filter.getUser().getId());
+        if (pending.isEmpty()) {
+            return result;
+        }
+        return mergePendingVisits(cms, filter, result, pending);
     }
 
     /**
@@ -338,6 +412,27 @@ public class CmsSubscriptionManager {
         m_poolName = poolName;
     }
 
+    /**
+     * Sets the interval in milliseconds for writing the buffered visits.<p>
+     *
+     * A value of 0 disables the buffer, visits are then written immediately.<p>
+     *
+     * @param visitFlushInterval the interval in milliseconds
+     */
+    public void setVisitFlushInterval(String visitFlushInterval) {
+
+        if (m_frozen) {
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_CONFIG_SUBSCRIPTIONMANAGER_FROZEN_0));
+        }
+        try {
+            long value = Long.parseLong(visitFlushInterval.trim());
+            m_visitFlushInterval = (value >= 0) ? value : DEFAULT_VISIT_FLUSH_INTERVAL;
+        } catch (NumberFormatException e) {
+            // use default value
+            m_visitFlushInterval = DEFAULT_VISIT_FLUSH_INTERVAL;
+        }
+    }
+
     /**
      * Sets the security manager during initialization.<p>
      *
@@ -367,6 +462,18 @@ public class CmsSubscriptionManager {
         m_securityManager.setSubscribedResourceAsDeleted(cms.getRequestContext(), getPoolName(), resource);
     }
 
+    /**
+     * Writes the buffered visits and stops the background writer.<p>
+     */
+    public void shutDown() {
+
+        CmsVisitBuffer buffer = m_visitBuffer;
+        m_visitBuffer = null;
+        if (buffer != null) {
+            buffer.shutDown();
+        }
+    }
+
     /**
      * Subscribes the user or group to the resource.<p>
      *
@@ -494,4 +601,76 @@ public class CmsSubscriptionManager {
         unsubscribeResourceForAll(cms, resource);
     }
 
+    /**
+     * Merges the buffered visits of the user into the visited resources read from the database.<p>
+     *
+     * A buffered visit is always newer than the stored visit of the same resource, so it decides whether the
+     * resource matches the date range of the filter.<p>
+     *
+     * @param cms the current users context
+     * @param filter the filter that is used to get the visited resources
+     * @param resources the visited resources read from the database
+     * @param pending the buffered visit dates of the user by structure id
+     *
+     * @return the merged list of visited resources
+     */
+    private List<CmsResource> mergePendingVisits(
+        CmsObject cms,
+        CmsVisitedByFilter filter,
+        List<CmsResource> resources,
+        Map<CmsUUID, Long> pending) {
+
+        List<CmsResource> result = new ArrayList<CmsResource>(resources);
+        Set<CmsUUID> contained = new HashSet<CmsUUID>();
+        Iterator<CmsResource> it = result.iterator();
+        while (it.hasNext()) {
+            CmsResource resource = it.next();
+            Long date = pending.get(resource.getStructureId());
+            if ((date != null) && !isInRange(filter, date.longValue())) {
+                it.remove();
+            } else {
+                contained.add(resource.getStructureId());
+            }
+        }
+        String parentPath = CmsStringUtil.isEmpty(filter.getParentPath())
+        ? null
+        : CmsFileUtil.addTrailingSeparator(filter.getParentPath());
+        for (Map.Entry<CmsUUID, Long> visit : pending.entrySet()) {
+            if (contained.contains(visit.getKey()) || !isInRange(filter, visit.getValue().longValue())) {
+                continue;
+            }
+            CmsResource resource;
+            try {
+                resource = cms.readResource(visit.getKey(), CmsResourceFilter.DEFAULT);
+            } catch (CmsException e) {
+                // resource was deleted or is not readable
+                LOG.debug(e.getLocalizedMessage(), e);
+                continue;
+            }
+            if (parentPath != null) {
+                String rootPath = resource.getRootPath();
+                boolean matches = filter.isIncludeSubFolders()
+                ? rootPath.startsWith(parentPath)
+                : parentPath.equals(CmsResource.getParentFolder(rootPath));
+                if (!matches) {
+                    continue;
+                }
+            }
+            result.add(resource);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a visit date is in the date range of the filter, the bounds are excluded like in the database query.<p>
+     *
+     * @param filter the filter
+     * @param date the visit date
+     *
+     * @return <code>true</code> if the date is in range
+     */
+    private boolean isInRange(CmsVisitedByFilter filter, long date) {
+
+        return (date > filter.getFromDate()) && (date < filter.getToDate());
+    }
 }
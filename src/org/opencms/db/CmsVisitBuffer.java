@@ -0,0 +1,374 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Collects the visits of resources in memory and writes them to the database in batches from a background thread.<p>
+ *
+ * Visits are coalesced per user and resource, only the latest visit date is kept. The writer thread flushes the
+ * buffer either when the flush interval has passed or when the number of buffered visits reaches the batch size.
+ * If a flush fails, the visits are put back into the buffer and written with the next flush.<p>
+ *
+ * The pending visits of a user can be read with {@link #getPendingVisits(CmsUUID)}, so that reading the visited
+ * resources still returns consistent results before the visits have been written.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsVisitBuffer {
+
+    /**
+     * The action used by the writer thread to write the buffered visits.<p>
+     */
+    public interface I_CmsVisitFlushAction {
+
+        /**
+         * Writes the given visits.<p>
+         *
+         * @param visits the visits to write, at most one per user and resource
+         *
+         * @throws Exception if something goes wrong
+         */
+        void flush(List<CmsVisitEntry> visits) throws Exception;
+    }
+
+    /** Default for the number of buffered visits which triggers a flush. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsVisitBuffer.class);
+
+    /** Number of visits added since startup. */
+    private final AtomicLong m_addedCount = new AtomicLong();
+
+    /** The number of buffered visits which triggers a flush. */
+    private final int m_batchSize;
+
+    /** Number of failed flushes since startup. */
+    private final AtomicLong m_failedFlushCount = new AtomicLong();
+
+    /** The action which writes the visits. */
+    private final I_CmsVisitFlushAction m_flushAction;
+
+    /** The visits currently being written, still visible to readers until the flush is finished. */
+    private volatile Map<CmsUUID, Map<CmsUUID, Long>> m_flushing = Collections.emptyMap();
+
+    /** The flush interval in milliseconds. */
+    private final long m_flushInterval;
+
+    /** Lock which allows adding visits concurrently, while taking the visits for a flush is exclusive. */
+    private final ReadWriteLock m_lock = new ReentrantReadWriteLock();
+
+    /** The buffered visit dates by user id and structure id. */
+    private volatile Map<CmsUUID, Map<CmsUUID, Long>> m_pending = new ConcurrentHashMap<CmsUUID, Map<CmsUUID, Long>>();
+
+    /** The monitor used to wake up the writer thread. */
+    private final Object m_signal = new Object();
+
+    /** The number of visits added since the last flush, including visits to the same resource. */
+    private final AtomicInteger m_size = new AtomicInteger();
+
+    /** The writer thread, <code>null</code> if not started. */
+    private Thread m_thread;
+
+    /** Number of visits written since startup. */
+    private final AtomicLong m_writtenCount = new AtomicLong();
+
+    /**
+     * Creates a new visit buffer.<p>
+     *
+     * @param flushAction the action which writes the visits
+     * @param batchSize the number of buffered visits which triggers a flush
+     * @param flushInterval the maximum time in milliseconds visits stay in the buffer
+     */
+    public CmsVisitBuffer(I_CmsVisitFlushAction flushAction, int batchSize, long flushInterval) {
+
+        m_flushAction = flushAction;
+        m_batchSize = Math.max(1, batchSize);
+        m_flushInterval = Math.max(100, flushInterval);
+    }
+
+    /**
+     * Adds a visit.<p>
+     *
+     * @param visit the visit to add
+     */
+    public void add(CmsVisitEntry visit) {
+
+        m_lock.readLock().lock();
+        try {
+            Map<CmsUUID, Long> visits = m_pending.computeIfAbsent(
+                visit.getUserId(),
+                userId -> new ConcurrentHashMap<CmsUUID, Long>());
+            visits.merge(visit.getStructureId(), Long.valueOf(visit.getDate()), CmsVisitBuffer::later);
+        } finally {
+            m_lock.readLock().unlock();
+        }
+        m_addedCount.incrementAndGet();
+        if (m_size.incrementAndGet() == m_batchSize) {
+            // only the thread crossing the threshold has to wake up the writer
+            synchronized (m_signal) {
+                m_signal.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes all buffered visits.<p>
+     *
+     * @return <code>true</code> if the visits have been written, <code>false</code> if the flush failed and the
+     *      visits were put back into the buffer
+     */
+    public boolean flush() {
+
+        synchronized (m_flushAction) {
+            List<CmsVisitEntry> visits = drain();
+            if (visits.isEmpty()) {
+                return true;
+            }
+            try {
+                m_flushAction.flush(visits);
+                m_writtenCount.addAndGet(visits.size());
+                return true;
+            } catch (Throwable t) {
+                m_failedFlushCount.incrementAndGet();
+                LOG.error(t.getLocalizedMessage(), t);
+                // keep the visits for the next try, newer visits added meanwhile take precedence
+                for (CmsVisitEntry visit : visits) {
+                    add(visit);
+                }
+                return false;
+            } finally {
+                m_flushing = Collections.emptyMap();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of visits added since startup.<p>
+     *
+     * @return the number of visits added since startup
+     */
+    public long getAddedCount() {
+
+        return m_addedCount.get();
+    }
+
+    /**
+     * Returns the number of failed flushes since startup.<p>
+     *
+     * @return the number of failed flushes
+     */
+    public long getFailedFlushCount() {
+
+        return m_failedFlushCount.get();
+    }
+
+    /**
+     * Returns the flush interval in milliseconds.<p>
+     *
+     * @return the flush interval
+     */
+    public long getFlushInterval() {
+
+        return m_flushInterval;
+    }
+
+    /**
+     * Returns the buffered visit date of a resource.<p>
+     *
+     * @param userId the user id
+     * @param structureId the structure id of the resource
+     *
+     * @return the visit date, or <code>null</code> if there is no buffered visit
+     */
+    public Long getPendingVisit(CmsUUID userId, CmsUUID structureId) {
+
+        return getPendingVisits(userId).get(structureId);
+    }
+
+    /**
+     * Returns the buffered visits of a user.<p>
+     *
+     * @param userId the user id
+     *
+     * @return the visit dates by structure id
+     */
+    public Map<CmsUUID, Long> getPendingVisits(CmsUUID userId) {
+
+        Map<CmsUUID, Long> flushing = m_flushing.get(userId);
+        Map<CmsUUID, Long> pending = m_pending.get(userId);
+        if ((flushing == null) && (pending == null)) {
+            return Collections.emptyMap();
+        }
+        Map<CmsUUID, Long> result = new HashMap<CmsUUID, Long>();
+        if (flushing != null) {
+            result.putAll(flushing);
+        }
+        if (pending != null) {
+            for (Map.Entry<CmsUUID, Long> visit : pending.entrySet()) {
+                result.merge(visit.getKey(), visit.getValue(), CmsVisitBuffer::later);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of visits written since startup.<p>
+     *
+     * @return the number of written visits
+     */
+    public long getWrittenCount() {
+
+        return m_writtenCount.get();
+    }
+
+    /**
+     * Stops the writer thread and writes the remaining visits.<p>
+     */
+    public void shutDown() {
+
+        Thread thread;
+        synchronized (this) {
+            thread = m_thread;
+            m_thread = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(m_flushInterval);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Starts the background writer thread.<p>
+     */
+    public synchronized void start() {
+
+        if (m_thread != null) {
+            return;
+        }
+        m_thread = new Thread("OpenCms: Visit writer") {
+
+            @Override
+            public void run() {
+
+                while (!isInterrupted()) {
+                    try {
+                        synchronized (m_signal) {
+                            if (m_size.get() < m_batchSize) {
+                                m_signal.wait(m_flushInterval);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // shutdown requested
+                        break;
+                    }
+                    flush();
+                }
+            }
+        };
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "buffered: "
+            + m_size.get()
+            + ", added: "
+            + getAddedCount()
+            + ", written: "
+            + getWrittenCount()
+            + ", failed flushes: "
+            + getFailedFlushCount();
+    }
+
+    /**
+     * Removes all buffered visits from the buffer.<p>
+     *
+     * @return the buffered visits
+     */
+    protected List<CmsVisitEntry> drain() {
+
+        Map<CmsUUID, Map<CmsUUID, Long>> pending;
+        m_lock.writeLock().lock();
+        try {
+            pending = m_pending;
+            m_flushing = pending;
+            m_pending = new ConcurrentHashMap<CmsUUID, Map<CmsUUID, Long>>();
+            m_size.set(0);
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+        List<CmsVisitEntry> result = new ArrayList<CmsVisitEntry>();
+        for (Map.Entry<CmsUUID, Map<CmsUUID, Long>> userVisits : pending.entrySet()) {
+            for (Map.Entry<CmsUUID, Long> visit : userVisits.getValue().entrySet()) {
+                result.add(new CmsVisitEntry(userVisits.getKey(), visit.getValue().longValue(), visit.getKey()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the later of two visit dates.<p>
+     *
+     * @param date1 the first date
+     * @param date2 the second date
+     *
+     * @return the later date
+     */
+    private static Long later(Long date1, Long date2) {
+
+        return date1.longValue() >= date2.longValue() ? date1 : date2;
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+/**
+ * Management interface of a database connection pool, registered as MXBean with the name
+ * {@link CmsDbPoolV11#MBEAN_NAME_PREFIX} followed by the pool name.<p>
+ *
+ * @since 11.0.0
+ */
+public interface I_CmsDbPoolMXBean {
+
+    /**
+     * Returns the number of active connections to the primary database.<p>
+     *
+     * @return the number of active connections
+     */
+    int getActiveConnections();
+
+    /**
+     * Returns the time after writing the online project in which the replica is not used, in milliseconds.<p>
+     *
+     * @return the consistency window
+     */
+    long getConsistencyWindow();
+
+    /**
+     * Returns the number of reads of the online project which used the primary database because the online
+     * project was written recently.<p>
+     *
+     * @return the number of guarded reads
+     */
+    long getGuardedReadCount();
+
+    /**
+     * Returns the number of idle connections to the primary database.<p>
+     *
+     * @return the number of idle connections
+     */
+    int getIdleConnections();
+
+    /**
+     * Returns the pool url.<p>
+     *
+     * @return the pool url
+     */
+    String getPoolUrl();
+
+    /**
+     * Returns the number of active connections to the replica.<p>
+     *
+     * @return the number of active connections to the replica, 0 if no replica is configured
+     */
+    int getReplicaActiveConnections();
+
+    /**
+     * Returns the number of failed attempts to get a connection to the replica.<p>
+     *
+     * @return the number of failed attempts
+     */
+    long getReplicaFailureCount();
+
+    /**
+     * Returns the number of idle connections to the replica.<p>
+     *
+     * @return the number of idle connections to the replica, 0 if no replica is configured
+     */
+    int getReplicaIdleConnections();
+
+    /**
+     * Returns the number of reads of the online project from the replica.<p>
+     *
+     * @return the number of reads from the replica
+     */
+    long getReplicaReadCount();
+
+    /**
+     * Checks if the online project is currently read from the primary database because it was written recently.<p>
+     *
+     * @return <code>true</code> if the online project is read from the primary database
+     */
+    boolean isConsistencyGuardActive();
+
+    /**
+     * Checks if a replica is configured for the pool.<p>
+     *
+     * @return <code>true</code> if a replica is configured
+     */
+    boolean isReplicaConfigured();
+}
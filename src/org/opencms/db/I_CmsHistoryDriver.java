@@ -86,6 +86,23 @@ public interface I_CmsHistoryDriver {
     int deleteEntries(CmsDbContext dbc, I_CmsHistoryResource histResource, int versionsToKeep, long time)
     throws CmsDataAccessException;
 
+    /**
+     * Deletes the historical versions of the given prune candidates with batched statements.<p>
+     *
+     * The structure and property versions are deleted for all candidates, then the resource and content
+     * versions no longer used by any remaining structure version of the resources are deleted.
+     * Like {@link #deleteEntries(CmsDbContext, I_CmsHistoryResource, int, long)}, all versions of the
+     * subresources of folders without any version left are deleted as well.<p>
+     *
+     * @param dbc the current database context
+     * @param candidates the prune candidates, as read by {@link #readPruneCandidates(CmsDbContext, boolean, int, long)}
+     *
+     * @return the number of structure versions that were deleted, including those of the subresources
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    int deleteEntries(CmsDbContext dbc, List<CmsHistoryPruneCandidate> candidates) throws CmsDataAccessException;
+
     /**
      * Deletes a property definition.<p>
      *
@@ -293,6 +310,29 @@ public interface I_CmsHistoryDriver {
     List<CmsProperty> readProperties(CmsDbContext dbc, I_CmsHistoryResource historicalResource)
     throws CmsDataAccessException;
 
+    /**
+     * Computes the historical versions to delete for all resources with grouped queries.<p>
+     *
+     * Like {@link #deleteEntries(CmsDbContext, I_CmsHistoryResource, int, long)}, the newest
+     * <code>versionsToKeep</code> versions of each resource are kept, and all versions published before
+     * the given time are deleted if a time is given.<p>
+     *
+     * @param dbc the current database context
+     * @param deleted <code>true</code> to read the candidates of deleted resources,
+     *      <code>false</code> for the resources which still exist in the online project
+     * @param versionsToKeep the number of versions to keep, is ignored if negative
+     * @param time versions published before this time will also be deleted, is ignored if negative
+     *
+     * @return the prune candidates, one for each resource with versions to delete
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsHistoryPruneCandidate> readPruneCandidates(
+        CmsDbContext dbc,
+        boolean deleted,
+        int versionsToKeep,
+        long time) throws CmsDataAccessException;
+
     /**
      * Reads a property definition with the given name.<p>
      *
@@ -105,6 +105,22 @@ public interface I_CmsSubscriptionDriver {
     void markResourceAsVisitedBy(CmsDbContext dbc, String poolName, CmsResource resource, CmsUser user)
     throws CmsDataAccessException;
 
+    /**
+     * Writes the given visits, replacing the existing visit of the same user and resource.<p>
+     *
+     * This is the batch version of {@link #markResourceAsVisitedBy(CmsDbContext, String, CmsResource, CmsUser)},
+     * used for writing the visits collected in memory. After writing, the oldest visits of the affected users
+     * are removed so that at most the configured maximum number of visits is kept per user.<p>
+     *
+     * @param dbc the database context
+     * @param poolName the name of the database pool to use
+     * @param visits the visits to write, at most one per user and resource
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    void markResourcesAsVisited(CmsDbContext dbc, String poolName, List<CmsVisitEntry> visits)
+    throws CmsDataAccessException;
+
     /**
      * Returns all resources subscribed by the given user or group.<p>
      *
@@ -39,6 +39,7 @@ import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.security.CmsPasswordEncryptionException;
 import org.opencms.util.CmsUUID;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -719,6 +720,26 @@ public interface I_CmsUserDriver extends I_CmsDriver {
     void removeResourceFromOrganizationalUnit(CmsDbContext dbc, CmsOrganizationalUnit orgUnit, CmsResource resource)
     throws CmsDataAccessException;
 
+    /**
+     * Replaces the access control entries of the given resources in JDBC batches.<p>
+     *
+     * All existing entries of the given resources are removed, then the given entries are created.
+     * Used by the bulk import, see {@link CmsBulkImportContext}.<p>
+     *
+     * @param dbc the current database context
+     * @param project the project to write the entries
+     * @param resourceIds the ids of the resources whose existing entries are removed
+     * @param acEntries the entries to create
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    void replaceAccessControlEntries(
+        CmsDbContext dbc,
+        CmsProject project,
+        Collection<CmsUUID> resourceIds,
+        List<CmsAccessControlEntry> acEntries)
+    throws CmsDataAccessException;
+
     /**
      * Searches for users which match the given search criteria.<p>
      *
@@ -103,6 +103,10 @@ public interface I_CmsVfsDriver {
     /**
      * Creates a {@link CmsFile} instance from a JDBC ResultSet.<p>
      *
+     * The content is taken from the result set as it is, so it may be a reference to the {@link CmsContentStore}
+     * which has to be resolved with {@link CmsContentStore#resolve(byte[])} after the result set has been closed.
+     * Contents read with {@link #readContent(CmsDbContext, CmsUUID, CmsUUID)} are already resolved.<p>
+     *
      * @param res the JDBC ResultSet
      * @param projectId the project id
      *
@@ -114,6 +118,10 @@ public interface I_CmsVfsDriver {
     /**
      * Creates a {@link CmsFile} instance from a JDBC ResultSet.<p>
      *
+     * The content is taken from the result set as it is, so it may be a reference to the {@link CmsContentStore}
+     * which has to be resolved with {@link CmsContentStore#resolve(byte[])} after the result set has been closed.
+     * Contents read with {@link #readContent(CmsDbContext, CmsUUID, CmsUUID)} are already resolved.<p>
+     *
      * @param res the JDBC ResultSet
      * @param projectId the project id
      * @param hasFileContentInResultSet flag to include the file content
@@ -184,6 +192,24 @@ public interface I_CmsVfsDriver {
      */
     void createRelation(CmsDbContext dbc, CmsUUID projectId, CmsRelation relation) throws CmsDataAccessException;
 
+    /**
+     * Creates the given {@link CmsRelation} objects in the database in JDBC batches.<p>
+     *
+     * Locale variant relations need to be normalized after creation, so they are created
+     * one by one as with {@link #createRelation(CmsDbContext, CmsUUID, CmsRelation)}.<p>
+     *
+     * If a batch fails, its rows which have not been written are retried one by one, and
+     * the relations which still can not be created are logged and skipped.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the id of the project to execute the query in
+     * @param relations the relations to create
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    void createRelations(CmsDbContext dbc, CmsUUID projectId, List<CmsRelation> relations)
+    throws CmsDataAccessException;
+
     /**
      * Creates a new resource from a given {@link CmsResource} object.<p>
      *
@@ -570,6 +596,23 @@ public interface I_CmsVfsDriver {
     List<CmsProperty> readPropertyObjects(CmsDbContext dbc, CmsProject project, CmsResource resource)
     throws CmsDataAccessException;
 
+    /**
+     * Reads all property objects mapped to the given resources with as few database round trips as possible.<p>
+     *
+     * @param dbc the current database context
+     * @param project the current project
+     * @param resources the resources where the properties are attached to
+     *
+     * @return the lists of properties (as returned by {@link #readPropertyObjects(CmsDbContext, CmsProject, CmsResource)}),
+     *      by structure id of the resource
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        Collection<CmsResource> resources)
+    throws CmsDataAccessException;
+
     /**
      * Reads all relations with the given filter for the given resource.<p>
      *
@@ -613,6 +656,27 @@ public interface I_CmsVfsDriver {
     CmsResource readResource(CmsDbContext dbc, CmsUUID projectId, String filename, boolean includeDeleted)
     throws CmsDataAccessException;
 
+    /**
+     * Reads the resources with the given structure ids with as few database round trips as possible.<p>
+     *
+     * Structure ids without a resource are ignored, as well as deleted resources if
+     * <code>includeDeleted</code> is <code>false</code>.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the Id of the project
+     * @param structureIds the structure ids of the resources to read
+     * @param includeDeleted true if already deleted files are included
+     *
+     * @return the resources that were read, in the order of the given structure ids
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readResources(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<CmsUUID> structureIds,
+        boolean includeDeleted)
+    throws CmsDataAccessException;
+
     /**
      * Reads all resources inside a given project and with a given state.<p>
      *
@@ -627,6 +691,28 @@ public interface I_CmsVfsDriver {
     List<CmsResource> readResources(CmsDbContext dbc, CmsUUID currentProject, CmsResourceState state, int mode)
     throws CmsDataAccessException;
 
+    /**
+     * Reads the resources with the given root paths with as few database round trips as possible.<p>
+     *
+     * Like in {@link #readResource(CmsDbContext, CmsUUID, String, boolean)}, a path ending with a slash
+     * only matches a folder. Paths without a resource are not contained in the result, as well as deleted
+     * resources if <code>includeDeleted</code> is <code>false</code>.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the Id of the project
+     * @param paths the root paths of the resources to read
+     * @param includeDeleted true if already deleted files are included
+     *
+     * @return the resources that were read, keyed by the given paths
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<String, CmsResource> readResourcesForPaths(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<String> paths,
+        boolean includeDeleted)
+    throws CmsDataAccessException;
+
     /**
      * Returns all resources associated to a given principal via an ACE.<p>
      *
@@ -732,6 +818,50 @@ public interface I_CmsVfsDriver {
         long expiredBefore,
         int mode) throws CmsDataAccessException;
 
+    /**
+     * Reads a batch of the resources inside a given project matching the criteria specified by parameter values.<p>
+     *
+     * The resources are ordered by root path and structure id. The next batch is read by passing the last resource
+     * of the previous batch as <code>after</code>, so that a large subtree can be processed without holding all
+     * resources in memory. The other parameters are the same as for
+     * {@link #readResourceTree(CmsDbContext, CmsUUID, String, int, CmsResourceState, long, long, long, long, long, long, int)}.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the project id for matching resources
+     * @param parent the path to the resource used as root of the searched subtree or {@link CmsDriverManager#READ_IGNORE_PARENT},
+     *               {@link CmsDriverManager#READMODE_EXCLUDE_TREE} means to read immediate children only
+     * @param type the resource type of matching resources or {@link CmsDriverManager#READ_IGNORE_TYPE} (meaning inverted by {@link CmsDriverManager#READMODE_EXCLUDE_TYPE}
+     * @param state the state of matching resources (meaning inverted by {@link CmsDriverManager#READMODE_EXCLUDE_STATE} or <code>null</code> to ignore
+     * @param startTime the start of the time range for the last modification date of matching resources or READ_IGNORE_TIME
+     * @param endTime the end of the time range for the last modification date of matching resources or READ_IGNORE_TIME
+     * @param releasedAfter the start of the time range for the release date of matching resources
+     * @param releasedBefore the end of the time range for the release date of matching resources
+     * @param expiredAfter the start of the time range for the expire date of matching resources
+     * @param expiredBefore the end of the time range for the expire date of matching resources
+     * @param mode additional mode flags
+     * @param after the last resource of the previous batch, or <code>null</code> to read the first batch
+     * @param maxResults the maximum number of resources to read, or 0 to read all remaining resources
+     *
+     * @return a list of CmsResource objects matching the given criteria
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readResourceTree(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        String parent,
+        int type,
+        CmsResourceState state,
+        long startTime,
+        long endTime,
+        long releasedAfter,
+        long releasedBefore,
+        long expiredAfter,
+        long expiredBefore,
+        int mode,
+        CmsResource after,
+        int maxResults) throws CmsDataAccessException;
+
     /**
      * Reads the rewrite aliases matching a given filter.<p>
      *
@@ -90,6 +90,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_BAD_USER_1 = "ERR_BAD_USER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_BULK_DELETE_0 = "ERR_BULK_DELETE_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_BULK_IMPORT_0 = "ERR_BULK_IMPORT_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_CANNOT_READ_PUBLISHLIST_0 = "ERR_CANNOT_READ_PUBLISHLIST_0";
 
@@ -129,6 +135,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_CONFIG_SUBSCRIPTIONMANAGER_FROZEN_0 = "ERR_CONFIG_SUBSCRIPTIONMANAGER_FROZEN_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_CONTENT_STORE_DISABLED_1 = "ERR_CONTENT_STORE_DISABLED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_CONTENT_STORE_READ_1 = "ERR_CONTENT_STORE_READ_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_CONTENT_STORE_WRITE_1 = "ERR_CONTENT_STORE_WRITE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_COPY_ACE_2 = "ERR_COPY_ACE_2";
 
@@ -327,6 +342,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_IMPORT_FOLDER_2 = "ERR_IMPORT_FOLDER_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_IMPORT_RELATIONS_0 = "ERR_IMPORT_RELATIONS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_IMPORT_RESOURCE_2 = "ERR_IMPORT_RESOURCE_2";
 
@@ -360,6 +378,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_MARK_RESOURCE_AS_VISITED_2 = "ERR_MARK_RESOURCE_AS_VISITED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_MARK_RESOURCES_AS_VISITED_1 = "ERR_MARK_RESOURCES_AS_VISITED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_MERGING_PUBLISH_LISTS_0 = "ERR_MERGING_PUBLISH_LISTS_0";
 
@@ -519,6 +540,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_PROPS_FOR_RESOURCE_1 = "ERR_READ_PROPS_FOR_RESOURCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_PROPS_FOR_RESOURCES_1 = "ERR_READ_PROPS_FOR_RESOURCES_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_PUBLISHED_RESOURCES_FOR_ID_1 = "ERR_READ_PUBLISHED_RESOURCES_FOR_ID_1";
 
@@ -534,6 +558,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCES_1 = "ERR_READ_RESOURCES_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_RESOURCES_FOR_IDS_1 = "ERR_READ_RESOURCES_FOR_IDS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCES_FOR_PRINCIPAL_LOG_1 = "ERR_READ_RESOURCES_FOR_PRINCIPAL_LOG_1";
 
@@ -840,6 +867,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_JDBC_POOL_2 = "INIT_JDBC_POOL_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_JDBC_REPLICA_3 = "INIT_JDBC_REPLICA_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SECURITY_MANAGER_INIT_0 = "INIT_SECURITY_MANAGER_INIT_0";
 
@@ -879,6 +909,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NO_EXPORT_POINTS_CONFIGURED_0 = "LOG_NO_EXPORT_POINTS_CONFIGURED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_REGISTER_POOL_MBEAN_FAILED_1 = "LOG_REGISTER_POOL_MBEAN_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_REGISTER_PROFILING_MBEAN_FAILED_1 = "LOG_REGISTER_PROFILING_MBEAN_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_REPLICA_CONNECTION_FAILED_1 = "LOG_REPLICA_CONNECTION_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SLOW_REQUEST_1 = "LOG_SLOW_REQUEST_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UPDATE_EXORT_POINTS_ERROR_0 = "LOG_UPDATE_EXORT_POINTS_ERROR_0";
 
@@ -924,6 +966,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PARENT_FOLDER_NOT_PUBLISHED_1 = "RPT_PARENT_FOLDER_NOT_PUBLISHED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PRUNE_VERSIONS_DRY_RUN_0 = "RPT_PRUNE_VERSIONS_DRY_RUN_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PRUNE_VERSIONS_FOUND_2 = "RPT_PRUNE_VERSIONS_FOUND_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PRUNE_VERSIONS_PROGRESS_3 = "RPT_PRUNE_VERSIONS_PROGRESS_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PUBLISH_REMOVED_RESOURCE_1 = "RPT_PUBLISH_REMOVED_RESOURCE_1";
 
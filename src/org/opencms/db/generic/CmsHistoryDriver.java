@@ -34,6 +34,7 @@ import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
 import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.CmsDriverManager;
+import org.opencms.db.CmsHistoryPruneCandidate;
 import org.opencms.db.CmsResourceState;
 import org.opencms.db.I_CmsDriver;
 import org.opencms.db.I_CmsHistoryDriver;
@@ -65,6 +66,8 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -274,6 +277,95 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#deleteEntries(org.opencms.db.CmsDbContext, java.util.List)
+     */
+    public int deleteEntries(CmsDbContext dbc, List<CmsHistoryPruneCandidate> candidates)
+    throws CmsDataAccessException {
+
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Set<CmsUUID> resourceIdSet = new LinkedHashSet<CmsUUID>();
+        for (CmsHistoryPruneCandidate candidate : candidates) {
+            resourceIdSet.add(candidate.getResourceId());
+        }
+        List<CmsUUID> resourceIds = new ArrayList<CmsUUID>(resourceIdSet);
+        int deleted = 0;
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+
+            // delete the properties
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_PROPERTIES_HISTORY_DELETE");
+            for (CmsHistoryPruneCandidate candidate : candidates) {
+                stmt.setString(1, candidate.getStructureId().toString());
+                stmt.setInt(2, candidate.getPublishTag() + 1);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // delete the structure entries
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_DELETE");
+            for (CmsHistoryPruneCandidate candidate : candidates) {
+                stmt.setString(1, candidate.getStructureId().toString());
+                stmt.setInt(2, candidate.getPublishTag() + 1);
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                // not all JDBC drivers return the update counts of batched statements
+                deleted += counts[i] >= 0 ? counts[i] : candidates.get(i).getVersions();
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // get the minimal resource publish tags still used by the structure entries of all siblings
+            Map<CmsUUID, Integer> minUsedTags = new HashMap<CmsUUID, Integer>();
+            stmt = m_sqlManager.getPreparedStatementForSql(
+                conn,
+                m_sqlManager.readQuery("C_HISTORY_READ_MIN_USED_TAGS")
+                    + m_sqlManager.createInCondition(resourceIds.size())
+                    + " "
+                    + m_sqlManager.readQuery("C_HISTORY_READ_MIN_USED_TAGS_GROUP"));
+            for (int i = 0; i < resourceIds.size(); i++) {
+                stmt.setString(i + 1, resourceIds.get(i).toString());
+            }
+            res = stmt.executeQuery();
+            while (res.next()) {
+                minUsedTags.put(new CmsUUID(res.getString(1)), Integer.valueOf(res.getInt(2)));
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            res = null;
+
+            // delete the resource and content entries, all of them if no structure entry is left
+            for (String queryKey : new String[] {"C_RESOURCES_HISTORY_DELETE", "C_CONTENT_HISTORY_DELETE"}) {
+                stmt = m_sqlManager.getPreparedStatement(conn, queryKey);
+                for (CmsUUID resourceId : resourceIds) {
+                    Integer minUsedTag = minUsedTags.get(resourceId);
+                    stmt.setString(1, resourceId.toString());
+                    stmt.setInt(2, minUsedTag != null ? minUsedTag.intValue() : Integer.MAX_VALUE);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+                stmt = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+        deleted += internalCleanup(dbc, candidates);
+        return deleted;
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#deletePropertyDefinition(org.opencms.db.CmsDbContext, org.opencms.file.CmsPropertyDefinition)
      */
@@ -610,7 +702,7 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         } finally {
             m_sqlManager.closeAll(dbc, conn, stmt, res);
         }
-        return content;
+        return m_driverManager.getContentStore().resolve(content);
     }
 
     /**
@@ -1155,6 +1247,34 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return propDef;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#readPruneCandidates(org.opencms.db.CmsDbContext, boolean, int, long)
+     */
+    public List<CmsHistoryPruneCandidate> readPruneCandidates(
+        CmsDbContext dbc,
+        boolean deleted,
+        int versionsToKeep,
+        long time)
+    throws CmsDataAccessException {
+
+        Map<String, CmsHistoryPruneCandidate> candidates = new LinkedHashMap<String, CmsHistoryPruneCandidate>();
+        if (versionsToKeep >= 0) {
+            internalReadPruneCandidates(
+                dbc,
+                deleted ? "C_HISTORY_PRUNE_READ_DELETED" : "C_HISTORY_PRUNE_READ_NOTDELETED",
+                versionsToKeep,
+                candidates);
+        }
+        if (time >= 0) {
+            internalReadPruneCandidates(
+                dbc,
+                deleted ? "C_HISTORY_PRUNE_READ_DELETED_BYTIME" : "C_HISTORY_PRUNE_READ_NOTDELETED_BYTIME",
+                time,
+                candidates);
+        }
+        return new ArrayList<CmsHistoryPruneCandidate>(candidates.values());
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#readPublishTag(org.opencms.db.CmsDbContext, long)
      */
@@ -1642,6 +1762,95 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Deletes all historical entries of subresources of the folders without any historical entry left
+     * among the given prune candidates.<p>
+     *
+     * This is the set based variant of {@link #internalCleanup(CmsDbContext, I_CmsHistoryResource)}.
+     * The candidates are not checked for being folders, since only folders have subresources.<p>
+     *
+     * @param dbc the current database context
+     * @param candidates the prune candidates whose versions have been deleted
+     *
+     * @return the number of structure versions of the subresources that were deleted
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected int internalCleanup(CmsDbContext dbc, List<CmsHistoryPruneCandidate> candidates)
+    throws CmsDataAccessException {
+
+        Set<CmsUUID> folderIds = new LinkedHashSet<CmsUUID>();
+        for (CmsHistoryPruneCandidate candidate : candidates) {
+            folderIds.add(candidate.getStructureId());
+        }
+        List<CmsHistoryPruneCandidate> subResources = new ArrayList<CmsHistoryPruneCandidate>();
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+
+            // keep only the resources without any version left
+            List<CmsUUID> structureIds = new ArrayList<CmsUUID>(folderIds);
+            stmt = m_sqlManager.getPreparedStatementForSql(
+                conn,
+                m_sqlManager.readQuery("C_HISTORY_READ_STRUCTURE_IDS")
+                    + m_sqlManager.createInCondition(structureIds.size()));
+            for (int i = 0; i < structureIds.size(); i++) {
+                stmt.setString(i + 1, structureIds.get(i).toString());
+            }
+            res = stmt.executeQuery();
+            while (res.next()) {
+                folderIds.remove(new CmsUUID(res.getString(1)));
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            stmt = null;
+            res = null;
+
+            if (!folderIds.isEmpty()) {
+                // get all direct subresources, with all their versions including those in other folders
+                List<CmsUUID> parentIds = new ArrayList<CmsUUID>(folderIds);
+                stmt = m_sqlManager.getPreparedStatementForSql(
+                    conn,
+                    m_sqlManager.readQuery("C_STRUCTURE_HISTORY_READ_SUBRESOURCES_IN")
+                        + m_sqlManager.createInCondition(parentIds.size())
+                        + " "
+                        + m_sqlManager.readQuery("C_STRUCTURE_HISTORY_READ_SUBRESOURCES_IN_GROUP"));
+                for (int i = 0; i < parentIds.size(); i++) {
+                    stmt.setString(i + 1, parentIds.get(i).toString());
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    subResources.add(
+                        new CmsHistoryPruneCandidate(
+                            new CmsUUID(res.getString(1)),
+                            new CmsUUID(res.getString(2)),
+                            res.getInt(3),
+                            res.getInt(4)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        // delete all subresource versions, which also cleans up the subresources of subfolders
+        int deleted = 0;
+        for (int start = 0; start < subResources.size(); start += CmsDriverManager.HISTORY_PRUNE_CHUNK_SIZE) {
+            deleted += deleteEntries(
+                dbc,
+                subResources.subList(
+                    start,
+                    Math.min(subResources.size(), start + CmsDriverManager.HISTORY_PRUNE_CHUNK_SIZE)));
+        }
+        return deleted;
+    }
+
     /**
      * Returns the amount of properties for a propertydefinition.<p>
      *
@@ -1880,6 +2089,55 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Reads prune candidates with the given query and adds them to the given candidates.<p>
+     *
+     * If there already is a candidate for a resource, the one deleting more versions is kept.<p>
+     *
+     * @param dbc the current database context
+     * @param queryKey the key of the query to use
+     * @param parameter the number of versions to keep, or the time before which versions are deleted
+     * @param candidates the candidates read so far, keyed by structure and resource id
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalReadPruneCandidates(
+        CmsDbContext dbc,
+        String queryKey,
+        long parameter,
+        Map<String, CmsHistoryPruneCandidate> candidates)
+    throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, queryKey);
+            stmt.setLong(1, parameter);
+            res = stmt.executeQuery();
+            while (res.next()) {
+                CmsHistoryPruneCandidate candidate = new CmsHistoryPruneCandidate(
+                    new CmsUUID(res.getString(1)),
+                    new CmsUUID(res.getString(2)),
+                    res.getInt(3),
+                    res.getInt(4));
+                String key = candidate.getStructureId() + "/" + candidate.getResourceId();
+                CmsHistoryPruneCandidate previous = candidates.get(key);
+                if ((previous == null) || (previous.getPublishTag() < candidate.getPublishTag())) {
+                    candidates.put(key, candidate);
+                }
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+    }
+
     /**
      * Tests if a history resource does exist.<p>
      *
@@ -190,6 +190,9 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
     /** Attribute name for reading the project of a resource. */
     public static final String DBC_ATTR_READ_PROJECT_FOR_RESOURCE = "DBC_ATTR_READ_PROJECT_FOR_RESOURCE";
 
+    /** The maximum number of log entries written with a single JDBC batch. */
+    protected static final int LOG_BATCH_SIZE = 100;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsProjectDriver.class);
 
@@ -911,12 +914,27 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             conn = m_sqlManager.getConnection(dbc);
             stmt = m_sqlManager.getPreparedStatement(conn, "C_LOG_CREATE_5");
 
-            for (CmsLogEntry logEntry : logEntries) {
-                stmt.setString(1, logEntry.getUserId().toString());
-                stmt.setLong(2, logEntry.getDate());
-                stmt.setString(3, logEntry.getStructureId() == null ? null : logEntry.getStructureId().toString());
-                stmt.setInt(4, logEntry.getType().getId());
-                stmt.setString(5, CmsStringUtil.arrayAsString(logEntry.getData(), "|"));
+            List<CmsLogEntry> singleEntries = logEntries;
+            if (conn.getMetaData().supportsBatchUpdates()) {
+                // write all entries with a single round trip per batch, only the entries of failed rows are written again
+                singleEntries = new ArrayList<CmsLogEntry>();
+                List<CmsLogEntry> batch = new ArrayList<CmsLogEntry>(LOG_BATCH_SIZE);
+                for (CmsLogEntry logEntry : logEntries) {
+                    setLogParameters(stmt, logEntry);
+                    stmt.addBatch();
+                    batch.add(logEntry);
+                    if (batch.size() == LOG_BATCH_SIZE) {
+                        singleEntries.addAll(executeLogBatch(stmt, batch));
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    singleEntries.addAll(executeLogBatch(stmt, batch));
+                }
+            }
+            // write the entries one by one, so that a single failing entry does not prevent the others from being written
+            for (CmsLogEntry logEntry : singleEntries) {
+                setLogParameters(stmt, logEntry);
                 try {
                     stmt.executeUpdate();
                 } catch (SQLException e) {
@@ -2975,6 +2993,36 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             res.getLong("FINISH_TIME"));
     }
 
+    /**
+     * Executes the pending batch of log entry inserts.<p>
+     *
+     * @param stmt the statement containing the batch
+     * @param batch the log entries of the batch
+     *
+     * @return the log entries which have not been written, e.g. because of a duplicate entry
+     *
+     * @throws SQLException if it is unknown which entries of the batch have been written
+     */
+    protected List<CmsLogEntry> executeLogBatch(PreparedStatement stmt, List<CmsLogEntry> batch) throws SQLException {
+
+        try {
+            stmt.executeBatch();
+            return Collections.emptyList();
+        } catch (SQLException e) {
+            LOG.debug(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)).key(),
+                e);
+            try {
+                stmt.clearBatch();
+            } catch (SQLException e1) {
+                // ignore
+                LOG.debug(e1.getLocalizedMessage(), e1);
+            }
+            // only retry the failed rows, the others may already have been committed
+            return CmsSqlManager.getFailedBatchRows(batch, e);
+        }
+    }
+
     /**
      * Checks if the given resource (by id) is available in the online project,
      * if there exists a resource with a different path (a moved file), then the
@@ -3374,6 +3422,23 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         return CmsPair.create(conditions.toString(), params);
     }
 
+    /**
+     * Sets the parameters of the log entry insert statement.<p>
+     *
+     * @param stmt the insert statement
+     * @param logEntry the log entry to write
+     *
+     * @throws SQLException if something goes wrong
+     */
+    protected void setLogParameters(PreparedStatement stmt, CmsLogEntry logEntry) throws SQLException {
+
+        stmt.setString(1, logEntry.getUserId().toString());
+        stmt.setLong(2, logEntry.getDate());
+        stmt.setString(3, logEntry.getStructureId() == null ? null : logEntry.getStructureId().toString());
+        stmt.setInt(4, logEntry.getType().getId());
+        stmt.setString(5, CmsStringUtil.arrayAsString(logEntry.getData(), "|"));
+    }
+
     /**
      * Publishes a changed file.<p>
      *
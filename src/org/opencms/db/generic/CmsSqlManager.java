@@ -36,13 +36,16 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.io.ByteArrayInputStream;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
@@ -114,6 +117,36 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
 
     }
 
+    /**
+     * Returns the rows of a failed batch which have not been written.<p>
+     *
+     * JDBC drivers which continue after a failing statement report {@link Statement#EXECUTE_FAILED} for the
+     * failed rows, drivers which stop at the first failure only report the update counts of the rows written before.
+     * Without update counts it is unknown which rows have been written, so the exception is thrown again.<p>
+     *
+     * @param <T> the row type
+     * @param rows the rows of the batch, in the order they were added
+     * @param e the exception thrown when executing the batch
+     *
+     * @return the rows which have not been written
+     *
+     * @throws SQLException the given exception, if it does not contain update counts
+     */
+    public static <T> List<T> getFailedBatchRows(List<T> rows, SQLException e) throws SQLException {
+
+        if (!(e instanceof BatchUpdateException) || (((BatchUpdateException)e).getUpdateCounts() == null)) {
+            throw e;
+        }
+        int[] updateCounts = ((BatchUpdateException)e).getUpdateCounts();
+        List<T> failed = new ArrayList<T>();
+        for (int i = 0; i < rows.size(); i++) {
+            if ((i >= updateCounts.length) || (updateCounts[i] == Statement.EXECUTE_FAILED)) {
+                failed.add(rows.get(i));
+            }
+        }
+        return failed;
+    }
+
     /**
      * Replaces the project search pattern in SQL queries by the pattern _ONLINE_ or _OFFLINE_ depending on the
      * specified project ID.<p>
@@ -185,6 +218,27 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
 
     }
 
+    /**
+     * Creates an "IN" condition with the given number of parameters, like <code> (?,?,?)</code>.<p>
+     *
+     * @param count the number of parameters
+     *
+     * @return the "IN" condition
+     */
+    public String createInCondition(int count) {
+
+        StringBuffer buffer = new StringBuffer(4 + (2 * count));
+        buffer.append(" (");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            buffer.append('?');
+        }
+        buffer.append(')');
+        return buffer.toString();
+    }
+
     /**
      * Retrieves the value of the designated column in the current row of this ResultSet object as
      * a byte array in the Java programming language.<p>
@@ -290,6 +344,33 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
         return con.prepareStatement(query);
     }
 
+    /**
+     * Returns a JDBC connection from the connection pool for reading data of the given project.<p>
+     *
+     * Use this method for read only queries. If the online project is read from a request that itself works in the
+     * online project, the connection is a connection to the replica of the pool if one is configured, see
+     * {@link org.opencms.db.CmsDbPoolV11#getReadConnection()}. Requests working in an offline project always
+     * read from the primary database, since they may read the online state as part of a write operation.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the ID of the project to read
+     *
+     * @return a JDBC connection
+     *
+     * @throws SQLException if the project id is not supported
+     */
+    public Connection getReadConnection(CmsDbContext dbc, CmsUUID projectId) throws SQLException {
+
+        if ((projectId == null)
+            || !projectId.equals(CmsProject.ONLINE_PROJECT_ID)
+            || (dbc == null)
+            || (dbc.getRequestContext() == null)
+            || !dbc.currentProject().isOnlineProject()) {
+            return getConnection(dbc);
+        }
+        return getReadConnectionByUrl(m_poolUrl);
+    }
+
     /**
      * Initializes this SQL manager.<p>
      *
@@ -76,6 +76,9 @@ import org.apache.commons.logging.Log;
  */
 public class CmsSubscriptionDriver implements I_CmsDriver, I_CmsSubscriptionDriver {
 
+    /** The maximum number of visits written with a single JDBC batch. */
+    protected static final int VISIT_BATCH_SIZE = 100;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsSubscriptionDriver.class);
 
@@ -270,6 +273,91 @@ public class CmsSubscriptionDriver implements I_CmsDriver, I_CmsSubscriptionDriv
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsSubscriptionDriver#markResourcesAsVisited(org.opencms.db.CmsDbContext, java.lang.String, java.util.List)
+     */
+    public void markResourcesAsVisited(CmsDbContext dbc, String poolName, List<CmsVisitEntry> visits)
+    throws CmsDataAccessException {
+
+        if (visits.isEmpty()) {
+            return;
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        Set<CmsUUID> userIds = new HashSet<CmsUUID>();
+        try {
+            conn = m_sqlManager.getConnection(poolName);
+
+            // remove the existing visits of the same user and resource
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_VISIT_DELETE_2");
+            int count = 0;
+            for (CmsVisitEntry visit : visits) {
+                userIds.add(visit.getUserId());
+                stmt.setString(1, visit.getUserId().toString());
+                stmt.setString(2, visit.getStructureId().toString());
+                stmt.addBatch();
+                count++;
+                if ((count % VISIT_BATCH_SIZE) == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            if ((count % VISIT_BATCH_SIZE) != 0) {
+                stmt.executeBatch();
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // insert the new visits
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_VISIT_CREATE_3");
+            boolean batchFailed = false;
+            count = 0;
+            for (CmsVisitEntry visit : visits) {
+                setVisitParameters(stmt, visit);
+                stmt.addBatch();
+                count++;
+                if ((count % VISIT_BATCH_SIZE) == 0) {
+                    batchFailed |= !executeVisitBatch(stmt);
+                }
+            }
+            if ((count % VISIT_BATCH_SIZE) != 0) {
+                batchFailed |= !executeVisitBatch(stmt);
+            }
+            if (batchFailed) {
+                // write the visits one by one, so that a single failing entry does not prevent the others from being written
+                for (CmsVisitEntry visit : visits) {
+                    setVisitParameters(stmt, visit);
+                    try {
+                        stmt.executeUpdate();
+                    } catch (SQLException e) {
+                        // ignore, most likely a duplicate entry
+                        LOG.debug(
+                            Messages.get().container(
+                                Messages.ERR_GENERIC_SQL_1,
+                                CmsDbSqlException.getErrorQuery(stmt)).key(),
+                            e);
+                    }
+                }
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // keep only the newest visits of each affected user
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_VISITED_USER_TRIM_3");
+            int maxCount = OpenCms.getSubscriptionManager().getMaxVisitedCount();
+            for (CmsUUID userId : userIds) {
+                stmt.setString(1, userId.toString());
+                stmt.setString(2, userId.toString());
+                stmt.setInt(3, maxCount);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsSubscriptionDriver#readAllSubscribedResources(org.opencms.db.CmsDbContext, java.lang.String, org.opencms.security.CmsPrincipal)
      */
@@ -929,6 +1017,32 @@ public class CmsSubscriptionDriver implements I_CmsDriver, I_CmsSubscriptionDriv
         }
     }
 
+    /**
+     * Executes the pending batch of visit inserts.<p>
+     *
+     * @param stmt the statement containing the batch
+     *
+     * @return <code>false</code> if the batch failed, e.g. because of a duplicate entry
+     */
+    protected boolean executeVisitBatch(PreparedStatement stmt) {
+
+        try {
+            stmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            LOG.debug(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)).key(),
+                e);
+            try {
+                stmt.clearBatch();
+            } catch (SQLException e1) {
+                // ignore
+                LOG.debug(e1.getLocalizedMessage(), e1);
+            }
+            return false;
+        }
+    }
+
     /**
      * Creates a new {@link CmsVisitEntry} object from the given result set entry.<p>
      *
@@ -1009,4 +1123,19 @@ public class CmsSubscriptionDriver implements I_CmsDriver, I_CmsSubscriptionDriv
         return CmsPair.create(conditions.toString(), params);
     }
 
+    /**
+     * Sets the parameters of the statement for inserting a visit.<p>
+     *
+     * @param stmt the statement
+     * @param visit the visit
+     *
+     * @throws SQLException if something goes wrong
+     */
+    protected void setVisitParameters(PreparedStatement stmt, CmsVisitEntry visit) throws SQLException {
+
+        stmt.setString(1, visit.getUserId().toString());
+        stmt.setLong(2, visit.getDate());
+        stmt.setString(3, visit.getStructureId() == null ? null : visit.getStructureId().toString());
+    }
+
 }
@@ -84,6 +84,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -1770,6 +1771,52 @@ public class CmsUserDriver implements I_CmsUserDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsUserDriver#replaceAccessControlEntries(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.Collection, java.util.List)
+     */
+    public void replaceAccessControlEntries(
+        CmsDbContext dbc,
+        CmsProject project,
+        Collection<CmsUUID> resourceIds,
+        List<CmsAccessControlEntry> acEntries)
+    throws CmsDataAccessException {
+
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            if (!resourceIds.isEmpty()) {
+                stmt = m_sqlManager.getPreparedStatement(conn, project, "C_ACCESS_REMOVE_ALL_1");
+                for (CmsUUID resourceId : resourceIds) {
+                    stmt.setString(1, resourceId.toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+                stmt = null;
+            }
+            if (!acEntries.isEmpty()) {
+                stmt = m_sqlManager.getPreparedStatement(conn, project, "C_ACCESS_CREATE_5");
+                for (CmsAccessControlEntry acEntry : acEntries) {
+                    stmt.setString(1, acEntry.getResource().toString());
+                    stmt.setString(2, acEntry.getPrincipal().toString());
+                    stmt.setInt(3, acEntry.getAllowedPermissions());
+                    stmt.setInt(4, acEntry.getDeniedPermissions());
+                    stmt.setInt(5, acEntry.getFlags());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsUserDriver#searchUsers(org.opencms.db.CmsDbContext, org.opencms.file.CmsUserSearchParameters)
      */
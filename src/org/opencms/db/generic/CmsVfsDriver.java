@@ -31,6 +31,7 @@ import org.opencms.configuration.CmsConfigurationManager;
 import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.db.CmsAlias;
 import org.opencms.db.CmsAliasFilter;
+import org.opencms.db.CmsBulkImportContext;
 import org.opencms.db.CmsDbConsistencyException;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
@@ -90,6 +91,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -109,6 +111,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     /** Contains the macro replacement value for the online project. */
     protected static final String ONLINE = "ONLINE";
 
+    /** The maximum number of ids used in a single "IN" condition. */
+    protected static final int READ_BATCH_SIZE = 100;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsVfsDriver.class);
 
@@ -272,6 +277,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         Connection conn = null;
         PreparedStatement stmt = null;
 
+        content = m_driverManager.getContentStore().store(content);
         try {
             conn = m_sqlManager.getConnection(dbc);
             // create new offline content
@@ -489,6 +495,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
                 }
 
                 // create new online content
+                contents = m_driverManager.getContentStore().store(contents);
                 stmt = m_sqlManager.getPreparedStatement(conn, "C_ONLINE_CONTENTS_WRITE");
 
                 stmt.setString(1, resourceId.toString());
@@ -625,6 +632,64 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#createRelations(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.List)
+     */
+    public void createRelations(CmsDbContext dbc, CmsUUID projectId, List<CmsRelation> relations)
+    throws CmsDataAccessException {
+
+        List<CmsRelation> localeVariants = new ArrayList<CmsRelation>();
+        // the rows of failed batches, retried one by one
+        List<CmsRelation> singleRelations = new ArrayList<CmsRelation>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_CREATE_RELATION");
+            List<CmsRelation> batch = new ArrayList<CmsRelation>();
+            for (CmsRelation relation : relations) {
+                if (relation.getType().getId() == CmsRelationType.LOCALE_VARIANT.getId()) {
+                    localeVariants.add(relation);
+                    continue;
+                }
+                stmt.setString(1, relation.getSourceId().toString());
+                stmt.setString(2, relation.getSourcePath());
+                stmt.setString(3, relation.getTargetId().toString());
+                stmt.setString(4, relation.getTargetPath());
+                stmt.setInt(5, relation.getType().getId());
+                stmt.addBatch();
+                batch.add(relation);
+                if (batch.size() == CmsBulkImportContext.BATCH_SIZE) {
+                    singleRelations.addAll(executeRelationBatch(stmt, batch));
+                    batch = new ArrayList<CmsRelation>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                singleRelations.addAll(executeRelationBatch(stmt, batch));
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+        singleRelations.addAll(localeVariants);
+        for (CmsRelation relation : singleRelations) {
+            try {
+                createRelation(dbc, projectId, relation);
+            } catch (CmsDataAccessException e) {
+                // a single bad relation must not break the others
+                LOG.warn(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_CREATE_RELATION_FAILED_2,
+                        String.valueOf(projectId),
+                        relation),
+                    e);
+            }
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#createResource(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.file.CmsResource, byte[])
      */
@@ -1889,7 +1954,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         } finally {
             m_sqlManager.closeAll(dbc, conn, stmt, res);
         }
-        return byteRes;
+        // read from the content store only after the connection has been released
+        return m_driverManager.getContentStore().resolve(byteRes);
     }
 
     /**
@@ -2167,7 +2233,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         CmsProperty property;
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_PROPERTIES_READALL");
             stmt.setString(1, resource.getStructureId().toString());
             stmt.setString(2, resource.getResourceId().toString());
@@ -2217,6 +2283,107 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return new ArrayList<CmsProperty>(propertyMap.values());
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readPropertyObjects(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.Collection)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        Collection<CmsResource> resources)
+    throws CmsDataAccessException {
+
+        CmsUUID projectId = ((dbc.getProjectId() == null) || dbc.getProjectId().isNullUUID())
+        ? project.getUuid()
+        : dbc.getProjectId();
+
+        // properties may be mapped to the structure id or to the resource id
+        Set<String> mappingIds = new LinkedHashSet<String>();
+        for (CmsResource resource : resources) {
+            mappingIds.add(resource.getStructureId().toString());
+            mappingIds.add(resource.getResourceId().toString());
+        }
+        List<String> ids = new ArrayList<String>(mappingIds);
+        // the property rows (name, value, mapping type) by mapping id
+        Map<String, List<Object[]>> rowsByMappingId = new HashMap<String, List<Object[]>>();
+
+        ResultSet res = null;
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            String query = m_sqlManager.readQuery(projectId, "C_PROPERTIES_READALL_FOR_IDS");
+            for (int start = 0; start < ids.size(); start += READ_BATCH_SIZE) {
+                List<String> batch = ids.subList(start, Math.min(ids.size(), start + READ_BATCH_SIZE));
+                stmt = m_sqlManager.getPreparedStatementForSql(
+                    conn,
+                    query + m_sqlManager.createInCondition(batch.size()));
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setString(i + 1, batch.get(i));
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    String mappingId = res.getString(4);
+                    List<Object[]> rows = rowsByMappingId.get(mappingId);
+                    if (rows == null) {
+                        rows = new ArrayList<Object[]>();
+                        rowsByMappingId.put(mappingId, rows);
+                    }
+                    rows.add(new Object[] {res.getString(1), res.getString(2), Integer.valueOf(res.getInt(3))});
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        Map<CmsUUID, List<CmsProperty>> result = new HashMap<CmsUUID, List<CmsProperty>>();
+        for (CmsResource resource : resources) {
+            Map<String, CmsProperty> propertyMap = new HashMap<String, CmsProperty>();
+            List<Object[]> rows = new ArrayList<Object[]>();
+            String structureId = resource.getStructureId().toString();
+            String resourceId = resource.getResourceId().toString();
+            if (rowsByMappingId.containsKey(structureId)) {
+                rows.addAll(rowsByMappingId.get(structureId));
+            }
+            if (!resourceId.equals(structureId) && rowsByMappingId.containsKey(resourceId)) {
+                rows.addAll(rowsByMappingId.get(resourceId));
+            }
+            for (Object[] row : rows) {
+                String propertyKey = (String)row[0];
+                int mappingType = ((Integer)row[2]).intValue();
+                CmsProperty property = propertyMap.get(propertyKey);
+                if (property == null) {
+                    // there doesn't exist a property object for this key yet
+                    property = new CmsProperty();
+                    property.setName(propertyKey);
+                    propertyMap.put(propertyKey, property);
+                }
+                if (mappingType == CmsProperty.STRUCTURE_RECORD_MAPPING) {
+                    property.setStructureValue((String)row[1]);
+                } else if (mappingType == CmsProperty.RESOURCE_RECORD_MAPPING) {
+                    property.setResourceValue((String)row[1]);
+                } else {
+                    throw new CmsDbConsistencyException(
+                        Messages.get().container(
+                            Messages.ERR_UNKNOWN_PROPERTY_VALUE_MAPPING_3,
+                            resource.getRootPath(),
+                            new Integer(mappingType),
+                            propertyKey));
+                }
+                property.setOrigin(resource.getRootPath());
+            }
+            result.put(resource.getStructureId(), new ArrayList<CmsProperty>(propertyMap.values()));
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readRelations(org.opencms.db.CmsDbContext, CmsUUID, CmsResource, org.opencms.relations.CmsRelationFilter)
      */
@@ -2234,7 +2401,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         ResultSet res = null;
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             if (filter.isSource()) {
                 List<Object> params = new ArrayList<Object>(7);
 
@@ -2309,7 +2476,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         Connection conn = null;
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_RESOURCES_READBYID");
 
             stmt.setString(1, structureId.toString());
@@ -2360,7 +2527,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         boolean endsWithSlash = (len != path.length());
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_RESOURCES_READ");
 
             stmt.setString(1, path);
@@ -2401,6 +2568,61 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return resource;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResources(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.Collection, boolean)
+     */
+    public List<CmsResource> readResources(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<CmsUUID> structureIds,
+        boolean includeDeleted)
+    throws CmsDataAccessException {
+
+        List<CmsUUID> ids = new ArrayList<CmsUUID>(new LinkedHashSet<CmsUUID>(structureIds));
+        Map<CmsUUID, CmsResource> resources = new HashMap<CmsUUID, CmsResource>();
+
+        ResultSet res = null;
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            String query = m_sqlManager.readQuery(projectId, "C_RESOURCES_READBYIDS");
+            for (int start = 0; start < ids.size(); start += READ_BATCH_SIZE) {
+                List<CmsUUID> batch = ids.subList(start, Math.min(ids.size(), start + READ_BATCH_SIZE));
+                stmt = m_sqlManager.getPreparedStatementForSql(
+                    conn,
+                    query + m_sqlManager.createInCondition(batch.size()));
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setString(i + 1, batch.get(i).toString());
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    CmsResource resource = createResource(res, projectId);
+                    resources.put(resource.getStructureId(), resource);
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        List<CmsResource> result = new ArrayList<CmsResource>(resources.size());
+        for (CmsUUID id : ids) {
+            CmsResource resource = resources.get(id);
+            if ((resource != null) && (includeDeleted || !resource.getState().isDeleted())) {
+                result.add(resource);
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readResources(org.opencms.db.CmsDbContext, CmsUUID, CmsResourceState, int)
      */
@@ -2457,6 +2679,74 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResourcesForPaths(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.Collection, boolean)
+     */
+    public Map<String, CmsResource> readResourcesForPaths(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<String> paths,
+        boolean includeDeleted)
+    throws CmsDataAccessException {
+
+        // the paths to query are stored without trailing slash
+        Set<String> pathSet = new LinkedHashSet<String>();
+        for (String path : paths) {
+            pathSet.add(CmsFileUtil.removeTrailingSeparator(path));
+        }
+        List<String> queryPaths = new ArrayList<String>(pathSet);
+        Map<String, CmsResource> resources = new HashMap<String, CmsResource>();
+
+        ResultSet res = null;
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            String query = m_sqlManager.readQuery(projectId, "C_RESOURCES_READBYPATHS");
+            for (int start = 0; start < queryPaths.size(); start += READ_BATCH_SIZE) {
+                List<String> batch = queryPaths.subList(start, Math.min(queryPaths.size(), start + READ_BATCH_SIZE));
+                stmt = m_sqlManager.getPreparedStatementForSql(
+                    conn,
+                    query + m_sqlManager.createInCondition(batch.size()));
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setString(i + 1, batch.get(i));
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    CmsResource resource = createResource(res, projectId);
+                    CmsResource previous = resources.get(resource.getRootPath());
+                    // like reading a single path, prefer a resource which is not deleted
+                    if ((previous == null) || (previous.getState().isDeleted() && !resource.getState().isDeleted())) {
+                        resources.put(resource.getRootPath(), resource);
+                    }
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        Map<String, CmsResource> result = new HashMap<String, CmsResource>();
+        for (String path : paths) {
+            String queryPath = CmsFileUtil.removeTrailingSeparator(path);
+            CmsResource resource = resources.get(queryPath);
+            if ((resource == null) || ((queryPath.length() != path.length()) && resource.isFile())) {
+                continue;
+            }
+            if (includeDeleted || !resource.getState().isDeleted()) {
+                result.put(path, resource);
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readResourcesForPrincipalACE(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.util.CmsUUID)
      */
@@ -2595,6 +2885,43 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         int mode)
     throws CmsDataAccessException {
 
+        return readResourceTree(
+            dbc,
+            projectId,
+            parentPath,
+            type,
+            state,
+            lastModifiedAfter,
+            lastModifiedBefore,
+            releasedAfter,
+            releasedBefore,
+            expiredAfter,
+            expiredBefore,
+            mode,
+            null,
+            0);
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResourceTree(org.opencms.db.CmsDbContext, CmsUUID, java.lang.String, int, CmsResourceState, long, long, long, long, long, long, int, org.opencms.file.CmsResource, int)
+     */
+    public List<CmsResource> readResourceTree(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        String parentPath,
+        int type,
+        CmsResourceState state,
+        long lastModifiedAfter,
+        long lastModifiedBefore,
+        long releasedAfter,
+        long releasedBefore,
+        long expiredAfter,
+        long expiredBefore,
+        int mode,
+        CmsResource after,
+        int maxResults)
+    throws CmsDataAccessException {
+
         List<CmsResource> result = new ArrayList<CmsResource>();
 
         StringBuffer conditions = new StringBuffer();
@@ -2609,6 +2936,15 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         prepareExpiredTimeRangeCondition(projectId, expiredAfter, expiredBefore, conditions, params);
         preparePathCondition(projectId, parentPath, mode, conditions, params);
         prepareStateCondition(projectId, state, mode, conditions, params);
+        if (after != null) {
+            // continue after the last resource of the previous batch
+            conditions.append(BEGIN_INCLUDE_CONDITION);
+            conditions.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_SELECT_AFTER_PATH_AND_ID"));
+            conditions.append(END_CONDITION);
+            params.add(after.getRootPath());
+            params.add(after.getRootPath());
+            params.add(after.getStructureId().toString());
+        }
 
         // now read matching resources within the subtree
         ResultSet res = null;
@@ -2621,8 +2957,17 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_READ_TREE"));
             queryBuf.append(conditions);
             queryBuf.append(" ");
-            queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_ORDER_BY_PATH"));
+            if (maxResults > 0) {
+                // batches need a unique order, the path alone is not unique in offline projects
+                queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_ORDER_BY_PATH_AND_ID"));
+            } else {
+                queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_ORDER_BY_PATH"));
+            }
             stmt = m_sqlManager.getPreparedStatementForSql(conn, queryBuf.toString());
+            if (maxResults > 0) {
+                stmt.setMaxRows(maxResults);
+                stmt.setFetchSize(maxResults);
+            }
 
             for (int i = 0; i < params.size(); i++) {
                 if (params.get(i) instanceof Integer) {
@@ -3172,6 +3517,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         Connection conn = null;
         PreparedStatement stmt = null;
 
+        content = m_driverManager.getContentStore().store(content);
         try {
             conn = m_sqlManager.getConnection(dbc);
             stmt = m_sqlManager.getPreparedStatement(conn, dbc.currentProject(), "C_OFFLINE_CONTENTS_UPDATE");
@@ -3657,6 +4003,36 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Executes the pending batch of relation inserts.<p>
+     *
+     * @param stmt the statement containing the batch
+     * @param batch the relations of the batch
+     *
+     * @return the relations which have not been written, e.g. because of a constraint violation
+     *
+     * @throws SQLException if it is unknown which relations of the batch have been written
+     */
+    protected List<CmsRelation> executeRelationBatch(PreparedStatement stmt, List<CmsRelation> batch)
+    throws SQLException {
+
+        try {
+            stmt.executeBatch();
+            return Collections.emptyList();
+        } catch (SQLException e) {
+            LOG.debug(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)).key(),
+                e);
+            try {
+                stmt.clearBatch();
+            } catch (SQLException e1) {
+                // ignore
+                LOG.debug(e1.getLocalizedMessage(), e1);
+            }
+            return CmsSqlManager.getFailedBatchRows(batch, e);
+        }
+    }
+
     /**
      * Returns the count of properties for a property definition.<p>
      *
@@ -322,6 +322,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CREATE_RELATION_2 = "LOG_CREATE_RELATION_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CREATE_RELATION_FAILED_2 = "LOG_CREATE_RELATION_FAILED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_DBG_CLEAR_LOCKS_1 = "LOG_DBG_CLEAR_LOCKS_1";
 
@@ -195,6 +195,7 @@ public class CmsVfsDriver extends org.opencms.db.generic.CmsVfsDriver {
         Connection conn = null;
         ResultSet res = null;
 
+        contents = m_driverManager.getContentStore().store(contents);
         boolean wasInTransaction = false;
         try {
             conn = m_sqlManager.getConnection(dbc);
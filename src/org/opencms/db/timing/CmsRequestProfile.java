@@ -0,0 +1,294 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db.timing;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The driver calls and cache accesses of a single profiled request or job.<p>
+ *
+ * A profile is only modified by the thread executing the request, see {@link CmsRequestProfilingHandler}.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsRequestProfile {
+
+    /** The maximum number of driver methods listed in the breakdown. */
+    private static final int MAX_BREAKDOWN_METHODS = 20;
+
+    /** The cache accesses, with the hits at index 0 and the misses at index 1. */
+    private Map<CacheType, long[]> m_cacheAccesses = new EnumMap<CacheType, long[]>(CacheType.class);
+
+    /** The driver calls by method key, with the call count at index 0 and the nanoseconds at index 1. */
+    private Map<String, long[]> m_driverCalls = new HashMap<String, long[]>();
+
+    /** The duration in nanoseconds, set when the profile is finished. */
+    private long m_durationNanos = -1;
+
+    /** The name of the request or job. */
+    private String m_name;
+
+    /** The start time in nanoseconds. */
+    private long m_startNanos;
+
+    /** The start time in milliseconds. */
+    private long m_startTime;
+
+    /**
+     * Creates a new profile starting now.<p>
+     *
+     * @param name the name of the request or job
+     */
+    public CmsRequestProfile(String name) {
+
+        m_name = name;
+        m_startTime = System.currentTimeMillis();
+        m_startNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the short name of a driver method for the given method key.<p>
+     *
+     * The key <code>public abstract org.opencms.file.CmsResource org.opencms.db.I_CmsVfsDriver.readResource(...)</code>
+     * is shortened to <code>I_CmsVfsDriver.readResource</code>.<p>
+     *
+     * @param key the method key
+     *
+     * @return the short method name
+     */
+    public static String getShortMethodName(String key) {
+
+        int end = key.indexOf('(');
+        String name = end < 0 ? key : key.substring(0, end);
+        int methodPos = name.lastIndexOf('.');
+        if (methodPos < 0) {
+            return name;
+        }
+        int classPos = name.lastIndexOf('.', methodPos - 1);
+        int blankPos = name.lastIndexOf(' ', methodPos - 1);
+        return name.substring(Math.max(classPos, blankPos) + 1);
+    }
+
+    /**
+     * Adds a cache access.<p>
+     *
+     * @param type the cache type
+     * @param hit <code>true</code> if the object was found in the cache
+     */
+    public void addCacheAccess(CacheType type, boolean hit) {
+
+        long[] accesses = m_cacheAccesses.get(type);
+        if (accesses == null) {
+            accesses = new long[2];
+            m_cacheAccesses.put(type, accesses);
+        }
+        accesses[hit ? 0 : 1]++;
+    }
+
+    /**
+     * Adds a driver call.<p>
+     *
+     * @param key the key identifying the driver method
+     * @param nanos the duration of the call in nanoseconds
+     */
+    public void addDriverCall(String key, long nanos) {
+
+        long[] calls = m_driverCalls.get(key);
+        if (calls == null) {
+            calls = new long[2];
+            m_driverCalls.put(key, calls);
+        }
+        calls[0]++;
+        calls[1] += nanos;
+    }
+
+    /**
+     * Finishes this profile.<p>
+     */
+    public void finish() {
+
+        if (m_durationNanos < 0) {
+            m_durationNanos = System.nanoTime() - m_startNanos;
+        }
+    }
+
+    /**
+     * Returns a multi line description of the driver calls and cache accesses of this profile.<p>
+     *
+     * The driver methods are listed with the most time consuming methods first.<p>
+     *
+     * @return the breakdown
+     */
+    public String getBreakdown() {
+
+        StringBuffer result = new StringBuffer();
+        result.append(m_name).append(": ").append(getDuration()).append(" ms, ");
+        result.append(getDriverCallCount()).append(" driver calls (").append(getDriverNanos() / 1000000L).append(
+            " ms), ");
+        result.append(getCacheHits()).append(" cache hits, ").append(getCacheMisses()).append(" cache misses");
+        List<Map.Entry<String, long[]>> calls = new ArrayList<Map.Entry<String, long[]>>(m_driverCalls.entrySet());
+        Collections.sort(calls, (a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+        for (Map.Entry<String, long[]> entry : calls.subList(0, Math.min(calls.size(), MAX_BREAKDOWN_METHODS))) {
+            result.append("\n    ").append(getShortMethodName(entry.getKey())).append(": ");
+            result.append(entry.getValue()[0]).append(" calls, ");
+            result.append(entry.getValue()[1] / 1000000L).append(" ms");
+        }
+        for (Map.Entry<CacheType, long[]> entry : m_cacheAccesses.entrySet()) {
+            result.append("\n    cache ").append(entry.getKey()).append(": ");
+            result.append(entry.getValue()[0]).append(" hits, ");
+            result.append(entry.getValue()[1]).append(" misses");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the cache accesses by cache type, with the hits at index 0 and the misses at index 1.<p>
+     *
+     * @return the cache accesses
+     */
+    public Map<CacheType, long[]> getCacheAccesses() {
+
+        return Collections.unmodifiableMap(m_cacheAccesses);
+    }
+
+    /**
+     * Returns the number of cache hits.<p>
+     *
+     * @return the number of cache hits
+     */
+    public long getCacheHits() {
+
+        long result = 0;
+        for (long[] accesses : m_cacheAccesses.values()) {
+            result += accesses[0];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of cache misses.<p>
+     *
+     * @return the number of cache misses
+     */
+    public long getCacheMisses() {
+
+        long result = 0;
+        for (long[] accesses : m_cacheAccesses.values()) {
+            result += accesses[1];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of driver calls.<p>
+     *
+     * @return the number of driver calls
+     */
+    public long getDriverCallCount() {
+
+        long result = 0;
+        for (long[] calls : m_driverCalls.values()) {
+            result += calls[0];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time spent in driver calls in nanoseconds.<p>
+     *
+     * @return the time spent in driver calls
+     */
+    public long getDriverNanos() {
+
+        long result = 0;
+        for (long[] calls : m_driverCalls.values()) {
+            result += calls[1];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the duration in milliseconds.<p>
+     *
+     * For a profile which is not finished yet, this is the time elapsed since the start.<p>
+     *
+     * @return the duration in milliseconds
+     */
+    public long getDuration() {
+
+        return getDurationNanos() / 1000000L;
+    }
+
+    /**
+     * Returns the duration in nanoseconds.<p>
+     *
+     * For a profile which is not finished yet, this is the time elapsed since the start.<p>
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getDurationNanos() {
+
+        return m_durationNanos < 0 ? System.nanoTime() - m_startNanos : m_durationNanos;
+    }
+
+    /**
+     * Returns the name of the request or job.<p>
+     *
+     * @return the name
+     */
+    public String getName() {
+
+        return m_name;
+    }
+
+    /**
+     * Returns the start time.<p>
+     *
+     * @return the start time
+     */
+    public long getStartTime() {
+
+        return m_startTime;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return getBreakdown();
+    }
+}
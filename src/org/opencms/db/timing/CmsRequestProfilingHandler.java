@@ -0,0 +1,456 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db.timing;
+
+import org.opencms.db.Messages;
+import org.opencms.main.CmsLog;
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Profiling handler which attributes the driver calls and cache accesses to the request or job executed by the
+ * current thread.<p>
+ *
+ * The request profiling is enabled by setting the system property {@link #PARAM_SAMPLE_INTERVAL} to the sample
+ * interval, e.g. <code>-Dopencms.profile.requests=100</code> to profile every 100th request. If it is enabled,
+ * the drivers are wrapped in profiling proxies, and the servlet, the publish threads and the scheduler start and
+ * finish a {@link CmsRequestProfile} for each sampled request or job.<p>
+ *
+ * The durations of the recently profiled requests are kept to calculate percentiles, and the slowest profiled
+ * requests are kept with their breakdown of driver calls and cache accesses. The cache accesses of all profiled
+ * requests are summed up per cache. Each request which is one of the
+ * slowest requests is logged with its breakdown at INFO level. The data is available via JMX with the name
+ * {@link #MBEAN_NAME} and in the request profiling workplace app.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsRequestProfilingHandler implements I_CmsProfilingHandler, I_CmsRequestProfilingMXBean {
+
+    /** The default number of kept slowest requests. */
+    public static final int DEFAULT_SLOWEST_COUNT = 10;
+
+    /** The name of the MXBean. */
+    public static final String MBEAN_NAME = "org.opencms:type=RequestProfiling";
+
+    /** The system property for the sample interval. */
+    public static final String PARAM_SAMPLE_INTERVAL = "opencms.profile.requests";
+
+    /** The system property for the number of kept slowest requests. */
+    public static final String PARAM_SLOWEST_COUNT = "opencms.profile.requests.slowest";
+
+    /** The number of recent durations used for the percentiles. */
+    private static final int DURATION_BUFFER_SIZE = 1024;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsRequestProfilingHandler.class);
+
+    /** The profile of the request executed by the current thread. */
+    private static final ThreadLocal<CmsRequestProfile> PROFILE = new ThreadLocal<CmsRequestProfile>();
+
+    /** The instance, <code>null</code> if the request profiling is disabled. */
+    private static final CmsRequestProfilingHandler INSTANCE = createInstance();
+
+    /** The cache accesses of the profiled requests, with the hits at index 0 and the misses at index 1. */
+    private Map<CacheType, long[]> m_cacheAccesses = new EnumMap<CacheType, long[]>(CacheType.class);
+
+    /** The number of recorded durations in the buffer. */
+    private int m_durationCount;
+
+    /** The index at which the next duration is recorded. */
+    private int m_durationIndex;
+
+    /** The ring buffer with the recent durations in nanoseconds. */
+    private long[] m_durations = new long[DURATION_BUFFER_SIZE];
+
+    /** The number of profiled requests. */
+    private long m_profiledCount;
+
+    /** The number of started requests, used for sampling. */
+    private AtomicLong m_requestCount = new AtomicLong();
+
+    /** The sample interval. */
+    private volatile int m_sampleInterval;
+
+    /** The slowest profiled requests, starting with the slowest request. */
+    private List<CmsRequestProfile> m_slowest = new ArrayList<CmsRequestProfile>();
+
+    /** The number of kept slowest requests. */
+    private int m_slowestCount;
+
+    /**
+     * Creates a new request profiling handler.<p>
+     *
+     * Use {@link #getInstance()} to access the handler used by the drivers.<p>
+     *
+     * @param sampleInterval the sample interval, 1 to profile every request
+     * @param slowestCount the number of kept slowest requests
+     */
+    public CmsRequestProfilingHandler(int sampleInterval, int slowestCount) {
+
+        setSampleInterval(sampleInterval);
+        m_slowestCount = Math.max(1, slowestCount);
+    }
+
+    /**
+     * Counts a cache access for the request executed by the current thread.<p>
+     *
+     * @param type the cache type
+     * @param hit <code>true</code> if the object was found in the cache
+     */
+    public static void countCacheAccess(CacheType type, boolean hit) {
+
+        if (INSTANCE != null) {
+            CmsRequestProfile profile = PROFILE.get();
+            if (profile != null) {
+                profile.addCacheAccess(type, hit);
+            }
+        }
+    }
+
+    /**
+     * Finishes the profile of a request started with {@link #startProfile(String)}.<p>
+     *
+     * @param profile the profile, may be <code>null</code>
+     */
+    public static void finishProfile(CmsRequestProfile profile) {
+
+        if ((INSTANCE != null) && (profile != null)) {
+            INSTANCE.finishRequest(profile);
+        }
+    }
+
+    /**
+     * Returns the request profiling handler used by the drivers.<p>
+     *
+     * @return the request profiling handler, or <code>null</code> if the request profiling is disabled
+     */
+    public static CmsRequestProfilingHandler getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Checks if the request profiling is enabled.<p>
+     *
+     * @return <code>true</code> if the request profiling is enabled
+     */
+    public static boolean isEnabled() {
+
+        return INSTANCE != null;
+    }
+
+    /**
+     * Starts the profile of a request or job executed by the current thread, if the request profiling is enabled
+     * and the request is sampled.<p>
+     *
+     * The returned profile has to be finished with {@link #finishProfile(CmsRequestProfile)}, usually in a
+     * <code>finally</code> block.<p>
+     *
+     * @param name the name of the request or job
+     *
+     * @return the started profile, or <code>null</code> if the request is not profiled
+     */
+    public static CmsRequestProfile startProfile(String name) {
+
+        return INSTANCE != null ? INSTANCE.startRequest(name) : null;
+    }
+
+    /**
+     * Finishes the profile of a request and records its duration.<p>
+     *
+     * @param profile the profile
+     */
+    public void finishRequest(CmsRequestProfile profile) {
+
+        if (PROFILE.get() == profile) {
+            PROFILE.remove();
+        }
+        profile.finish();
+        boolean slow = false;
+        synchronized (this) {
+            m_durations[m_durationIndex] = profile.getDurationNanos();
+            m_durationIndex = (m_durationIndex + 1) % m_durations.length;
+            m_durationCount = Math.min(m_durationCount + 1, m_durations.length);
+            m_profiledCount++;
+            for (Map.Entry<CacheType, long[]> entry : profile.getCacheAccesses().entrySet()) {
+                long[] accesses = m_cacheAccesses.get(entry.getKey());
+                if (accesses == null) {
+                    accesses = new long[2];
+                    m_cacheAccesses.put(entry.getKey(), accesses);
+                }
+                accesses[0] += entry.getValue()[0];
+                accesses[1] += entry.getValue()[1];
+            }
+            int pos = m_slowest.size();
+            while ((pos > 0) && (m_slowest.get(pos - 1).getDurationNanos() < profile.getDurationNanos())) {
+                pos--;
+            }
+            if (pos < m_slowestCount) {
+                m_slowest.add(pos, profile);
+                if (m_slowest.size() > m_slowestCount) {
+                    m_slowest.remove(m_slowest.size() - 1);
+                }
+                slow = true;
+            }
+        }
+        if (slow && LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(Messages.LOG_SLOW_REQUEST_1, profile.getBreakdown()));
+        }
+    }
+
+    /**
+     * Returns the cache accesses of the profiled requests by cache type, with the hits at index 0 and the misses
+     * at index 1.<p>
+     *
+     * @return the cache accesses
+     */
+    public synchronized Map<CacheType, long[]> getCacheAccesses() {
+
+        Map<CacheType, long[]> result = new EnumMap<CacheType, long[]>(CacheType.class);
+        for (Map.Entry<CacheType, long[]> entry : m_cacheAccesses.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().clone());
+        }
+        return result;
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#getCacheStatistics()
+     */
+    public List<String> getCacheStatistics() {
+
+        List<String> result = new ArrayList<String>();
+        for (Map.Entry<CacheType, long[]> entry : getCacheAccesses().entrySet()) {
+            long hits = entry.getValue()[0];
+            long total = hits + entry.getValue()[1];
+            result.add(
+                entry.getKey() + ": " + hits + " hits, " + (total - hits) + " misses, "
+                    + (total > 0 ? (hits * 100) / total : 0) + "% hit ratio");
+        }
+        return result;
+    }
+
+    /**
+     * Returns the given percentile of the durations of the recently profiled requests in milliseconds.<p>
+     *
+     * @param percentile the percentile, between 0 and 100
+     *
+     * @return the percentile of the durations, or 0 if no request has been profiled
+     */
+    public long getDurationPercentile(double percentile) {
+
+        long[] durations;
+        synchronized (this) {
+            durations = Arrays.copyOf(m_durations, m_durationCount);
+        }
+        if (durations.length == 0) {
+            return 0;
+        }
+        Arrays.sort(durations);
+        int rank = (int)Math.ceil((percentile / 100.0) * durations.length);
+        return durations[Math.min(Math.max(rank - 1, 0), durations.length - 1)] / 1000000L;
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#getDurationPercentile50()
+     */
+    public long getDurationPercentile50() {
+
+        return getDurationPercentile(50);
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#getDurationPercentile90()
+     */
+    public long getDurationPercentile90() {
+
+        return getDurationPercentile(90);
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#getDurationPercentile99()
+     */
+    public long getDurationPercentile99() {
+
+        return getDurationPercentile(99);
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#getProfiledRequestCount()
+     */
+    public synchronized long getProfiledRequestCount() {
+
+        return m_profiledCount;
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#getSampleInterval()
+     */
+    public int getSampleInterval() {
+
+        return m_sampleInterval;
+    }
+
+    /**
+     * Returns the slowest profiled requests, starting with the slowest request.<p>
+     *
+     * @return the slowest profiled requests
+     */
+    public synchronized List<CmsRequestProfile> getSlowestProfiles() {
+
+        return new ArrayList<CmsRequestProfile>(m_slowest);
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#getSlowestRequests()
+     */
+    public List<String> getSlowestRequests() {
+
+        List<String> result = new ArrayList<String>();
+        for (CmsRequestProfile profile : getSlowestProfiles()) {
+            result.add(profile.getBreakdown());
+        }
+        return result;
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsProfilingHandler#putTime(java.lang.String, long)
+     */
+    public void putTime(String key, long nanos) {
+
+        CmsRequestProfile profile = PROFILE.get();
+        if (profile != null) {
+            profile.addDriverCall(key, nanos);
+        }
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#reset()
+     */
+    public synchronized void reset() {
+
+        m_durationCount = 0;
+        m_durationIndex = 0;
+        m_profiledCount = 0;
+        m_cacheAccesses.clear();
+        m_slowest.clear();
+    }
+
+    /**
+     * @see org.opencms.db.timing.I_CmsRequestProfilingMXBean#setSampleInterval(int)
+     */
+    public void setSampleInterval(int sampleInterval) {
+
+        m_sampleInterval = Math.max(1, sampleInterval);
+    }
+
+    /**
+     * Starts the profile of a request executed by the current thread, if the request is sampled.<p>
+     *
+     * Requests started while the current thread already executes a profiled request, e.g. a job executed by a
+     * profiled request, are attributed to the outer request.<p>
+     *
+     * @param name the name of the request or job
+     *
+     * @return the started profile, or <code>null</code> if the request is not profiled
+     */
+    public CmsRequestProfile startRequest(String name) {
+
+        if (PROFILE.get() != null) {
+            return null;
+        }
+        if ((m_requestCount.incrementAndGet() % m_sampleInterval) != 0) {
+            return null;
+        }
+        CmsRequestProfile profile = new CmsRequestProfile(name);
+        PROFILE.set(profile);
+        return profile;
+    }
+
+    /**
+     * Creates the instance if the request profiling is enabled.<p>
+     *
+     * @return the instance, or <code>null</code> if the request profiling is disabled
+     */
+    private static CmsRequestProfilingHandler createInstance() {
+
+        int sampleInterval = getIntProperty(PARAM_SAMPLE_INTERVAL, 0);
+        if (sampleInterval <= 0) {
+            return null;
+        }
+        CmsRequestProfilingHandler handler = new CmsRequestProfilingHandler(
+            sampleInterval,
+            getIntProperty(PARAM_SLOWEST_COUNT, DEFAULT_SLOWEST_COUNT));
+        CmsDefaultProfilingHandler.INSTANCE.addHandler(handler);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                // registered by a previous deployment of the web application
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(handler, name);
+        } catch (Exception e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_REGISTER_PROFILING_MBEAN_FAILED_1, MBEAN_NAME), e);
+        }
+        return handler;
+    }
+
+    /**
+     * Reads an integer system property.<p>
+     *
+     * @param name the name of the property
+     * @param defaultValue the default value
+     *
+     * @return the value of the property, or the default value if the property is not set or invalid
+     */
+    private static int getIntProperty(String name, int defaultValue) {
+
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            return defaultValue;
+        }
+    }
+}
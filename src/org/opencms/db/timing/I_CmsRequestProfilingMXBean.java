@@ -0,0 +1,100 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db.timing;
+
+import java.util.List;
+
+/**
+ * Management interface of the request profiling, registered as MXBean with the name
+ * {@link CmsRequestProfilingHandler#MBEAN_NAME}.<p>
+ *
+ * @since 11.0.0
+ */
+public interface I_CmsRequestProfilingMXBean {
+
+    /**
+     * Returns the hits, misses and hit ratio of each cache accessed by the profiled requests.<p>
+     *
+     * @return the cache statistics
+     */
+    List<String> getCacheStatistics();
+
+    /**
+     * Returns the 50th percentile of the durations of the recently profiled requests in milliseconds.<p>
+     *
+     * @return the 50th percentile of the durations
+     */
+    long getDurationPercentile50();
+
+    /**
+     * Returns the 90th percentile of the durations of the recently profiled requests in milliseconds.<p>
+     *
+     * @return the 90th percentile of the durations
+     */
+    long getDurationPercentile90();
+
+    /**
+     * Returns the 99th percentile of the durations of the recently profiled requests in milliseconds.<p>
+     *
+     * @return the 99th percentile of the durations
+     */
+    long getDurationPercentile99();
+
+    /**
+     * Returns the number of profiled requests.<p>
+     *
+     * @return the number of profiled requests
+     */
+    long getProfiledRequestCount();
+
+    /**
+     * Returns the sample interval, i.e. every how many requests one request is profiled.<p>
+     *
+     * @return the sample interval
+     */
+    int getSampleInterval();
+
+    /**
+     * Returns the breakdowns of the slowest profiled requests, starting with the slowest request.<p>
+     *
+     * @return the breakdowns of the slowest requests
+     */
+    List<String> getSlowestRequests();
+
+    /**
+     * Clears the recorded durations, cache accesses and slowest requests.<p>
+     */
+    void reset();
+
+    /**
+     * Sets the sample interval, i.e. every how many requests one request is profiled.<p>
+     *
+     * @param sampleInterval the sample interval, 1 to profile every request
+     */
+    void setSampleInterval(int sampleInterval);
+}
@@ -40,6 +40,7 @@ import org.opencms.file.history.CmsHistoryPrincipal;
 import org.opencms.file.history.CmsHistoryProject;
 import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.flex.CmsFlexRequestContextInfo;
 import org.opencms.i18n.CmsLocaleGroupService;
 import org.opencms.lock.CmsLock;
 import org.opencms.lock.CmsLockFilter;
@@ -68,7 +69,9 @@ import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsNumberSuffixNameSequence;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -1231,6 +1234,32 @@ public final class CmsObject {
         return m_securityManager.existsResource(m_context, addSiteRoot(resourcename), filter);
     }
 
+    /**
+     * Finishes a bulk delete started with {@link #startBulkDelete()}.<p>
+     *
+     * Flushes the caches and fires a single event for all resources deleted since the bulk delete was started.
+     * Does nothing if no bulk delete is active.<p>
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void finishBulkDelete() throws CmsException {
+
+        m_securityManager.finishBulkDelete(m_context);
+    }
+
+    /**
+     * Finishes a bulk import started with {@link #startBulkImport()}.<p>
+     *
+     * Flushes the caches and fires a single event for all resources imported since the bulk import was started.
+     * Does nothing if no bulk import is active.<p>
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void finishBulkImport() throws CmsException {
+
+        m_securityManager.finishBulkImport(m_context);
+    }
+
     /**
      * Returns the list of access control entries of a resource given its name.<p>
      *
@@ -1981,6 +2010,21 @@ public final class CmsObject {
         createRelation(resourceName, targetPath, relationType, true);
     }
 
+    /**
+     * Imports the given relations in one go.<p>
+     *
+     * Unlike {@link #importRelation(String, String, String)}, the permissions are not checked for each source resource,
+     * instead the current user needs the {@link org.opencms.security.CmsRole#ROOT_ADMIN} role.<p>
+     *
+     * @param relations the relations to import
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void importRelations(List<CmsRelation> relations) throws CmsException {
+
+        m_securityManager.importRelations(m_context, relations);
+    }
+
     /**
      * Imports a resource to the OpenCms VFS.<p>
      *
@@ -2268,6 +2312,40 @@ public final class CmsObject {
         return m_securityManager.moveToLostAndFound(m_context, resource, false);
     }
 
+    /**
+     * Deletes the versions from the history tables, keeping the given number of versions per resource,
+     * like {@link #deleteHistoricalVersions(int, int, long, I_CmsReport)}.<p>
+     *
+     * The versions to delete are computed for all resources with a few grouped queries and deleted in chunks,
+     * which is much faster than deleting the versions resource by resource if the history is large.<p>
+     *
+     * @param versionsToKeep number of versions to keep, is ignored if negative
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param dryRun <code>true</code> to only count and report the versions to delete
+     * @param report the report for output logging
+     *
+     * @return the number of deleted versions, or the number of versions to delete in a dry run
+     *
+     * @throws CmsException if operation was not successful
+     */
+    public int pruneHistoricalVersions(
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        boolean dryRun,
+        I_CmsReport report)
+    throws CmsException {
+
+        return m_securityManager.pruneHistoricalVersions(
+            m_context,
+            versionsToKeep,
+            versionsDeleted,
+            timeDeleted,
+            dryRun,
+            report);
+    }
+
     /**
      * Reads all available versions for a given resource.<p>
      *
@@ -2898,7 +2976,7 @@ public final class CmsObject {
      */
     public CmsProperty readPropertyObject(CmsResource resource, String property, boolean search) throws CmsException {
 
-        return m_securityManager.readPropertyObject(m_context, resource, property, search);
+        return readPropertyObject(resource, property, search, null);
     }
 
     /**
@@ -2922,7 +3000,21 @@ public final class CmsObject {
     public CmsProperty readPropertyObject(CmsResource resource, String property, boolean search, Locale locale)
     throws CmsException {
 
-        return m_securityManager.readPropertyObject(m_context, resource, property, search, locale);
+        // cached properties need no context date update, since the driver manager does not update the
+        // context dates for properties served from its own cache either
+        CmsRequestReadCache cache = getReadCache();
+        CmsProperty result = cache != null ? cache.getPropertyObject(resource, property, search, locale) : null;
+        if (result == null) {
+            if (locale == null) {
+                result = m_securityManager.readPropertyObject(m_context, resource, property, search);
+            } else {
+                result = m_securityManager.readPropertyObject(m_context, resource, property, search, locale);
+            }
+            if (cache != null) {
+                cache.putPropertyObject(resource, property, search, locale, result);
+            }
+        }
+        return result;
     }
 
     /**
@@ -2942,7 +3034,7 @@ public final class CmsObject {
     public CmsProperty readPropertyObject(String resourcePath, String property, boolean search) throws CmsException {
 
         CmsResource resource = readResource(resourcePath, CmsResourceFilter.ALL);
-        return m_securityManager.readPropertyObject(m_context, resource, property, search);
+        return readPropertyObject(resource, property, search, null);
     }
 
     /**
@@ -2964,7 +3056,7 @@ public final class CmsObject {
     throws CmsException {
 
         CmsResource resource = readResource(resourcePath, CmsResourceFilter.ALL);
-        return m_securityManager.readPropertyObject(m_context, resource, property, search, locale);
+        return readPropertyObject(resource, property, search, locale);
     }
 
     /**
@@ -2993,7 +3085,57 @@ public final class CmsObject {
      */
     public List<CmsProperty> readPropertyObjects(CmsResource resource, boolean search) throws CmsException {
 
-        return m_securityManager.readPropertyObjects(m_context, resource, search);
+        CmsRequestReadCache cache = getReadCache();
+        List<CmsProperty> result = cache != null ? cache.getPropertyObjects(resource, search) : null;
+        if (result == null) {
+            result = m_securityManager.readPropertyObjects(m_context, resource, search);
+            if (cache != null) {
+                cache.putPropertyObjects(resource, search, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads all property objects of the given resources.<p>
+     *
+     * This is more efficient than reading the properties of each resource with {@link #readPropertyObjects(CmsResource, boolean)},
+     * since the properties not cached yet are read from the database in one go. Use this to prefetch the properties
+     * of e.g. all resources of a navigation level.<p>
+     *
+     * @param resources the resources where the properties are mapped to
+     * @param search if <code>true</code>, the properties of all parent folders of the resource
+     *      are merged with the resource properties.
+     *
+     * @return the lists of <code>{@link CmsProperty}</code> objects by structure id of the resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(Collection<CmsResource> resources, boolean search)
+    throws CmsException {
+
+        CmsRequestReadCache cache = getReadCache();
+        Map<CmsUUID, List<CmsProperty>> result = new HashMap<CmsUUID, List<CmsProperty>>();
+        List<CmsResource> missing = new ArrayList<CmsResource>();
+        for (CmsResource resource : resources) {
+            List<CmsProperty> properties = cache != null ? cache.getPropertyObjects(resource, search) : null;
+            if (properties != null) {
+                result.put(resource.getStructureId(), properties);
+            } else {
+                missing.add(resource);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<CmsUUID, List<CmsProperty>> read = m_securityManager.readPropertyObjects(m_context, missing, search);
+            for (CmsResource resource : missing) {
+                List<CmsProperty> properties = read.get(resource.getStructureId());
+                if (cache != null) {
+                    cache.putPropertyObjects(resource, search, properties);
+                }
+                result.put(resource.getStructureId(), properties);
+            }
+        }
+        return result;
     }
 
     /**
@@ -3022,7 +3164,7 @@ public final class CmsObject {
     public List<CmsProperty> readPropertyObjects(String resourcePath, boolean search) throws CmsException {
 
         CmsResource resource = readResource(resourcePath, CmsResourceFilter.ALL);
-        return m_securityManager.readPropertyObjects(m_context, resource, search);
+        return readPropertyObjects(resource, search);
     }
 
     /**
@@ -3112,7 +3254,17 @@ public final class CmsObject {
      */
     public CmsResource readResource(CmsUUID structureID, CmsResourceFilter filter) throws CmsException {
 
-        return m_securityManager.readResource(m_context, structureID, filter);
+        CmsRequestReadCache cache = getReadCache();
+        CmsResource result = cache != null ? cache.getResource(structureID, filter) : null;
+        if (result == null) {
+            result = m_securityManager.readResource(m_context, structureID, filter);
+            if (cache != null) {
+                cache.putResource(result, filter);
+            }
+        } else {
+            updateContextDates(result);
+        }
+        return result;
     }
 
     /**
@@ -3206,7 +3358,56 @@ public final class CmsObject {
      */
     public CmsResource readResource(String resourcename, CmsResourceFilter filter) throws CmsException {
 
-        return m_securityManager.readResource(m_context, addSiteRoot(resourcename), filter);
+        String rootPath = addSiteRoot(resourcename);
+        CmsRequestReadCache cache = getReadCache();
+        CmsResource result = cache != null ? cache.getResource(rootPath, filter) : null;
+        if (result == null) {
+            result = m_securityManager.readResource(m_context, rootPath, filter);
+            if (cache != null) {
+                cache.putResource(result, filter);
+            }
+        } else {
+            updateContextDates(result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a forward only cursor over the resources below the given path matching the filter criteria,
+     * including the full tree below the path only in case the <code>readTree</code> parameter is <code>true</code>.<p>
+     *
+     * Unlike {@link #readResources(String, CmsResourceFilter, boolean)}, the resources are read in batches
+     * of the given size while iterating, so that background jobs can process large subtrees with constant
+     * memory. The resources are returned in the order of their root paths.<p>
+     *
+     * @param resourcename the parent path to read the resources from
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all sub resources
+     * @param batchSize the number of resources to read with each database round trip,
+     *      or 0 for {@link CmsResourceCursor#DEFAULT_BATCH_SIZE}
+     *
+     * @return the cursor over the resources matching the filter criteria
+     *
+     * @throws CmsException if the parent resource could not be read
+     */
+    public CmsResourceCursor readResourceCursor(
+        String resourcename,
+        final CmsResourceFilter filter,
+        final boolean readTree,
+        int batchSize)
+    throws CmsException {
+
+        final CmsResource parent = readResource(resourcename, CmsResourceFilter.ALL);
+        return new CmsResourceCursor(
+            (after, size, result) -> m_securityManager.readResourceBatch(
+                m_context,
+                parent,
+                filter,
+                readTree,
+                after,
+                size,
+                result),
+            batchSize);
     }
 
     /**
@@ -3232,6 +3433,56 @@ public final class CmsObject {
         }
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * This is more efficient than reading each resource with {@link #readResource(CmsUUID, CmsResourceFilter)},
+     * since the resources are read from the database in one go. Use this to prefetch e.g. the resources of all
+     * elements of a container page.<p>
+     *
+     * Ids of missing resources, resources not matching the filter and resources the current user has no read
+     * permissions for are skipped.<p>
+     *
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in the order of the given structure ids
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(Collection<CmsUUID> structureIds, CmsResourceFilter filter)
+    throws CmsException {
+
+        CmsRequestReadCache cache = getReadCache();
+        Map<CmsUUID, CmsResource> resources = new HashMap<CmsUUID, CmsResource>();
+        List<CmsUUID> missing = new ArrayList<CmsUUID>();
+        for (CmsUUID structureId : structureIds) {
+            CmsResource resource = cache != null ? cache.getResource(structureId, filter) : null;
+            if (resource != null) {
+                updateContextDates(resource);
+                resources.put(structureId, resource);
+            } else {
+                missing.add(structureId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (CmsResource resource : m_securityManager.readResources(m_context, missing, filter)) {
+                if (cache != null) {
+                    cache.putResource(resource, filter);
+                }
+                resources.put(resource.getStructureId(), resource);
+            }
+        }
+        List<CmsResource> result = new ArrayList<CmsResource>(resources.size());
+        for (CmsUUID structureId : structureIds) {
+            CmsResource resource = resources.remove(structureId);
+            if (resource != null) {
+                result.add(resource);
+            }
+        }
+        return result;
+    }
+
     /**
      * Reads all resources below the given path matching the filter criteria,
      * including the full tree below the path.<p>
@@ -3856,6 +4107,35 @@ public final class CmsObject {
         m_securityManager.resetPassword(m_context, username, oldPassword, newPassword);
     }
 
+    /**
+     * Starts a bulk delete with this context.<p>
+     *
+     * Until {@link #finishBulkDelete()} is called, deleting resources with this context checks the permissions
+     * and locks as usual, but does not flush the caches and fire an event for each deleted resource.
+     * Use this for deleting many resources in batches, and finish the bulk delete after each batch.<p>
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void startBulkDelete() throws CmsException {
+
+        m_securityManager.startBulkDelete(m_context);
+    }
+
+    /**
+     * Starts a bulk import with this context, which requires the {@link org.opencms.security.CmsRole#ROOT_ADMIN} role.<p>
+     *
+     * Until {@link #finishBulkImport()} is called, {@link #importResource(String, CmsResource, byte[], List)} and
+     * {@link #importAccessControlEntries(CmsResource, List)} skip the permission checks on the single resources,
+     * the access control entries are written in batches, and the caches are flushed and events are fired for
+     * chunks of resources instead of each resource. This is intended for large imports, e.g. when migrating content.<p>
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void startBulkImport() throws CmsException {
+
+        m_securityManager.startBulkImport(m_context);
+    }
+
     /**
      * Undeletes a resource.<p>
      *
@@ -4260,6 +4540,22 @@ public final class CmsObject {
         OpenCms.fireCmsEvent(type, Collections.singletonMap("data", data));
     }
 
+    /**
+     * Returns the request scoped read cache, if it can be used for the current request context.<p>
+     *
+     * The cache is only used in the online project, since offline resources may be changed during the request.<p>
+     *
+     * @return the read cache, or <code>null</code>
+     */
+    private CmsRequestReadCache getReadCache() {
+
+        CmsRequestReadCache cache = m_context.getReadCache();
+        if ((cache != null) && m_context.getCurrentProject().isOnlineProject()) {
+            return cache;
+        }
+        return null;
+    }
+
     /**
      * Convenience method to get the initialized resource type instance for the given resource,
      * with a fall back to special "unknown" resource types in case the resource type is not configured.<p>
@@ -4330,4 +4626,18 @@ public final class CmsObject {
         getResourceType(resource).lockResource(this, m_securityManager, resource, type);
     }
 
+    /**
+     * Updates the dates of the current request context with a resource returned from the request scoped read cache.<p>
+     *
+     * Resources read from the database update the context dates in the driver manager, which is required for
+     * the expiration of Flex cache entries and the <code>Last-Modified</code> header. This has to be done for
+     * cached resources as well.<p>
+     *
+     * @param resource the resource returned from the cache
+     */
+    private void updateContextDates(CmsResource resource) {
+
+        CmsFlexRequestContextInfo.updateFromResource(m_context, resource);
+    }
+
 }
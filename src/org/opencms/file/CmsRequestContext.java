@@ -87,6 +87,9 @@ public final class CmsRequestContext {
     /** The fully qualified name of the organizational unit for this request. */
     private String m_ouFqn;
 
+    /** The request scoped read cache, <code>null</code> if not enabled. */
+    private CmsRequestReadCache m_readCache;
+
     /** The remote ip address. */
     private String m_remoteAddr;
 
@@ -398,6 +401,16 @@ public final class CmsRequestContext {
         return m_remoteAddr;
     }
 
+    /**
+     * Returns the request scoped read cache.<p>
+     *
+     * @return the read cache, or <code>null</code> if not enabled for this request context
+     */
+    public CmsRequestReadCache getReadCache() {
+
+        return m_readCache;
+    }
+
     /**
      * Returns the matcher for the current request, that is the host part of the URI from the original http request.<p>
      *
@@ -566,6 +579,9 @@ public final class CmsRequestContext {
     public CmsProject setCurrentProject(CmsProject project) {
 
         if (project != null) {
+            if (!project.equals(m_currentProject)) {
+                clearReadCache();
+            }
             m_currentProject = project;
         }
         return m_currentProject;
@@ -603,6 +619,18 @@ public final class CmsRequestContext {
         m_locale = locale;
     }
 
+    /**
+     * Sets the request scoped read cache.<p>
+     *
+     * Should only be set for request contexts which are used for a single request only.<p>
+     *
+     * @param readCache the read cache, or <code>null</code> to disable the cache
+     */
+    public void setReadCache(CmsRequestReadCache readCache) {
+
+        m_readCache = readCache;
+    }
+
     /**
      * Sets the organizational unit fully qualified name.<p>
      *
@@ -632,6 +660,9 @@ public final class CmsRequestContext {
      */
     public void setRequestTime(long time) {
 
+        if (time != m_requestTime) {
+            clearReadCache();
+        }
         m_requestTime = time;
     }
 
@@ -693,8 +724,19 @@ public final class CmsRequestContext {
      */
     protected void switchUser(CmsUser user, CmsProject project, String ouFqn) {
 
+        clearReadCache();
         m_user = user;
         m_currentProject = project;
         setOuFqn(ouFqn);
     }
+
+    /**
+     * Clears the request scoped read cache, if enabled.<p>
+     */
+    private void clearReadCache() {
+
+        if (m_readCache != null) {
+            m_readCache.clear();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,338 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.file;
+
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache for resources and properties, which lives only as long as a single request.<p>
+ *
+ * Rendering a page reads the same resources and properties many times, from the template, the formatters
+ * and the navigation. Each of these reads goes through the security manager with a new database context, even if
+ * the result is already in the global caches. The request cache is attached to the {@link CmsRequestContext}
+ * and returns the results of earlier reads with the same arguments directly.<p>
+ *
+ * The cached results depend on the current user, project and request time, so the request context
+ * clears the cache whenever one of these changes. The entries are keyed by the id of the resource filter.
+ * The cache is only used by {@link CmsObject} in the online project, where resources can not be changed
+ * during the request.<p>
+ *
+ * Resources and single properties are mutable, so the cache stores copies and returns a new copy for
+ * each hit, like the results of the uncached reads. The properties in cached lists are frozen.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsRequestReadCache {
+
+    /** Default for the maximum number of cached entries. */
+    public static final int DEFAULT_MAX_ENTRIES = 5000;
+
+    /** Key prefix for resources read by path. */
+    private static final String PREFIX_PATH = "p:";
+
+    /** Key prefix for single properties. */
+    private static final String PREFIX_PROPERTY = "o:";
+
+    /** Key prefix for property lists. */
+    private static final String PREFIX_PROPERTY_LIST = "l:";
+
+    /** Key prefix for resources read by id. */
+    private static final String PREFIX_STRUCTURE_ID = "i:";
+
+    /** The cached entries. */
+    private final Map<String, Object> m_entries = new ConcurrentHashMap<String, Object>();
+
+    /** The number of cache hits. */
+    private final AtomicLong m_hits = new AtomicLong();
+
+    /** The maximum number of cached entries. */
+    private final int m_maxEntries;
+
+    /** The number of cache misses. */
+    private final AtomicLong m_misses = new AtomicLong();
+
+    /**
+     * Creates a new request cache with the default size.<p>
+     */
+    public CmsRequestReadCache() {
+
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new request cache.<p>
+     *
+     * @param maxEntries the maximum number of cached entries, further entries are not cached
+     */
+    public CmsRequestReadCache(int maxEntries) {
+
+        m_maxEntries = maxEntries;
+    }
+
+    /**
+     * Removes all cached entries.<p>
+     */
+    public void clear() {
+
+        m_entries.clear();
+    }
+
+    /**
+     * Returns the number of cache hits.<p>
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+
+        return m_hits.get();
+    }
+
+    /**
+     * Returns the number of cache misses.<p>
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+
+        return m_misses.get();
+    }
+
+    /**
+     * Returns a cached property.<p>
+     *
+     * @param resource the resource
+     * @param property the property name
+     * @param search if the property was searched on the parent folders
+     * @param locale the locale, may be <code>null</code>
+     *
+     * @return the cached property, or <code>null</code> if not cached
+     */
+    public CmsProperty getPropertyObject(CmsResource resource, String property, boolean search, Locale locale) {
+
+        return copy((CmsProperty)get(getPropertyKey(resource, property, search, locale)));
+    }
+
+    /**
+     * Returns a copy of a cached property list.<p>
+     *
+     * @param resource the resource
+     * @param search if the properties were searched on the parent folders
+     *
+     * @return a copy of the cached property list, or <code>null</code> if not cached
+     */
+    @SuppressWarnings("unchecked")
+    public List<CmsProperty> getPropertyObjects(CmsResource resource, boolean search) {
+
+        List<CmsProperty> properties = (List<CmsProperty>)get(getPropertyListKey(resource, search));
+        return properties != null ? new ArrayList<CmsProperty>(properties) : null;
+    }
+
+    /**
+     * Returns a copy of a cached resource.<p>
+     *
+     * @param structureId the structure id of the resource
+     * @param filter the resource filter used for reading
+     *
+     * @return a copy of the cached resource, or <code>null</code> if not cached
+     */
+    public CmsResource getResource(CmsUUID structureId, CmsResourceFilter filter) {
+
+        return copy((CmsResource)get(PREFIX_STRUCTURE_ID + filter.getCacheId() + structureId));
+    }
+
+    /**
+     * Returns a copy of a cached resource.<p>
+     *
+     * @param rootPath the root path of the resource
+     * @param filter the resource filter used for reading
+     *
+     * @return a copy of the cached resource, or <code>null</code> if not cached
+     */
+    public CmsResource getResource(String rootPath, CmsResourceFilter filter) {
+
+        return copy((CmsResource)get(PREFIX_PATH + filter.getCacheId() + rootPath));
+    }
+
+    /**
+     * Caches a copy of a property.<p>
+     *
+     * @param resource the resource
+     * @param property the property name
+     * @param search if the property was searched on the parent folders
+     * @param locale the locale, may be <code>null</code>
+     * @param value the property to cache
+     */
+    public void putPropertyObject(
+        CmsResource resource,
+        String property,
+        boolean search,
+        Locale locale,
+        CmsProperty value) {
+
+        put(getPropertyKey(resource, property, search, locale), copy(value));
+    }
+
+    /**
+     * Caches a copy of a property list.<p>
+     *
+     * @param resource the resource
+     * @param search if the properties were searched on the parent folders
+     * @param properties the properties to cache
+     */
+    public void putPropertyObjects(CmsResource resource, boolean search, List<CmsProperty> properties) {
+
+        put(getPropertyListKey(resource, search), new ArrayList<CmsProperty>(properties));
+    }
+
+    /**
+     * Caches a copy of a resource, both for reading by structure id and by root path.<p>
+     *
+     * @param resource the resource to cache
+     * @param filter the resource filter used for reading
+     */
+    public void putResource(CmsResource resource, CmsResourceFilter filter) {
+
+        CmsResource copy = copy(resource);
+        put(PREFIX_STRUCTURE_ID + filter.getCacheId() + resource.getStructureId(), copy);
+        put(PREFIX_PATH + filter.getCacheId() + resource.getRootPath(), copy);
+    }
+
+    /**
+     * Returns the number of cached entries.<p>
+     *
+     * @return the number of cached entries
+     */
+    public int size() {
+
+        return m_entries.size();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "entries: " + size() + ", hits: " + getHits() + ", misses: " + getMisses();
+    }
+
+    /**
+     * Copies a property, frozen properties are returned as they are.<p>
+     *
+     * @param property the property, may be <code>null</code>
+     *
+     * @return the copy
+     */
+    private static CmsProperty copy(CmsProperty property) {
+
+        return (property == null) || property.isFrozen() ? property : property.cloneAsProperty();
+    }
+
+    /**
+     * Copies a resource, keeping its class.<p>
+     *
+     * @param resource the resource, may be <code>null</code>
+     *
+     * @return the copy
+     */
+    private static CmsResource copy(CmsResource resource) {
+
+        return resource != null ? (CmsResource)resource.clone() : null;
+    }
+
+    /**
+     * Looks up a cached entry, keeping track of the statistics.<p>
+     *
+     * @param key the key
+     *
+     * @return the cached entry or <code>null</code>
+     */
+    private Object get(String key) {
+
+        Object result = m_entries.get(key);
+        if (result != null) {
+            m_hits.incrementAndGet();
+        } else {
+            m_misses.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the key for a property list.<p>
+     *
+     * @param resource the resource
+     * @param search the search flag
+     *
+     * @return the key
+     */
+    private String getPropertyListKey(CmsResource resource, boolean search) {
+
+        return PREFIX_PROPERTY_LIST + (search ? "+" : "-") + resource.getStructureId();
+    }
+
+    /**
+     * Returns the key for a single property.<p>
+     *
+     * @param resource the resource
+     * @param property the property name
+     * @param search the search flag
+     * @param locale the locale, may be <code>null</code>
+     *
+     * @return the key
+     */
+    private String getPropertyKey(CmsResource resource, String property, boolean search, Locale locale) {
+
+        return PREFIX_PROPERTY
+            + (search ? "+" : "-")
+            + resource.getStructureId()
+            + "/"
+            + property
+            + (locale != null ? "/" + locale : "");
+    }
+
+    /**
+     * Caches an entry unless the maximum number of entries has been reached.<p>
+     *
+     * @param key the key
+     * @param value the value, <code>null</code> values are ignored
+     */
+    private void put(String key, Object value) {
+
+        if ((value != null) && (m_entries.size() < m_maxEntries)) {
+            m_entries.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.file;
+
+import org.opencms.main.CmsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Forward only cursor over the resources of a VFS subtree.<p>
+ *
+ * The resources are read from the database in batches ordered by root path, each batch with its own
+ * database round trip, in which the permissions and the resource filter are evaluated as well. Only the
+ * current batch is kept in memory, so jobs can process subtrees of any size with constant memory.<p>
+ *
+ * Since no database connection is held between batches, resources changed while iterating are seen in the
+ * state of the batch in which they are read. Resources with a root path before the current position
+ * which are created while iterating are not returned.<p>
+ *
+ * Use {@link CmsObject#readResourceCursor(String, CmsResourceFilter, boolean, int)} to create a cursor:
+ * <pre>
+ * CmsResourceCursor cursor = cms.readResourceCursor("/", filter, true, 500);
+ * while (cursor.hasNext()) {
+ *     CmsResource resource = cursor.next();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @since 11.0.0
+ */
+public class CmsResourceCursor {
+
+    /**
+     * Reads the batches of a cursor.<p>
+     */
+    public interface I_CmsBatchReader {
+
+        /**
+         * Reads the next batch of resources.<p>
+         *
+         * @param after the position returned for the previous batch, or <code>null</code> for the first batch
+         * @param batchSize the number of resources to read from the database
+         * @param result the list to which the resources to return are added
+         *
+         * @return the position for reading the next batch, or <code>null</code> if there are no more resources
+         *
+         * @throws CmsException if something goes wrong
+         */
+        CmsResource readBatch(CmsResource after, int batchSize, List<CmsResource> result) throws CmsException;
+    }
+
+    /** The default number of resources read with each database round trip. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** The current batch. */
+    private List<CmsResource> m_batch;
+
+    /** The number of resources read with each database round trip. */
+    private int m_batchSize;
+
+    /** The number of resources returned so far. */
+    private int m_count;
+
+    /** Flag indicating whether all batches have been read. */
+    private boolean m_finished;
+
+    /** The index of the next resource in the current batch. */
+    private int m_index;
+
+    /** The position for reading the next batch, <code>null</code> before the first batch. */
+    private CmsResource m_position;
+
+    /** The reader for the batches. */
+    private I_CmsBatchReader m_reader;
+
+    /**
+     * Creates a new cursor.<p>
+     *
+     * @param reader the reader for the batches
+     * @param batchSize the number of resources read with each database round trip
+     */
+    public CmsResourceCursor(I_CmsBatchReader reader, int batchSize) {
+
+        m_reader = reader;
+        m_batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        m_batch = new ArrayList<CmsResource>(m_batchSize);
+    }
+
+    /**
+     * Returns the number of resources returned by this cursor so far.<p>
+     *
+     * @return the number of resources returned so far
+     */
+    public int getCount() {
+
+        return m_count;
+    }
+
+    /**
+     * Checks if there are more resources, reading the next batch if necessary.<p>
+     *
+     * @return <code>true</code> if there are more resources
+     *
+     * @throws CmsException if reading the next batch fails
+     */
+    public boolean hasNext() throws CmsException {
+
+        while ((m_index >= m_batch.size()) && !m_finished) {
+            m_batch.clear();
+            m_index = 0;
+            m_position = m_reader.readBatch(m_position, m_batchSize, m_batch);
+            m_finished = m_position == null;
+        }
+        return m_index < m_batch.size();
+    }
+
+    /**
+     * Returns the next resource.<p>
+     *
+     * @return the next resource
+     *
+     * @throws CmsException if reading the next batch fails
+     * @throws NoSuchElementException if there are no more resources
+     */
+    public CmsResource next() throws CmsException, NoSuchElementException {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        CmsResource resource = m_batch.get(m_index);
+        // release the resource as soon as possible
+        m_batch.set(m_index, null);
+        m_index++;
+        m_count++;
+        return resource;
+    }
+
+    /**
+     * Lets the cursor start after the given resource, e.g. to resume processing a subtree.<p>
+     *
+     * This has to be called before the first resource is read.<p>
+     *
+     * @param after the resource after which the cursor starts, in the order of the root paths
+     *
+     * @throws IllegalStateException if resources have already been read
+     */
+    public void setStart(CmsResource after) throws IllegalStateException {
+
+        if ((m_position != null) || !m_batch.isEmpty() || m_finished) {
+            throw new IllegalStateException();
+        }
+        m_position = after;
+    }
+}
@@ -27,7 +27,9 @@
 
 package org.opencms.flex;
 
+import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
+import org.opencms.util.CmsRequestUtil;
 
 /**
  * Contains information about the OpenCms request context required by the
@@ -57,6 +59,25 @@ public class CmsFlexRequestContextInfo {
         m_dateExpires = CmsResource.DATE_EXPIRED_DEFAULT;
     }
 
+    /**
+     * Updates the context info of the given request context with the dates of a resource.<p>
+     *
+     * The driver manager does this for all resources read from the database. Resources served from a cache
+     * have to be passed to this method, otherwise the Flex cache entries and the <code>Last-Modified</code>
+     * header of the request ignore their release and expiration dates.<p>
+     *
+     * @param context the request context, may not have a context info attached
+     * @param resource the resource to use for updating the context values
+     */
+    public static void updateFromResource(CmsRequestContext context, CmsResource resource) {
+
+        CmsFlexRequestContextInfo info = (CmsFlexRequestContextInfo)context.getAttribute(
+            CmsRequestUtil.HEADER_LAST_MODIFIED);
+        if (info != null) {
+            info.updateFromResource(resource);
+        }
+    }
+
     /**
      * Returns the "expires" date for this context.<p>
      *
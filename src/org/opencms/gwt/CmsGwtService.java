@@ -54,16 +54,32 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
 
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.server.rpc.RPC;
+import com.google.gwt.user.server.rpc.RPCRequest;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import com.google.gwt.user.server.rpc.SerializationPolicy;
 
 /**
  * Wrapper for GWT services served through OpenCms.<p>
  *
+ * The number of concurrent calls is limited per service class by the {@link CmsGwtServiceContext}, which also
+ * records the call statistics. Responses larger than the compression threshold are sent gzip compressed if the
+ * client accepts it. The threshold in characters can be set with the system property
+ * <code>opencms.gwt.compressionthreshold</code>.<p>
+ *
  * @since 8.0.0
  */
 public class CmsGwtService extends RemoteServiceServlet {
 
+    /** The system property for the compression threshold. */
+    public static final String PROPERTY_COMPRESSION_THRESHOLD = "opencms.gwt.compressionthreshold";
+
+    /** The minimum response size in characters for compressing the response. */
+    private static final int COMPRESSION_THRESHOLD = Integer.getInteger(
+        PROPERTY_COMPRESSION_THRESHOLD,
+        1024).intValue();
+
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsGwtService.class);
 
@@ -183,6 +199,22 @@ public class CmsGwtService extends RemoteServiceServlet {
         LOG.error(t.getLocalizedMessage(), t);
     }
 
+    /**
+     * Processes a call, if the maximum number of concurrent calls of the service is not reached.<p>
+     *
+     * @see com.google.gwt.user.server.rpc.RemoteServiceServlet#processCall(com.google.gwt.user.server.rpc.RPCRequest)
+     */
+    @Override
+    public String processCall(RPCRequest rpcRequest) throws SerializationException {
+
+        try {
+            return m_context.invoke(rpcRequest.getMethod().getName(), () -> super.processCall(rpcRequest));
+        } catch (CmsRpcException e) {
+            // the server is busy, the client can retry the call
+            return RPC.encodeResponseForFailedRequest(rpcRequest, e);
+        }
+    }
+
     /**
      * @see javax.servlet.http.HttpServlet#service(javax.servlet.ServletRequest, javax.servlet.ServletResponse)
      */
@@ -364,6 +396,20 @@ public class CmsGwtService extends RemoteServiceServlet {
         return result;
     }
 
+    /**
+     * Compresses responses larger than the compression threshold.<p>
+     *
+     * @see com.google.gwt.user.server.rpc.RemoteServiceServlet#shouldCompressResponse(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, java.lang.String)
+     */
+    @Override
+    protected boolean shouldCompressResponse(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        String responsePayload) {
+
+        return responsePayload.length() > COMPRESSION_THRESHOLD;
+    }
+
     /**
      * Tries to unlock a resource.<p>
      *
@@ -31,6 +31,7 @@ import org.opencms.db.CmsDriverManager;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.CmsStaticResourceHandler;
 import org.opencms.main.I_CmsEventListener;
@@ -43,14 +44,26 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.text.ParseException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.commons.logging.Log;
 
+import com.google.gwt.user.client.rpc.SerializationException;
 import com.google.gwt.user.server.rpc.SerializationPolicy;
 import com.google.gwt.user.server.rpc.SerializationPolicyLoader;
 
@@ -59,19 +72,181 @@ import com.google.gwt.user.server.rpc.SerializationPolicyLoader;
  *
  * We cache instances of this class rather than caching instances of {@link CmsGwtService} directly because
  * its superclass, {@link com.google.gwt.user.server.rpc.RemoteServiceServlet}, does some caching which we can't use because it doesn't
- * take the distinction between online and offline requests into account.
+ * take the distinction between online and offline requests into account.<p>
+ *
+ * The context can also limit the number of concurrently running calls of its service, so that a flood of calls
+ * to one service (for example gallery searches) can not use up all request threads needed by other services.
+ * The limit is off by default. It can be set with the system property <code>opencms.gwt.maxcalls</code>, or for
+ * a single service with <code>opencms.gwt.maxcalls.</code> followed by the service class name. If the limit is
+ * reached, further calls are queued until a running call has finished. Calls still waiting after the time set with
+ * the system property <code>opencms.gwt.callwait</code> (in seconds, default {@link #DEFAULT_CALL_WAIT_SECONDS})
+ * fail with an error, which the client shows to the user; the client does not retry them.<p>
+ *
+ * Latency and response size are recorded per service method. The statistics are available as MXBean, see
+ * {@link I_CmsGwtServiceContextMXBean}.<p>
  *
  * @since 8.0.0
  *
  */
-public class CmsGwtServiceContext implements I_CmsEventListener {
+public class CmsGwtServiceContext implements I_CmsEventListener, I_CmsGwtServiceContextMXBean {
+
+    /**
+     * A call of a service method.<p>
+     */
+    public interface I_CmsServiceCall {
+
+        /**
+         * Runs the call.<p>
+         *
+         * @return the encoded response
+         *
+         * @throws SerializationException if the response can not be encoded
+         */
+        String call() throws SerializationException;
+    }
+
+    /**
+     * Statistics for the calls of a service method.<p>
+     */
+    public static class MethodStatistics {
+
+        /** The number of calls. */
+        private LongAdder m_calls = new LongAdder();
+
+        /** The number of failed calls. */
+        private LongAdder m_failures = new LongAdder();
+
+        /** The maximum call duration in nanoseconds. */
+        private AtomicLong m_maxNanos = new AtomicLong();
+
+        /** The total response size in characters. */
+        private LongAdder m_responseSize = new LongAdder();
+
+        /** The total call duration in nanoseconds. */
+        private LongAdder m_totalNanos = new LongAdder();
+
+        /**
+         * Returns the average call duration in milliseconds.<p>
+         *
+         * @return the average call duration
+         */
+        public long getAverageMillis() {
+
+            long calls = m_calls.sum();
+            return calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(m_totalNanos.sum() / calls);
+        }
+
+        /**
+         * Returns the average response size in characters.<p>
+         *
+         * @return the average response size
+         */
+        public long getAverageResponseSize() {
+
+            long calls = m_calls.sum();
+            return calls == 0 ? 0 : m_responseSize.sum() / calls;
+        }
+
+        /**
+         * Returns the number of calls.<p>
+         *
+         * @return the number of calls
+         */
+        public long getCallCount() {
+
+            return m_calls.sum();
+        }
+
+        /**
+         * Returns the number of calls which returned an exception.<p>
+         *
+         * @return the number of failed calls
+         */
+        public long getFailureCount() {
+
+            return m_failures.sum();
+        }
+
+        /**
+         * Returns the maximum call duration in milliseconds.<p>
+         *
+         * @return the maximum call duration
+         */
+        public long getMaxMillis() {
+
+            return TimeUnit.NANOSECONDS.toMillis(m_maxNanos.get());
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+
+            return "calls: "
+                + getCallCount()
+                + ", failures: "
+                + getFailureCount()
+                + ", avg ms: "
+                + getAverageMillis()
+                + ", max ms: "
+                + getMaxMillis()
+                + ", avg size: "
+                + getAverageResponseSize();
+        }
+
+        /**
+         * Records a call.<p>
+         *
+         * @param nanos the call duration in nanoseconds
+         * @param responseSize the response size in characters
+         * @param failed true if the call returned an exception
+         */
+        void add(long nanos, int responseSize, boolean failed) {
+
+            m_calls.increment();
+            m_totalNanos.add(nanos);
+            m_responseSize.add(responseSize);
+            if (failed) {
+                m_failures.increment();
+            }
+            m_maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /** The default maximum time in seconds a call waits for a free slot. */
+    public static final int DEFAULT_CALL_WAIT_SECONDS = 30;
+
+    /** The prefix of the names of the service context MXBeans. */
+    public static final String MBEAN_NAME_PREFIX = "org.opencms:type=GwtService,name=";
+
+    /** The system property for the maximum time in seconds a call waits for a free slot. */
+    public static final String PROPERTY_CALL_WAIT = "opencms.gwt.callwait";
+
+    /** The system property for the maximum number of concurrent calls per service. */
+    public static final String PROPERTY_MAX_CALLS = "opencms.gwt.maxcalls";
 
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsGwtServiceContext.class);
 
+    /** The maximum time in seconds a call waits for a free slot. */
+    private int m_callWait;
+
+    /** The maximum number of concurrent calls, 0 for no limit. */
+    private int m_maxCalls;
+
+    /** The name of the MXBean, <code>null</code> if not registered. */
+    private ObjectName m_mbeanName;
+
     /** The name, which is used for debugging. */
     private String m_name;
 
+    /** The slots for concurrent calls, <code>null</code> if the calls are not limited. */
+    private Semaphore m_permits;
+
+    /** The number of calls which failed because no slot was free. */
+    private AtomicLong m_rejectedCalls = new AtomicLong();
+
     /** The serialization policy path. */
     private String m_serializationPolicyPath;
 
@@ -81,6 +256,9 @@ public class CmsGwtServiceContext implements I_CmsEventListener {
     /** The online serialization policy. */
     private SerializationPolicy m_serPolicyOnline;
 
+    /** The call statistics by method name. */
+    private Map<String, MethodStatistics> m_statistics = new ConcurrentHashMap<String, MethodStatistics>();
+
     /**
      * Creates a new service context object.<p>
      *
@@ -89,6 +267,14 @@ public class CmsGwtServiceContext implements I_CmsEventListener {
     public CmsGwtServiceContext(String name) {
 
         m_name = name;
+        m_maxCalls = Math.max(
+            0,
+            Integer.getInteger(PROPERTY_MAX_CALLS + "." + name, Integer.getInteger(PROPERTY_MAX_CALLS, 0)).intValue());
+        m_callWait = Integer.getInteger(PROPERTY_CALL_WAIT, DEFAULT_CALL_WAIT_SECONDS).intValue();
+        if (m_maxCalls > 0) {
+            // fair, so the queued calls are run in the order of their arrival
+            m_permits = new Semaphore(m_maxCalls, true);
+        }
 
         // listen on VFS changes for serialization policies
         OpenCms.addCmsEventListener(
@@ -103,7 +289,7 @@ public class CmsGwtServiceContext implements I_CmsEventListener {
                 I_CmsEventListener.EVENT_CLEAR_CACHES,
                 I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES,
                 I_CmsEventListener.EVENT_CLEAR_OFFLINE_CACHES});
-
+        registerMBean();
     }
 
     /**
@@ -162,6 +348,87 @@ public class CmsGwtServiceContext implements I_CmsEventListener {
         }
     }
 
+    /**
+     * @see org.opencms.gwt.I_CmsGwtServiceContextMXBean#getMaxCalls()
+     */
+    public int getMaxCalls() {
+
+        return m_maxCalls;
+    }
+
+    /**
+     * @see org.opencms.gwt.I_CmsGwtServiceContextMXBean#getMethodStatistics()
+     */
+    public Map<String, MethodStatistics> getMethodStatistics() {
+
+        return Collections.unmodifiableMap(m_statistics);
+    }
+
+    /**
+     * @see org.opencms.gwt.I_CmsGwtServiceContextMXBean#getRejectedCallCount()
+     */
+    public long getRejectedCallCount() {
+
+        return m_rejectedCalls.get();
+    }
+
+    /**
+     * Runs a call of the service, waiting for a free slot if the maximum number of concurrent calls is reached.<p>
+     *
+     * The slot of the call is released and the call is recorded in the statistics, also if the call throws
+     * an exception.<p>
+     *
+     * @param method the name of the called method
+     * @param call the call
+     *
+     * @return the encoded response
+     *
+     * @throws CmsRpcException if no slot became free in time
+     * @throws SerializationException if the response can not be encoded
+     */
+    public String invoke(String method, I_CmsServiceCall call) throws CmsRpcException, SerializationException {
+
+        if (!acquireCall()) {
+            CmsException busy = new CmsException(
+                Messages.get().container(Messages.ERR_TOO_MANY_RPC_CALLS_2, Integer.valueOf(m_maxCalls), m_name));
+            LOG.warn(busy.getLocalizedMessage() + " (" + method + ")");
+            throw new CmsRpcException(busy);
+        }
+        long start = System.nanoTime();
+        String response = null;
+        try {
+            response = call.call();
+            return response;
+        } finally {
+            releaseCall();
+            long nanos = System.nanoTime() - start;
+            int size = response != null ? response.length() : 0;
+            // GWT marks responses containing an exception with "//EX"
+            boolean failed = (response == null) || response.startsWith("//EX");
+            addCall(method, nanos, size, failed);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(m_name + "." + method + ": " + (nanos / 1000000L) + " ms, " + size + " chars");
+            }
+        }
+    }
+
+    /**
+     * Unregisters the MXBean of this context.<p>
+     *
+     * Only intended to be called at system shutdown.<p>
+     */
+    public void shutdown() {
+
+        if (m_mbeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(m_mbeanName);
+            } catch (Exception e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+            m_mbeanName = null;
+        }
+    }
+
     /**
      * @see java.lang.Object#toString()
      */
@@ -171,6 +438,47 @@ public class CmsGwtServiceContext implements I_CmsEventListener {
         return super.toString() + "(" + m_name + ")";
     }
 
+    /**
+     * Waits for a free slot for a call of the service.<p>
+     *
+     * If <code>true</code> is returned, the slot has to be released with {@link #releaseCall()}.<p>
+     *
+     * @return true if a slot was acquired, false if no slot became free in time
+     */
+    protected boolean acquireCall() {
+
+        if (m_permits == null) {
+            return true;
+        }
+        boolean acquired = false;
+        try {
+            acquired = m_permits.tryAcquire(m_callWait, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            m_rejectedCalls.incrementAndGet();
+        }
+        return acquired;
+    }
+
+    /**
+     * Records a finished call of the service.<p>
+     *
+     * @param method the method name
+     * @param nanos the call duration in nanoseconds
+     * @param responseSize the response size in characters
+     * @param failed true if the call returned an exception
+     */
+    protected void addCall(String method, long nanos, int responseSize, boolean failed) {
+
+        MethodStatistics statistics = m_statistics.get(method);
+        if (statistics == null) {
+            statistics = m_statistics.computeIfAbsent(method, name -> new MethodStatistics());
+        }
+        statistics.add(nanos, responseSize, failed);
+    }
+
     /**
      * Returns the serialization policy for the service.<p>
      *
@@ -214,6 +522,16 @@ public class CmsGwtServiceContext implements I_CmsEventListener {
         return SerializationPolicyLoader.getSerializationPolicyFileName(modulePath + strongName);
     }
 
+    /**
+     * Releases the slot of a finished call.<p>
+     */
+    protected void releaseCall() {
+
+        if (m_permits != null) {
+            m_permits.release();
+        }
+    }
+
     /**
      * Returns the serialization policy, using lazy initialization.<p>
      *
@@ -293,6 +611,27 @@ public class CmsGwtServiceContext implements I_CmsEventListener {
         return serializationPolicy;
     }
 
+    /**
+     * Registers this context as MXBean.<p>
+     */
+    private void registerMBean() {
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME_PREFIX + m_name);
+            if (server.isRegistered(name)) {
+                // registered by a previous deployment of the web application
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            m_mbeanName = name;
+        } catch (Exception e) {
+            LOG.error(
+                Messages.get().getBundle().key(Messages.LOG_REGISTER_SERVICE_MBEAN_FAILED_1, MBEAN_NAME_PREFIX + m_name),
+                e);
+        }
+    }
+
     /**
      * Removes a cached resource from the cache.<p>
      *
@@ -325,5 +664,4 @@ public class CmsGwtServiceContext implements I_CmsEventListener {
             uncacheResource(resources.get(i));
         }
     }
-
 }
@@ -81,6 +81,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_SESSION_EXPIRED_0 = "ERR_SESSION_EXPIRED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_TOO_MANY_RPC_CALLS_2 = "ERR_TOO_MANY_RPC_CALLS_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_URL_NAME_ALREADY_EXISTS_1 = "ERR_URL_NAME_ALREADY_EXISTS_1";
 
@@ -162,6 +165,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLIENT_WITHOUT_TICKET_3 = "LOG_CLIENT_WITHOUT_TICKET_3";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_REGISTER_SERVICE_MBEAN_FAILED_1 = "LOG_REGISTER_SERVICE_MBEAN_FAILED_1";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.gwt.messages";
 
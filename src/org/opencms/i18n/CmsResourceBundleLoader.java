@@ -35,13 +35,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.security.AccessControlException;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -57,6 +59,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * {@link java.util.ResourceBundle#getBundle(java.lang.String, java.util.Locale)} is used to look up
  * the resource bundle with the Java default resource bundle loading mechanism.<p>
  *
+ * Cached bundles are read without locking, failed lookups are cached as well. The additional bundles
+ * (for example the bundles from the VFS) are kept in an immutable map which is replaced as a whole when
+ * bundles are added or removed, so that several bundles can be replaced in one atomic step.<p>
+ *
  * @see java.util.ResourceBundle
  * @see java.util.PropertyResourceBundle
  * @see org.opencms.i18n.CmsPropertyResourceBundle
@@ -150,16 +156,16 @@ public final class CmsResourceBundleLoader {
     }
 
     /**  The resource bundle cache. */
-    private static Map<BundleKey, ResourceBundle> m_bundleCache;
+    private static volatile Map<BundleKey, ResourceBundle> m_bundleCache;
 
     /** The last default Locale we saw, if this ever changes then we have to reset our caches. */
-    private static Locale m_lastDefaultLocale;
+    private static volatile Locale m_lastDefaultLocale;
 
     /** Cache lookup key to avoid having to a new one for every getBundle() call. */
     // private static BundleKey m_lookupKey = new BundleKey();
 
-    /**  The permanent list resource bundle cache. */
-    private static Map<String, I_CmsResourceBundle> m_permanentCache;
+    /**  The permanent list resource bundle cache, immutable and replaced on every change. */
+    private static volatile Map<String, I_CmsResourceBundle> m_permanentCache;
 
     /** Singleton cache entry to represent previous failed lookups. */
     private static final ResourceBundle NULL_ENTRY = new CmsListResourceBundle();
@@ -175,7 +181,7 @@ public final class CmsResourceBundleLoader {
     static {
         m_bundleCache = new ConcurrentHashMap<BundleKey, ResourceBundle>();
         m_lastDefaultLocale = Locale.getDefault();
-        m_permanentCache = new ConcurrentHashMap<String, I_CmsResourceBundle>();
+        m_permanentCache = Collections.emptyMap();
     }
 
     /**
@@ -185,23 +191,21 @@ public final class CmsResourceBundleLoader {
      * @param locale the locale
      * @param bundle the bundle to cache
      */
-    public static void addBundleToCache(String baseName, Locale locale, I_CmsResourceBundle bundle) {
+    public static synchronized void addBundleToCache(String baseName, Locale locale, I_CmsResourceBundle bundle) {
 
-        String key = baseName;
-        if (locale != null) {
-            key += "_" + locale;
-        }
-        m_permanentCache.put(key, bundle);
+        Map<String, I_CmsResourceBundle> permanentCache = new HashMap<String, I_CmsResourceBundle>(m_permanentCache);
+        permanentCache.put(getPermanentKey(baseName, locale), bundle);
+        m_permanentCache = Collections.unmodifiableMap(permanentCache);
+        // previous failed lookups may now succeed
+        removeCachedBundles(baseName);
     }
 
     /**
      * Flushes the complete resource bundle cache.<p>
      */
-    public static void flushBundleCache() {
+    public static synchronized void flushBundleCache() {
 
-        synchronized (m_bundleCache) {
-            m_bundleCache.clear();
-        }
+        m_bundleCache.clear();
         // We are not flushing the permanent cache on clear!
         // Reason: It's not 100% clear if the cache would be filled correctly from the XML after a flush.
         // For example if a reference to an XML content object is held, than after a clear cache, this
@@ -220,34 +224,15 @@ public final class CmsResourceBundleLoader {
      * @param baseName the bundle base name to flush the variations for
      * @param flushPermanent if true, the cache for additional message bundles will be flushed, too
      */
-    public static void flushBundleCache(String baseName, boolean flushPermanent) {
+    public static synchronized void flushBundleCache(String baseName, boolean flushPermanent) {
 
         if (baseName != null) {
-            synchronized (m_bundleCache) {
-
-                // first check and clear the bundle cache
-                Map<BundleKey, ResourceBundle> bundleCacheNew = new ConcurrentHashMap<BundleKey, ResourceBundle>(
-                    m_bundleCache.size());
-                for (Map.Entry<BundleKey, ResourceBundle> entry : m_bundleCache.entrySet()) {
-                    if (!entry.getKey().isSameBase(baseName)) {
-                        // entry has a different base name, keep it
-                        bundleCacheNew.put(entry.getKey(), entry.getValue());
-                    }
-                }
-                if (bundleCacheNew.size() < m_bundleCache.size()) {
-                    // switch caches if only if at least one entry was removed
-                    m_bundleCache = bundleCacheNew;
-                }
-                if (flushPermanent) {
-                    Set<String> keys = new HashSet<String>(m_permanentCache.keySet());
-                    for (String key : keys) {
-                        if ((key.startsWith(baseName)
-                            && ((key.length() == baseName.length()) || (key.charAt(baseName.length()) == '_')))) {
-                            // entry has a the same base name, remove it
-                            m_permanentCache.remove(key);
-                        }
-                    }
-                }
+            removeCachedBundles(baseName);
+            if (flushPermanent) {
+                Map<String, I_CmsResourceBundle> permanentCache = new HashMap<String, I_CmsResourceBundle>(
+                    m_permanentCache);
+                removePermanentBundles(permanentCache, baseName);
+                m_permanentCache = Collections.unmodifiableMap(permanentCache);
             }
         }
     }
@@ -298,7 +283,7 @@ public final class CmsResourceBundleLoader {
         // all cache entries are invalidated.
         Locale defaultLocale = Locale.getDefault();
         if (defaultLocale != m_lastDefaultLocale) {
-            synchronized (m_bundleCache) {
+            synchronized (CmsResourceBundleLoader.class) {
                 if (defaultLocale != m_lastDefaultLocale) {
                     m_bundleCache = new ConcurrentHashMap<BundleKey, ResourceBundle>();
                     m_lastDefaultLocale = defaultLocale;
@@ -311,14 +296,16 @@ public final class CmsResourceBundleLoader {
 
         Object obj = m_bundleCache.get(m_lookupKey);
 
-        if (obj instanceof ResourceBundle) {
-            return (ResourceBundle)obj;
-        } else if (obj == NULL_ENTRY) {
+        if (obj == NULL_ENTRY) {
             // Lookup has failed previously. Fall through.
+        } else if (obj instanceof ResourceBundle) {
+            return (ResourceBundle)obj;
         } else {
-            synchronized (m_bundleCache) {
+            synchronized (CmsResourceBundleLoader.class) {
                 obj = m_bundleCache.get(m_lookupKey);
-                if (obj instanceof ResourceBundle) {
+                if (obj == NULL_ENTRY) {
+                    return ResourceBundle.getBundle(baseName, locale);
+                } else if (obj instanceof ResourceBundle) {
                     // check the bundle again
                     return (ResourceBundle)obj;
                 }
@@ -338,6 +325,8 @@ public final class CmsResourceBundleLoader {
                     m_bundleCache.put(key, bundle);
                     return bundle;
                 }
+                // remember the failed lookup, so that the next lookup does not need the lock
+                m_bundleCache.put(key, NULL_ENTRY);
             }
         }
 
@@ -346,6 +335,84 @@ public final class CmsResourceBundleLoader {
         return ResourceBundle.getBundle(baseName, locale);
     }
 
+    /**
+     * Replaces the additional bundles for the given base names in one step.<p>
+     *
+     * All additional bundles for the given base names are removed, then the given bundles are added.
+     * Concurrent lookups either see the old or the new bundles, never a state in between.<p>
+     *
+     * @param baseNames the base names for which the additional bundles are removed
+     * @param bundles the bundles to add, by base name and locale (the locale may be <code>null</code>)
+     */
+    public static synchronized void replaceBundles(
+        Collection<String> baseNames,
+        Map<String, Map<Locale, I_CmsResourceBundle>> bundles) {
+
+        Map<String, I_CmsResourceBundle> permanentCache = new HashMap<String, I_CmsResourceBundle>(m_permanentCache);
+        for (String baseName : baseNames) {
+            removePermanentBundles(permanentCache, baseName);
+        }
+        for (Map.Entry<String, Map<Locale, I_CmsResourceBundle>> entry : bundles.entrySet()) {
+            for (Map.Entry<Locale, I_CmsResourceBundle> localeEntry : entry.getValue().entrySet()) {
+                permanentCache.put(getPermanentKey(entry.getKey(), localeEntry.getKey()), localeEntry.getValue());
+            }
+        }
+        m_permanentCache = Collections.unmodifiableMap(permanentCache);
+        for (String baseName : baseNames) {
+            removeCachedBundles(baseName);
+        }
+        for (String baseName : bundles.keySet()) {
+            removeCachedBundles(baseName);
+        }
+    }
+
+    /**
+     * Returns the key of a bundle in the permanent cache.<p>
+     *
+     * @param baseName the raw bundle name, without locale qualifiers
+     * @param locale the locale, may be <code>null</code>
+     *
+     * @return the key
+     */
+    private static String getPermanentKey(String baseName, Locale locale) {
+
+        return locale != null ? baseName + "_" + locale : baseName;
+    }
+
+    /**
+     * Removes all cached bundles with the given base name from the bundle cache.<p>
+     *
+     * @param baseName the base name
+     */
+    private static void removeCachedBundles(String baseName) {
+
+        Iterator<BundleKey> keys = m_bundleCache.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().isSameBase(baseName)) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all bundles with the given base name from a copy of the permanent cache.<p>
+     *
+     * @param permanentCache the copy of the permanent cache
+     * @param baseName the base name
+     */
+    private static void removePermanentBundles(Map<String, I_CmsResourceBundle> permanentCache, String baseName) {
+
+        Iterator<String> keys = permanentCache.keySet().iterator();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if ((key.startsWith(baseName)
+                && ((key.length() == baseName.length()) || (key.charAt(baseName.length()) == '_')))) {
+                // entry has a the same base name, remove it
+                keys.remove();
+            }
+        }
+    }
+
     /**
      * Tries to load a property file with the specified name.
      *
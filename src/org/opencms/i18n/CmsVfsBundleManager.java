@@ -41,9 +41,12 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -52,6 +55,11 @@ import com.google.common.collect.Lists;
 
 /**
  * Manages message bundles loaded from the VFS.<p>
+ *
+ * On reload, the bundles are compared with the bundles registered before, and only the bundles of base names
+ * which have been added, removed or changed are replaced in the {@link CmsResourceBundleLoader}, in one atomic step.
+ * Changes of the bundle contents are picked up by the bundles themselves, since they read their data through the
+ * VFS memory object cache.<p>
  */
 public class CmsVfsBundleManager implements I_CmsEventListener {
 
@@ -108,8 +116,8 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     /** The logger instance for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsVfsBundleManager.class);
 
-    /** The set of bundle base names. */
-    private Set<String> m_bundleBaseNames;
+    /** The parameters of the registered bundles, by base name and locale. */
+    private Map<String, Map<Locale, CmsVfsBundleParameters>> m_bundles;
 
     /** The CMS context to use. */
     private CmsObject m_cms;
@@ -128,7 +136,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     public CmsVfsBundleManager(CmsObject cms) {
 
         m_cms = cms;
-        m_bundleBaseNames = new HashSet<String>();
+        m_bundles = new HashMap<String, Map<Locale, CmsVfsBundleParameters>>();
         CmsVfsResourceBundle.setCmsObject(cms);
         OpenCms.getEventManager().addCmsEventListener(
             this,
@@ -176,6 +184,8 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     /**
      * Re-initializes the resource bundles.<p>
      *
+     * Only the bundles of base names whose VFS files have been added, removed or renamed are replaced.<p>
+     *
      * @param isStartup true when this is called during startup
      */
     public synchronized void reload(boolean isStartup) {
@@ -197,20 +207,37 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 logError(e, isStartup);
             }
             try {
-                synchronized (CmsResourceBundleLoader.class) {
-                    // Although the methods of CmsResourceBundleLoader which manipulate the cache
-                    // are synchronized, we synchronize the whole block to avoid intermediate states
-                    // where bundles have been removed from the cache but not re-added again
-                    for (String baseName : m_bundleBaseNames) {
-                        CmsResourceBundleLoader.flushBundleCache(baseName, true);
-                    }
-                    m_bundleBaseNames.clear();
-                    for (CmsResource xmlBundle : xmlBundles) {
-                        addXmlBundle(xmlBundle);
+                Map<String, Map<Locale, CmsVfsBundleParameters>> bundles = new HashMap<>();
+                for (CmsResource xmlBundle : xmlBundles) {
+                    addXmlBundle(bundles, xmlBundle);
+                }
+                for (CmsResource propertyBundle : propertyBundles) {
+                    addPropertyBundle(bundles, propertyBundle);
+                }
+                Set<String> changed = new HashSet<String>();
+                for (String baseName : m_bundles.keySet()) {
+                    if (!bundles.containsKey(baseName)) {
+                        changed.add(baseName);
                     }
-                    for (CmsResource propertyBundle : propertyBundles) {
-                        addPropertyBundle(propertyBundle);
+                }
+                Map<String, Map<Locale, I_CmsResourceBundle>> changedBundles = new HashMap<>();
+                for (Map.Entry<String, Map<Locale, CmsVfsBundleParameters>> entry : bundles.entrySet()) {
+                    if (!entry.getValue().equals(m_bundles.get(entry.getKey()))) {
+                        changed.add(entry.getKey());
+                        Map<Locale, I_CmsResourceBundle> localeBundles = new HashMap<Locale, I_CmsResourceBundle>();
+                        for (Map.Entry<Locale, CmsVfsBundleParameters> localeEntry : entry.getValue().entrySet()) {
+                            localeBundles.put(localeEntry.getKey(), new CmsVfsResourceBundle(localeEntry.getValue()));
+                        }
+                        changedBundles.put(entry.getKey(), localeBundles);
                     }
+                }
+                if (!changed.isEmpty()) {
+                    LOG.info(String.format("Replacing VFS bundles %s", changed));
+                    CmsResourceBundleLoader.replaceBundles(changed, changedBundles);
+                    m_bundles = bundles;
+                }
+                if (!changed.isEmpty() || !isStartup) {
+                    // the bundle contents may have changed even if the bundle files are the same
                     if (OpenCms.getWorkplaceManager() != null) {
                         OpenCms.getWorkplaceManager().flushMessageCache();
                     }
@@ -267,30 +294,40 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     }
 
     /**
-     * Internal method for adding a resource bundle to the internal cache.<p>
+     * Adds the parameters of a bundle.<p>
      *
-     * @param baseName the base name of the resource bundle
-     * @param locale the locale of the resource bundle
-     * @param bundle the resource bundle to add
+     * @param bundles the bundle parameters by base name and locale
+     * @param params the parameters to add
+     * @param locale the locale of the bundle, may be <code>null</code>
      */
-    private void addBundle(String baseName, Locale locale, I_CmsResourceBundle bundle) {
-
-        CmsResourceBundleLoader.addBundleToCache(baseName, locale, bundle);
+    private void addBundle(
+        Map<String, Map<Locale, CmsVfsBundleParameters>> bundles,
+        CmsVfsBundleParameters params,
+        Locale locale) {
+
+        Map<Locale, CmsVfsBundleParameters> localeBundles = bundles.get(params.getName());
+        if (localeBundles == null) {
+            localeBundles = new LinkedHashMap<Locale, CmsVfsBundleParameters>();
+            bundles.put(params.getName(), localeBundles);
+        }
+        localeBundles.put(locale, params);
     }
 
     /**
      * Adds a resource bundle based on a properties file in the VFS.<p>
      *
+     * @param bundles the bundle parameters by base name and locale
      * @param bundleResource the properties file
      */
-    private void addPropertyBundle(CmsResource bundleResource) {
+    private void addPropertyBundle(
+        Map<String, Map<Locale, CmsVfsBundleParameters>> bundles,
+        CmsResource bundleResource) {
 
         NameAndLocale nameAndLocale = getNameAndLocale(bundleResource);
         Locale locale = nameAndLocale.getLocale();
 
         String baseName = nameAndLocale.getName();
-        m_bundleBaseNames.add(baseName);
-        LOG.info(
+        LOG.debug(
             String.format(
                 "Adding property VFS bundle (path=%s, name=%s, locale=%s)",
                 bundleResource.getRootPath(),
@@ -303,22 +340,21 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
             paramLocale,
             locale == null,
             CmsVfsResourceBundle.TYPE_PROPERTIES);
-        CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-        addBundle(baseName, locale, bundle);
+        addBundle(bundles, params, locale);
     }
 
     /**
      * Adds an XML based message bundle.<p>
      *
+     * @param bundles the bundle parameters by base name and locale
      * @param xmlBundle the XML content containing the message bundle data
      */
-    private void addXmlBundle(CmsResource xmlBundle) {
+    private void addXmlBundle(Map<String, Map<Locale, CmsVfsBundleParameters>> bundles, CmsResource xmlBundle) {
 
         String name = xmlBundle.getName();
         String path = xmlBundle.getRootPath();
-        m_bundleBaseNames.add(name);
 
-        LOG.info(String.format("Adding property VFS bundle (path=%s, name=%s)", xmlBundle.getRootPath(), name));
+        LOG.debug(String.format("Adding property VFS bundle (path=%s, name=%s)", xmlBundle.getRootPath(), name));
         for (Locale locale : getAllLocales()) {
             CmsVfsBundleParameters params = new CmsVfsBundleParameters(
                 name,
@@ -326,8 +362,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 locale,
                 false,
                 CmsVfsResourceBundle.TYPE_XML);
-            CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-            addBundle(name, locale, bundle);
+            addBundle(bundles, params, locale);
         }
     }
 
@@ -28,6 +28,7 @@
 package org.opencms.i18n;
 
 import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Data class containing the parameters for a VFS-based resource bundle.<p>
@@ -66,6 +67,26 @@ public class CmsVfsBundleParameters {
         m_type = type;
     }
 
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CmsVfsBundleParameters)) {
+            return false;
+        }
+        CmsVfsBundleParameters other = (CmsVfsBundleParameters)obj;
+        return (m_isDefault == other.m_isDefault)
+            && Objects.equals(m_name, other.m_name)
+            && Objects.equals(m_basePath, other.m_basePath)
+            && Objects.equals(m_locale, other.m_locale)
+            && Objects.equals(m_type, other.m_type);
+    }
+
     /**
      * Gets the base path of the resource bundle.<p>
      *
@@ -106,6 +127,15 @@ public class CmsVfsBundleParameters {
         return m_type;
     }
 
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(m_name, m_basePath, m_locale, Boolean.valueOf(m_isDefault), m_type);
+    }
+
     /**
      * Returns true if this is the set of parameters for the default message bundle.<p>
      *
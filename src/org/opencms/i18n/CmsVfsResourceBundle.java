@@ -45,6 +45,7 @@ import java.util.Set;
 
 import org.apache.commons.logging.Log;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
 
 /**
@@ -52,6 +53,30 @@ import com.google.common.collect.Iterators;
  */
 public class CmsVfsResourceBundle extends ResourceBundle implements I_CmsResourceBundle {
 
+    /**
+     * The messages of the bundle locale, resolved from the data loaded from the VFS.<p>
+     */
+    private static final class ResolvedMessages {
+
+        /** The data the messages were resolved from. */
+        final Map<Locale, Map<String, String>> m_data;
+
+        /** The immutable messages for the bundle locale. */
+        final Map<String, String> m_messages;
+
+        /**
+         * Creates a new instance.<p>
+         *
+         * @param data the data the messages were resolved from
+         * @param messages the messages for the bundle locale
+         */
+        ResolvedMessages(Map<Locale, Map<String, String>> data, Map<String, String> messages) {
+
+            m_data = data;
+            m_messages = messages;
+        }
+    }
+
     /**
      * Implementors of this interface are responsible for actually loading the data from the VFS.<p>
      */
@@ -91,6 +116,9 @@ public class CmsVfsResourceBundle extends ResourceBundle implements I_CmsResourc
     /** The VFS bundle parameters. */
     protected CmsVfsBundleParameters m_parameters;
 
+    /** The messages resolved from the last data read from the cache. */
+    private volatile ResolvedMessages m_resolved;
+
     /**
      * Creates a new VFS bundle instance.<p>
      *
@@ -244,6 +272,8 @@ public class CmsVfsResourceBundle extends ResourceBundle implements I_CmsResourc
     /**
      * Returns the message data for this bundle's locale.<p>
      *
+     * The messages are resolved once for the data read from the VFS and reused until the data changes.<p>
+     *
      * @return the message data for this bundle's locale
      */
     private Map<String, String> getMessagesForLocale() {
@@ -252,6 +282,23 @@ public class CmsVfsResourceBundle extends ResourceBundle implements I_CmsResourc
         if (data == null) {
             return Collections.emptyMap();
         }
+        ResolvedMessages resolved = m_resolved;
+        if ((resolved == null) || (resolved.m_data != data)) {
+            resolved = new ResolvedMessages(data, resolveMessages(data));
+            m_resolved = resolved;
+        }
+        return resolved.m_messages;
+    }
+
+    /**
+     * Resolves the messages for this bundle's locale.<p>
+     *
+     * @param data the message data by locale
+     *
+     * @return the immutable messages for this bundle's locale
+     */
+    private Map<String, String> resolveMessages(Map<Locale, Map<String, String>> data) {
+
         List<Locale> available = new ArrayList<Locale>(data.keySet());
         Locale bestMatchingLocale = OpenCms.getLocaleManager().getBestMatchingLocale(
             getLocale(),
@@ -260,8 +307,13 @@ public class CmsVfsResourceBundle extends ResourceBundle implements I_CmsResourc
         Map<String, String> bundleForLocale = data.get(bestMatchingLocale);
         if (bundleForLocale == null) {
             return Collections.emptyMap();
-        } else {
-            return Collections.unmodifiableMap(bundleForLocale);
         }
+        ImmutableMap.Builder<String, String> messages = ImmutableMap.builder();
+        for (Map.Entry<String, String> entry : bundleForLocale.entrySet()) {
+            if ((entry.getKey() != null) && (entry.getValue() != null)) {
+                messages.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return messages.build();
     }
 }
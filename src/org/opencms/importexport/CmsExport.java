@@ -226,6 +226,11 @@ public class CmsExport {
             }
 
             throw new CmsImportExportException(message, ioe);
+        } finally {
+            if (m_exportWriter != null) {
+                // stop the worker threads, also if the export failed
+                m_exportWriter.release();
+            }
         }
     }
 
@@ -264,7 +269,7 @@ public class CmsExport {
                         String export = getCms().getSitePath(file);
                         if (checkExportResource(export)) {
                             if (isInExportableProject(file)) {
-                                exportFile(getCms().readFile(export, CmsResourceFilter.IGNORE_EXPIRATION));
+                                exportFile(file);
                             }
                         }
                     }
@@ -332,7 +337,9 @@ public class CmsExport {
                 String fileName = fileNames.get(i);
 
                 try {
-                    CmsFile file = getCms().readFile(fileName, CmsResourceFilter.IGNORE_EXPIRATION);
+                    CmsResource file = getCms().readResource(
+                        fileName,
+                        CmsResourceFilter.IGNORE_EXPIRATION.addRequireFile());
                     if (!file.getState().isDeleted() && !CmsWorkplace.isTemporaryFile(file)) {
                         if (checkExportResource(fileName)) {
                             if (m_parameters.isRecursive()) {
@@ -873,42 +880,24 @@ public class CmsExport {
      */
     protected void exportFile(CmsFile file) throws CmsImportExportException, SAXException, IOException {
 
-        String source = trimResourceName(getCms().getSitePath(file));
-        I_CmsReport report = getReport();
-        m_exportCount++;
-        report.print(
-            org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_SUCCESSION_1,
-                String.valueOf(m_exportCount)),
-            I_CmsReport.FORMAT_NOTE);
-        report.print(Messages.get().container(Messages.RPT_EXPORT_0), I_CmsReport.FORMAT_NOTE);
-        report.print(
-            org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_ARGUMENT_1,
-                getCms().getSitePath(file)));
-        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+        exportFile(file, file.getContents());
+    }
 
-        // store content in zip-file
-        // check if the content of this resource was not already exported
-        if (!m_exportedResources.contains(file.getResourceId())) {
-            // write the file using the export writer
-            m_exportWriter.writeFile(file, source);
-            // add the resource id to the storage to mark that this resource was already exported
-            m_exportedResources.add(file.getResourceId());
-            // create the manifest-entries
-            appendResourceToManifest(file, true);
-        } else {
-            // only create the manifest-entries
-            appendResourceToManifest(file, false);
-        }
+    /**
+     * Exports one single file with all its data and content.<p>
+     *
+     * The content of the file is read before the file is added to the manifest. If it can not be read,
+     * the error is reported and the file is skipped.<p>
+     *
+     * @param file the file to be exported
+     *
+     * @throws CmsImportExportException if something goes wrong
+     * @throws SAXException if something goes wrong processing the manifest.xml
+     * @throws IOException if the ZIP entry for the file could be appended to the ZIP archive
+     */
+    protected void exportFile(CmsResource file) throws CmsImportExportException, SAXException, IOException {
 
-        if (LOG.isInfoEnabled()) {
-            LOG.info(
-                Messages.get().getBundle().key(Messages.LOG_EXPORTING_OK_2, String.valueOf(m_exportCount), source));
-        }
-        report.println(
-            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-            I_CmsReport.FORMAT_OK);
+        exportFile(file, null);
     }
 
     /**
@@ -1506,6 +1495,20 @@ public class CmsExport {
         return exportNode;
     }
 
+    /**
+     * Reads the content of a file to export.<p>
+     *
+     * @param file the file
+     *
+     * @return the content of the file
+     *
+     * @throws CmsException if the content can not be read
+     */
+    protected byte[] readContent(CmsResource file) throws CmsException {
+
+        return getCms().readFile(file).getContents();
+    }
+
     /**
      * Sets the SAX based XML writer to write the XML output to.<p>
      *
@@ -1534,6 +1537,73 @@ public class CmsExport {
         return resourceName;
     }
 
+    /**
+     * Exports one single file with all its data and the given content.<p>
+     *
+     * @param file the file to be exported
+     * @param content the content of the file, or <code>null</code> to read it
+     *
+     * @throws CmsImportExportException if something goes wrong
+     * @throws SAXException if something goes wrong processing the manifest.xml
+     * @throws IOException if the ZIP entry for the file could be appended to the ZIP archive
+     */
+    private void exportFile(CmsResource file, byte[] content)
+    throws CmsImportExportException, SAXException, IOException {
+
+        String source = trimResourceName(getCms().getSitePath(file));
+        I_CmsReport report = getReport();
+        m_exportCount++;
+        report.print(
+            org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_SUCCESSION_1,
+                String.valueOf(m_exportCount)),
+            I_CmsReport.FORMAT_NOTE);
+        report.print(Messages.get().container(Messages.RPT_EXPORT_0), I_CmsReport.FORMAT_NOTE);
+        report.print(
+            org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                getCms().getSitePath(file)));
+        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+        // store content in zip-file
+        // check if the content of this resource was not already exported
+        if (!m_exportedResources.contains(file.getResourceId())) {
+            if (content == null) {
+                try {
+                    content = readContent(file);
+                } catch (CmsException e) {
+                    // skip the file, so the export contains neither a manifest entry nor a content for it
+                    CmsMessageContainer message = Messages.get().container(
+                        Messages.ERR_IMPORTEXPORT_ERROR_READING_FILE_1,
+                        source);
+                    LOG.error(message.key(), e);
+                    report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                        I_CmsReport.FORMAT_ERROR);
+                    report.addError(e);
+                    return;
+                }
+            }
+            // write the file using the export writer
+            m_exportWriter.writeFile(file, source, content);
+            // add the resource id to the storage to mark that this resource was already exported
+            m_exportedResources.add(file.getResourceId());
+            // create the manifest-entries
+            appendResourceToManifest(file, true);
+        } else {
+            // only create the manifest-entries
+            appendResourceToManifest(file, false);
+        }
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info(
+                Messages.get().getBundle().key(Messages.LOG_EXPORTING_OK_2, String.valueOf(m_exportCount), source));
+        }
+        report.println(
+            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+            I_CmsReport.FORMAT_OK);
+    }
+
     /** Returns the manifest entry for the <code>&lt;datelastmodified&gt;</code> node of the resource.
      * Depending on the export.timestamp property, the time stamp from the VFS (default) or
      * special macros are used.
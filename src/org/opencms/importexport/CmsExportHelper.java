@@ -29,44 +29,77 @@ package org.opencms.importexport;
 
 import org.opencms.configuration.CmsConfigurationManager;
 import org.opencms.file.CmsFile;
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsXmlSaxWriter;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.logging.Log;
 import org.dom4j.io.SAXWriter;
 import org.xml.sax.SAXException;
 
 /**
  * Wrapper to write exported OpenCms resources either to a .ZIP file or to the file system.<p>
  *
+ * For a .ZIP export, the file contents are compressed in a pool of worker threads, while the calling
+ * thread keeps reading the resources and writing the manifest. The compressed entries are kept in temporary
+ * files, as is the manifest, and only a few contents wait for compression at the same time, so the memory used
+ * does not depend on the size of the export. The entries are assembled into the .ZIP file when the manifest
+ * is written.<p>
+ *
  * @since 7.5.1
  */
 public class CmsExportHelper {
 
-    /** Length that can be safely written to ZIP output. */
-    private static final int SUB_LENGTH = 4096;
+    /** The default number of threads for compressing the file contents. */
+    public static final int DEFAULT_THREADS = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsExportHelper.class);
 
     /** The main export path. */
     private String m_exportPath;
 
-    /** The export ZIP stream to write resources to. */
-    private ZipOutputStream m_exportZipStream;
+    /** The worker threads for compressing the file contents. */
+    private ExecutorService m_executor;
 
     /** Indicates if the resources are exported in one export .ZIP file or as individual files. */
     private boolean m_isExportAsFiles;
 
+    /** The temporary file the manifest is written to for a .ZIP export. */
+    private File m_manifestFile;
+
+    /** Limits the number of file contents waiting for a worker thread. */
+    private Semaphore m_pending;
+
     /** The SAX writer for the Manifest file. */
     private SAXWriter m_saxWriter;
 
+    /** Collects the compressed .ZIP entries. */
+    private ParallelScatterZipCreator m_zipCreator;
+
     /**
      * Creates a new export helper.<p>
      *
@@ -78,6 +111,23 @@ public class CmsExportHelper {
      * @throws IOException in case of file access issues
      */
     public CmsExportHelper(String exportPath, boolean exportAsFiles, boolean validateXml)
+    throws SAXException, IOException {
+
+        this(exportPath, exportAsFiles, validateXml, DEFAULT_THREADS);
+    }
+
+    /**
+     * Creates a new export helper.<p>
+     *
+     * @param exportPath the export path
+     * @param exportAsFiles indicates if the resources should be exported as individual files or in one big ZIP file
+     * @param validateXml indicates of the manifest.xml should be validated
+     * @param threads the number of threads for compressing the file contents of a .ZIP export
+     *
+     * @throws SAXException in case of issues creating the manifest.xml
+     * @throws IOException in case of file access issues
+     */
+    public CmsExportHelper(String exportPath, boolean exportAsFiles, boolean validateXml, int threads)
     throws SAXException, IOException {
 
         m_exportPath = exportPath;
@@ -98,10 +148,24 @@ public class CmsExportHelper {
             // make sure parent folders exist
             File rfsFile = new File(m_exportPath);
             rfsFile.getParentFile().mkdirs();
-            // create the export ZIP stream
-            m_exportZipStream = new ZipOutputStream(new FileOutputStream(m_exportPath));
-            // delegate writing to a String writer
-            writer = new StringWriter(SUB_LENGTH);
+            // the entries are compressed in parallel and written to the export file at the end
+            final AtomicInteger count = new AtomicInteger();
+            m_executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+
+                    Thread thread = new Thread(r, "OpenCms-export-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            m_zipCreator = new ParallelScatterZipCreator(m_executor);
+            m_pending = new Semaphore(2 * Math.max(1, threads));
+            // spool the manifest to a temporary file
+            m_manifestFile = File.createTempFile("opencms-export-manifest", ".xml");
+            writer = new OutputStreamWriter(
+                new BufferedOutputStream(new FileOutputStream(m_manifestFile)),
+                OpenCms.getSystemInfo().getDefaultEncoding());
         }
 
         // generate the SAX XML writer
@@ -143,10 +207,26 @@ public class CmsExportHelper {
      */
     public void writeFile(CmsFile file, String name) throws IOException {
 
+        writeFile(file, name, file.getContents());
+    }
+
+    /**
+     * Writes a single OpenCms VFS file with the given content to the export.<p>
+     *
+     * For a .ZIP export, the content is compressed later in a worker thread.<p>
+     *
+     * @param resource the OpenCms VFS file to write
+     * @param name the name of the file in the export
+     * @param content the content of the file
+     *
+     * @throws IOException in case of file access issues
+     */
+    public void writeFile(CmsResource resource, String name, byte[] content) throws IOException {
+
         if (m_isExportAsFiles) {
-            writeFile2Rfs(file, name);
+            writeFile2Rfs(name, content);
         } else {
-            writeFile2Zip(file, name);
+            writeFile2Zip(resource, name, content);
         }
     }
 
@@ -179,6 +259,25 @@ public class CmsExportHelper {
         return m_exportPath + name;
     }
 
+    /**
+     * Stops the worker threads and removes the temporary files.<p>
+     *
+     * This is called after the export has been written, and must also be called if the export fails.<p>
+     */
+    public void release() {
+
+        if (m_executor != null) {
+            m_executor.shutdownNow();
+        }
+        if (m_manifestFile != null) {
+            try {
+                Files.deleteIfExists(m_manifestFile.toPath());
+            } catch (IOException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
     /**
      * Removes the old export output, which may be an existing file or directory.<p>
      *
@@ -213,6 +312,19 @@ public class CmsExportHelper {
      */
     protected void writeFile2Rfs(CmsFile file, String name) throws IOException {
 
+        writeFile2Rfs(name, file.getContents());
+    }
+
+    /**
+     * Writes the content of a single OpenCms VFS file to the RFS export.<p>
+     *
+     * @param name the name of the file in the export
+     * @param content the content of the file
+     *
+     * @throws IOException in case of file access issues
+     */
+    protected void writeFile2Rfs(String name, byte[] content) throws IOException {
+
         String fileName = getRfsFileName(name);
         File rfsFile = new File(fileName);
         if (!rfsFile.getParentFile().exists()) {
@@ -220,7 +332,7 @@ public class CmsExportHelper {
         }
         rfsFile.createNewFile();
         FileOutputStream rfsFileOut = new FileOutputStream(rfsFile);
-        rfsFileOut.write(file.getContents());
+        rfsFileOut.write(content);
         rfsFileOut.close();
     }
 
@@ -234,12 +346,37 @@ public class CmsExportHelper {
      */
     protected void writeFile2Zip(CmsFile file, String name) throws IOException {
 
-        ZipEntry entry = new ZipEntry(name);
+        writeFile2Zip(file, name, file.getContents());
+    }
+
+    /**
+     * Adds a single OpenCms VFS file to the ZIP export, the content is compressed in a worker thread.<p>
+     *
+     * Blocks while too many contents are waiting for compression.<p>
+     *
+     * @param resource the OpenCms VFS file to write
+     * @param name the name of the file in the export
+     * @param content the content of the file
+     *
+     * @throws IOException if the calling thread is interrupted
+     */
+    protected void writeFile2Zip(CmsResource resource, String name, byte[] content) throws IOException {
+
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
         // save the time of the last modification in the zip
-        entry.setTime(file.getDateLastModified());
-        m_exportZipStream.putNextEntry(entry);
-        m_exportZipStream.write(file.getContents());
-        m_exportZipStream.closeEntry();
+        entry.setTime(resource.getDateLastModified());
+        entry.setMethod(ZipEntry.DEFLATED);
+        try {
+            m_pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getLocalizedMessage());
+        }
+        m_zipCreator.addArchiveEntry(entry, () -> {
+            // the content is now held by the worker thread
+            m_pending.release();
+            return new ByteArrayInputStream(content);
+        });
     }
 
     /**
@@ -277,29 +414,30 @@ public class CmsExportHelper {
         xmlSaxWriter.endDocument();
         xmlSaxWriter.getWriter().close();
 
-        // create ZIP entry for the manifest XML document
-        ZipEntry entry = new ZipEntry(CmsImportExportManager.EXPORT_MANIFEST);
-        m_exportZipStream.putNextEntry(entry);
-
-        // complex substring operation is required to ensure handling for very large export manifest files
-        StringBuffer result = ((StringWriter)xmlSaxWriter.getWriter()).getBuffer();
-        int steps = result.length() / SUB_LENGTH;
-        int rest = result.length() % SUB_LENGTH;
-        int pos = 0;
-        for (int i = 0; i < steps; i++) {
-            String sub = result.substring(pos, pos + SUB_LENGTH);
-            m_exportZipStream.write(sub.getBytes(OpenCms.getSystemInfo().getDefaultEncoding()));
-            pos += SUB_LENGTH;
-        }
-        if (rest > 0) {
-            String sub = result.substring(pos, pos + rest);
-            m_exportZipStream.write(sub.getBytes(OpenCms.getSystemInfo().getDefaultEncoding()));
-        }
-
-        // close the zip entry for the manifest XML document
-        m_exportZipStream.closeEntry();
+        try (ZipArchiveOutputStream zipOut = new ZipArchiveOutputStream(new File(m_exportPath))) {
+            // write the file entries as soon as all of them are compressed
+            try {
+                m_zipCreator.writeTo(zipOut);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException)cause;
+                }
+                throw new IOException(cause.getLocalizedMessage(), cause);
+            }
 
-        // finally close the zip stream
-        m_exportZipStream.close();
+            // create ZIP entry for the manifest XML document
+            ZipArchiveEntry entry = new ZipArchiveEntry(CmsImportExportManager.EXPORT_MANIFEST);
+            entry.setTime(System.currentTimeMillis());
+            zipOut.putArchiveEntry(entry);
+            Files.copy(m_manifestFile.toPath(), zipOut);
+            // close the zip entry for the manifest XML document
+            zipOut.closeArchiveEntry();
+        } finally {
+            release();
+        }
     }
-}
\ No newline at end of file
+}
@@ -34,6 +34,9 @@ package org.opencms.importexport;
  */
 public class CmsImportParameters {
 
+    /** If set, the import is done in bulk mode. */
+    private boolean m_bulkMode;
+
     /** The path in the OpenCms VFS to import into.*/
     private String m_destinationPath;
 
@@ -80,6 +83,23 @@ public class CmsImportParameters {
         return m_path;
     }
 
+    /**
+     * Checks if the import is done in bulk mode.<p>
+     *
+     * In bulk mode, the importing user needs the root administrator role, which is checked once
+     * at the beginning. The permissions on the single resources are not checked, access control entries and
+     * relations are written in batches, and the caches are flushed and events are fired only once at
+     * the end of the import.<p>
+     *
+     * @return the bulk mode flag
+     *
+     * @see org.opencms.file.CmsObject#startBulkImport()
+     */
+    public boolean isBulkMode() {
+
+        return m_bulkMode;
+    }
+
     /**
      * Returns the keep permissions flags.
      * if set, the permissions set on existing resources will not be modified.<p>
@@ -101,6 +121,18 @@ public class CmsImportParameters {
         return m_xmlValidation;
     }
 
+    /**
+     * Sets the bulk mode flag.<p>
+     *
+     * @param bulkMode the bulk mode flag to set
+     *
+     * @see #isBulkMode()
+     */
+    public void setBulkMode(boolean bulkMode) {
+
+        m_bulkMode = bulkMode;
+    }
+
     /**
      * Sets the path in the OpenCms VFS to import into.<p>
      *
@@ -53,6 +53,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalStateException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationType;
 import org.opencms.relations.I_CmsLinkParseable;
 import org.opencms.report.I_CmsReport;
@@ -551,6 +552,9 @@ public class CmsImportVersion10 implements I_CmsImport {
     /** The export version. */
     protected int m_version;
 
+    /** True while a bulk import is active. */
+    private boolean m_bulkImport;
+
     /**
      * Maps index of files in import to structure ids of imported resources.
      * Necessary because not all entries in the manifest may have a structure id, and even for entries
@@ -1557,6 +1561,20 @@ public class CmsImportVersion10 implements I_CmsImport {
 
         addXmlDigesterRules(digester);
 
+        if (m_parameters.isBulkMode()) {
+            // validate once for the whole import
+            try {
+                getCms().startBulkImport();
+            } catch (CmsException e) {
+                getReport().println(e);
+                getReport().addError(e);
+                LOG.error(e.getLocalizedMessage(), e);
+                return;
+            }
+            m_bulkImport = true;
+            getReport().println(Messages.get().container(Messages.RPT_IMPORT_BULK_BEGIN_0), I_CmsReport.FORMAT_NOTE);
+        }
+
         InputStream stream = null;
         m_helper = new CmsImportHelper(m_parameters);
         try {
@@ -1584,6 +1602,8 @@ public class CmsImportVersion10 implements I_CmsImport {
                 // noop
             }
             m_helper.closeFile();
+            // in case the import was interrupted before the relations were imported
+            finishBulkImport();
         }
     }
 
@@ -1886,11 +1906,22 @@ public class CmsImportVersion10 implements I_CmsImport {
      * after all resources have been imported, to make sure that both resources
      * of the relations are available.<p>
      *
+     * In bulk mode, all relations are written in one go, and the bulk import is finished afterwards.<p>
+     *
      * @see #addResourceRelationRules(Digester, String)
      * @see #addXmlDigesterRules(Digester)
      */
     public void importRelations() {
 
+        if (m_bulkImport) {
+            // finish the bulk import afterwards, so the parseable resources are rewritten with flushed caches
+            try {
+                importRelationsBulk();
+            } finally {
+                finishBulkImport();
+            }
+            return;
+        }
         if ((m_relationData == null) || m_relationData.isEmpty()) {
             // no relations to add
             return;
@@ -3580,6 +3611,28 @@ public class CmsImportVersion10 implements I_CmsImport {
         }
     }
 
+    /**
+     * Finishes the bulk import, if active.<p>
+     *
+     * This writes the pending access control entries, flushes the caches and fires a single event
+     * for all imported resources.<p>
+     */
+    private void finishBulkImport() {
+
+        if (!m_bulkImport) {
+            return;
+        }
+        m_bulkImport = false;
+        try {
+            getCms().finishBulkImport();
+            getReport().println(Messages.get().container(Messages.RPT_IMPORT_BULK_END_0), I_CmsReport.FORMAT_NOTE);
+        } catch (CmsException e) {
+            getReport().println(e);
+            getReport().addError(e);
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+    }
+
     /**
      * Checks whether the content for the resource being imported exists either in the VFS or in the import file.<p>
      *
@@ -3603,4 +3656,76 @@ public class CmsImportVersion10 implements I_CmsImport {
         return false;
 
     }
+
+    /**
+     * Imports the relations of a bulk import in one set based pass.<p>
+     *
+     * The source and target resources are read in one go, and the relations are written in batches.<p>
+     */
+    private void importRelationsBulk() {
+
+        if ((m_relationData == null) || m_relationData.isEmpty()) {
+            // no relations to add
+            return;
+        }
+
+        getReport().println(
+            Messages.get().container(Messages.RPT_START_IMPORT_RELATIONS_0),
+            I_CmsReport.FORMAT_HEADLINE);
+
+        CmsResourceFilter filter = CmsResourceFilter.ALL;
+        Set<CmsUUID> ids = new HashSet<CmsUUID>();
+        for (Entry<Integer, RelationData> entry : m_relationData.entries()) {
+            CmsUUID structureId = m_indexToStructureId.get(entry.getKey());
+            if (structureId != null) {
+                ids.add(structureId);
+                if (entry.getValue().getTargetId() != null) {
+                    ids.add(entry.getValue().getTargetId());
+                }
+            }
+        }
+        try {
+            Map<CmsUUID, CmsResource> resources = new HashMap<CmsUUID, CmsResource>();
+            for (CmsResource resource : m_cms.readResources(ids, filter)) {
+                resources.put(resource.getStructureId(), resource);
+            }
+            List<CmsRelation> relations = new ArrayList<CmsRelation>();
+            for (Integer importIndex : m_relationData.keySet()) {
+                CmsUUID structureId = m_indexToStructureId.get(importIndex);
+                CmsResource src = structureId != null ? resources.get(structureId) : null;
+                if ((src == null) || checkImmutable(src.getRootPath())) {
+                    continue;
+                }
+                for (RelationData relationData : m_relationData.get(importIndex)) {
+                    CmsResource target = relationData.getTargetId() != null
+                    ? resources.get(relationData.getTargetId())
+                    : null;
+                    if (target == null) {
+                        try {
+                            target = m_cms.readResource(relationData.getTarget(), filter);
+                        } catch (CmsVfsResourceNotFoundException e) {
+                            // ignore
+                        }
+                    }
+                    if (target != null) {
+                        relations.add(new CmsRelation(src, target, relationData.getType()));
+                    }
+                }
+            }
+            getReport().print(
+                Messages.get().container(Messages.RPT_IMPORTING_RELATIONS_1, Integer.valueOf(relations.size())),
+                I_CmsReport.FORMAT_NOTE);
+            getReport().print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+            getCms().importRelations(relations);
+            getReport().println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                I_CmsReport.FORMAT_OK);
+        } catch (CmsException e) {
+            getReport().println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                I_CmsReport.FORMAT_ERROR);
+            getReport().addError(e);
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+    }
 }
@@ -315,6 +315,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMPORT_ACL_DATA_FAILED_0 = "RPT_IMPORT_ACL_DATA_FAILED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_IMPORT_BULK_BEGIN_0 = "RPT_IMPORT_BULK_BEGIN_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_IMPORT_BULK_END_0 = "RPT_IMPORT_BULK_END_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMPORT_DB_BEGIN_0 = "RPT_IMPORT_DB_BEGIN_0";
 
@@ -342,6 +348,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMPORTING_0 = "RPT_IMPORTING_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_IMPORTING_RELATIONS_1 = "RPT_IMPORTING_RELATIONS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMPORTING_RELATIONS_FOR_2 = "RPT_IMPORTING_RELATIONS_FOR_2";
 
@@ -30,17 +30,21 @@ package org.opencms.jsp;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.flex.CmsFlexRequestContextInfo;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.security.CmsPermissionSet;
 import org.opencms.util.CmsFileUtil;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -469,24 +473,10 @@ public class CmsJspNavBuilder {
         folder = CmsFileUtil.removeTrailingSeparator(folder);
         List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
 
-        List<CmsResource> resources = null;
-        try {
-
-            resources = m_cms.getResourcesInFolder(folder, resourceFilter);
-        } catch (Exception e) {
-            // should never happen
-            LOG.error(e.getLocalizedMessage(), e);
-        }
-        if (resources == null) {
-            return Collections.<CmsJspNavElement> emptyList();
-        }
         boolean includeAll = visibility == Visibility.all;
         boolean includeHidden = visibility == Visibility.includeHidden;
-        for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter);
-            if ((element != null)
-                && (includeAll
-                    || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry())))) {
+        for (CmsJspNavElement element : getNavigationElements(folder, resourceFilter, false)) {
+            if (includeAll || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry()))) {
                 result.add(element);
             }
         }
@@ -704,6 +694,129 @@ public class CmsJspNavBuilder {
         m_requestUriFolder = CmsResource.getFolderPath(m_requestUri);
     }
 
+    /**
+     * Returns the navigation elements for all resources in the given folder, regardless of their visibility.<p>
+     *
+     * In the online project, the folder contents are taken from the {@link CmsJspNavTreeCache}.<p>
+     *
+     * @param folder the selected folder
+     * @param resourceFilter the filter to use reading the resources
+     * @param shallow <code>true</code> for a shallow look up, not regarding next level resources
+     *
+     * @return the unsorted list of navigation elements
+     */
+    private List<CmsJspNavElement> getNavigationElements(
+        String folder,
+        CmsResourceFilter resourceFilter,
+        boolean shallow) {
+
+        List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
+        CmsJspNavTreeCache cache = CmsJspNavTreeCache.getInstance();
+        try {
+            if ((cache != null) && m_cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+                // read the folder to make sure it exists and the current user can read it
+                CmsResource parent = m_cms.readResource(folder, CmsResourceFilter.ALL);
+                for (CmsJspNavTreeCache.Entry entry : cache.getLevel(parent.getRootPath())) {
+                    CmsJspNavElement element = getNavigationForEntry(entry, resourceFilter, shallow);
+                    if (element != null) {
+                        result.add(element);
+                    }
+                }
+            } else {
+                List<CmsResource> resources = m_cms.getResourcesInFolder(folder, resourceFilter);
+                prefetchProperties(resources);
+                for (CmsResource r : resources) {
+                    CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter, shallow);
+                    if (element != null) {
+                        result.add(element);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // should never happen
+            LOG.error(e.getLocalizedMessage(), e);
+            return Collections.<CmsJspNavElement> emptyList();
+        }
+        return result;
+    }
+
+    /**
+     * Returns a navigation element for a cached entry of the navigation tree.<p>
+     *
+     * This applies the same checks as {@link #getNavigationForResource(String, CmsResourceFilter, boolean)}
+     * to the shared cached data, using the resource filter and the permissions of the current user.<p>
+     *
+     * @param entry the cached entry
+     * @param resourceFilter the filter to use reading the resources
+     * @param shallow <code>true</code> for a shallow look up, not regarding next level resources
+     *
+     * @return a navigation element for the entry, or <code>null</code> if the resource is not available
+     */
+    private CmsJspNavElement getNavigationForEntry(
+        CmsJspNavTreeCache.Entry entry,
+        CmsResourceFilter resourceFilter,
+        boolean shallow) {
+
+        CmsRequestContext context = m_cms.getRequestContext();
+        CmsResource resource = entry.getResource();
+        // like for resources read from the database, this must also be done for resources that are filtered out,
+        // since they may be invalid because of their release or expiration date
+        CmsFlexRequestContextInfo.updateFromResource(context, resource);
+        try {
+            if (!resourceFilter.isValid(context, resource)
+                || !m_cms.hasPermissions(resource, CmsPermissionSet.ACCESS_READ, false, resourceFilter)) {
+                return null;
+            }
+        } catch (CmsException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            return null;
+        }
+        String sitePath = m_cms.getSitePath(resource);
+        int level = CmsResource.getPathLevel(sitePath);
+        if (sitePath.endsWith("/")) {
+            level--;
+        }
+        Map<String, String> propertiesMap = new HashMap<String, String>(entry.getProperties());
+        if (resource.isFolder()) {
+            boolean navigationLevel = NAVIGATION_LEVEL_FOLDER.equals(
+                propertiesMap.get(CmsPropertyDefinition.PROPERTY_DEFAULT_FILE));
+            if (resourceFilter.equals(CmsResourceFilter.DEFAULT) && !navigationLevel) {
+                CmsResourceFilter fileFilter = resourceFilter.addRequireFile();
+                for (CmsResource defaultFile : entry.getDefaultFiles()) {
+                    CmsFlexRequestContextInfo.updateFromResource(context, defaultFile);
+                    if (fileFilter.isValid(context, defaultFile)) {
+                        try {
+                            if (m_cms.hasPermissions(defaultFile, CmsPermissionSet.ACCESS_READ, false, resourceFilter)
+                                && !defaultFile.isReleasedAndNotExpired(context.getRequestTime())) {
+                                // do not show navigation entries for unreleased or expired resources
+                                return null;
+                            }
+                        } catch (@SuppressWarnings("unused") CmsException e) {
+                            // may happen if permissions are not sufficient can be ignored
+                        }
+                        break;
+                    }
+                }
+            }
+            if (!shallow && navigationLevel) {
+                // this folder is marked as a navigation level, set the site path to the first sub element
+                List<CmsJspNavElement> subElements = getNavigationForFolder(sitePath, false, resourceFilter, true);
+                if (!subElements.isEmpty()) {
+                    CmsJspNavElement subElement = getNavigationForResource(
+                        subElements.get(0).getSitePath(),
+                        resourceFilter,
+                        false);
+                    if (subElement == null) {
+                        return null;
+                    }
+                    sitePath = subElement.getSitePath();
+                }
+            }
+        }
+        // the cached resource is shared, so hand out a copy
+        return new CmsJspNavElement(sitePath, resource.getCopy(), propertiesMap, level, m_locale);
+    }
+
     /**
      * Collect all navigation elements from the files in the given folder.<p>
     *
@@ -723,18 +836,8 @@ public class CmsJspNavBuilder {
         folder = CmsResource.getFolderPath(folder);
         List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
 
-        List<CmsResource> resources;
-        try {
-            resources = m_cms.getResourcesInFolder(folder, resourceFilter);
-        } catch (Exception e) {
-            // should never happen
-            LOG.error(e.getLocalizedMessage(), e);
-            return Collections.<CmsJspNavElement> emptyList();
-        }
-
-        for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter, shallow);
-            if ((element != null) && (includeInvisible || element.isInNavigation())) {
+        for (CmsJspNavElement element : getNavigationElements(folder, resourceFilter, shallow)) {
+            if (includeInvisible || element.isInNavigation()) {
                 result.add(element);
             }
         }
@@ -805,4 +908,20 @@ public class CmsJspNavBuilder {
 
         return new CmsJspNavElement(sitePath, resource, propertiesMap, level, m_locale);
     }
+
+    /**
+     * Reads the properties of all given resources with a single query, so building the
+     * navigation elements for them does not need a database round trip per resource.<p>
+     *
+     * @param resources the resources of a navigation level
+     */
+    private void prefetchProperties(List<CmsResource> resources) {
+
+        try {
+            m_cms.readPropertyObjects(resources, false);
+        } catch (CmsException e) {
+            // the properties will be read again for each resource
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,355 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jsp;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Cache for the navigation levels of the online project, used by the {@link CmsJspNavBuilder}.<p>
+ *
+ * For each folder, the cache keeps an immutable list of its child resources, together with their properties
+ * and the candidates for the default file of child folders. The levels are read once with an administrator
+ * context and shared by all users, the navigation builder applies the resource filter and the permissions of the
+ * current user when creating the navigation elements from the cached data.<p>
+ *
+ * The levels are keyed by root path, so each site has its own part of the tree. Since the cached property
+ * maps contain the locale specific properties as well, the same levels are used for all locales.<p>
+ *
+ * After a publish operation only the levels containing the published resources (and for deleted or moved
+ * folders, the levels below them) are removed. They are read again on the next access.<p>
+ *
+ * @since 11.0.0
+ */
+public final class CmsJspNavTreeCache implements I_CmsEventListener {
+
+    /**
+     * A cached entry of a navigation level.<p>
+     */
+    public static final class Entry {
+
+        /** The candidates for the default file, if the resource is a folder. */
+        private final List<CmsResource> m_defaultFiles;
+
+        /** The properties directly attached to the resource. */
+        private final Map<String, String> m_properties;
+
+        /** The resource. */
+        private final CmsResource m_resource;
+
+        /**
+         * Creates a new entry.<p>
+         *
+         * @param resource the resource
+         * @param properties the properties directly attached to the resource
+         * @param defaultFiles the candidates for the default file, in lookup order
+         */
+        Entry(CmsResource resource, Map<String, String> properties, List<CmsResource> defaultFiles) {
+
+            m_resource = resource;
+            m_properties = Collections.unmodifiableMap(properties);
+            m_defaultFiles = Collections.unmodifiableList(defaultFiles);
+        }
+
+        /**
+         * Returns the existing candidates for the default file of a folder, in lookup order.<p>
+         *
+         * These are the file named by the <code>default-file</code> property followed by the
+         * configured default files. The resource filter of the request decides which of them is used.<p>
+         *
+         * @return the candidates for the default file, empty for files
+         */
+        public List<CmsResource> getDefaultFiles() {
+
+            return m_defaultFiles;
+        }
+
+        /**
+         * Returns the properties directly attached to the resource.<p>
+         *
+         * @return the unmodifiable map of properties
+         */
+        public Map<String, String> getProperties() {
+
+            return m_properties;
+        }
+
+        /**
+         * Returns the resource.<p>
+         *
+         * The resource is shared between all users and must not be changed.<p>
+         *
+         * @return the resource
+         */
+        public CmsResource getResource() {
+
+            return m_resource;
+        }
+    }
+
+    /** The maximum number of cached levels, the cache is cleared if more levels are read. */
+    public static final int MAX_LEVELS = 20000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsJspNavTreeCache.class);
+
+    /** The cache instance, <code>null</code> if not initialized. */
+    private static CmsJspNavTreeCache m_instance;
+
+    /** The online administrator context used for reading the levels. */
+    private final CmsObject m_cms;
+
+    /** The cached levels by root path of the folder. */
+    private final Map<String, List<Entry>> m_levels = new ConcurrentHashMap<String, List<Entry>>();
+
+    /** Counts the invalidations, to avoid caching levels which were read before an invalidation. */
+    private final AtomicLong m_version = new AtomicLong();
+
+    /**
+     * Creates a new cache.<p>
+     *
+     * @param cms an online administrator context with the root site
+     */
+    private CmsJspNavTreeCache(CmsObject cms) {
+
+        m_cms = cms;
+    }
+
+    /**
+     * Returns the cache instance.<p>
+     *
+     * @return the cache instance, or <code>null</code> if not initialized
+     */
+    public static CmsJspNavTreeCache getInstance() {
+
+        return m_instance;
+    }
+
+    /**
+     * Initializes the cache. Only intended to be called during startup.<p>
+     *
+     * @param adminCms an administrator context
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public static void initialize(CmsObject adminCms) throws CmsException {
+
+        CmsObject cms = OpenCms.initCmsObject(adminCms);
+        cms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        cms.getRequestContext().setSiteRoot("");
+        CmsJspNavTreeCache cache = new CmsJspNavTreeCache(cms);
+        OpenCms.addCmsEventListener(
+            cache,
+            new int[] {
+                I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+                I_CmsEventListener.EVENT_CLEAR_CACHES,
+                I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES});
+        m_instance = cache;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                String publishIdStr = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+                List<CmsPublishedResource> publishedResources = null;
+                if (publishIdStr != null) {
+                    try {
+                        publishedResources = m_cms.readPublishedResources(new CmsUUID(publishIdStr));
+                    } catch (CmsException e) {
+                        LOG.error(e.getLocalizedMessage(), e);
+                    }
+                }
+                if ((publishedResources == null) || publishedResources.isEmpty()) {
+                    // not a normal publish process, so clear the whole cache to be on the safe side
+                    clear();
+                } else {
+                    for (CmsPublishedResource res : publishedResources) {
+                        invalidate(
+                            res.getRootPath(),
+                            res.isFolder(),
+                            res.isFolder() && (res.getState().isDeleted() || res.isMoved()));
+                    }
+                }
+                break;
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+            case I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES:
+                clear();
+                break;
+            default:
+                // noop
+                break;
+        }
+    }
+
+    /**
+     * Returns the cached navigation level of the given folder, reading it if necessary.<p>
+     *
+     * @param folderRootPath the root path of the folder
+     *
+     * @return the entries for the resources in the folder, in the order they were read
+     *
+     * @throws CmsException if the folder can not be read
+     */
+    public List<Entry> getLevel(String folderRootPath) throws CmsException {
+
+        String key = CmsStringUtil.joinPaths(folderRootPath, "/");
+        List<Entry> level = m_levels.get(key);
+        if (level == null) {
+            long version = m_version.get();
+            level = readLevel(key);
+            if (m_levels.size() >= MAX_LEVELS) {
+                m_levels.clear();
+            }
+            if (version == m_version.get()) {
+                m_levels.put(key, level);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Returns the number of cached levels.<p>
+     *
+     * @return the number of cached levels
+     */
+    public int size() {
+
+        return m_levels.size();
+    }
+
+    /**
+     * Removes all cached levels.<p>
+     */
+    protected void clear() {
+
+        m_version.incrementAndGet();
+        m_levels.clear();
+    }
+
+    /**
+     * Removes the levels which depend on the resource with the given path.<p>
+     *
+     * These are the level containing the resource, the level containing its parent folder (which keeps the default
+     * file candidates), and for folders, the level of the folder itself.<p>
+     *
+     * @param rootPath the root path of the changed resource
+     * @param isFolder <code>true</code> if the resource is a folder
+     * @param subtree <code>true</code> to remove all levels below the folder, e.g. if it was deleted or moved
+     */
+    protected void invalidate(String rootPath, boolean isFolder, boolean subtree) {
+
+        m_version.incrementAndGet();
+        String parent = CmsResource.getParentFolder(rootPath);
+        if (parent != null) {
+            m_levels.remove(parent);
+            String grandParent = CmsResource.getParentFolder(parent);
+            if (grandParent != null) {
+                m_levels.remove(grandParent);
+            }
+        }
+        if (isFolder) {
+            String folder = CmsStringUtil.joinPaths(rootPath, "/");
+            if (subtree) {
+                for (String key : m_levels.keySet()) {
+                    if (key.startsWith(folder)) {
+                        m_levels.remove(key);
+                    }
+                }
+            } else {
+                m_levels.remove(folder);
+            }
+        }
+    }
+
+    /**
+     * Reads a navigation level.<p>
+     *
+     * @param folder the root path of the folder, with trailing slash
+     *
+     * @return the entries of the level
+     *
+     * @throws CmsException if the folder can not be read
+     */
+    private List<Entry> readLevel(String folder) throws CmsException {
+
+        List<CmsResource> resources = m_cms.getResourcesInFolder(folder, CmsResourceFilter.ALL);
+        Map<CmsUUID, List<CmsProperty>> properties = m_cms.readPropertyObjects(resources, false);
+        List<Entry> level = new ArrayList<Entry>(resources.size());
+        for (CmsResource resource : resources) {
+            Map<String, String> propertyMap = CmsProperty.toMap(properties.get(resource.getStructureId()));
+            List<CmsResource> defaultFiles = new ArrayList<CmsResource>();
+            if (resource.isFolder()) {
+                List<String> names = new ArrayList<String>();
+                String defaultFileName = propertyMap.get(CmsPropertyDefinition.PROPERTY_DEFAULT_FILE);
+                if ((defaultFileName != null) && !CmsJspNavBuilder.NAVIGATION_LEVEL_FOLDER.equals(defaultFileName)) {
+                    names.add(defaultFileName);
+                }
+                names.addAll(OpenCms.getDefaultFiles());
+                for (String name : names) {
+                    try {
+                        defaultFiles.add(
+                            m_cms.readResource(resource.getRootPath() + name, CmsResourceFilter.ALL.addRequireFile()));
+                    } catch (CmsException e) {
+                        // no such default file
+                        LOG.debug(e.getLocalizedMessage(), e);
+                    }
+                }
+            }
+            level.add(new Entry(resource, propertyMap, defaultFiles));
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Read navigation level " + folder + " with " + level.size() + " entries.");
+        }
+        return Collections.unmodifiableList(level);
+    }
+}
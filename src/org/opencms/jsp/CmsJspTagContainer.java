@@ -37,6 +37,7 @@ import org.opencms.ade.containerpage.shared.CmsFormatterConfig;
 import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
 import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.flex.CmsFlexController;
@@ -561,6 +562,7 @@ public class CmsJspTagContainer extends BodyTagSupport implements TryCatchFinall
                 } else {
                     allElements.addAll(container.getElements());
                 }
+                prefetchElementResources(cms, allElements);
                 // iterate over elements to render
                 int numRenderedElements = 0;
                 boolean first = true;
@@ -1265,6 +1267,37 @@ public class CmsJspTagContainer extends BodyTagSupport implements TryCatchFinall
         : null;
     }
 
+    /**
+     * Reads the resources of all given elements with a single query.<p>
+     *
+     * The resources are put into the request scoped read cache, where the elements pick them up
+     * when they are initialized for rendering. Since that cache is only used in the online project,
+     * nothing is done for offline requests.<p>
+     *
+     * @param cms the cms context
+     * @param elements the container elements
+     */
+    private void prefetchElementResources(CmsObject cms, List<CmsContainerElementBean> elements) {
+
+        if ((elements.size() < 2)
+            || (cms.getRequestContext().getReadCache() == null)
+            || !cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+            return;
+        }
+        List<CmsUUID> ids = new ArrayList<CmsUUID>(elements.size());
+        for (CmsContainerElementBean element : elements) {
+            if (!element.isInMemoryOnly() && (element.getId() != null)) {
+                ids.add(element.getId());
+            }
+        }
+        try {
+            cms.readResources(ids, CmsResourceFilter.IGNORE_EXPIRATION);
+        } catch (CmsException e) {
+            // the elements will read their resources one by one
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+    }
+
     /**
      * Prints an element error tag to the response out.<p>
      *
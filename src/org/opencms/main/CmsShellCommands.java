@@ -56,6 +56,7 @@ import org.opencms.module.CmsModule;
 import org.opencms.module.CmsModule.ExportMode;
 import org.opencms.module.CmsModuleImportExportHandler;
 import org.opencms.module.CmsModuleManager;
+import org.opencms.module.CmsModuleUpdater;
 import org.opencms.report.CmsShellLogReport;
 import org.opencms.report.CmsShellReport;
 import org.opencms.report.I_CmsReport;
@@ -84,6 +85,7 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -211,6 +213,29 @@ class CmsShellCommands implements I_CmsShellCommands {
         settings.save(m_cms);
     }
 
+    /**
+     * Shows what replacing a module with another revision would change, without changing anything.<p>
+     *
+     * @param importFile the name of the import file
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void checkModuleUpdate(String importFile) throws Exception {
+
+        I_CmsReport report = new CmsShellReport(m_cms.getRequestContext().getLocale());
+        Optional<CmsModuleUpdater> updater = CmsModuleUpdater.create(m_cms, importFile, report);
+        if (updater.isPresent()) {
+            updater.get().dryRun();
+        } else {
+            CmsModule module = CmsModuleImportExportHandler.readModuleFromImport(importFile);
+            report.println(
+                org.opencms.module.Messages.get().container(
+                    org.opencms.module.Messages.RPT_UPDATE_PLAN_NOT_UPDATABLE_1,
+                    module.getName()),
+                I_CmsReport.FORMAT_WARNING);
+        }
+    }
+
     /**
      * Clears all OpenCms internal caches.<p>
      *
@@ -901,6 +926,33 @@ class CmsShellCommands implements I_CmsShellCommands {
             params);
     }
 
+    /**
+     * Imports a resource into the Cms in bulk mode.<p>
+     *
+     * The current user needs the root administrator role. The permissions on the single resources are not checked,
+     * and the caches are flushed only once at the end of the import.<p>
+     *
+     * @param importFile the name (absolute Path) of the import resource (zip or folder)
+     * @param importPath the name (absolute Path) of folder in which should be imported
+     *
+     * @throws Exception if something goes wrong
+     *
+     * @see CmsImportParameters#isBulkMode()
+     */
+    public void importResourcesBulk(String importFile, String importPath) throws Exception {
+
+        CmsImportParameters params = new CmsImportParameters(
+            OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(importFile),
+            importPath,
+            true);
+        params.setBulkMode(true);
+
+        OpenCms.getImportExportManager().importData(
+            m_cms,
+            new CmsShellReport(m_cms.getRequestContext().getLocale()),
+            params);
+    }
+
     /**
      * Imports a folder or a ZIP file to the root folder of the
      * current site, creating a temporary project for this.<p>
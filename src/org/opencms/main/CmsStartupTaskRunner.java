@@ -0,0 +1,299 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the initialization steps of the OpenCms managers, respecting the dependencies between them.<p>
+ *
+ * Each task declares the tasks it depends on, which must have been added before. With more than one thread,
+ * a task is started as soon as all of its dependencies are finished, so independent managers are initialized
+ * concurrently. With a single thread, the tasks run one after another in the order they were added.<p>
+ *
+ * The runner records start time, duration and thread of every task, see {@link #getTimeline()}.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsStartupTaskRunner {
+
+    /**
+     * A single initialization step.<p>
+     */
+    public interface I_CmsStartupTask {
+
+        /**
+         * Executes the initialization step.<p>
+         *
+         * @throws CmsException if the initialization fails
+         */
+        void run() throws CmsException;
+    }
+
+    /**
+     * A task with its dependencies and timing information.<p>
+     */
+    private static class Task {
+
+        /** The action to run. */
+        I_CmsStartupTask m_action;
+
+        /** The names of the tasks this task depends on. */
+        List<String> m_dependencies;
+
+        /** The end time, relative to the start of the runner. */
+        volatile long m_end = -1;
+
+        /** The name of the task. */
+        String m_name;
+
+        /** The start time, relative to the start of the runner. */
+        volatile long m_start = -1;
+
+        /** The name of the thread which executed the task. */
+        volatile String m_thread;
+    }
+
+    /** Default for the number of threads used for initializing the managers, 1 to initialize them sequentially. */
+    public static final int DEFAULT_THREADS = 1;
+
+    /**
+     * Configuration key in <code>opencms.properties</code> for the number of threads, 1 to initialize sequentially.<p>
+     *
+     * With more than one thread, the managers register their event listeners concurrently, so the order in which
+     * the listeners receive events may differ from one startup to the next.<p>
+     */
+    public static final String PARAM_THREADS = "startup.threads";
+
+    /** The tasks by name, in the order they were added. */
+    private final Map<String, Task> m_tasks = new LinkedHashMap<String, Task>();
+
+    /** The number of threads to use. */
+    private final int m_threads;
+
+    /** The time the runner was started. */
+    private long m_startTime;
+
+    /** The total run time. */
+    private long m_totalTime;
+
+    /**
+     * Creates a new task runner.<p>
+     *
+     * @param threads the number of threads to use, 1 or less to run the tasks sequentially
+     */
+    public CmsStartupTaskRunner(int threads) {
+
+        m_threads = Math.max(1, threads);
+    }
+
+    /**
+     * Adds a task.<p>
+     *
+     * @param name the unique name of the task
+     * @param action the action to run
+     * @param dependencies the names of the tasks which have to be finished before this task starts
+     *
+     * @throws IllegalArgumentException if the name is already used or a dependency is unknown
+     */
+    public void add(String name, I_CmsStartupTask action, String... dependencies) {
+
+        if (m_tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup task " + name);
+        }
+        for (String dependency : dependencies) {
+            // requiring dependencies to be added first also rules out cycles
+            if (!m_tasks.containsKey(dependency)) {
+                throw new IllegalArgumentException("Unknown dependency " + dependency + " of startup task " + name);
+            }
+        }
+        Task task = new Task();
+        task.m_name = name;
+        task.m_action = action;
+        task.m_dependencies = Arrays.asList(dependencies);
+        m_tasks.put(name, task);
+    }
+
+    /**
+     * Returns the number of threads used.<p>
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+
+        return m_threads;
+    }
+
+    /**
+     * Returns the timeline of the last run, one line per task ordered by start time.<p>
+     *
+     * @return the timeline lines
+     */
+    public List<String> getTimeline() {
+
+        List<Task> tasks = new ArrayList<Task>(m_tasks.values());
+        Collections.sort(tasks, new Comparator<Task>() {
+
+            public int compare(Task t1, Task t2) {
+
+                return Long.compare(t1.m_start, t2.m_start);
+            }
+        });
+        List<String> result = new ArrayList<String>();
+        long sum = 0;
+        for (Task task : tasks) {
+            if (task.m_start < 0) {
+                result.add(String.format("%-24s not started", task.m_name));
+                continue;
+            }
+            long duration = task.m_end >= 0 ? task.m_end - task.m_start : -1;
+            sum += Math.max(0, duration);
+            result.add(
+                String.format(
+                    "%-24s +%6d ms %7s ms  [%s]%s",
+                    task.m_name,
+                    Long.valueOf(task.m_start),
+                    duration >= 0 ? String.valueOf(duration) : "failed",
+                    task.m_thread,
+                    task.m_dependencies.isEmpty() ? "" : " after " + task.m_dependencies));
+        }
+        result.add(
+            String.format("%-24s %7d ms (sum of tasks %d ms)", "total", Long.valueOf(m_totalTime), Long.valueOf(sum)));
+        return result;
+    }
+
+    /**
+     * Runs all tasks and waits until they are finished.<p>
+     *
+     * If a task fails, the tasks depending on it are not started, and the first failure is thrown
+     * after all other tasks have finished.<p>
+     *
+     * @throws CmsException the exception of a failed task
+     */
+    public void run() throws CmsException {
+
+        m_startTime = System.currentTimeMillis();
+        try {
+            if (m_threads == 1) {
+                for (Task task : m_tasks.values()) {
+                    execute(task);
+                }
+            } else {
+                runParallel();
+            }
+        } finally {
+            m_totalTime = System.currentTimeMillis() - m_startTime;
+        }
+    }
+
+    /**
+     * Executes a single task and records its timing.<p>
+     *
+     * @param task the task
+     *
+     * @throws CmsException if the task fails
+     */
+    private void execute(Task task) throws CmsException {
+
+        task.m_thread = Thread.currentThread().getName();
+        task.m_start = System.currentTimeMillis() - m_startTime;
+        task.m_action.run();
+        task.m_end = System.currentTimeMillis() - m_startTime;
+    }
+
+    /**
+     * Runs the tasks in a thread pool, each task starting when its dependencies are finished.<p>
+     *
+     * @throws CmsException the exception of a failed task
+     */
+    private void runParallel() throws CmsException {
+
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(m_threads, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms-startup-" + count.incrementAndGet());
+                thread.setContextClassLoader(classLoader);
+                return thread;
+            }
+        });
+        try {
+            Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<String, CompletableFuture<Void>>();
+            for (final Task task : m_tasks.values()) {
+                List<CompletableFuture<Void>> dependencies = new ArrayList<CompletableFuture<Void>>();
+                for (String dependency : task.m_dependencies) {
+                    dependencies.add(futures.get(dependency));
+                }
+                CompletableFuture<Void> future = CompletableFuture.allOf(
+                    dependencies.toArray(new CompletableFuture<?>[dependencies.size()])).thenRunAsync(() -> {
+                        try {
+                            execute(task);
+                        } catch (CmsException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, pool);
+                futures.put(task.m_name, future);
+            }
+            Throwable failure = null;
+            for (CompletableFuture<Void> future : futures.values()) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+            if (failure instanceof CmsException) {
+                throw (CmsException)failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException)failure;
+            } else if (failure instanceof Error) {
+                throw (Error)failure;
+            } else if (failure != null) {
+                throw new CmsRuntimeException(Messages.get().container(Messages.ERR_STARTUP_TASK_FAILED_0), failure);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -241,10 +241,8 @@ public final class CmsThreadStore extends Thread {
     protected void persistData() {
 
         try {
-            // save the resource locks to db
+            // save the resource locks to db, the log entries are written by the log writer of the driver manager
             m_securityManager.writeLocks();
-            // save the log entries to db
-            m_securityManager.updateLog();
         } catch (Throwable t) {
             if (LOG.isErrorEnabled()) {
                 LOG.error(
@@ -55,6 +55,7 @@ import org.opencms.file.CmsProject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsRequestContext;
+import org.opencms.file.CmsRequestReadCache;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsUser;
 import org.opencms.file.CmsVfsResourceNotFoundException;
@@ -70,6 +71,7 @@ import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.i18n.CmsSingleTreeLocaleHandler;
 import org.opencms.i18n.CmsVfsBundleManager;
 import org.opencms.importexport.CmsImportExportManager;
+import org.opencms.jsp.CmsJspNavTreeCache;
 import org.opencms.jsp.jsonpart.CmsJsonPartFilter;
 import org.opencms.letsencrypt.CmsLetsEncryptConfiguration;
 import org.opencms.loader.CmsResourceManager;
@@ -1582,73 +1584,117 @@ public final class OpenCmsCore {
         }
 
         m_repositoryManager.initializeCms(adminCms);
-        // now initialize the other managers
-        try {
-            if (flexCache != null) {
-                flexCache.initializeCms(initCmsObject(adminCms));
+        m_configurationManager.setAdminCms(adminCms);
+
+        // now initialize the other managers, independent managers are initialized concurrently if configured
+        CmsStartupTaskRunner startupTasks = new CmsStartupTaskRunner(
+            configuration.getInteger(CmsStartupTaskRunner.PARAM_THREADS, CmsStartupTaskRunner.DEFAULT_THREADS));
+        startupTasks.add("flexCache", () -> {
+            if (m_flexCache != null) {
+                m_flexCache.initializeCms(initCmsObject(adminCms));
             }
+        });
 
-            m_configurationManager.setAdminCms(adminCms);
-
-            // initialize the scheduler
-            m_scheduleManager.initialize(initCmsObject(adminCms));
+        // initialize the scheduler
+        startupTasks.add("scheduleManager", () -> m_scheduleManager.initialize(initCmsObject(adminCms)));
 
-            // initialize the locale manager
+        // initialize the locale manager
+        startupTasks.add("localeManager", () -> {
             m_localeManager = systemConfiguration.getLocaleManager();
             m_localeManager.initialize(initCmsObject(adminCms));
-
-            // initialize the site manager
-            m_siteManager.initialize(initCmsObject(adminCms));
-
-            // initialize the static export manager
-            m_staticExportManager.initialize(initCmsObject(adminCms));
-
-            // initialize the XML content type manager
-            m_xmlContentTypeManager.initialize(initCmsObject(adminCms));
-
-            m_orgUnitManager.initialize(initCmsObject(adminCms));
-
-            // initialize the module manager
-            m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager);
-
-            // initialize the resource manager
-            m_resourceManager.initialize(initCmsObject(adminCms));
-
-            // initialize the publish manager
+        }, "scheduleManager");
+
+        // initialize the site manager
+        startupTasks.add("siteManager", () -> m_siteManager.initialize(initCmsObject(adminCms)), "localeManager");
+
+        // initialize the static export manager
+        startupTasks.add(
+            "staticExportManager",
+            () -> m_staticExportManager.initialize(initCmsObject(adminCms)),
+            "siteManager");
+
+        // initialize the XML content type manager
+        startupTasks.add(
+            "xmlContentTypeManager",
+            () -> m_xmlContentTypeManager.initialize(initCmsObject(adminCms)),
+            "staticExportManager");
+
+        startupTasks.add(
+            "orgUnitManager",
+            () -> m_orgUnitManager.initialize(initCmsObject(adminCms)),
+            "xmlContentTypeManager");
+
+        // initialize the module manager
+        startupTasks.add(
+            "moduleManager",
+            () -> m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager),
+            "orgUnitManager");
+
+        // initialize the resource manager
+        startupTasks.add(
+            "resourceManager",
+            () -> m_resourceManager.initialize(initCmsObject(adminCms)),
+            "moduleManager");
+
+        // initialize the publish manager
+        startupTasks.add("publishManager", () -> {
             m_publishManager.setPublishEngine(m_publishEngine);
             m_publishManager.setSecurityManager(m_securityManager);
             m_publishManager.setPublishListRemoveMode(systemConfiguration.getPublishListRemoveMode());
             m_publishManager.initialize(initCmsObject(adminCms));
+        }, "resourceManager");
 
-            // initialize the search manager
-            m_searchManager.initialize(initCmsObject(adminCms));
+        // initialize the search manager
+        startupTasks.add("searchManager", () -> m_searchManager.initialize(initCmsObject(adminCms)), "publishManager");
 
-            // initialize the VFS bundle manager
-            m_vfsBundleManager = new CmsVfsBundleManager(adminCms);
+        // initialize the VFS bundle manager
+        startupTasks.add(
+            "vfsBundleManager",
+            () -> m_vfsBundleManager = new CmsVfsBundleManager(adminCms),
+            "resourceManager");
 
-            // initialize the workplace manager
-            m_workplaceManager.initialize(initCmsObject(adminCms));
+        // initialize the workplace manager
+        startupTasks.add(
+            "workplaceManager",
+            () -> m_workplaceManager.initialize(initCmsObject(adminCms)),
+            "publishManager");
 
-            // initialize the session manager
+        // initialize the session manager
+        startupTasks.add("sessionManager", () -> {
             m_sessionManager.initialize(sessionStorageProvider);
             m_sessionManager.setUserSessionMode(systemConfiguration.getUserSessionMode(true));
+        });
 
-            // initialize the subscription manager
+        // initialize the subscription manager
+        startupTasks.add("subscriptionManager", () -> {
             m_subscriptionManager.setSecurityManager(m_securityManager);
             m_subscriptionManager.initialize(adminCms);
+        }, "publishManager");
 
-            // initialize the formatter configuration
+        // initialize the formatter configuration
+        startupTasks.add("formatterConfiguration", () -> {
             CmsFormatterConfiguration.initialize(adminCms);
+            CmsJspNavTreeCache.initialize(adminCms);
             CmsPersistentLoginTokenHandler.setAdminCms(initCmsObject(adminCms));
             CmsLoginUI.setAdminCmsObject(initCmsObject(adminCms));
-
-            // initialize ade manager
-            m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration);
+        }, "resourceManager");
+
+        // initialize ade manager
+        startupTasks.add(
+            "adeManager",
+            () -> m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration),
+            "workplaceManager");
+        startupTasks.add("workplaceAppManager", () -> {
             m_workplaceAppManager = new CmsWorkplaceAppManager(initCmsObject(adminCms));
             m_workplaceAppManager.loadApps();
             m_workplaceAppManager.initWorkplaceCssUris(m_moduleManager);
+        }, "workplaceManager");
 
-            m_templateContextManager = new CmsTemplateContextManager(initCmsObject(adminCms));
+        startupTasks.add(
+            "templateContextManager",
+            () -> m_templateContextManager = new CmsTemplateContextManager(initCmsObject(adminCms)),
+            "resourceManager");
+        startupTasks.add("workflowManager", () -> {
             m_workflowManager = systemConfiguration.getWorkflowManager();
             m_letsEncryptConfig = systemConfiguration.getLetsEncryptConfig();
             if (m_workflowManager == null) {
@@ -1656,11 +1702,26 @@ public final class OpenCmsCore {
                 m_workflowManager.setParameters(new HashMap<String, String>());
             }
             m_workflowManager.initialize(adminCms);
+        }, "workplaceManager");
 
-            m_remoteShellServer = CmsRemoteShellServer.initialize(systemConfiguration);
+        startupTasks.add(
+            "remoteShellServer",
+            () -> m_remoteShellServer = CmsRemoteShellServer.initialize(systemConfiguration));
 
+        try {
+            startupTasks.run();
         } catch (CmsException e) {
             throw new CmsInitException(Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0), e);
+        } finally {
+            if (CmsLog.INIT.isInfoEnabled()) {
+                CmsLog.INIT.info(
+                    Messages.get().getBundle().key(
+                        Messages.INIT_STARTUP_TIMELINE_1,
+                        Integer.valueOf(startupTasks.getThreads())));
+                for (String line : startupTasks.getTimeline()) {
+                    CmsLog.INIT.info(".   " + line);
+                }
+            }
         }
 
         try {
@@ -1978,6 +2039,8 @@ public final class OpenCmsCore {
         CmsObject cms = null;
         try {
             cms = initCmsObject(req, res);
+            // the request context is used for this request only, so repeated reads can be cached
+            cms.getRequestContext().setReadCache(new CmsRequestReadCache());
 
             if (cms.getRequestContext().getCurrentProject().isOnlineProject()) {
                 String uri = cms.getRequestContext().getUri();
@@ -2099,6 +2162,12 @@ public final class OpenCmsCore {
                         Messages.get().getBundle().key(Messages.LOG_ERROR_VFSBUNDLE_MANAGER_SHUTDOWN_1, e.getMessage()),
                         e);
                 }
+                if (m_gwtServiceContexts != null) {
+                    // unregister the MXBeans of the GWT services
+                    for (CmsGwtServiceContext context : m_gwtServiceContexts.values()) {
+                        context.shutdown();
+                    }
+                }
                 try {
                     if (m_staticExportManager != null) {
                         m_staticExportManager.shutDown();
@@ -2156,6 +2225,19 @@ public final class OpenCmsCore {
                     CmsLog.INIT.error(e.getLocalizedMessage(), e);
                 }
 
+                try {
+                    // writes the buffered visits, so it has to be stopped before the security manager
+                    if (m_subscriptionManager != null) {
+                        m_subscriptionManager.shutDown();
+                    }
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_ERROR_SUBSCRIPTION_MANAGER_SHUTDOWN_1,
+                            e.getMessage()),
+                        e);
+                }
+
                 try {
                     // has to be stopped before the security manager, since this thread uses it
                     if (m_threadStore != null) {
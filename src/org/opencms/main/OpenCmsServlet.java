@@ -27,6 +27,8 @@
 
 package org.opencms.main;
 
+import org.opencms.db.timing.CmsRequestProfile;
+import org.opencms.db.timing.CmsRequestProfilingHandler;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
@@ -125,6 +127,8 @@ public class OpenCmsServlet extends HttpServlet implements I_CmsRequestHandler {
     public void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException, ServletException {
 
         currentRequest.set(req);
+        CmsRequestProfile profile = CmsRequestProfilingHandler.startProfile(
+            req.getMethod() + " " + req.getRequestURI());
         try {
 
             // check to OpenCms runlevel
@@ -161,6 +165,7 @@ public class OpenCmsServlet extends HttpServlet implements I_CmsRequestHandler {
                 OpenCmsCore.getInstance().showResource(req, res);
             }
         } finally {
+            CmsRequestProfilingHandler.finishProfile(profile);
             currentRequest.remove();
         }
     }
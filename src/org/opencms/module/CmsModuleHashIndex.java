@@ -0,0 +1,240 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.module;
+
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsUUID;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.logging.Log;
+
+/**
+ * Index of the content hashes of the files of an installed module, used by the {@link CmsModuleUpdater}.<p>
+ *
+ * The VFS does not store a hash of the file contents, so comparing an imported file with the installed version
+ * would require reading the content of every file from the database. After a module update, the index remembers the
+ * hash of each file together with its content date and length. As long as these still match the resource in the VFS,
+ * the hash from the index is used and the content does not need to be read.<p>
+ *
+ * The index is stored as properties file in the real file system, one file per module.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsModuleHashIndex {
+
+    /** The folder for the index files, relative to the WEB-INF folder. */
+    public static final String FOLDER_MODULE_HASHES = "modulehashes" + File.separatorChar;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsModuleHashIndex.class);
+
+    /** The index entries by structure id, in the format <code>dateContent:length:hash</code>. */
+    private Map<CmsUUID, String> m_entries = new HashMap<CmsUUID, String>();
+
+    /** The index file. */
+    private File m_file;
+
+    /**
+     * Creates a new, empty index.<p>
+     *
+     * @param file the file to store the index in
+     */
+    public CmsModuleHashIndex(File file) {
+
+        m_file = file;
+    }
+
+    /**
+     * Calculates the SHA-256 hash of the given content as hex string.<p>
+     *
+     * @param content the content
+     *
+     * @return the hash
+     */
+    public static String computeHash(byte[] content) {
+
+        try {
+            return Hex.encodeHexString(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every Java runtime
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the index file for the module with the given name.<p>
+     *
+     * @param moduleName the module name
+     *
+     * @return the index file
+     */
+    public static File getIndexFile(String moduleName) {
+
+        return new File(
+            OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(FOLDER_MODULE_HASHES),
+            moduleName + ".properties");
+    }
+
+    /**
+     * Reads the index of the module with the given name.<p>
+     *
+     * If there is no index for the module yet or it can not be read, an empty index is returned.<p>
+     *
+     * @param moduleName the module name
+     *
+     * @return the index
+     */
+    public static CmsModuleHashIndex read(String moduleName) {
+
+        CmsModuleHashIndex index = new CmsModuleHashIndex(getIndexFile(moduleName));
+        index.read();
+        return index;
+    }
+
+    /**
+     * Returns the stored hash for the content of the given resource.<p>
+     *
+     * @param resource the resource
+     *
+     * @return the hash, or <code>null</code> if the resource is not in the index or its content may have changed
+     */
+    public synchronized String getHash(CmsResource resource) {
+
+        String entry = m_entries.get(resource.getStructureId());
+        String prefix = getPrefix(resource);
+        if ((entry != null) && entry.startsWith(prefix)) {
+            return entry.substring(prefix.length());
+        }
+        return null;
+    }
+
+    /**
+     * Stores the hash for the content of the given resource.<p>
+     *
+     * @param resource the resource
+     * @param hash the hash of the content
+     */
+    public synchronized void put(CmsResource resource, String hash) {
+
+        m_entries.put(resource.getStructureId(), getPrefix(resource) + hash);
+    }
+
+    /**
+     * Removes the entries for all resources whose content date or length differs from the given resources.<p>
+     *
+     * This is used after an update, since the contents may have been changed again after writing them, e.g. when
+     * rewriting the links.<p>
+     *
+     * @param resources the current state of the resources
+     */
+    public synchronized void removeModified(Collection<CmsResource> resources) {
+
+        for (CmsResource resource : resources) {
+            String entry = m_entries.get(resource.getStructureId());
+            if ((entry != null) && !entry.startsWith(getPrefix(resource))) {
+                m_entries.remove(resource.getStructureId());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries.<p>
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+
+        return m_entries.size();
+    }
+
+    /**
+     * Writes the index to its file.<p>
+     *
+     * @throws IOException if writing the file fails
+     */
+    public synchronized void write() throws IOException {
+
+        Properties props = new Properties();
+        for (Map.Entry<CmsUUID, String> entry : m_entries.entrySet()) {
+            props.setProperty(entry.getKey().toString(), entry.getValue());
+        }
+        m_file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(m_file)) {
+            props.store(out, null);
+        }
+    }
+
+    /**
+     * Reads the entries from the index file, if it exists.<p>
+     */
+    synchronized void read() {
+
+        if (!m_file.isFile()) {
+            return;
+        }
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(m_file)) {
+            props.load(in);
+        } catch (IOException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            return;
+        }
+        for (String key : props.stringPropertyNames()) {
+            if (CmsUUID.isValidUUID(key)) {
+                m_entries.put(new CmsUUID(key), props.getProperty(key));
+            }
+        }
+    }
+
+    /**
+     * Returns the part of an entry identifying the state of the resource content.<p>
+     *
+     * @param resource the resource
+     *
+     * @return the prefix of the entry
+     */
+    private String getPrefix(CmsResource resource) {
+
+        return resource.getDateContent() + ":" + resource.getLength() + ":";
+    }
+}
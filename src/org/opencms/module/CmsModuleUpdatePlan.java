@@ -0,0 +1,415 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.module;
+
+import org.opencms.file.CmsResource;
+import org.opencms.report.I_CmsReport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes a {@link CmsModuleUpdater} has to make to update an installed module.<p>
+ *
+ * The plan is computed before anything is changed, by comparing the resources of the import with the installed
+ * resources. It can be reported without executing it, to check what an update would do.<p>
+ *
+ * The estimated cost is the approximate number of database write statements needed for the update, based on
+ * the weights defined in this class. It is meant for comparing updates, not as exact prediction.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsModuleUpdatePlan {
+
+    /**
+     * The action for a resource of the import.<p>
+     */
+    public enum Action {
+
+        /** The resource does not exist yet and is created. */
+        CREATE,
+
+        /** The resource is moved, but not changed otherwise. */
+        MOVE,
+
+        /** The resource is not changed, only its properties and permissions are compared. */
+        UNCHANGED,
+
+        /** The resource is imported again since its fields or its content changed. */
+        UPDATE
+    }
+
+    /**
+     * A resource of the import together with the planned changes.<p>
+     */
+    public static class Entry {
+
+        /** The resource import data. */
+        private CmsResourceImportData m_data;
+
+        /** The existing resource, or null. */
+        private CmsResource m_existing;
+
+        /** The hash of the existing content, if known. */
+        private String m_existingHash;
+
+        /** True if the resource needs to be imported. */
+        private boolean m_import;
+
+        /** The position of the resource in the import, starting with 1. */
+        private int m_index;
+
+        /** True if the existing resource needs to be moved. */
+        private boolean m_move;
+
+        /**
+         * Creates a new entry.<p>
+         *
+         * @param index the position of the resource in the import, starting with 1
+         * @param data the resource import data
+         * @param existing the existing resource, or null
+         * @param move true if the existing resource needs to be moved
+         * @param needsImport true if the resource needs to be imported
+         * @param existingHash the hash of the existing content, or null if not known
+         */
+        public Entry(
+            int index,
+            CmsResourceImportData data,
+            CmsResource existing,
+            boolean move,
+            boolean needsImport,
+            String existingHash) {
+
+            m_index = index;
+            m_data = data;
+            m_existing = existing;
+            m_move = move;
+            m_import = needsImport || (existing == null);
+            m_existingHash = existingHash;
+        }
+
+        /**
+         * Gets the action for the resource.<p>
+         *
+         * @return the action
+         */
+        public Action getAction() {
+
+            if (m_existing == null) {
+                return Action.CREATE;
+            } else if (m_import) {
+                return Action.UPDATE;
+            } else if (m_move) {
+                return Action.MOVE;
+            }
+            return Action.UNCHANGED;
+        }
+
+        /**
+         * Gets the resource import data.<p>
+         *
+         * @return the resource import data
+         */
+        public CmsResourceImportData getData() {
+
+            return m_data;
+        }
+
+        /**
+         * Gets the existing resource.<p>
+         *
+         * @return the existing resource, or null if the resource is created
+         */
+        public CmsResource getExisting() {
+
+            return m_existing;
+        }
+
+        /**
+         * Gets the hash of the content of the existing resource.<p>
+         *
+         * @return the hash, or null if not known
+         */
+        public String getExistingHash() {
+
+            return m_existingHash;
+        }
+
+        /**
+         * Gets the position of the resource in the import.<p>
+         *
+         * @return the position, starting with 1
+         */
+        public int getIndex() {
+
+            return m_index;
+        }
+
+        /**
+         * Checks if the resource needs to be imported.<p>
+         *
+         * @return true if the resource needs to be imported
+         */
+        public boolean isImport() {
+
+            return m_import;
+        }
+
+        /**
+         * Checks if the existing resource needs to be moved.<p>
+         *
+         * @return true if the existing resource needs to be moved
+         */
+        public boolean isMove() {
+
+            return m_move;
+        }
+    }
+
+    /** Estimated write statements for checking an unchanged resource (locking it). */
+    public static final int COST_CHECK = 1;
+
+    /** Estimated write statements for creating a resource (resource, structure, content and permissions). */
+    public static final int COST_CREATE = 4;
+
+    /** Estimated write statements for deleting a resource. */
+    public static final int COST_DELETE = 3;
+
+    /** Estimated write statements for moving a resource. */
+    public static final int COST_MOVE = 2;
+
+    /** Estimated write statements for importing an existing resource again. */
+    public static final int COST_UPDATE = 3;
+
+    /** The number of existing contents which had to be read for the comparison. */
+    private int m_contentReads;
+
+    /** The resources to delete. */
+    private List<CmsResource> m_deletions = new ArrayList<CmsResource>();
+
+    /** The entries, in the order of the import. */
+    private List<Entry> m_entries = new ArrayList<Entry>();
+
+    /** The name of the module. */
+    private String m_moduleName;
+
+    /** The number of worker threads. */
+    private int m_threads;
+
+    /**
+     * Creates a new plan.<p>
+     *
+     * @param moduleName the name of the module
+     * @param threads the number of worker threads used for the update
+     */
+    public CmsModuleUpdatePlan(String moduleName, int threads) {
+
+        m_moduleName = moduleName;
+        m_threads = threads;
+    }
+
+    /**
+     * Counts a content read from the VFS.<p>
+     */
+    public void addContentRead() {
+
+        m_contentReads += 1;
+    }
+
+    /**
+     * Adds a resource to delete.<p>
+     *
+     * @param resource the resource to delete
+     */
+    public void addDeletion(CmsResource resource) {
+
+        m_deletions.add(resource);
+    }
+
+    /**
+     * Adds an entry.<p>
+     *
+     * @param entry the entry to add
+     */
+    public void addEntry(Entry entry) {
+
+        m_entries.add(entry);
+    }
+
+    /**
+     * Returns the number of bytes of content which will be written.<p>
+     *
+     * @return the number of bytes
+     */
+    public long getBytesToWrite() {
+
+        long result = 0;
+        for (Entry entry : m_entries) {
+            if (entry.isImport() && entry.getData().hasContent()) {
+                result += entry.getData().getContentLength();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of existing contents which had to be read from the VFS for the comparison.<p>
+     *
+     * @return the number of content reads
+     */
+    public int getContentReads() {
+
+        return m_contentReads;
+    }
+
+    /**
+     * Returns the number of entries with the given action.<p>
+     *
+     * @param action the action
+     *
+     * @return the number of entries
+     */
+    public int getCount(Action action) {
+
+        int result = 0;
+        for (Entry entry : m_entries) {
+            if (entry.getAction() == action) {
+                result += 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the resources to delete.<p>
+     *
+     * @return the resources to delete
+     */
+    public List<CmsResource> getDeletions() {
+
+        return Collections.unmodifiableList(m_deletions);
+    }
+
+    /**
+     * Returns the entries, in the order of the import.<p>
+     *
+     * @return the entries
+     */
+    public List<Entry> getEntries() {
+
+        return Collections.unmodifiableList(m_entries);
+    }
+
+    /**
+     * Returns the estimated number of database write statements for the update.<p>
+     *
+     * @return the estimated cost
+     */
+    public long getEstimatedCost() {
+
+        long result = 0;
+        for (Entry entry : m_entries) {
+            switch (entry.getAction()) {
+                case CREATE:
+                    result += COST_CREATE;
+                    break;
+                case UPDATE:
+                    result += COST_UPDATE + (entry.isMove() ? COST_MOVE : 0);
+                    break;
+                case MOVE:
+                    result += COST_MOVE + COST_CHECK;
+                    break;
+                default:
+                    result += COST_CHECK;
+                    break;
+            }
+        }
+        result += (long)COST_DELETE * m_deletions.size();
+        return result;
+    }
+
+    /**
+     * Checks if the update changes anything.<p>
+     *
+     * @return true if resources are created, changed, moved or deleted
+     */
+    public boolean hasChanges() {
+
+        return !m_deletions.isEmpty() || (getCount(Action.UNCHANGED) < m_entries.size());
+    }
+
+    /**
+     * Writes the plan to a report.<p>
+     *
+     * @param report the report to write to
+     * @param details if true, every changed resource is listed
+     */
+    public void report(I_CmsReport report, boolean details) {
+
+        report.println(
+            Messages.get().container(Messages.RPT_UPDATE_PLAN_HEADER_1, m_moduleName),
+            I_CmsReport.FORMAT_HEADLINE);
+        if (details) {
+            for (Entry entry : m_entries) {
+                if (entry.getAction() != Action.UNCHANGED) {
+                    report.println(
+                        Messages.get().container(
+                            Messages.RPT_UPDATE_PLAN_ENTRY_2,
+                            entry.getAction().name(),
+                            entry.getData().getPath()),
+                        I_CmsReport.FORMAT_NOTE);
+                }
+            }
+            for (CmsResource resource : m_deletions) {
+                report.println(
+                    Messages.get().container(Messages.RPT_UPDATE_PLAN_ENTRY_2, "DELETE", resource.getRootPath()),
+                    I_CmsReport.FORMAT_NOTE);
+            }
+        }
+        report.println(
+            Messages.get().container(
+                Messages.RPT_UPDATE_PLAN_SUMMARY_5,
+                new Object[] {
+                    Integer.valueOf(getCount(Action.CREATE)),
+                    Integer.valueOf(getCount(Action.UPDATE)),
+                    Integer.valueOf(getCount(Action.MOVE)),
+                    Integer.valueOf(getCount(Action.UNCHANGED)),
+                    Integer.valueOf(m_deletions.size())}),
+            I_CmsReport.FORMAT_DEFAULT);
+        report.println(
+            Messages.get().container(
+                Messages.RPT_UPDATE_PLAN_COST_4,
+                new Object[] {
+                    Long.valueOf(getBytesToWrite()),
+                    Integer.valueOf(m_contentReads),
+                    Long.valueOf(getEstimatedCost()),
+                    Integer.valueOf(m_threads)}),
+            I_CmsReport.FORMAT_DEFAULT);
+    }
+}
@@ -35,6 +35,7 @@ import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.importexport.CmsImportParameters;
 import org.opencms.importexport.CmsImportResourceDataReader;
 import org.opencms.importexport.CmsImportVersion10;
@@ -43,6 +44,7 @@ import org.opencms.importexport.Messages;
 import org.opencms.lock.CmsLock;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.CmsShell;
 import org.opencms.main.OpenCms;
 import org.opencms.relations.CmsRelation;
@@ -67,6 +69,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
@@ -84,11 +93,14 @@ import com.google.common.collect.Sets;
  */
 public class CmsModuleUpdater {
 
+    /** Default number of threads used for importing the files. */
+    public static final int DEFAULT_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsModuleUpdater.class);
 
     /** Structure ids of imported resources.*/
-    private Set<CmsUUID> m_importIds = new HashSet<CmsUUID>();
+    private Set<CmsUUID> m_importIds = ConcurrentHashMap.newKeySet();
 
     /** The module data read from the ZIP. */
     private CmsModuleImportData m_moduleData;
@@ -96,6 +108,9 @@ public class CmsModuleUpdater {
     /** The report to write to. */
     private I_CmsReport m_report;
 
+    /** The number of threads used for importing the files. */
+    private int m_threads = DEFAULT_THREADS;
+
     /**
      * Creates a new instance.<p>
      *
@@ -254,6 +269,107 @@ public class CmsModuleUpdater {
         return result;
     }
 
+    /**
+     * Computes the changes needed for the update, without changing anything.<p>
+     *
+     * Files are compared by the hash of their content. The content of an installed file is only read if its length
+     * matches the imported content and the hash is not found in the {@link CmsModuleHashIndex} of the module.<p>
+     *
+     * @param cms the CMS context to read the installed resources with
+     *
+     * @return the update plan
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public CmsModuleUpdatePlan createPlan(CmsObject cms) throws CmsException {
+
+        CmsModule module = m_moduleData.getModule();
+        CmsModule oldModule = OpenCms.getModuleManager().getModule(module.getName());
+        CmsModuleHashIndex hashes = CmsModuleHashIndex.read(module.getName());
+        CmsModuleUpdatePlan plan = new CmsModuleUpdatePlan(module.getName(), m_threads);
+        int index = 0;
+        for (CmsResourceImportData resData : m_moduleData.getResourceData()) {
+            index += 1;
+            CmsResource oldRes = null;
+            try {
+                if (resData.hasStructureId()) {
+                    oldRes = cms.readResource(
+                        resData.getResource().getStructureId(),
+                        CmsResourceFilter.IGNORE_EXPIRATION);
+                } else {
+                    oldRes = cms.readResource(resData.getPath(), CmsResourceFilter.IGNORE_EXPIRATION);
+                }
+            } catch (CmsVfsResourceNotFoundException e) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+            boolean move = false;
+            boolean needsImport = true;
+            String existingHash = null;
+            if (oldRes != null) {
+                move = !CmsStringUtil.comparePaths(cms.getSitePath(oldRes), resData.getPath());
+                boolean reducedExport = !resData.hasDateLastModified();
+                if (!resData.hasStructureId()) {
+                    needsImport = false;
+                } else if (!needToUpdateResourceFields(oldRes, resData.getResource(), reducedExport)) {
+                    if (oldRes.isFile() && resData.hasContent()) {
+                        if (oldRes.getLength() == resData.getContentLength()) {
+                            existingHash = hashes.getHash(oldRes);
+                            if (existingHash == null) {
+                                CmsFile file = cms.readFile(oldRes);
+                                existingHash = CmsModuleHashIndex.computeHash(file.getContents());
+                                plan.addContentRead();
+                            }
+                        }
+                        if (resData.getContentHash().equals(existingHash)) {
+                            needsImport = false;
+                        } else {
+                            LOG.debug("Content mismatch for " + oldRes.getRootPath());
+                        }
+                    } else {
+                        needsImport = false;
+                    }
+                }
+            }
+            plan.addEntry(new CmsModuleUpdatePlan.Entry(index, resData, oldRes, move, needsImport, existingHash));
+        }
+
+        Map<CmsUUID, CmsResourceImportData> importResourcesById = new HashMap<>();
+        for (CmsResourceImportData resData : m_moduleData.getResourceData()) {
+            importResourcesById.put(resData.getResource().getStructureId(), resData);
+        }
+        Set<String> immutables = OpenCms.getImportExportManager().getImmutableResources().stream().flatMap(
+            path -> Arrays.asList(
+                CmsFileUtil.removeTrailingSeparator(path),
+                CmsFileUtil.addTrailingSeparator(path)).stream()).collect(Collectors.toSet());
+        for (CmsResource oldRes : getAllResourcesInModule(cms, oldModule)) {
+            if (immutables.contains(oldRes.getRootPath())) {
+                continue;
+            }
+            if (!importResourcesById.containsKey(oldRes.getStructureId())) {
+                plan.addDeletion(oldRes);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Computes the update plan and writes it to the report, without changing anything.<p>
+     *
+     * @return the update plan
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public CmsModuleUpdatePlan dryRun() throws CmsException {
+
+        try {
+            CmsModuleUpdatePlan plan = createPlan(m_moduleData.getCms());
+            plan.report(m_report, true);
+            return plan;
+        } finally {
+            cleanUp();
+        }
+    }
+
     /**
      * Update relations for all imported resources.<p>
      *
@@ -280,10 +396,8 @@ public class CmsModuleUpdater {
     public void run() {
 
         try {
-            List<CmsResource> toUnlock = new ArrayList<>();
             CmsObject cms = m_moduleData.getCms();
             CmsModule module = m_moduleData.getModule();
-            CmsModule oldModule = OpenCms.getModuleManager().getModule(module.getName());
             Map<CmsUUID, CmsUUID> conflictingIds = m_moduleData.getConflictingIds();
             if (!m_moduleData.getConflictingIds().isEmpty()) {
                 CmsProject conflictProject = cms.createProject(
@@ -316,122 +430,11 @@ public class CmsModuleUpdater {
             cms.copyResourceToProject("/");
             CmsModuleImportExportHandler.reportBeginImport(m_report, module.getName());
 
-            Map<CmsUUID, CmsResourceImportData> importResourcesById = new HashMap<>();
-            for (CmsResourceImportData resData : m_moduleData.getResourceData()) {
-                importResourcesById.put(resData.getResource().getStructureId(), resData);
-            }
-            Set<CmsResource> oldModuleResources = getAllResourcesInModule(cms, oldModule);
-            List<CmsResource> toDelete = new ArrayList<>();
-            Set<String> immutables = OpenCms.getImportExportManager().getImmutableResources().stream().flatMap(
-                path -> Arrays.asList(
-                    CmsFileUtil.removeTrailingSeparator(path),
-                    CmsFileUtil.addTrailingSeparator(path)).stream()).collect(Collectors.toSet());
-            for (CmsResource oldRes : oldModuleResources) {
-                if (immutables.contains(oldRes.getRootPath())) {
-                    continue;
-                }
-                CmsResourceImportData newRes = importResourcesById.get(oldRes.getStructureId());
-                if (newRes == null) {
-                    toDelete.add(oldRes);
-                }
-            }
-            int index = 0;
-            for (CmsResourceImportData resData : m_moduleData.getResourceData()) {
-                index += 1;
-                boolean changed = false;
-                m_report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        "( " + index + " / " + m_moduleData.getResourceData().size() + " ) "),
-                    I_CmsReport.FORMAT_NOTE);
-                m_report.print(Messages.get().container(Messages.RPT_IMPORTING_0), I_CmsReport.FORMAT_NOTE);
-                m_report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        resData.getPath()));
-                m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                try {
-                    CmsResource oldRes = null;
-                    try {
-                        if (resData.hasStructureId()) {
-                            oldRes = cms.readResource(
-                                resData.getResource().getStructureId(),
-                                CmsResourceFilter.IGNORE_EXPIRATION);
-                        } else {
-                            oldRes = cms.readResource(resData.getPath(), CmsResourceFilter.IGNORE_EXPIRATION);
-                        }
-                    } catch (CmsVfsResourceNotFoundException e) {
-                        LOG.debug(e.getLocalizedMessage(), e);
-                    }
-                    CmsResource currentRes = oldRes;
-                    if (oldRes != null) {
-                        String oldPath = cms.getSitePath(oldRes);
-                        String newPath = resData.getPath();
-                        if (!CmsStringUtil.comparePaths(oldPath, resData.getPath())) {
-                            cms.moveResource(oldPath, newPath);
-                            changed = true;
-                            currentRes = cms.readResource(oldRes.getStructureId(), CmsResourceFilter.IGNORE_EXPIRATION);
-                        }
-                    }
-                    boolean needsImport = true;
-                    boolean reducedExport = !resData.hasDateLastModified();
-                    byte[] content = resData.getContent();
-                    if (oldRes != null) {
-                        if (!resData.hasStructureId()) {
-                            needsImport = false;
-                        } else if (!needToUpdateResourceFields(oldRes, resData.getResource(), reducedExport)) {
-                            if (oldRes.isFile() && (content != null)) {
-                                CmsFile file = cms.readFile(oldRes);
-                                if (Arrays.equals(file.getContents(), content)) {
-                                    needsImport = false;
-                                } else {
-                                    LOG.debug("Content mismatch for " + file.getRootPath());
-                                }
-                            } else {
-                                needsImport = false;
-                            }
-                        }
-                    }
-                    if (needsImport || (oldRes == null)) { // oldRes null check is redundant, we just do it to remove the warning in Eclipse
-                        currentRes = cms.importResource(
-                            resData.getPath(),
-                            resData.getResource(),
-                            content,
-                            new ArrayList<CmsProperty>());
-                        changed = true;
-                        m_importIds.add(currentRes.getStructureId());
-                    } else {
-                        currentRes = cms.readResource(oldRes.getStructureId(), CmsResourceFilter.ALL);
-                        CmsLock lock = cms.getLock(currentRes);
-                        if (lock.isUnlocked()) {
-                            lock(cms, currentRes);
-                            toUnlock.add(currentRes);
-                        }
-
-                    }
-                    resData.setImportResource(currentRes);
-                    List<CmsProperty> propsToWrite = compareProperties(cms, resData, currentRes);
-                    if (!propsToWrite.isEmpty()) {
-                        cms.writePropertyObjects(currentRes, propsToWrite);
-                        changed = true;
-                    }
-                    changed |= updateAcls(cms, resData, currentRes);
-                    if (changed) {
-                        m_report.println(
-                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                            I_CmsReport.FORMAT_OK);
-                    } else {
-                        m_report.println(
-                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
-                            I_CmsReport.FORMAT_NOTE);
-                    }
-
-                } catch (Exception e) {
-                    m_report.println(e);
-                    LOG.error(e.getLocalizedMessage(), e);
-
-                }
-            }
+            CmsModuleUpdatePlan plan = createPlan(cms);
+            plan.report(m_report, false);
+            CmsModuleHashIndex hashes = new CmsModuleHashIndex(CmsModuleHashIndex.getIndexFile(module.getName()));
+            applyPlan(cms, plan, hashes);
+            List<CmsResource> toDelete = plan.getDeletions();
             for (CmsResource deleteRes : toDelete) {
                 m_report.print(
                     org.opencms.importexport.Messages.get().container(
@@ -465,6 +468,7 @@ public class CmsModuleUpdater {
             m_report.println(Messages.get().container(Messages.RPT_END_PARSE_LINKS_0), I_CmsReport.FORMAT_HEADLINE);
 
             importRelations(cms);
+            writeHashIndex(cms, hashes);
             if (!CmsStringUtil.isEmptyOrWhitespaceOnly(module.getImportScript())) {
                 LOG.info("Executing import script for module " + module.getName());
                 m_report.println(
@@ -503,6 +507,18 @@ public class CmsModuleUpdater {
         }
     }
 
+    /**
+     * Sets the number of threads used for importing the files.<p>
+     *
+     * Folders, moved resources and siblings are always processed sequentially.<p>
+     *
+     * @param threads the number of threads, 1 to import all resources sequentially
+     */
+    public void setThreads(int threads) {
+
+        m_threads = Math.max(1, threads);
+    }
+
     /**
      * Updates the access control list fr a resource.<p>
      *
@@ -555,6 +571,172 @@ public class CmsModuleUpdater {
         return result;
     }
 
+    /**
+     * Applies the planned changes for a single resource of the import and reports the result.<p>
+     *
+     * @param cms the CMS context
+     * @param entry the plan entry
+     * @param total the total number of resources in the import
+     * @param hashes the index to store the content hashes in
+     */
+    private void applyEntry(CmsObject cms, CmsModuleUpdatePlan.Entry entry, int total, CmsModuleHashIndex hashes) {
+
+        CmsResourceImportData resData = entry.getData();
+        CmsMessageContainer result = null;
+        int format = I_CmsReport.FORMAT_OK;
+        Exception error = null;
+        try {
+            boolean changed = false;
+            CmsResource oldRes = entry.getExisting();
+            CmsResource currentRes = oldRes;
+            if (entry.isMove()) {
+                cms.moveResource(cms.getSitePath(oldRes), resData.getPath());
+                changed = true;
+            }
+            if (entry.isImport()) {
+                currentRes = cms.importResource(
+                    resData.getPath(),
+                    resData.getResource(),
+                    resData.getContent(),
+                    new ArrayList<CmsProperty>());
+                changed = true;
+                m_importIds.add(currentRes.getStructureId());
+                if (resData.hasContent()) {
+                    hashes.put(currentRes, resData.getContentHash());
+                }
+            } else {
+                currentRes = cms.readResource(oldRes.getStructureId(), CmsResourceFilter.ALL);
+                CmsLock lock = cms.getLock(currentRes);
+                if (lock.isUnlocked()) {
+                    lock(cms, currentRes);
+                }
+                if (entry.getExistingHash() != null) {
+                    hashes.put(currentRes, entry.getExistingHash());
+                }
+            }
+            resData.setImportResource(currentRes);
+            List<CmsProperty> propsToWrite = compareProperties(cms, resData, currentRes);
+            if (!propsToWrite.isEmpty()) {
+                cms.writePropertyObjects(currentRes, propsToWrite);
+                changed = true;
+            }
+            changed |= updateAcls(cms, resData, currentRes);
+            if (changed) {
+                result = org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0);
+            } else {
+                result = org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0);
+                format = I_CmsReport.FORMAT_NOTE;
+            }
+        } catch (Exception e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            error = e;
+        }
+        // the lines of the parallel workers must not be mixed
+        synchronized (m_report) {
+            m_report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                    "( " + entry.getIndex() + " / " + total + " ) "),
+                I_CmsReport.FORMAT_NOTE);
+            m_report.print(Messages.get().container(Messages.RPT_IMPORTING_0), I_CmsReport.FORMAT_NOTE);
+            m_report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                    resData.getPath()));
+            m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+            if (error != null) {
+                m_report.println(error);
+            } else {
+                m_report.println(result, format);
+            }
+        }
+    }
+
+    /**
+     * Applies the planned changes for the resources of the import.<p>
+     *
+     * Folders, moved resources and siblings are processed first and one after another, ordered by path depth, so
+     * parent folders always exist before their children are imported. The remaining files are independent of each
+     * other and are processed by a bounded pool of worker threads, each with its own copy of the CMS context.<p>
+     *
+     * @param cms the CMS context
+     * @param plan the update plan
+     * @param hashes the index to store the content hashes in
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private void applyPlan(CmsObject cms, CmsModuleUpdatePlan plan, CmsModuleHashIndex hashes) throws CmsException {
+
+        final int total = plan.getEntries().size();
+        Set<CmsUUID> resourceIds = new HashSet<>();
+        Set<CmsUUID> siblings = new HashSet<>();
+        for (CmsModuleUpdatePlan.Entry entry : plan.getEntries()) {
+            CmsUUID resourceId = entry.getData().getResource().getResourceId();
+            if (!resourceIds.add(resourceId)) {
+                siblings.add(resourceId);
+            }
+        }
+        List<CmsModuleUpdatePlan.Entry> sequential = new ArrayList<>();
+        List<CmsModuleUpdatePlan.Entry> parallel = new ArrayList<>();
+        for (CmsModuleUpdatePlan.Entry entry : plan.getEntries()) {
+            CmsResource resource = entry.getData().getResource();
+            if (resource.isFolder()
+                || entry.isMove()
+                || siblings.contains(resource.getResourceId())
+                || (m_threads == 1)) {
+                sequential.add(entry);
+            } else {
+                parallel.add(entry);
+            }
+        }
+        // stable sort, so the import order is kept for resources on the same level
+        Collections.sort(
+            sequential,
+            (a, b) -> Integer.compare(
+                CmsResource.getPathLevel(a.getData().getPath()),
+                CmsResource.getPathLevel(b.getData().getPath())));
+        for (CmsModuleUpdatePlan.Entry entry : sequential) {
+            applyEntry(cms, entry, total, hashes);
+        }
+        if (parallel.isEmpty()) {
+            return;
+        }
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(m_threads, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms-module-update-" + count.incrementAndGet());
+                thread.setContextClassLoader(classLoader);
+                return thread;
+            }
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (final CmsModuleUpdatePlan.Entry entry : parallel) {
+                final CmsObject workerCms = OpenCms.initCmsObject(cms);
+                futures.add(pool.submit(() -> applyEntry(workerCms, entry, total, hashes)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CmsRuntimeException(
+                        org.opencms.module.Messages.get().container(
+                            org.opencms.module.Messages.ERR_MODULE_UPDATE_INTERRUPTED_0),
+                        e);
+                } catch (ExecutionException e) {
+                    // errors of single resources are already reported by applyEntry
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /**
      * Cleans up temp files.
      */
@@ -689,4 +871,29 @@ public class CmsModuleUpdater {
         }
     }
 
+    /**
+     * Writes the content hashes of the module files after the update.<p>
+     *
+     * Entries for files whose content was changed again after the import, e.g. by rewriting the links, are dropped.<p>
+     *
+     * @param cms the CMS context
+     * @param hashes the index with the content hashes
+     */
+    private void writeHashIndex(CmsObject cms, CmsModuleHashIndex hashes) {
+
+        try {
+            List<CmsUUID> ids = new ArrayList<>();
+            for (CmsResourceImportData resData : m_moduleData.getResourceData()) {
+                if (resData.hasContent() && (resData.getImportResource() != null)) {
+                    ids.add(resData.getImportResource().getStructureId());
+                }
+            }
+            hashes.removeModified(cms.readResources(ids, CmsResourceFilter.ALL));
+            hashes.write();
+        } catch (Exception e) {
+            // the index is only an optimization for the next update
+            LOG.warn(e.getLocalizedMessage(), e);
+        }
+    }
+
 }
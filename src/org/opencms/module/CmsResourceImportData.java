@@ -51,6 +51,12 @@ public class CmsResourceImportData {
     /** The temp file with the content (may be null). */
     private File m_contentFile;
 
+    /** The hash of the content (may be null). */
+    private String m_contentHash;
+
+    /** The length of the content, or -1 if there is no content. */
+    private int m_contentLength = -1;
+
     /** True if there is a modification date in the import. */
     private boolean m_hasDateLastModified;
 
@@ -98,6 +104,8 @@ public class CmsResourceImportData {
         m_path = path;
         if (content != null) {
             m_contentFile = createTempFile(content);
+            m_contentHash = CmsModuleHashIndex.computeHash(content);
+            m_contentLength = content.length;
         }
 
         if (properties == null) {
@@ -167,6 +175,26 @@ public class CmsResourceImportData {
         }
     }
 
+    /**
+     * Gets the SHA-256 hash of the content.<p>
+     *
+     * @return the hash of the content, or null if there is no content
+     */
+    public String getContentHash() {
+
+        return m_contentHash;
+    }
+
+    /**
+     * Gets the length of the content.<p>
+     *
+     * @return the length of the content, or -1 if there is no content
+     */
+    public int getContentLength() {
+
+        return m_contentLength;
+    }
+
     /**
      * Gets the import resource.<p>
      *
@@ -91,6 +91,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_MODULE_SELECTION_INCONSISTENT_2 = "ERR_MODULE_SELECTION_INCONSISTENT_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_MODULE_UPDATE_INTERRUPTED_0 = "ERR_MODULE_UPDATE_INTERRUPTED_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_MODULE_VERSION_NUMBER_0 = "ERR_MODULE_VERSION_NUMBER_0";
 
@@ -277,6 +280,21 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PUBLISH_PROJECT_END_0 = "RPT_PUBLISH_PROJECT_END_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_UPDATE_PLAN_COST_4 = "RPT_UPDATE_PLAN_COST_4";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_UPDATE_PLAN_ENTRY_2 = "RPT_UPDATE_PLAN_ENTRY_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_UPDATE_PLAN_HEADER_1 = "RPT_UPDATE_PLAN_HEADER_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_UPDATE_PLAN_NOT_UPDATABLE_1 = "RPT_UPDATE_PLAN_NOT_UPDATABLE_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_UPDATE_PLAN_SUMMARY_5 = "RPT_UPDATE_PLAN_SUMMARY_5";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.module.messages";
 
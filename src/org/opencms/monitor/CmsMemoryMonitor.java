@@ -33,8 +33,10 @@ import org.opencms.cache.CmsVfsMemoryObjectCache;
 import org.opencms.configuration.CmsSystemConfiguration;
 import org.opencms.db.CmsCacheSettings;
 import org.opencms.db.CmsDriverManager;
+import org.opencms.db.CmsLogWriter;
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.db.CmsSecurityManager;
+import org.opencms.db.timing.CmsRequestProfilingHandler;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsObject;
@@ -1415,7 +1417,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsAccessControlList getCachedACL(String key) {
 
-        return m_cacheAccessControlList.get(key);
+        return countAccess(CacheType.ACL, m_cacheAccessControlList.get(key));
     }
 
     /**
@@ -1439,7 +1441,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsGroup getCachedGroup(String key) {
 
-        return m_cacheGroup.get(key);
+        return countAccess(CacheType.GROUP, m_cacheGroup.get(key));
     }
 
     /**
@@ -1491,7 +1493,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsOrganizationalUnit getCachedOrgUnit(String key) {
 
-        return m_cacheOrgUnit.get(key);
+        return countAccess(CacheType.ORG_UNIT, m_cacheOrgUnit.get(key));
     }
 
     /**
@@ -1503,7 +1505,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
 
-        return m_cachePermission.get(key);
+        return countAccess(CacheType.PERMISSION, m_cachePermission.get(key));
     }
 
     /**
@@ -1515,7 +1517,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsProject getCachedProject(String key) {
 
-        return m_cacheProject.get(key);
+        return countAccess(CacheType.PROJECT, m_cacheProject.get(key));
     }
 
     /**
@@ -1527,7 +1529,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsResource> getCachedProjectResources(String key) {
 
-        return m_cacheProjectResources.get(key);
+        return countAccess(CacheType.PROJECT_RESOURCES, m_cacheProjectResources.get(key));
     }
 
     /**
@@ -1539,7 +1541,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsProperty getCachedProperty(String key) {
 
-        return m_cacheProperty.get(key);
+        return countAccess(CacheType.PROPERTY, m_cacheProperty.get(key));
     }
 
     /**
@@ -1551,7 +1553,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsProperty> getCachedPropertyList(String key) {
 
-        return m_cachePropertyList.get(key);
+        return countAccess(CacheType.PROPERTY_LIST, m_cachePropertyList.get(key));
     }
 
     /**
@@ -1614,7 +1616,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsResource getCachedResource(String key) {
 
-        return m_cacheResource.get(key);
+        return countAccess(CacheType.RESOURCE, m_cacheResource.get(key));
     }
 
     /**
@@ -1626,7 +1628,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsResource> getCachedResourceList(String key) {
 
-        return m_cacheResourceList.get(key);
+        return countAccess(CacheType.RESOURCE_LIST, m_cacheResourceList.get(key));
     }
 
     /**
@@ -1638,7 +1640,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public Boolean getCachedRole(String key) {
 
-        return m_cacheHasRoles.get(key);
+        return countAccess(CacheType.HAS_ROLE, m_cacheHasRoles.get(key));
     }
 
     /**
@@ -1650,7 +1652,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsRole> getCachedRoleList(String key) {
 
-        return m_cacheRoleLists.get(key);
+        return countAccess(CacheType.ROLE_LIST, m_cacheRoleLists.get(key));
     }
 
     /**
@@ -1662,7 +1664,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsUser getCachedUser(String key) {
 
-        return m_cacheUser.get(key);
+        return countAccess(CacheType.USER, m_cacheUser.get(key));
     }
 
     /**
@@ -1674,7 +1676,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsGroup> getCachedUserGroups(String key) {
 
-        return m_cacheUserGroups.get(key);
+        return countAccess(CacheType.USERGROUPS, m_cacheUserGroups.get(key));
     }
 
     /**
@@ -1686,7 +1688,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsUser> getCachedUserList(String key) {
 
-        return m_cacheUserList.get(key);
+        return countAccess(CacheType.USER_LIST, m_cacheUserList.get(key));
     }
 
     /**
@@ -1698,7 +1700,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public Object getCachedVfsObject(String key) {
 
-        return m_cacheVfsObject.get(key);
+        return countAccess(CacheType.VFS_OBJECT, m_cacheVfsObject.get(key));
     }
 
     /**
@@ -2720,6 +2722,19 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                 }
             }
 
+            CmsLogWriter logWriter = OpenCms.getSqlManager().getLogWriter();
+            if (logWriter != null) {
+                LOG.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_MM_LOG_WRITER_5,
+                        new Object[] {
+                            String.valueOf(logWriter.size()),
+                            String.valueOf(logWriter.getWrittenCount()),
+                            String.valueOf(logWriter.getFlushCount()),
+                            String.valueOf(logWriter.getOverflowCount()),
+                            String.valueOf(logWriter.getFailedFlushCount())}));
+            }
+
             LOG.info(
                 Messages.get().getBundle().key(
                     Messages.LOG_MM_STARTUP_TIME_2,
@@ -2736,4 +2751,19 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_memoryCurrent.update();
         m_memoryAverage.calculateAverage(m_memoryCurrent);
     }
+
+    /**
+     * Counts a cache access for the request profiling.<p>
+     *
+     * @param <V> the type of the cached object
+     * @param type the cache type
+     * @param value the cached object, or <code>null</code> if not found
+     *
+     * @return the cached object
+     */
+    private <V> V countAccess(CacheType type, V value) {
+
+        CmsRequestProfilingHandler.countCacheAccess(type, value != null);
+        return value;
+    }
 }
@@ -73,6 +73,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_LOG_INFO_2 = "LOG_MM_LOG_INFO_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_LOG_WRITER_5 = "LOG_MM_LOG_WRITER_5";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_NOWARN_STATUS_5 = "LOG_MM_NOWARN_STATUS_5";
 
@@ -32,6 +32,7 @@ import org.opencms.db.CmsUserSettings;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceCursor;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
 import org.opencms.i18n.CmsLocaleManager;
@@ -90,6 +91,7 @@ public class CmsNotificationCandidates {
         GregorianCalendar inOneWeek = (GregorianCalendar)now.clone();
         inOneWeek.add(Calendar.WEEK_OF_YEAR, 1);
         Iterator<CmsResource> resources;
+        CmsResourceCursor cursor;
         CmsResource resource;
 
         // read all files with the 'notification-interval' property set
@@ -134,9 +136,9 @@ public class CmsNotificationCandidates {
         // create a resource filter to get the resources with
         CmsResourceFilter filter = CmsResourceFilter.IGNORE_EXPIRATION.addRequireLastModifiedBefore(
             oneYearAgo.getTimeInMillis());
-        resources = m_cms.readResources(folder, filter).iterator();
-        while (resources.hasNext()) {
-            resource = resources.next();
+        cursor = m_cms.readResourceCursor(folder, filter, true, 0);
+        while (cursor.hasNext()) {
+            resource = cursor.next();
             m_resources.add(
                 new CmsExtendedNotificationCause(
                     resource,
@@ -148,9 +150,9 @@ public class CmsNotificationCandidates {
         CmsResourceFilter resourceFilter = CmsResourceFilter.IGNORE_EXPIRATION.addRequireExpireBefore(
             inOneWeek.getTimeInMillis());
         resourceFilter = resourceFilter.addRequireExpireAfter(now.getTimeInMillis());
-        resources = m_cms.readResources(folder, resourceFilter).iterator();
-        while (resources.hasNext()) {
-            resource = resources.next();
+        cursor = m_cms.readResourceCursor(folder, resourceFilter, true, 0);
+        while (cursor.hasNext()) {
+            resource = cursor.next();
             m_resources.add(
                 new CmsExtendedNotificationCause(
                     resource,
@@ -161,9 +163,9 @@ public class CmsNotificationCandidates {
         // get all resources that will release within the next week
         resourceFilter = CmsResourceFilter.IGNORE_EXPIRATION.addRequireReleaseBefore(inOneWeek.getTimeInMillis());
         resourceFilter = resourceFilter.addRequireReleaseAfter(now.getTimeInMillis());
-        resources = m_cms.readResources(folder, resourceFilter).iterator();
-        while (resources.hasNext()) {
-            resource = resources.next();
+        cursor = m_cms.readResourceCursor(folder, resourceFilter, true, 0);
+        while (cursor.hasNext()) {
+            resource = cursor.next();
             m_resources.add(
                 new CmsExtendedNotificationCause(
                     resource,
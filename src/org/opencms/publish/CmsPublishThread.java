@@ -28,6 +28,8 @@
 package org.opencms.publish;
 
 import org.opencms.db.CmsDbContext;
+import org.opencms.db.timing.CmsRequestProfile;
+import org.opencms.db.timing.CmsRequestProfilingHandler;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
@@ -147,6 +149,8 @@ import org.apache.commons.logging.Log;
         if (m_jspLoader != null) {
             includingFiles = getStrongLinkReferences();
         }
+        CmsRequestProfile profile = CmsRequestProfilingHandler.startProfile(
+            "publish " + m_publishJob.getProjectName());
         try {
             CmsDbContext dbc = m_publishEngine.getDbContext(getCms().getRequestContext());
             try {
@@ -175,6 +179,7 @@ import org.apache.commons.logging.Log;
             // catch every thing including runtime exceptions
             LOG.error(Messages.get().getBundle().key(Messages.LOG_PUBLISH_PROJECT_FAILED_0), e);
         } finally {
+            CmsRequestProfilingHandler.finishProfile(profile);
             // Signalizes that the thread has been finished
             try {
                 m_publishEngine.publishJobFinished(getPublishJob());
@@ -29,7 +29,7 @@ package org.opencms.relations;
 
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
-import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceCursor;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypePointer;
 import org.opencms.main.CmsException;
@@ -45,8 +45,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -148,20 +146,18 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
         int pointerId = OpenCms.getResourceManager().getResourceType(
             CmsResourceTypePointer.getStaticTypeName()).getTypeId();
         CmsResourceFilter filter = CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(pointerId);
-        List<CmsResource> links = cms.readResources("/", filter);
-        Iterator<CmsResource> iterator = links.iterator();
+        CmsResourceCursor links = cms.readResourceCursor("/", filter, true, 0);
         Map<String, String> brokenLinks = new HashMap<String, String>();
 
-        for (int i = 1; iterator.hasNext(); i++) {
-            CmsFile link = cms.readFile(cms.getSitePath(iterator.next()), filter);
+        while (links.hasNext()) {
+            CmsFile link = cms.readFile(cms.getSitePath(links.next()), filter);
             String linkUrl = new String(link.getContents());
 
-            // print to the report
+            // print to the report, the total number of links is not known in advance
             m_report.print(
                 org.opencms.report.Messages.get().container(
                     org.opencms.report.Messages.RPT_SUCCESSION_1,
-                    new Integer(i),
-                    new Integer(links.size())),
+                    new Integer(links.getCount())),
                 I_CmsReport.FORMAT_NOTE);
             m_report.print(Messages.get().container(Messages.RPT_VALIDATE_LINK_0), I_CmsReport.FORMAT_NOTE);
             m_report.print(
@@ -187,7 +183,7 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
         m_report.println(
             Messages.get().container(
                 Messages.RPT_LINK_VALIDATION_STAT_2,
-                new Integer(links.size()),
+                new Integer(links.getCount()),
                 new Integer(brokenLinks.size())),
             I_CmsReport.FORMAT_HEADLINE);
         m_report.println(
@@ -30,6 +30,7 @@ package org.opencms.relations;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDriverManager;
 import org.opencms.db.CmsPublishList;
+import org.opencms.db.I_CmsVfsDriver;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
@@ -41,10 +42,12 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.report.I_CmsReport;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.workplace.threads.A_CmsProgressThread;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -195,10 +198,34 @@ public class CmsRelationSystemValidator {
             }
         }
 
+        // read the relations of all resources first, so that the link targets can be read with a few queries
+        List<List<CmsRelation>> relations = new ArrayList<List<CmsRelation>>(resources.size());
+        for (int index = 0, size = resources.size(); index < size; index++) {
+
+            // set progress in thread (next 10 percent)
+            if (thread != null) {
+
+                if (thread.isInterrupted()) {
+                    throw new CmsIllegalStateException(
+                        org.opencms.workplace.commons.Messages.get().container(
+                            org.opencms.workplace.commons.Messages.ERR_PROGRESS_INTERRUPTED_0));
+                }
+                thread.setProgress(((index * 10) / size) + 20);
+            }
+            relations.add(readRelations(dbc, resources.get(index), project));
+        }
+        Map<CmsUUID, CmsResource> targetsById = new HashMap<CmsUUID, CmsResource>();
+        Map<String, CmsResource> targetsByPath = new HashMap<String, CmsResource>();
+        if (!readLinkTargets(dbc, resources, relations, project, targetsById, targetsByPath)) {
+            // fall back to reading the targets one by one
+            targetsById = null;
+            targetsByPath = null;
+        }
+
         boolean foundBrokenLinks = false;
         for (int index = 0, size = resources.size(); index < size; index++) {
 
-            // set progress in thread (next 20 percent; leave rest for creating the list and the html)
+            // set progress in thread (next 10 percent; leave rest for creating the list and the html)
             if (thread != null) {
 
                 if (thread.isInterrupted()) {
@@ -206,7 +233,7 @@ public class CmsRelationSystemValidator {
                         org.opencms.workplace.commons.Messages.get().container(
                             org.opencms.workplace.commons.Messages.ERR_PROGRESS_INTERRUPTED_0));
                 }
-                thread.setProgress(((index * 20) / resources.size()) + 20);
+                thread.setProgress(((index * 10) / resources.size()) + 30);
             }
 
             CmsResource resource = resources.get(index);
@@ -226,7 +253,15 @@ public class CmsRelationSystemValidator {
                         dbc.removeSiteRoot(resourceName)));
                 report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
             }
-            List<CmsRelation> brokenLinks = validateLinks(dbc, resource, offlineFilesLookup, project, report);
+            List<CmsRelation> brokenLinks = validateLinks(
+                dbc,
+                resource,
+                relations.get(index),
+                offlineFilesLookup,
+                targetsById,
+                targetsByPath,
+                project,
+                report);
             if (brokenLinks.size() > 0) {
                 // the resource contains broken links
                 invalidResources.put(resourceName, brokenLinks);
@@ -286,6 +321,50 @@ public class CmsRelationSystemValidator {
         return isValidLink;
     }
 
+    /**
+     * Checks a link from a resource which has changed, using the link targets read before.<p>
+     *
+     * The result is the same as the result of
+     * {@link #checkLinkForNewOrChangedLinkSource(CmsDbContext, CmsResource, CmsRelation, String, CmsProject, Map)}
+     * for the targets read with {@link #readLinkTargets(CmsDbContext, List, List, CmsProject, Map, Map)}.<p>
+     *
+     * @param relation the relation
+     * @param link the link target
+     * @param fileLookup a lookup table which contains the files which are going to be published
+     * @param targetsById the existing link targets in the project, keyed by structure id
+     * @param targetsByPath the existing link targets in the project which were not found by id, keyed by path
+     *
+     * @return true if the link will be valid after publishing
+     */
+    protected boolean checkLinkForNewOrChangedLinkSource(
+        CmsRelation relation,
+        String link,
+        Map<String, CmsResource> fileLookup,
+        Map<CmsUUID, CmsResource> targetsById,
+        Map<String, CmsResource> targetsByPath) {
+
+        boolean isValidLink = true;
+        CmsResource target = targetsById.get(relation.getTargetId());
+        if (target != null) {
+            // the linked resource exists in the online project
+            link = target.getRootPath();
+        } else if (!targetsByPath.containsKey(relation.getTargetPath()) && !fileLookup.containsKey(link)) {
+            // the linked resource neither exists in the online project nor gets actually published
+            isValidLink = false;
+        }
+        // the link is broken if the linked resource to be published get deleted
+        if (fileLookup.containsKey(link)) {
+            CmsResource offlineResource = fileLookup.get(link);
+            if (offlineResource.getState().isDeleted()) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(Messages.LOG_LINK_VALIDATION_RESOURCEDELETED_1, link));
+                }
+                isValidLink = false;
+            }
+        }
+        return isValidLink;
+    }
+
     /**
      * Checks a link from a resource which has changed.<p>
      *
@@ -357,12 +436,107 @@ public class CmsRelationSystemValidator {
         return isValidLink;
     }
 
+    /**
+     * Reads the targets of the links from resources which get published with a few set based queries.<p>
+     *
+     * A target is read by structure id, and by path only if it can not be found by id.<p>
+     *
+     * @param dbc the database context
+     * @param resources the resources that will be validated
+     * @param relations the relations of the resources, <code>null</code> entries for failed reads
+     * @param project the project to validate
+     * @param targetsById the map to which the targets found by structure id are added
+     * @param targetsByPath the map to which the targets not found by id, but found by path are added
+     *
+     * @return <code>false</code> if reading the targets failed
+     */
+    protected boolean readLinkTargets(
+        CmsDbContext dbc,
+        List<CmsResource> resources,
+        List<List<CmsRelation>> relations,
+        CmsProject project,
+        Map<CmsUUID, CmsResource> targetsById,
+        Map<String, CmsResource> targetsByPath) {
+
+        Set<CmsUUID> targetIds = new HashSet<CmsUUID>();
+        for (int i = 0; i < resources.size(); i++) {
+            if (!resources.get(i).getState().isDeleted() && (relations.get(i) != null)) {
+                for (CmsRelation relation : relations.get(i)) {
+                    targetIds.add(relation.getTargetId());
+                }
+            }
+        }
+        if (targetIds.isEmpty()) {
+            return true;
+        }
+        try {
+            I_CmsVfsDriver vfsDriver = m_driverManager.getVfsDriver(dbc);
+            for (CmsResource target : vfsDriver.readResources(dbc, project.getUuid(), targetIds, true)) {
+                targetsById.put(target.getStructureId(), target);
+            }
+            Set<String> targetPaths = new HashSet<String>();
+            for (int i = 0; i < resources.size(); i++) {
+                if (!resources.get(i).getState().isDeleted() && (relations.get(i) != null)) {
+                    for (CmsRelation relation : relations.get(i)) {
+                        if (!targetsById.containsKey(relation.getTargetId())
+                            && CmsStringUtil.isNotEmptyOrWhitespaceOnly(relation.getTargetPath())) {
+                            targetPaths.add(relation.getTargetPath());
+                        }
+                    }
+                }
+            }
+            if (!targetPaths.isEmpty()) {
+                targetsByPath.putAll(vfsDriver.readResourcesForPaths(dbc, project.getUuid(), targetPaths, true));
+            }
+            return true;
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Reads the relations to validate for the specified resource.<p>
+     *
+     * These are the outgoing relations in the current project for a changed resource,
+     * and the incoming relations in the given project for a deleted resource.<p>
+     *
+     * @param dbc the database context
+     * @param resource the resource that will be validated
+     * @param project the project to validate
+     *
+     * @return the relations, or <code>null</code> if reading the relations failed
+     */
+    protected List<CmsRelation> readRelations(CmsDbContext dbc, CmsResource resource, CmsProject project) {
+
+        try {
+            if (!resource.getState().isDeleted()) {
+                // search the target of links in the current (offline) project
+                return m_driverManager.getRelationsForResource(dbc, resource, CmsRelationFilter.TARGETS);
+            }
+            // search the source of links in the online project
+            CmsProject currentProject = dbc.currentProject();
+            dbc.getRequestContext().setCurrentProject(project);
+            try {
+                return m_driverManager.getRelationsForResource(dbc, resource, CmsRelationFilter.SOURCES);
+            } finally {
+                dbc.getRequestContext().setCurrentProject(currentProject);
+            }
+        } catch (CmsException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_LINK_SEARCH_1, resource), e);
+            return null;
+        }
+    }
+
     /**
      * Validates the links for the specified resource.<p>
      *
      * @param dbc the database context
      * @param resource the resource that will be validated
+     * @param relations the relations read with {@link #readRelations(CmsDbContext, CmsResource, CmsProject)}
      * @param fileLookup a map for faster lookup with all resources keyed by their rootpath
+     * @param targetsById the link targets read by id, or <code>null</code> to read the targets one by one
+     * @param targetsByPath the link targets read by path, or <code>null</code> to read the targets one by one
      * @param project the project to validate
      * @param report the report to write to
      *
@@ -372,38 +546,17 @@ public class CmsRelationSystemValidator {
     protected List<CmsRelation> validateLinks(
         CmsDbContext dbc,
         CmsResource resource,
+        List<CmsRelation> relations,
         Map<String, CmsResource> fileLookup,
+        Map<CmsUUID, CmsResource> targetsById,
+        Map<String, CmsResource> targetsByPath,
         CmsProject project,
         I_CmsReport report) {
 
         List<CmsRelation> brokenRelations = new ArrayList<CmsRelation>();
         Map<String, Boolean> validatedLinks = new HashMap<String, Boolean>();
 
-        // get the relations
-        List<CmsRelation> incomingRelationsOnline = new ArrayList<CmsRelation>();
-        List<CmsRelation> outgoingRelationsOffline = new ArrayList<CmsRelation>();
-        try {
-            if (!resource.getState().isDeleted()) {
-                // search the target of links in the current (offline) project
-                outgoingRelationsOffline = m_driverManager.getRelationsForResource(
-                    dbc,
-                    resource,
-                    CmsRelationFilter.TARGETS);
-            } else {
-                // search the source of links in the online project
-                CmsProject currentProject = dbc.currentProject();
-                dbc.getRequestContext().setCurrentProject(project);
-                try {
-                    incomingRelationsOnline = m_driverManager.getRelationsForResource(
-                        dbc,
-                        resource,
-                        CmsRelationFilter.SOURCES);
-                } finally {
-                    dbc.getRequestContext().setCurrentProject(currentProject);
-                }
-            }
-        } catch (CmsException e) {
-            LOG.error(Messages.get().getBundle().key(Messages.LOG_LINK_SEARCH_1, resource), e);
+        if (relations == null) {
             if (report != null) {
                 report.println(
                     Messages.get().container(Messages.LOG_LINK_SEARCH_1, dbc.removeSiteRoot(resource.getRootPath())),
@@ -412,16 +565,15 @@ public class CmsRelationSystemValidator {
             return brokenRelations;
         }
 
-        List<CmsRelation> relations = new ArrayList<CmsRelation>();
-        relations.addAll(incomingRelationsOnline);
-        relations.addAll(outgoingRelationsOffline);
         HashMultimap<String, String> outgoingRelationTargets = HashMultimap.create();
-        for (CmsRelation outRelation : outgoingRelationsOffline) {
-            String sourcePath = outRelation.getSourcePath();
-            String targetId = outRelation.getTargetId().toString();
-            String targetPath = outRelation.getTargetPath();
-            outgoingRelationTargets.put(sourcePath, targetId);
-            outgoingRelationTargets.put(sourcePath, targetPath);
+        if (!resource.getState().isDeleted()) {
+            for (CmsRelation outRelation : relations) {
+                String sourcePath = outRelation.getSourcePath();
+                String targetId = outRelation.getTargetId().toString();
+                String targetPath = outRelation.getTargetPath();
+                outgoingRelationTargets.put(sourcePath, targetId);
+                outgoingRelationTargets.put(sourcePath, targetPath);
+            }
         }
         // check the relations
         boolean first = true;
@@ -450,7 +602,16 @@ public class CmsRelationSystemValidator {
             if (resource.getState().isDeleted()) {
                 result = checkLinkForDeletedLinkTarget(relation, link, fileLookup, outgoingRelationTargets);
             } else {
-                result = checkLinkForNewOrChangedLinkSource(dbc, resource, relation, link, project, fileLookup);
+                if (targetsById != null) {
+                    result = checkLinkForNewOrChangedLinkSource(
+                        relation,
+                        link,
+                        fileLookup,
+                        targetsById,
+                        targetsByPath);
+                } else {
+                    result = checkLinkForNewOrChangedLinkSource(dbc, resource, relation, link, project, fileLookup);
+                }
 
             }
             boolean isValidLink = result;
@@ -27,6 +27,8 @@
 
 package org.opencms.scheduler;
 
+import org.opencms.db.timing.CmsRequestProfile;
+import org.opencms.db.timing.CmsRequestProfilingHandler;
 import org.opencms.file.CmsObject;
 import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.main.CmsIllegalArgumentException;
@@ -80,6 +82,9 @@ import org.quartz.impl.StdSchedulerFactory;
  */
 public class CmsScheduleManager implements Job {
 
+    /** Request context attribute for the name of the job which is executed with the context. */
+    public static final String ATTRIBUTE_JOB_NAME = CmsScheduleManager.class.getName() + ".ATTRIBUTE_JOB_NAME";
+
     /** Key for the scheduled job description in the job data map. */
     public static final String SCHEDULER_JOB_INFO = "org.opencms.scheduler.CmsScheduledJobInfo";
 
@@ -575,6 +580,7 @@ public class CmsScheduleManager implements Job {
         I_CmsScheduledJob job = jobInfo.getJobInstance();
 
         if (job != null) {
+            CmsRequestProfile profile = CmsRequestProfilingHandler.startProfile("job " + jobInfo.getJobName());
             // launch the job
             try {
 
@@ -587,6 +593,7 @@ public class CmsScheduleManager implements Job {
                     // must access the scheduler manager instance from the OpenCms singleton
                     // to get the initialized CmsObject
                     cms = OpenCms.initCmsObject(OpenCms.getScheduleManager().getAdminCms(), jobInfo.getContextInfo());
+                    cms.getRequestContext().setAttribute(ATTRIBUTE_JOB_NAME, jobInfo.getJobName());
                 }
 
                 String result = job.launch(cms, jobInfo.getParameters());
@@ -596,6 +603,8 @@ public class CmsScheduleManager implements Job {
                 }
             } catch (Throwable t) {
                 LOG.error(Messages.get().getBundle().key(Messages.LOG_JOB_EXECUTION_ERROR_1, jobInfo.getJobName()), t);
+            } finally {
+                CmsRequestProfilingHandler.finishProfile(profile);
             }
         }
 
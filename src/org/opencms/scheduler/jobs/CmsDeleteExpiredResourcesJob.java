@@ -33,6 +33,7 @@ import org.opencms.file.CmsProject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceCursor;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.loader.CmsResourceManager;
@@ -42,13 +43,17 @@ import org.opencms.main.OpenCms;
 import org.opencms.publish.CmsPublishManager;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
+import org.opencms.scheduler.CmsScheduleManager;
 import org.opencms.scheduler.I_CmsScheduledJob;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A schedulable OpenCms job to delete expired resources.<p>
@@ -67,6 +72,12 @@ import java.util.Map;
  * <dt><code>folder={csv list}</code></dt>
  * <dd>Allows to specify a comma separated list of folders in which all expired resources will be deleted. If omitted "/" will be taken as single folder
  * for this operation. </dd>
+ * <dt><code>batchsize={Number/Integer}</code></dt>
+ * <dd>The number of resources read and deleted together, default is 500. The caches are flushed once per batch.</dd>
+ * <dt><code>maxdeletions={Number/Integer}</code></dt>
+ * <dd>The maximum number of resources deleted in one run, default is no limit. If the limit is reached,
+ * the next run of the job continues after the last processed resource, unless the parameters of the job
+ * have been changed in the meantime.</dd>
  * </dl>
  * <p>
  *
@@ -85,6 +96,21 @@ import java.util.Map;
  */
 public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
 
+    /**
+     * Position of a run which has been stopped after the maximum number of deletions.<p>
+     */
+    private static class Checkpoint {
+
+        /** The parameters of the stopped run. */
+        String m_parameters;
+
+        /** The last processed resource of the step, or <code>null</code> to start the step from the beginning. */
+        CmsResource m_position;
+
+        /** The index of the folder and resource type combination. */
+        int m_step;
+    }
+
     /** Name of the parameter where to configure the amount of days a resource has to be expired before deletion. */
     public static final String PARAM_EXPIRATIONSDAYS = "expirationdays";
 
@@ -94,6 +120,12 @@ public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
     /** Name of the parameter where to configure the folder below which the operation will be done. */
     public static final String PARAM_FOLDER = "folder";
 
+    /** Name of the parameter where to configure the number of resources read and deleted together. */
+    public static final String PARAM_BATCHSIZE = "batchsize";
+
+    /** Name of the parameter where to configure the maximum number of resources deleted in one run. */
+    public static final String PARAM_MAXDELETIONS = "maxdeletions";
+
     /** Constant for calculation. */
     private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
 
@@ -103,6 +135,9 @@ public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
     /** Setting for the <code>{@link CmsPropertyDefinition#PROPERTY_DELETE_EXPIRED}</code> to disallow deletion. */
     public static final String PROPERTY_VALUE_DELETE_EXPIRED_NONE = "none";
 
+    /** The positions of the runs stopped after the maximum number of deletions, by job name. */
+    private static final Map<String, Checkpoint> CHECKPOINTS = new ConcurrentHashMap<String, Checkpoint>();
+
     /**
      * @see org.opencms.scheduler.I_CmsScheduledJob#launch(org.opencms.file.CmsObject, java.util.Map)
      */
@@ -110,178 +145,324 @@ public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
 
         // this job requires a higher runlevel than is allowed for all jobs:
         if (OpenCms.getRunLevel() == OpenCms.RUNLEVEL_4_SERVLET_ACCESS) {
-            long currenttime = System.currentTimeMillis();
-
-            // read the parameter for the versions to keep
-            int expirationdays = 30;
-            String expirationdaysparam = parameters.get(PARAM_EXPIRATIONSDAYS);
-            if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(expirationdaysparam)) {
-                try {
-                    expirationdays = Integer.parseInt(expirationdaysparam);
-                } catch (NumberFormatException nfe) {
-                    // don't care
+            deleteExpiredResources(cms, parameters, System.currentTimeMillis());
+        }
+        return null;
+    }
+
+    /**
+     * Deletes the expired resources as configured by the job parameters.<p>
+     *
+     * @param cms the cms context of the job
+     * @param parameters the job parameters
+     * @param currenttime the current time in milliseconds since January 1st 1970
+     *
+     * @throws Exception if something goes wrong
+     */
+    protected void deleteExpiredResources(CmsObject cms, Map<String, String> parameters, long currenttime)
+    throws Exception {
+
+        // read the parameter for the versions to keep
+        int expirationdays = getIntParameter(parameters, PARAM_EXPIRATIONSDAYS, 30);
+
+        // read the parameter if to clear versions of deleted resources
+        String resTypes = parameters.get(PARAM_RESOURCETYPES);
+        String[] resTypesArr = null;
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(resTypes)) {
+            resTypesArr = CmsStringUtil.splitAsArray(resTypes, ',');
+        }
+
+        // read the optional parameter for the time range to keep versions
+        String[] topFoldersArr = new String[] {"/"};
+        String topfolders = parameters.get(PARAM_FOLDER);
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(topfolders)) {
+            topFoldersArr = CmsStringUtil.splitAsArray(topfolders, ',');
+        }
+
+        int batchSize = getIntParameter(parameters, PARAM_BATCHSIZE, CmsResourceCursor.DEFAULT_BATCH_SIZE);
+        int maxDeletions = getIntParameter(parameters, PARAM_MAXDELETIONS, 0);
+
+        // collect the folders and filters to process, resources with unpublished changes are not even read
+        List<String> folders = new ArrayList<String>();
+        List<CmsResourceFilter> filters = new ArrayList<CmsResourceFilter>();
+        CmsResourceFilter filter = CmsResourceFilter.ALL.addRequireState(CmsResourceState.STATE_UNCHANGED);
+        filter = filter.addRequireExpireBefore(currenttime);
+
+        // if we have configured resource types reading is more complicated because inclusion of several types
+        // is not supported by resource filter api:
+        if (resTypesArr != null) {
+            I_CmsResourceType type;
+            CmsResourceManager resManager = OpenCms.getResourceManager();
+            for (int i = resTypesArr.length - 1; i >= 0; i--) {
+                type = resManager.getResourceType(resTypesArr[i]);
+                filter = filter.addRequireType(type.getTypeId());
+                for (int j = topFoldersArr.length - 1; j >= 0; j--) {
+                    folders.add(topFoldersArr[j]);
+                    filters.add(filter);
                 }
             }
 
-            // read the parameter if to clear versions of deleted resources
-            String resTypes = parameters.get(PARAM_RESOURCETYPES);
-            String[] resTypesArr = null;
-            if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(resTypes)) {
-                resTypesArr = CmsStringUtil.splitAsArray(resTypes, ',');
+        } else {
+            filter = filter.addRequireFile();
+            for (int j = topFoldersArr.length - 1; j >= 0; j--) {
+                folders.add(topFoldersArr[j]);
+                filters.add(filter);
             }
+        }
 
-            // read the optional parameter for the time range to keep versions
-            String[] topFoldersArr = new String[] {"/"};
-            String topfolders = parameters.get(PARAM_FOLDER);
-            if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(topfolders)) {
-                topFoldersArr = CmsStringUtil.splitAsArray(topfolders, ',');
-            }
+        // create a temp project for publishing everything together at the end:
+        CmsProject project = cms.createTempfileProject();
+        cms.getRequestContext().setCurrentProject(project);
 
-            // create a temp project for publishing everything together at the end:
-            CmsProject project = cms.createTempfileProject();
-            cms.getRequestContext().setCurrentProject(project);
-
-            I_CmsReport report = new CmsLogReport(
-                cms.getRequestContext().getLocale(),
-                CmsDeleteExpiredResourcesJob.class);
-            report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_START_0), I_CmsReport.FORMAT_HEADLINE);
-
-            // collect all resources:
-            List<CmsResource> resources = Collections.emptyList();
-            CmsResourceFilter filter = CmsResourceFilter.ALL.addExcludeState(CmsResourceState.STATE_DELETED);
-            filter = filter.addRequireExpireBefore(currenttime);
-
-            // if we have configured resource types reading is more complicated because inclusion of several types
-            // is not supported by resource filter api:
-            int changedFiles = 0;
-            if (resTypesArr != null) {
-                I_CmsResourceType type;
-                CmsResourceManager resManager = OpenCms.getResourceManager();
-                for (int i = resTypesArr.length - 1; i >= 0; i--) {
-                    type = resManager.getResourceType(resTypesArr[i]);
-                    filter = filter.addRequireType(type.getTypeId());
-                    for (int j = topFoldersArr.length - 1; j >= 0; j--) {
-                        resources = cms.readResources(topFoldersArr[j], filter, true);
-                        changedFiles += deleteExpiredResources(cms, report, resources, expirationdays, currenttime);
-                    }
+        I_CmsReport report = new CmsLogReport(
+            cms.getRequestContext().getLocale(),
+            CmsDeleteExpiredResourcesJob.class);
+        report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_START_0), I_CmsReport.FORMAT_HEADLINE);
+
+        // continue where the last run of the job has stopped, unless the parameters have been changed since
+        String checkpointParameters = new TreeMap<String, String>(parameters).toString();
+        Object jobName = cms.getRequestContext().getAttribute(CmsScheduleManager.ATTRIBUTE_JOB_NAME);
+        String checkpointKey = jobName instanceof String ? (String)jobName : checkpointParameters;
+        Checkpoint checkpoint = CHECKPOINTS.remove(checkpointKey);
+        if ((checkpoint == null) || !checkpointParameters.equals(checkpoint.m_parameters)) {
+            checkpoint = new Checkpoint();
+            checkpoint.m_parameters = checkpointParameters;
+        }
+
+        int changedFiles = 0;
+        for (int step = checkpoint.m_step; step < folders.size(); step++) {
+            CmsResourceCursor resources = cms.readResourceCursor(
+                folders.get(step),
+                filters.get(step),
+                true,
+                batchSize);
+            if ((step == checkpoint.m_step) && (checkpoint.m_position != null)) {
+                resources.setStart(checkpoint.m_position);
+                report.println(
+                    Messages.get().container(
+                        Messages.RPT_DELETE_EXPIRED_RESUME_1,
+                        cms.getRequestContext().removeSiteRoot(checkpoint.m_position.getRootPath())),
+                    I_CmsReport.FORMAT_NOTE);
+            }
+            checkpoint.m_step = step;
+            checkpoint.m_position = null;
+            changedFiles += deleteExpiredResources(
+                cms,
+                report,
+                resources,
+                expirationdays,
+                currenttime,
+                batchSize,
+                maxDeletions > 0 ? maxDeletions - changedFiles : 0,
+                checkpoint);
+            if ((maxDeletions > 0) && (changedFiles >= maxDeletions)) {
+                if (!resources.hasNext()) {
+                    checkpoint.m_step = step + 1;
+                    checkpoint.m_position = null;
+                }
+                if (checkpoint.m_step < folders.size()) {
+                    CHECKPOINTS.put(checkpointKey, checkpoint);
+                    report.println(
+                        Messages.get().container(
+                            Messages.RPT_DELETE_EXPIRED_LIMIT_1,
+                            Integer.valueOf(maxDeletions)),
+                        I_CmsReport.FORMAT_NOTE);
                 }
+                break;
+            }
+        }
+        if (changedFiles > 0) {
+            CmsPublishManager publishManager = OpenCms.getPublishManager();
+            publishManager.publishProject(cms, report);
+            // this is to not scramble the logging output:
+            publishManager.waitWhileRunning();
+        }
+        report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_END_0), I_CmsReport.FORMAT_HEADLINE);
+    }
+
+    /**
+     * Reads an integer parameter.<p>
+     *
+     * @param parameters the job parameters
+     * @param name the name of the parameter
+     * @param defaultValue the value to use if the parameter is missing or invalid
+     *
+     * @return the parameter value
+     */
+    private static int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
+
+        String value = parameters.get(name);
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException nfe) {
+                // don't care
+            }
+        }
+        return defaultValue;
+    }
 
+    /**
+     * Deletes an expired resource if it has been expired longer than the given amount of days. <p>
+     *
+     * @param cms needed to delete resources
+     * @param report needed to print messages to
+     * @param resource the resource to process
+     * @param properties the properties of the resource including the inherited ones, or <code>null</code> if not read
+     * @param expirationdays the amount of days a resource has to be expired before it is deleted
+     * @param currenttime the current time in milliseconds since January 1st 1970
+     *
+     * @return <code>true</code> if the resource has been deleted
+     */
+    private boolean deleteExpiredResource(
+        final CmsObject cms,
+        final I_CmsReport report,
+        final CmsResource resource,
+        final List<CmsProperty> properties,
+        final int expirationdays,
+        final long currenttime) {
+
+        String resourcePath = cms.getRequestContext().removeSiteRoot(resource.getRootPath());
+        report.print(
+            Messages.get().container(Messages.RPT_DELETE_EXPIRED_PROCESSING_1, new String[] {resourcePath}),
+            I_CmsReport.FORMAT_DEFAULT);
+        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+        if (resource.getState() != CmsResourceState.STATE_UNCHANGED) {
+            report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_UNPUBLISHED_0));
+            return false;
+        }
+        long expirationdate = resource.getDateExpired();
+        int expirationDaysPropertyOverride = expirationdays;
+        try {
+            CmsProperty property;
+            if (properties != null) {
+                property = CmsProperty.wrapIfNull(
+                    CmsProperty.get(CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED, properties));
             } else {
-                filter = filter.addRequireFile();
-                for (int j = topFoldersArr.length - 1; j >= 0; j--) {
-                    resources = cms.readResources(topFoldersArr[j], filter, true);
-                    changedFiles += deleteExpiredResources(cms, report, resources, expirationdays, currenttime);
+                property = cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED, true);
+            }
+            String propertyValue = property.getValue();
+            if (!property.isNullProperty()) {
+                if (PROPERTY_VALUE_DELETE_EXPIRED_NEVER.equals(propertyValue)
+                    || PROPERTY_VALUE_DELETE_EXPIRED_NONE.equals(propertyValue)
+                    || Boolean.FALSE.toString().equals(propertyValue)) {
+                    report.println(
+                        Messages.get().container(Messages.RPT_DELETE_EXPIRED_PROPERTY_NEVER_0),
+                        I_CmsReport.FORMAT_NOTE);
+                    return false;
+                } else {
+                    // true is allowed, but any other value will be treated as a configuration error and skip the
+                    // resource:
+
+                    if (!Boolean.TRUE.toString().equals(propertyValue)) {
+                        // NumberFormatException should skip the resource because the property value was mistyped
+                        expirationDaysPropertyOverride = Integer.parseInt(propertyValue);
+                    }
                 }
             }
-            if (changedFiles > 0) {
-                CmsPublishManager publishManager = OpenCms.getPublishManager();
-                publishManager.publishProject(cms, report);
-                // this is to not scramble the logging output:
-                publishManager.waitWhileRunning();
+
+            // no Calendar - semantics required for simple timespan check:
+            if ((expirationdate != Long.MAX_VALUE)
+                && ((currenttime - expirationdate) > (expirationDaysPropertyOverride * MILLIS_PER_DAY))) {
+                CmsLock lock = cms.getLock(resource);
+                if (lock.isNullLock()) {
+                    cms.lockResource(resource);
+                } else {
+                    if (!lock.getUserId().equals(cms.getRequestContext().getCurrentUser().getId())) {
+                        report.println(
+                            Messages.get().container(Messages.RPT_DELETE_EXPIRED_LOCKED_0),
+                            I_CmsReport.FORMAT_WARNING);
+                        return false;
+                    }
+                }
+                cms.deleteResource(resource, CmsResource.DELETE_PRESERVE_SIBLINGS);
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                    I_CmsReport.FORMAT_OK);
+                return true;
+            } else {
+                report.println(
+                    Messages.get().container(
+                        Messages.RPT_DELETE_EXPIRED_NOT_EXPIRED_1,
+                        new Integer[] {new Integer(expirationDaysPropertyOverride)}));
             }
-            report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_END_0), I_CmsReport.FORMAT_HEADLINE);
+        } catch (Exception e) {
+            report.println(
+                Messages.get().container(
+                    Messages.RPT_DELETE_EXPIRED_FAILED_1,
+                    new String[] {CmsException.getStackTraceAsString(e)}),
+                I_CmsReport.FORMAT_ERROR);
         }
-        return null;
+        return false;
     }
 
     /**
      * Deletes the expired resources if the have been expired longer than the given amount of days. <p>
      *
+     * The resources are processed in batches: the properties of a batch are read with a single query and
+     * the resources of a batch are deleted in a bulk delete, so the caches are flushed once per batch.<p>
+     *
      * At this level the resource type is not checked again. <p>
      *
-     * @param resources a <code>List</code> containing <code>CmsResource</code> instances to process.
      * @param cms needed to delete resources
      * @param report needed to print messages to
+     * @param resources a cursor over the <code>CmsResource</code> instances to process.
      * @param expirationdays the amount of days a resource has to be expired before it is deleted
      * @param currenttime the current time in milliseconds since January 1st 1970
+     * @param batchSize the number of resources processed together
+     * @param maxDeletions the maximum number of resources to delete, or 0 for no limit
+     * @param checkpoint the checkpoint to which the last processed resource is written
+     *
      * @return the amount of deleted files
      *
+     * @throws CmsException if reading the resources fails
      */
     private int deleteExpiredResources(
         final CmsObject cms,
         final I_CmsReport report,
-        final List<CmsResource> resources,
+        final CmsResourceCursor resources,
         final int expirationdays,
-        final long currenttime) {
+        final long currenttime,
+        final int batchSize,
+        final int maxDeletions,
+        final Checkpoint checkpoint)
+    throws CmsException {
 
         int result = 0;
-        CmsResource resource;
-        CmsLock lock;
-        CmsProperty property;
-        String propertyValue;
-        long expirationdate;
-        int expirationDaysPropertyOverride;
-        Iterator<CmsResource> it = resources.iterator();
-        String resourcePath;
-        while (it.hasNext()) {
-            resource = it.next();
-            resourcePath = cms.getRequestContext().removeSiteRoot(resource.getRootPath());
-            report.print(
-                Messages.get().container(Messages.RPT_DELETE_EXPIRED_PROCESSING_1, new String[] {resourcePath}),
-                I_CmsReport.FORMAT_DEFAULT);
-            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-            if (resource.getState() == CmsResourceState.STATE_UNCHANGED) {
-                expirationdate = resource.getDateExpired();
-                expirationDaysPropertyOverride = expirationdays;
-                try {
-                    property = cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED, true);
-                    propertyValue = property.getValue();
-                    if (!property.isNullProperty()) {
-                        if (PROPERTY_VALUE_DELETE_EXPIRED_NEVER.equals(propertyValue)
-                            || PROPERTY_VALUE_DELETE_EXPIRED_NONE.equals(propertyValue)
-                            || Boolean.FALSE.toString().equals(propertyValue)) {
-                            report.println(
-                                Messages.get().container(Messages.RPT_DELETE_EXPIRED_PROPERTY_NEVER_0),
-                                I_CmsReport.FORMAT_NOTE);
-                            continue;
-                        } else {
-                            // true is allowed, but any other value will be treated as a configuration error and skip the
-                            // resource:
-
-                            if (!Boolean.TRUE.toString().equals(propertyValue)) {
-                                // NumberFormatException should skip the resource because the property value was mistyped
-                                expirationDaysPropertyOverride = Integer.parseInt(propertyValue);
-                            }
-                        }
+        List<CmsResource> batch = new ArrayList<CmsResource>(batchSize);
+        while (((maxDeletions <= 0) || (result < maxDeletions)) && resources.hasNext()) {
+            batch.clear();
+            while ((batch.size() < batchSize) && resources.hasNext()) {
+                batch.add(resources.next());
+            }
+            Map<CmsUUID, List<CmsProperty>> properties;
+            try {
+                properties = cms.readPropertyObjects(batch, true);
+            } catch (CmsException e) {
+                // fall back to reading the property for each resource
+                properties = Collections.emptyMap();
+            }
+            cms.startBulkDelete();
+            try {
+                for (CmsResource resource : batch) {
+                    if ((maxDeletions > 0) && (result >= maxDeletions)) {
+                        // the remaining resources of the batch are processed by the next run
+                        break;
                     }
-
-                    // no Calendar - semantics required for simple timespan check:
-                    if ((expirationdate != Long.MAX_VALUE)
-                        && ((currenttime - expirationdate) > (expirationDaysPropertyOverride * MILLIS_PER_DAY))) {
-                        lock = cms.getLock(resource);
-                        if (lock.isNullLock()) {
-                            cms.lockResource(resourcePath);
-                        } else {
-                            if (!lock.getUserId().equals(cms.getRequestContext().getCurrentUser().getId())) {
-                                report.println(
-                                    Messages.get().container(Messages.RPT_DELETE_EXPIRED_LOCKED_0),
-                                    I_CmsReport.FORMAT_WARNING);
-                                continue;
-                            }
-                        }
-                        cms.deleteResource(resourcePath, CmsResource.DELETE_PRESERVE_SIBLINGS);
+                    if (deleteExpiredResource(
+                        cms,
+                        report,
+                        resource,
+                        properties.get(resource.getStructureId()),
+                        expirationdays,
+                        currenttime)) {
                         result++;
-                        report.println(
-                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                            I_CmsReport.FORMAT_OK);
-
-                    } else {
-                        report.println(
-                            Messages.get().container(
-                                Messages.RPT_DELETE_EXPIRED_NOT_EXPIRED_1,
-                                new Integer[] {new Integer(expirationDaysPropertyOverride)}));
                     }
-                } catch (Exception e) {
-                    report.println(
-                        Messages.get().container(
-                            Messages.RPT_DELETE_EXPIRED_FAILED_1,
-                            new String[] {CmsException.getStackTraceAsString(e)}),
-                        I_CmsReport.FORMAT_ERROR);
-
+                    checkpoint.m_position = resource;
                 }
-            } else {
-                report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_UNPUBLISHED_0));
+            } finally {
+                cms.finishBulkDelete();
             }
         }
         return result;
@@ -55,6 +55,13 @@ import java.util.Map;
  * <dd>Number/Integer to configure the number of days the versions of deleted resources will
  * be kept. That means that all versions wich are older than the specified number will be deleted.
  * This parameter is optional and only makes sense if the clearDeleted parameter is set to true.</dd>
+ * <dt><code>bulk=true|false</code></dt>
+ * <dd>Boolean to configure if the versions to delete are computed for all resources with a few grouped queries
+ * and deleted in chunks, instead of resource by resource. This is much faster for large history tables.
+ * The default is false.</dd>
+ * <dt><code>dryRun=true|false</code></dt>
+ * <dd>Boolean to configure if the versions to delete are only counted and reported, but not deleted.
+ * Implies <code>bulk=true</code>. The default is false.</dd>
  * </dl>
  *
  * @since 7.0.0
@@ -70,6 +77,12 @@ public class CmsHistoryClearJob implements I_CmsScheduledJob {
     /** Name of the parameter where to configure the number of days the versions will be kept. */
     public static final String PARAM_KEEPTIMERANGE = "keepTimeRange";
 
+    /** Name of the parameter where to configure if the versions are deleted with set based queries. */
+    public static final String PARAM_BULK = "bulk";
+
+    /** Name of the parameter where to configure if the versions to delete are only counted. */
+    public static final String PARAM_DRYRUN = "dryRun";
+
     /**
      * @see org.opencms.scheduler.I_CmsScheduledJob#launch(org.opencms.file.CmsObject, java.util.Map)
      */
@@ -104,7 +117,12 @@ public class CmsHistoryClearJob implements I_CmsScheduledJob {
         CmsLogReport report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsHistoryClearJob.class);
 
         // delete the versions
-        cms.deleteHistoricalVersions(keepVersions, keepDeletedVersions, timeDeleted, report);
+        boolean dryRun = Boolean.valueOf(parameters.get(PARAM_DRYRUN)).booleanValue();
+        if (dryRun || Boolean.valueOf(parameters.get(PARAM_BULK)).booleanValue()) {
+            cms.pruneHistoricalVersions(keepVersions, keepDeletedVersions, timeDeleted, dryRun, report);
+        } else {
+            cms.deleteHistoricalVersions(keepVersions, keepDeletedVersions, timeDeleted, report);
+        }
 
         return null;
     }
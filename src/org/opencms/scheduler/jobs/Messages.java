@@ -100,6 +100,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DELETE_EXPIRED_NOT_EXPIRED_1 = "RPT_DELETE_EXPIRED_NOT_EXPIRED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_EXPIRED_LIMIT_1 = "RPT_DELETE_EXPIRED_LIMIT_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_EXPIRED_RESUME_1 = "RPT_DELETE_EXPIRED_RESUME_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMAGE_SIZE_UNABLE_TO_CALCULATE_0 = "RPT_IMAGE_SIZE_UNABLE_TO_CALCULATE_0";
 
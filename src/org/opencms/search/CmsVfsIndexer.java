@@ -31,6 +31,7 @@ import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceCursor;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
@@ -196,10 +197,19 @@ public class CmsVfsIndexer implements I_CmsIndexer {
         while (i.hasNext()) {
             // read the resources from all configured source folders
             String resourceName = i.next();
-            List<CmsResource> resources = null;
             try {
-                // read all resources (only files) below the given path
-                resources = m_cms.readResources(resourceName, CmsResourceFilter.IGNORE_EXPIRATION.addRequireFile());
+                // iterate all resources (only files) below the given path, read in batches to keep memory flat
+                CmsResourceCursor resources = m_cms.readResourceCursor(
+                    resourceName,
+                    CmsResourceFilter.IGNORE_EXPIRATION.addRequireFile(),
+                    true,
+                    0);
+                while (resources.hasNext()) {
+                    // now update all the resources individually
+                    updateResource(writer, threadManager, resources.next());
+                }
+            } catch (CmsIndexException e) {
+                throw e;
             } catch (CmsException e) {
                 if (m_report != null) {
                     m_report.println(
@@ -218,15 +228,6 @@ public class CmsVfsIndexer implements I_CmsIndexer {
                         e);
                 }
             }
-            if (resources != null) {
-                // iterate all resources found in the folder
-                Iterator<CmsResource> j = resources.iterator();
-                while (j.hasNext()) {
-                    // now update all the resources individually
-                    CmsResource resource = j.next();
-                    updateResource(writer, threadManager, resource);
-                }
-            }
         }
     }
 
@@ -66,6 +66,19 @@ public class CmsGallerySearchResultList extends ArrayList<CmsGallerySearchResult
         super(initialCapacity);
     }
 
+    /**
+     * Creates a copy of the given result list.<p>
+     *
+     * The copy has the same results and hit count, the pages are calculated separately.<p>
+     *
+     * @param results the result list to copy
+     */
+    public CmsGallerySearchResultList(CmsGallerySearchResultList results) {
+
+        super(results);
+        m_hitCount = results.getHitCount();
+    }
+
     /**
      * Appends the results from another search result list.<p>
      *
@@ -115,15 +115,6 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsSiteManagerImpl.class);
 
-    /** The path to the "/sites/" folder. */
-    private static final String SITES_FOLDER = "/sites/";
-
-    /** The length of the "/sites/" folder plus 1. */
-    private static final int SITES_FOLDER_POS = SITES_FOLDER.length() + 1;
-
-    /** A list of additional site roots, that is site roots that are not below the "/sites/" folder. */
-    private List<String> m_additionalSiteRoots;
-
     /**
      * The list of aliases for the site that is configured at the moment,
      * needed for the sites added during configuration. */
@@ -168,6 +159,9 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
     /** Maps site roots to sites. */
     private Map<String, CmsSite> m_siteRootSites;
 
+    /** Prefix tree of the site roots, used to look up the site for a root path. */
+    private volatile CmsSiteRootTree m_siteRootTree = CmsSiteRootTree.EMPTY;
+
     /**Map from CmsUUID to CmsSite.*/
     private Map<CmsUUID, CmsSite> m_siteUUIDs;
 
@@ -187,7 +181,6 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
         m_siteRootSites = new HashMap<String, CmsSite>();
         m_aliases = new ArrayList<CmsSiteMatcher>();
         m_siteParams = new TreeMap<String, String>();
-        m_additionalSiteRoots = new ArrayList<String>();
         m_workplaceServers = new LinkedHashMap<String, CmsSSLMode>();
         m_workplaceMatchers = new ArrayList<CmsSiteMatcher>();
         m_oldStyleSecureServer = true;
@@ -377,6 +370,7 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
         m_siteParams = new TreeMap<String, String>();
         m_siteRootSites = new HashMap<String, CmsSite>(m_siteRootSites);
         m_siteRootSites.put(site.getSiteRoot(), site);
+        m_siteRootTree = CmsSiteRootTree.create(m_siteRootSites);
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_SITE_ROOT_ADDED_1, site.toString()));
         }
@@ -894,17 +888,7 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
      */
     public CmsSite getSiteForRootPath(String rootPath) {
 
-        if ((rootPath.length() > 0) && !rootPath.endsWith("/")) {
-            rootPath = rootPath + "/";
-        }
-        // most sites will be below the "/sites/" folder,
-        CmsSite result = lookupSitesFolder(rootPath);
-        if (result != null) {
-            return result;
-        }
-        // look through all folders that are not below "/sites/"
-        String siteRoot = lookupAdditionalSite(rootPath);
-        return (siteRoot != null) ? getSiteForSiteRoot(siteRoot) : null;
+        return m_siteRootTree.getSite(rootPath);
     }
 
     /**
@@ -944,17 +928,8 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
      */
     public String getSiteRoot(String rootPath) {
 
-        // add a trailing slash, because the path may be the path of a site root itself
-        if (!rootPath.endsWith("/")) {
-            rootPath = rootPath + "/";
-        }
-        // most sites will be below the "/sites/" folder,
-        CmsSite site = lookupSitesFolder(rootPath);
-        if (site != null) {
-            return site.getSiteRoot();
-        }
-        // look through all folders that are not below "/sites/"
-        return lookupAdditionalSite(rootPath);
+        // the path may also be the path of a site root itself
+        return m_siteRootTree.getSiteRoot(rootPath);
     }
 
     /**
@@ -1177,12 +1152,8 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
             // set site lists to unmodifiable
             setSiteMatcherSites(m_siteMatcherSites);
 
-            // store additional site roots to optimize lookups later
-            for (String root : m_siteRootSites.keySet()) {
-                if (!root.startsWith(SITES_FOLDER) || (root.split("/").length >= 4)) {
-                    m_additionalSiteRoots.add(root);
-                }
-            }
+            // build the prefix tree used for the site root lookups
+            m_siteRootTree = CmsSiteRootTree.create(m_siteRootSites);
 
             if (m_sharedFolder == null) {
                 m_sharedFolder = DEFAULT_SHARED_FOLDER;
@@ -1427,6 +1398,7 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
         Map<String, CmsSite> siteRootSites = new HashMap<String, CmsSite>(m_siteRootSites);
         siteRootSites.remove(site.getSiteRoot());
         m_siteRootSites = Collections.unmodifiableMap(siteRootSites);
+        m_siteRootTree = CmsSiteRootTree.create(m_siteRootSites);
 
         // re-initialize, will freeze the state when finished
         initialize(cms);
@@ -1755,44 +1727,6 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
 
     }
 
-    /**
-     * Returns <code>true</code> if the given root path matches any of the stored additional sites.<p>
-     *
-     * @param rootPath the root path to check
-     *
-     * @return <code>true</code> if the given root path matches any of the stored additional sites
-     */
-    private String lookupAdditionalSite(String rootPath) {
-
-        for (int i = 0, size = m_additionalSiteRoots.size(); i < size; i++) {
-            String siteRoot = m_additionalSiteRoots.get(i);
-            if (rootPath.startsWith(siteRoot + "/")) {
-                return siteRoot;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Returns the configured site if the given root path matches site in the "/sites/" folder,
-     * or <code>null</code> otherwise.<p>
-     *
-     * @param rootPath the root path to check
-     *
-     * @return the configured site if the given root path matches site in the "/sites/" folder,
-     *      or <code>null</code> otherwise
-     */
-    private CmsSite lookupSitesFolder(String rootPath) {
-
-        int pos = rootPath.indexOf('/', SITES_FOLDER_POS);
-        if (pos > 0) {
-            // this assumes that the root path may likely start with something like "/sites/default/"
-            // just cut the first 2 directories from the root path and do a direct lookup in the internal map
-            return m_siteRootSites.get(rootPath.substring(0, pos));
-        }
-        return null;
-    }
-
     /**
      * Sets the class member variables {@link #m_siteMatcherSites} and  {@link #m_siteMatchers}
      * from the provided map of configured site matchers.<p>
@@ -0,0 +1,281 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.site;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix tree over the path segments of the configured site roots.<p>
+ *
+ * Used by the site manager to find the site for a root path. A lookup walks the segments of the
+ * given path without creating any substrings, and returns the site with the longest site root
+ * which is a prefix of the path (on a segment boundary).<p>
+ *
+ * Instances are never modified after creation, the site manager creates a new tree when the site
+ * configuration changes and replaces the old one.<p>
+ *
+ * @since 11.0.0
+ */
+public final class CmsSiteRootTree {
+
+    /**
+     * A node of the tree.<p>
+     */
+    private static final class Node {
+
+        /** The child nodes, in the same order as the segments. */
+        final Node[] m_children;
+
+        /** The sorted segment names of the children. */
+        final String[] m_segments;
+
+        /** The site with the site root ending at this node, may be <code>null</code>. */
+        final CmsSite m_site;
+
+        /** The site root ending at this node, may be <code>null</code>. */
+        final String m_siteRoot;
+
+        /**
+         * Creates a new node.<p>
+         *
+         * @param builder the builder node to copy
+         */
+        Node(BuilderNode builder) {
+
+            m_site = builder.m_site;
+            m_siteRoot = builder.m_siteRoot;
+            int size = builder.m_children.size();
+            m_segments = new String[size];
+            m_children = new Node[size];
+            int i = 0;
+            for (Map.Entry<String, BuilderNode> entry : builder.m_children.entrySet()) {
+                m_segments[i] = entry.getKey();
+                m_children[i] = new Node(entry.getValue());
+                i++;
+            }
+        }
+
+        /**
+         * Returns the child for the segment <code>path[start, end)</code>, or <code>null</code>.<p>
+         *
+         * @param path the path
+         * @param start the start index of the segment
+         * @param end the end index of the segment (exclusive)
+         *
+         * @return the child node or <code>null</code>
+         */
+        Node getChild(String path, int start, int end) {
+
+            int low = 0;
+            int high = m_segments.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compareSegment(m_segments[mid], path, start, end);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return m_children[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Mutable node used while building the tree.<p>
+     */
+    private static final class BuilderNode {
+
+        /** The children by segment name, sorted in the same order as used for the lookup. */
+        final TreeMap<String, BuilderNode> m_children = new TreeMap<String, BuilderNode>();
+
+        /** The site. */
+        CmsSite m_site;
+
+        /** The site root. */
+        String m_siteRoot;
+    }
+
+    /** The empty tree. */
+    public static final CmsSiteRootTree EMPTY = new CmsSiteRootTree(new BuilderNode());
+
+    /** The root node. */
+    private final Node m_root;
+
+    /**
+     * Creates a new tree.<p>
+     *
+     * @param root the builder root node
+     */
+    private CmsSiteRootTree(BuilderNode root) {
+
+        m_root = new Node(root);
+    }
+
+    /**
+     * Creates a new tree for the given sites.<p>
+     *
+     * Site roots without any path segment (like "/") are ignored, because they never matched a
+     * root path in the site manager.<p>
+     *
+     * @param siteRootSites the sites by their site root
+     *
+     * @return the new tree
+     */
+    public static CmsSiteRootTree create(Map<String, CmsSite> siteRootSites) {
+
+        BuilderNode root = new BuilderNode();
+        for (Map.Entry<String, CmsSite> entry : siteRootSites.entrySet()) {
+            String siteRoot = entry.getKey();
+            if ((siteRoot == null) || !siteRoot.startsWith("/")) {
+                continue;
+            }
+            BuilderNode current = root;
+            int start = 1;
+            int length = siteRoot.length();
+            while (start < length) {
+                int end = siteRoot.indexOf('/', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end > start) {
+                    String segment = siteRoot.substring(start, end);
+                    BuilderNode child = current.m_children.get(segment);
+                    if (child == null) {
+                        child = new BuilderNode();
+                        current.m_children.put(segment, child);
+                    }
+                    current = child;
+                }
+                start = end + 1;
+            }
+            if (current != root) {
+                current.m_site = entry.getValue();
+                current.m_siteRoot = siteRoot;
+            }
+        }
+        return new CmsSiteRootTree(root);
+    }
+
+    /**
+     * Compares a segment name with the segment <code>path[start, end)</code> like {@link String#compareTo(String)}.<p>
+     *
+     * @param segment the segment name
+     * @param path the path
+     * @param start the start index of the segment in the path
+     * @param end the end index of the segment in the path (exclusive)
+     *
+     * @return the comparison result
+     */
+    static int compareSegment(String segment, String path, int start, int end) {
+
+        int len1 = segment.length();
+        int len2 = end - start;
+        int lim = Math.min(len1, len2);
+        for (int k = 0; k < lim; k++) {
+            char c1 = segment.charAt(k);
+            char c2 = path.charAt(start + k);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return len1 - len2;
+    }
+
+    /**
+     * Returns the site with the longest site root which is a prefix of the given root path,
+     * or <code>null</code> if there is no such site.<p>
+     *
+     * A site root matches if the root path is either equal to it or continues with a "/" after it.<p>
+     *
+     * @param rootPath the root path
+     *
+     * @return the matching site, or <code>null</code>
+     */
+    public CmsSite getSite(String rootPath) {
+
+        Node node = getNode(rootPath);
+        return node != null ? node.m_site : null;
+    }
+
+    /**
+     * Returns the longest site root which is a prefix of the given root path,
+     * or <code>null</code> if there is no such site root.<p>
+     *
+     * @param rootPath the root path
+     *
+     * @return the matching site root, or <code>null</code>
+     *
+     * @see #getSite(String)
+     */
+    public String getSiteRoot(String rootPath) {
+
+        Node node = getNode(rootPath);
+        return node != null ? node.m_siteRoot : null;
+    }
+
+    /**
+     * Returns the deepest node with a site matching the given path.<p>
+     *
+     * @param rootPath the root path
+     *
+     * @return the deepest matching node, or <code>null</code>
+     */
+    private Node getNode(String rootPath) {
+
+        if ((rootPath == null) || !rootPath.startsWith("/")) {
+            return null;
+        }
+        Node result = null;
+        Node current = m_root;
+        int start = 1;
+        int length = rootPath.length();
+        while (start < length) {
+            int end = rootPath.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end == start) {
+                // empty segment ("//"), no site root can match beyond this point
+                break;
+            }
+            current = current.getChild(rootPath, start, end);
+            if (current == null) {
+                break;
+            }
+            if (current.m_site != null) {
+                result = current;
+            }
+            start = end + 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,1504 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single pass HTML scanner used by the {@link CmsLinkProcessor} to rewrite the link attributes of tags.<p>
+ *
+ * The HTML is copied to the result while it is tokenized. No node tree is built, and the attributes of a tag are
+ * only converted to Strings if the tag handler asks for them. The only content kept in memory is the content of
+ * <code>object</code> tags, because the <code>param</code> tags of an object are handled together with the
+ * object tag itself, before the other children of the object.<p>
+ *
+ * The result is the same as with the HTML parser previously used for the link processing (org.htmlparser):
+ * comments, JSP code, processing instructions, scripts and tags are recognized in the same way, tags are written
+ * in the same way, and missing end tags of the tags treated as composite tags by that parser are inserted at
+ * the same positions. This keeps the contents stored in the VFS unchanged.<p>
+ *
+ * Instances are not thread safe, but can be reused for processing several HTML fragments.<p>
+ *
+ * @since 11.0.0
+ */
+public final class CmsHtmlLinkScanner {
+
+    /**
+     * Handler for the start tags found by the scanner.<p>
+     */
+    public interface I_CmsTagHandler {
+
+        /**
+         * Called for every start tag, before the tag is written to the result.<p>
+         *
+         * @param tag the tag, may be changed by the handler
+         */
+        void handleTag(Tag tag);
+    }
+
+    /**
+     * A tag found by the scanner.<p>
+     *
+     * The attributes are kept as positions in the HTML, including the tag name as first attribute
+     * and the whitespace between the attributes.<p>
+     */
+    public static final class Tag {
+
+        /** The number of attributes. */
+        private int m_count;
+
+        /** The scanned HTML. */
+        private String m_html;
+
+        /** The attributes inserted after the tag name, or <code>null</code>. */
+        private String m_insertion;
+
+        /** The end positions of the attribute names. */
+        private int[] m_nameEnd;
+
+        /** The start positions of the attribute names, -1 for whitespace. */
+        private int[] m_nameStart;
+
+        /** The param tags, only used for object tags. */
+        private List<Tag> m_params;
+
+        /** The quote characters of the attribute values, 0 if not quoted. */
+        private char[] m_quote;
+
+        /** The upper case tag name. */
+        private String m_tagName;
+
+        /** The changed attribute values. */
+        private String[] m_value;
+
+        /** The end positions of the attribute values, -1 if the attribute has no value. */
+        private int[] m_valueEnd;
+
+        /** The start positions of the attribute values. */
+        private int[] m_valueStart;
+
+        /**
+         * Creates a new tag.<p>
+         *
+         * @param capacity the initial number of attributes
+         */
+        Tag(int capacity) {
+
+            m_nameStart = new int[capacity];
+            m_nameEnd = new int[capacity];
+            m_valueStart = new int[capacity];
+            m_valueEnd = new int[capacity];
+            m_quote = new char[capacity];
+            m_value = new String[capacity];
+        }
+
+        /**
+         * Returns the value of the attribute with the given name.<p>
+         *
+         * If the tag contains the attribute several times, the value of the first one is returned.<p>
+         *
+         * @param name the attribute name, not case sensitive
+         *
+         * @return the value of the attribute, or <code>null</code> if the tag has no such attribute or if the
+         *      attribute has no value
+         */
+        public String getAttribute(String name) {
+
+            int index = indexOf(name);
+            if (index < 0) {
+                return null;
+            }
+            if (m_value[index] != null) {
+                return m_value[index];
+            }
+            if (m_valueEnd[index] < 0) {
+                return null;
+            }
+            return m_html.substring(m_valueStart[index], m_valueEnd[index]);
+        }
+
+        /**
+         * Returns the <code>param</code> tags that are direct children of an <code>object</code> tag.<p>
+         *
+         * @return the param tags, empty for all other tags
+         */
+        public List<Tag> getParams() {
+
+            if (m_params == null) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(m_params);
+        }
+
+        /**
+         * Returns the tag name in upper case, without the slash of end tags.<p>
+         *
+         * @return the tag name
+         */
+        public String getTagName() {
+
+            return m_tagName;
+        }
+
+        /**
+         * Inserts an attribute directly after the tag name, separated by a blank.<p>
+         *
+         * The value is written in double quotes, without escaping.<p>
+         *
+         * @param name the attribute name
+         * @param value the attribute value
+         */
+        public void insertAttribute(String name, String value) {
+
+            String attribute = " " + name + "=\"" + value + "\"";
+            m_insertion = m_insertion == null ? attribute : attribute + m_insertion;
+        }
+
+        /**
+         * Checks if this is an end tag.<p>
+         *
+         * @return <code>true</code> if this is an end tag
+         */
+        public boolean isEndTag() {
+
+            return m_html.charAt(m_nameStart[0]) == '/';
+        }
+
+        /**
+         * Sets the value of an existing attribute.<p>
+         *
+         * The quotes of the attribute are kept, unless the value contains whitespace and the attribute is not quoted.
+         * If the tag contains the attribute several times, the first one is changed. If the tag does not contain the
+         * attribute, nothing is changed.<p>
+         *
+         * @param name the attribute name, not case sensitive
+         * @param value the new value
+         */
+        public void setAttribute(String name, String value) {
+
+            boolean needed = false;
+            boolean singleq = true;
+            boolean doubleq = true;
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                if (Character.isWhitespace(ch)) {
+                    needed = true;
+                } else if (ch == '\'') {
+                    singleq = false;
+                } else if (ch == '"') {
+                    doubleq = false;
+                }
+            }
+            char quote = 0;
+            if (needed) {
+                if (doubleq) {
+                    quote = '"';
+                } else if (singleq) {
+                    quote = '\'';
+                } else {
+                    quote = '"';
+                    value = value.replace("\"", "&quot;");
+                }
+            }
+            int index = indexOf(name);
+            if (index >= 0) {
+                m_value[index] = value;
+                if (quote != 0) {
+                    m_quote[index] = quote;
+                }
+            }
+        }
+
+        /**
+         * Appends an attribute.<p>
+         *
+         * @param nameStart the start position of the name, -1 for whitespace
+         * @param nameEnd the end position of the name
+         * @param valueStart the start position of the value
+         * @param valueEnd the end position of the value, -1 if the attribute has no value
+         * @param quote the quote character, 0 if the value is not quoted
+         */
+        void add(int nameStart, int nameEnd, int valueStart, int valueEnd, char quote) {
+
+            if (m_count == m_nameStart.length) {
+                int capacity = m_count * 2;
+                m_nameStart = Arrays.copyOf(m_nameStart, capacity);
+                m_nameEnd = Arrays.copyOf(m_nameEnd, capacity);
+                m_valueStart = Arrays.copyOf(m_valueStart, capacity);
+                m_valueEnd = Arrays.copyOf(m_valueEnd, capacity);
+                m_quote = Arrays.copyOf(m_quote, capacity);
+                m_value = Arrays.copyOf(m_value, capacity);
+            }
+            m_nameStart[m_count] = nameStart;
+            m_nameEnd[m_count] = nameEnd;
+            m_valueStart[m_count] = valueStart;
+            m_valueEnd[m_count] = valueEnd;
+            m_quote[m_count] = quote;
+            m_value[m_count] = null;
+            m_count += 1;
+        }
+
+        /**
+         * Adds a param tag to this object tag.<p>
+         *
+         * @param param the param tag
+         */
+        void addParam(Tag param) {
+
+            if (m_params == null) {
+                m_params = new ArrayList<Tag>();
+            }
+            m_params.add(param);
+        }
+
+        /**
+         * Appends the HTML of this tag.<p>
+         *
+         * @param result the buffer to append to
+         */
+        void appendTo(StringBuilder result) {
+
+            result.append('<');
+            for (int i = 0; i < m_count; i++) {
+                if ((i == 1) && (m_insertion != null)) {
+                    result.append(m_insertion);
+                }
+                if (m_nameStart[i] >= 0) {
+                    result.append(m_html, m_nameStart[i], m_nameEnd[i]);
+                }
+                if ((m_nameEnd[i] >= 0) && (m_valueStart[i] >= 0)) {
+                    // the assignment, without the opening quote
+                    result.append(m_html, m_nameEnd[i], m_valueStart[i]);
+                    char last = result.charAt(result.length() - 1);
+                    if ((last == '"') || (last == '\'')) {
+                        result.setLength(result.length() - 1);
+                    }
+                }
+                if ((m_value[i] != null) || (m_valueEnd[i] >= 0)) {
+                    char quote = m_quote[i];
+                    if (quote != 0) {
+                        result.append(quote);
+                    }
+                    if (m_value[i] != null) {
+                        result.append(m_value[i]);
+                    } else {
+                        result.append(m_html, m_valueStart[i], m_valueEnd[i]);
+                    }
+                    if (quote != 0) {
+                        result.append(quote);
+                    }
+                }
+            }
+            if ((m_count == 1) && (m_insertion != null)) {
+                result.append(m_insertion);
+            }
+            result.append('>');
+        }
+
+        /**
+         * Returns a copy of this tag.<p>
+         *
+         * @return the copy
+         */
+        Tag copy() {
+
+            Tag copy = new Tag(Math.max(m_count, 1));
+            System.arraycopy(m_nameStart, 0, copy.m_nameStart, 0, m_count);
+            System.arraycopy(m_nameEnd, 0, copy.m_nameEnd, 0, m_count);
+            System.arraycopy(m_valueStart, 0, copy.m_valueStart, 0, m_count);
+            System.arraycopy(m_valueEnd, 0, copy.m_valueEnd, 0, m_count);
+            System.arraycopy(m_quote, 0, copy.m_quote, 0, m_count);
+            System.arraycopy(m_value, 0, copy.m_value, 0, m_count);
+            copy.m_count = m_count;
+            copy.m_html = m_html;
+            copy.m_insertion = m_insertion;
+            copy.m_tagName = m_tagName;
+            return copy;
+        }
+
+        /**
+         * Returns the raw tag name, as written in the HTML.<p>
+         *
+         * @return the raw tag name
+         */
+        String getRawTagName() {
+
+            return m_html.substring(m_nameStart[0], m_nameEnd[0]);
+        }
+
+        /**
+         * Checks if this tag is closed with a slash, like <code>&lt;br/&gt;</code>.<p>
+         *
+         * @return <code>true</code> if this is an empty XML tag
+         */
+        boolean isEmptyXmlTag() {
+
+            int last = m_count - 1;
+            return (m_nameStart[last] >= 0) && (m_html.charAt(m_nameEnd[last] - 1) == '/');
+        }
+
+        /**
+         * Initializes the tag name after the attributes have been added.<p>
+         */
+        void finish() {
+
+            String name = getRawTagName().toUpperCase(Locale.ENGLISH);
+            if (name.startsWith("/")) {
+                name = name.substring(1);
+            }
+            if (name.endsWith("/")) {
+                name = name.substring(0, name.length() - 1);
+            }
+            m_tagName = name;
+        }
+
+        /**
+         * Resets the tag for scanning the next tag.<p>
+         *
+         * @param html the scanned HTML
+         */
+        void reset(String html) {
+
+            m_html = html;
+            m_count = 0;
+            m_insertion = null;
+            m_params = null;
+            m_tagName = null;
+        }
+
+        /**
+         * Returns the index of the first attribute with the given name.<p>
+         *
+         * @param name the attribute name, not case sensitive
+         *
+         * @return the index, or -1 if the tag has no such attribute
+         */
+        private int indexOf(String name) {
+
+            for (int i = 0; i < m_count; i++) {
+                int start = m_nameStart[i];
+                if ((start >= 0)
+                    && ((m_nameEnd[i] - start) == name.length())
+                    && m_html.regionMatches(true, start, name, 0, name.length())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * An open composite tag.<p>
+     */
+    private static final class Element {
+
+        /** The upper case tag name. */
+        String m_name;
+
+        /** The object tag, only set for object tags. */
+        Tag m_object;
+
+        /** The raw tag name, used for the end tag if the tag is not closed. */
+        String m_rawName;
+
+        /**
+         * Creates a new element.<p>
+         *
+         * @param name the upper case tag name
+         * @param rawName the raw tag name
+         * @param object the object tag, or <code>null</code>
+         */
+        Element(String name, String rawName, Tag object) {
+
+            m_name = name;
+            m_rawName = rawName;
+            m_object = object;
+        }
+    }
+
+    /** Marker for the end of the HTML. */
+    private static final int EOF = -1;
+
+    /** The start tags which end the composite tags, by tag name. */
+    private static final Map<String, Set<String>> ENDERS = new HashMap<String, Set<String>>();
+
+    /** The end tags which end the composite tags, by tag name. */
+    private static final Map<String, Set<String>> END_TAG_ENDERS = new HashMap<String, Set<String>>();
+
+    /** The tag name of object tags. */
+    private static final String TAG_OBJECT = "OBJECT";
+
+    /** The tag name of param tags. */
+    private static final String TAG_PARAM = "PARAM";
+
+    /** The tag name of script tags. */
+    private static final String TAG_SCRIPT = "SCRIPT";
+
+    /** The tag name of style tags. */
+    private static final String TAG_STYLE = "STYLE";
+
+    /** Token type for the end of the HTML. */
+    private static final int TOKEN_EOF = 0;
+
+    /** Token type for tags, including JSP code and processing instructions. */
+    private static final int TOKEN_TAG = 2;
+
+    /** Token type for text and comments. */
+    private static final int TOKEN_TEXT = 1;
+
+    static {
+        String body = "BODY,HTML";
+        String headings = "H1,H2,H3,H4,H5,H6";
+        String tableParts = "TBODY,TFOOT,THEAD";
+        addComposite("A", "A,P,DIV,TD,TR,FORM,LI", "P,DIV,TD,TR,FORM,LI," + body);
+        addComposite("APPLET", "", body);
+        addComposite("BLOCKQUOTE", "", "BLOCKQUOTE," + body);
+        addComposite("BODY", "BODY", "HTML");
+        addComposite("DD", "DD,DT,DL", "DL," + body);
+        addComposite("DIV", "", body);
+        addComposite("DL", "", body);
+        addComposite("DT", "DD,DT,DL", "DL," + body);
+        addComposite("FORM", "FORM", "HTML,BODY,TABLE");
+        addComposite("FRAMESET", "", "HTML");
+        for (String heading : headings.split(",")) {
+            addComposite(heading, headings + ",PARAM", body);
+        }
+        addComposite("HEAD", "HEAD,BODY", "HTML");
+        addComposite("HTML", "", "");
+        addComposite("LABEL", "LABEL", "");
+        addComposite("LI", "LI", "UL,OL," + body);
+        addComposite(TAG_OBJECT, "", body);
+        addComposite("OL", "", body);
+        addComposite("OPTION", "INPUT,TEXTAREA,SELECT,OPTION", "SELECT,FORM," + body);
+        addComposite(
+            "P",
+            "ADDRESS,BLOCKQUOTE,CENTER,DD,DIR,DIV,DL,DT,FIELDSET,FORM,"
+                + headings
+                + ",HR,ISINDEX,LI,MENU,NOFRAMES,OL,P,PARAM,PRE",
+            body);
+        addComposite("SELECT", "INPUT,TEXTAREA,SELECT", "FORM," + body);
+        addComposite("SPAN", "", "");
+        addComposite("TABLE", "", body);
+        addComposite("TD", "TD,TR," + tableParts, "TR," + tableParts + ",TABLE");
+        addComposite("TEXTAREA", "INPUT,TEXTAREA,SELECT,OPTION", "FORM," + body);
+        addComposite("TH", "TH,TR," + tableParts, "TR," + tableParts + ",TABLE");
+        addComposite("TITLE", "TITLE,BODY", "HEAD,HTML");
+        addComposite("TR", "TR," + tableParts, tableParts + ",TABLE");
+        addComposite("UL", "", body);
+    }
+
+    /** Bookmarks used while scanning the attributes of a tag. */
+    private int[] m_bookmarks = new int[8];
+
+    /** The content kept while an object tag is open, contains Tags and Strings. */
+    private List<Object> m_buffer = new ArrayList<Object>();
+
+    /** The handler for the start tags. */
+    private I_CmsTagHandler m_handler;
+
+    /** The HTML to scan. */
+    private String m_html;
+
+    /** The length of the HTML. */
+    private int m_length;
+
+    /** The number of open object tags. */
+    private int m_objects;
+
+    /** The current position. */
+    private int m_pos;
+
+    /** Indicates if the last token has to be returned again. */
+    private boolean m_pushback;
+
+    /** The result buffer, reused for all calls. */
+    private StringBuilder m_result = new StringBuilder(1024);
+
+    /** The open composite tags. */
+    private List<Element> m_stack = new ArrayList<Element>();
+
+    /** The last scanned tag, reused for all tags. */
+    private Tag m_tag = new Tag(16);
+
+    /** The end position of the last text token. */
+    private int m_textEnd;
+
+    /** The start position of the last text token. */
+    private int m_textStart;
+
+    /**
+     * Creates a new scanner.<p>
+     *
+     * @param handler the handler for the start tags
+     */
+    public CmsHtmlLinkScanner(I_CmsTagHandler handler) {
+
+        m_handler = handler;
+    }
+
+    /**
+     * Scans the given HTML, calls the tag handler for all start tags and returns the resulting HTML.<p>
+     *
+     * @param html the HTML to scan
+     *
+     * @return the HTML with the changes made by the tag handler
+     */
+    public String process(String html) {
+
+        m_html = html;
+        m_length = html.length();
+        m_pos = 0;
+        m_pushback = false;
+        m_objects = 0;
+        m_stack.clear();
+        m_buffer.clear();
+        m_result.setLength(0);
+        m_result.ensureCapacity(m_length + (m_length >> 3) + 16);
+        try {
+            int token;
+            while ((token = nextToken()) != TOKEN_EOF) {
+                if (token == TOKEN_TEXT) {
+                    emitText(m_textStart, m_textEnd);
+                    continue;
+                }
+                Tag tag = m_tag;
+                if (m_stack.isEmpty()) {
+                    if (tag.isEndTag()) {
+                        emitTag(tag);
+                    } else {
+                        startTag(tag);
+                    }
+                } else {
+                    Element current = m_stack.get(m_stack.size() - 1);
+                    if (tag.isEndTag() && tag.getTagName().equals(current.m_name)) {
+                        close(tag);
+                    } else if (isEndedBy(current.m_name, tag)) {
+                        // the current tag is closed before the tag, which is then scanned again
+                        m_pushback = true;
+                        close(null);
+                    } else if (!tag.isEndTag()) {
+                        startTag(tag);
+                    } else {
+                        endTag(tag);
+                    }
+                }
+            }
+            while (!m_stack.isEmpty()) {
+                close(null);
+            }
+            return m_result.toString();
+        } finally {
+            m_html = null;
+            m_stack.clear();
+            m_buffer.clear();
+            m_tag.reset(null);
+            if (m_result.capacity() > (1024 * 1024)) {
+                // don't keep huge buffers
+                m_result = new StringBuilder(1024);
+            }
+        }
+    }
+
+    /**
+     * Registers a tag treated as composite tag, that is a tag with children which is closed automatically.<p>
+     *
+     * @param name the tag name
+     * @param enders the start tags which close the tag
+     * @param endTagEnders the end tags which close the tag
+     */
+    private static void addComposite(String name, String enders, String endTagEnders) {
+
+        ENDERS.put(name, toSet(enders));
+        END_TAG_ENDERS.put(name, toSet(endTagEnders));
+    }
+
+    /**
+     * Converts a comma separated list to a set.<p>
+     *
+     * @param list the list
+     *
+     * @return the set
+     */
+    private static Set<String> toSet(String list) {
+
+        if (list.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<String>(Arrays.asList(list.split(",")));
+    }
+
+    /**
+     * Adds a tag as child of the current composite tag.<p>
+     *
+     * @param tag the tag, as returned by {@link #emitTag(Tag)}
+     */
+    private void addChild(Tag tag) {
+
+        if (!m_stack.isEmpty() && TAG_PARAM.equals(tag.getTagName())) {
+            Tag object = m_stack.get(m_stack.size() - 1).m_object;
+            if (object != null) {
+                object.addParam(tag);
+            }
+        }
+    }
+
+    /**
+     * Adds the whitespace between the attributes of a tag.<p>
+     *
+     * @param tag the tag
+     * @param b the bookmarks
+     */
+    private void addWhitespace(Tag tag, int[] b) {
+
+        if (b[1] > b[0]) {
+            tag.add(-1, -1, b[0], b[1], (char)0);
+        }
+    }
+    /**
+     * Closes the current composite tag.<p>
+     *
+     * @param endTag the end tag, or <code>null</code> if the tag is closed without end tag
+     */
+    private void close(Tag endTag) {
+
+        Element element = m_stack.remove(m_stack.size() - 1);
+        if (endTag != null) {
+            emitTag(endTag);
+        } else {
+            emitText("</" + element.m_rawName + ">");
+        }
+        if (element.m_object != null) {
+            m_objects -= 1;
+            if (m_objects == 0) {
+                flushBuffer();
+            }
+        }
+    }
+
+    /**
+     * Writes a tag to the result, or keeps it in the buffer while an object tag is open.<p>
+     *
+     * @param tag the tag
+     *
+     * @return the tag written, which is a copy if the tag was buffered
+     */
+    private Tag emitTag(Tag tag) {
+
+        if (m_objects > 0) {
+            Tag copy = tag.copy();
+            m_buffer.add(copy);
+            return copy;
+        }
+        if (!tag.isEndTag()) {
+            m_handler.handleTag(tag);
+        }
+        tag.appendTo(m_result);
+        return tag;
+    }
+
+    /**
+     * Writes a part of the HTML to the result, or keeps it in the buffer while an object tag is open.<p>
+     *
+     * @param start the start position
+     * @param end the end position
+     */
+    private void emitText(int start, int end) {
+
+        if (m_objects > 0) {
+            m_buffer.add(m_html.substring(start, end));
+        } else {
+            m_result.append(m_html, start, end);
+        }
+    }
+
+    /**
+     * Writes a text to the result, or keeps it in the buffer while an object tag is open.<p>
+     *
+     * @param text the text
+     */
+    private void emitText(String text) {
+
+        if (m_objects > 0) {
+            m_buffer.add(text);
+        } else {
+            m_result.append(text);
+        }
+    }
+
+    /**
+     * Handles an end tag which does not close the current composite tag.<p>
+     *
+     * If the end tag belongs to a composite tag opened before, all tags up to that one are closed and the end tag
+     * itself is dropped. Otherwise the end tag is written as it is.<p>
+     *
+     * @param tag the end tag
+     */
+    private void endTag(Tag tag) {
+
+        String name = tag.getTagName();
+        String opener = name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+        if (ENDERS.containsKey(opener)) {
+            int index = -1;
+            for (int i = m_stack.size() - 2; (index == -1) && (i >= 0); i--) {
+                String ancestor = m_stack.get(i).m_name;
+                if (name.equals(ancestor) || isEndedBy(ancestor, tag)) {
+                    index = i;
+                }
+            }
+            if (index != -1) {
+                while (m_stack.size() > index) {
+                    close(null);
+                }
+                return;
+            }
+        }
+        addChild(emitTag(tag));
+    }
+
+    /**
+     * Calls the tag handler for the buffered tags and writes the buffered content to the result.<p>
+     */
+    private void flushBuffer() {
+
+        for (Object item : m_buffer) {
+            if (item instanceof Tag) {
+                Tag tag = (Tag)item;
+                if (!tag.isEndTag()) {
+                    m_handler.handleTag(tag);
+                }
+                tag.appendTo(m_result);
+            } else {
+                m_result.append((String)item);
+            }
+        }
+        m_buffer.clear();
+    }
+
+    /**
+     * Checks if the given composite tag is closed by a tag.<p>
+     *
+     * @param name the name of the composite tag
+     * @param tag the tag
+     *
+     * @return <code>true</code> if the composite tag is closed by the tag
+     */
+    private boolean isEndedBy(String name, Tag tag) {
+
+        Set<String> enders = tag.isEndTag() ? END_TAG_ENDERS.get(name) : ENDERS.get(name);
+        return enders.contains(tag.getTagName());
+    }
+
+    /**
+     * Returns the next token, either a previously pushed back one or a newly scanned one.<p>
+     *
+     * @return the token type
+     */
+    private int nextToken() {
+
+        if (m_pushback) {
+            m_pushback = false;
+            return TOKEN_TAG;
+        }
+        return scanNode();
+    }
+
+    /**
+     * Reads the next character.<p>
+     *
+     * A carriage return is returned as line feed, together with a following line feed.<p>
+     *
+     * @return the character, or {@link #EOF}
+     */
+    private int read() {
+
+        if (m_pos >= m_length) {
+            // the position is not advanced at the end
+            return EOF;
+        }
+        char ch = m_html.charAt(m_pos++);
+        if (ch == '\r') {
+            if ((m_pos < m_length) && (m_html.charAt(m_pos) == '\n')) {
+                m_pos += 1;
+            }
+            return '\n';
+        }
+        return ch;
+    }
+
+    /**
+     * Returns a token of the given type, converting tags and comments with less than two characters to text.<p>
+     *
+     * @param type the token type
+     * @param start the start position
+     * @param end the end position
+     *
+     * @return the token type
+     */
+    private int returnToken(int type, int start, int end) {
+
+        int length = end - start;
+        if (length == 0) {
+            return TOKEN_EOF;
+        }
+        if ((type == TOKEN_TAG) && (length >= 2)) {
+            m_tag.finish();
+            return TOKEN_TAG;
+        }
+        m_textStart = start;
+        m_textEnd = end;
+        return TOKEN_TEXT;
+    }
+
+    /**
+     * Scans the content of a script or style tag, up to the next end tag.<p>
+     *
+     * @param name the tag name
+     */
+    private void scanCdata(String name) {
+
+        int start = m_pos;
+        int state = 0;
+        boolean done = false;
+        while (!done) {
+            int ch = read();
+            if (ch == EOF) {
+                break;
+            }
+            switch (state) {
+                case 0:
+                    if (ch == '<') {
+                        state = 1;
+                    }
+                    break;
+                case 1:
+                    if (ch == '/') {
+                        state = 2;
+                    } else if (ch == '!') {
+                        ch = read();
+                        if (ch == EOF) {
+                            done = true;
+                        } else if (ch == '-') {
+                            ch = read();
+                            if (ch == EOF) {
+                                done = true;
+                            } else {
+                                state = ch == '-' ? 3 : 0;
+                            }
+                        } else {
+                            state = 0;
+                        }
+                    } else {
+                        state = 0;
+                    }
+                    break;
+                case 2:
+                    if (Character.isLetter((char)ch)) {
+                        done = true;
+                        unread();
+                        unread();
+                        unread();
+                    } else {
+                        state = 0;
+                    }
+                    break;
+                default:
+                    // inside a comment
+                    if (ch == '-') {
+                        ch = read();
+                        if (ch == EOF) {
+                            done = true;
+                        } else if (ch == '-') {
+                            ch = read();
+                            if (ch == EOF) {
+                                done = true;
+                            } else if (ch == '>') {
+                                state = 0;
+                            } else {
+                                unread();
+                                unread();
+                            }
+                        } else {
+                            unread();
+                        }
+                    }
+                    break;
+            }
+        }
+        if (m_pos > start) {
+            emitText(start, m_pos);
+        }
+        int position = m_pos;
+        if ((scanNode() == TOKEN_TAG) && m_tag.isEndTag() && name.equals(m_tag.getTagName())) {
+            emitTag(m_tag);
+        } else {
+            m_pos = position;
+            emitText(TAG_SCRIPT.equals(name) ? "</script>" : "</style>");
+        }
+    }
+
+    /**
+     * Skips a Java block comment, after the opening characters have been read.<p>
+     */
+    private void scanComment() {
+
+        int ch;
+        do {
+            do {
+                ch = read();
+            } while ((ch != EOF) && (ch != '*'));
+            ch = read();
+            if (ch == '*') {
+                unread();
+            }
+        } while ((ch != EOF) && (ch != '/'));
+    }
+
+    /**
+     * Skips JIS encoded text, after the escape sequence starting it has been read.<p>
+     */
+    private void scanJis() {
+
+        int state = 0;
+        int ch;
+        while ((ch = read()) != EOF) {
+            switch (state) {
+                case 0:
+                    if (ch == 0x1b) {
+                        state = 1;
+                    }
+                    break;
+                case 1:
+                    state = ch == '(' ? 2 : 0;
+                    break;
+                default:
+                    if ((ch == 'B') || (ch == 'J') || (ch == 'H') || (ch == 'I')) {
+                        return;
+                    }
+                    state = 0;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Scans JSP code, after the opening <code>&lt;</code> has been read.<p>
+     *
+     * @param start the start position
+     *
+     * @return the token type
+     */
+    private int scanJsp(int start) {
+
+        m_tag.reset(m_html);
+        int state = 0;
+        int code = 0;
+        boolean done = false;
+        while (!done) {
+            int ch = read();
+            switch (state) {
+                case 0:
+                    if (ch == '%') {
+                        state = 1;
+                    } else {
+                        done = true;
+                    }
+                    break;
+                case 1:
+                    if ((ch == '=') || (ch == '@')) {
+                        code = m_pos;
+                        m_tag.add(start + 1, code, -1, -1, (char)0);
+                        state = 2;
+                    } else if ((ch == '>') || (ch == EOF)) {
+                        done = true;
+                    } else {
+                        code = m_pos - 1;
+                        m_tag.add(start + 1, code, -1, -1, (char)0);
+                        state = 2;
+                    }
+                    break;
+                case 2:
+                    if ((ch == '"') || (ch == '\'')) {
+                        state = ch;
+                    } else if (ch == '%') {
+                        state = 3;
+                    } else if (ch == '/') {
+                        ch = read();
+                        if (ch == '/') {
+                            // line comment
+                            do {
+                                ch = read();
+                                if (ch == EOF) {
+                                    done = true;
+                                }
+                            } while ((ch != EOF) && (ch != '\n'));
+                        } else if (ch == '*') {
+                            scanComment();
+                        } else if (ch != EOF) {
+                            unread();
+                        }
+                    } else if ((ch == '>') || (ch == EOF)) {
+                        done = true;
+                    }
+                    break;
+                case 3:
+                    if (ch == '>') {
+                        state = 4;
+                        done = true;
+                    } else if (ch == EOF) {
+                        done = true;
+                    } else {
+                        state = 2;
+                    }
+                    break;
+                default:
+                    // inside a quoted string
+                    if (ch == state) {
+                        state = 2;
+                    } else if (ch == EOF) {
+                        done = true;
+                    }
+                    break;
+            }
+        }
+        if (state != 4) {
+            // not terminated, treated as text
+            return scanText(start, true);
+        }
+        int end = m_pos - 2;
+        m_tag.add(code, end, -1, -1, (char)0);
+        m_tag.add(end, end + 1, -1, -1, (char)0);
+        return returnToken(TOKEN_TAG, start, m_pos);
+    }
+
+    /**
+     * Scans the next node.<p>
+     *
+     * @return the token type
+     */
+    private int scanNode() {
+
+        int start = m_pos;
+        int ch = read();
+        if (ch == EOF) {
+            return TOKEN_EOF;
+        }
+        if (ch != '<') {
+            unread();
+            return scanText(start, false);
+        }
+        ch = read();
+        if (ch == EOF) {
+            return returnToken(TOKEN_TEXT, start, m_pos);
+        }
+        if (ch == '%') {
+            unread();
+            return scanJsp(start);
+        }
+        if (ch == '?') {
+            unread();
+            return scanPi(start);
+        }
+        if ((ch == '/') || Character.isLetter((char)ch)) {
+            unread();
+            return scanTag(start);
+        }
+        if (ch == '!') {
+            ch = read();
+            if (ch == EOF) {
+                return returnToken(TOKEN_TEXT, start, m_pos);
+            }
+            if (ch == '>') {
+                return returnToken(TOKEN_TEXT, start, m_pos);
+            }
+            unread();
+            if (ch == '-') {
+                return scanRemark(start);
+            }
+            unread();
+            return scanTag(start);
+        }
+        unread();
+        return scanText(start, false);
+    }
+
+    /**
+     * Scans a processing instruction, after the opening <code>&lt;</code> has been read.<p>
+     *
+     * @param start the start position
+     *
+     * @return the token type
+     */
+    private int scanPi(int start) {
+
+        m_tag.reset(m_html);
+        int state = 0;
+        int code = 0;
+        boolean done = false;
+        while (!done) {
+            int ch = read();
+            switch (state) {
+                case 0:
+                    if (ch == '?') {
+                        code = m_pos;
+                        m_tag.add(start + 1, code, -1, -1, (char)0);
+                        state = 1;
+                    } else {
+                        done = true;
+                    }
+                    break;
+                case 1:
+                    if ((ch == '"') || (ch == '\'')) {
+                        state = ch;
+                    } else if ((ch == '>') || (ch == EOF)) {
+                        done = true;
+                    } else if (ch == '?') {
+                        state = 2;
+                    }
+                    break;
+                case 2:
+                    if (ch == '>') {
+                        state = 3;
+                        done = true;
+                    } else if (ch == EOF) {
+                        done = true;
+                    } else {
+                        state = 1;
+                    }
+                    break;
+                default:
+                    // inside a quoted string
+                    if (ch == state) {
+                        state = 1;
+                    } else if (ch == EOF) {
+                        done = true;
+                    }
+                    break;
+            }
+        }
+        if (state != 3) {
+            // not terminated, treated as text
+            return scanText(start, true);
+        }
+        int end = m_pos - 2;
+        m_tag.add(code, end, -1, -1, (char)0);
+        m_tag.add(end, end + 1, -1, -1, (char)0);
+        return returnToken(TOKEN_TAG, start, m_pos);
+    }
+
+    /**
+     * Scans a comment, after <code>&lt;!</code> has been read.<p>
+     *
+     * @param start the start position
+     *
+     * @return the token type
+     */
+    private int scanRemark(int start) {
+
+        int state = 0;
+        boolean done = false;
+        while (!done) {
+            int ch = read();
+            if (ch == EOF) {
+                break;
+            }
+            switch (state) {
+                case 0:
+                    if (ch != '-') {
+                        return scanText(start, false);
+                    }
+                    state = 1;
+                    break;
+                case 1:
+                    if (ch != '-') {
+                        return scanText(start, false);
+                    }
+                    ch = read();
+                    if ((ch == EOF) || (ch == '>')) {
+                        done = true;
+                    } else {
+                        unread();
+                        state = 2;
+                    }
+                    break;
+                case 2:
+                    if (ch == '-') {
+                        state = 3;
+                    }
+                    break;
+                case 3:
+                    state = ch == '-' ? 4 : 2;
+                    break;
+                default:
+                    if (ch == '>') {
+                        done = true;
+                    } else if (!Character.isWhitespace((char)ch)) {
+                        state = 2;
+                    }
+                    break;
+            }
+        }
+        return returnToken(TOKEN_TEXT, start, m_pos);
+    }
+
+    /**
+     * Scans a tag, after the opening <code>&lt;</code> has been read.<p>
+     *
+     * @param start the start position
+     *
+     * @return the token type
+     */
+    private int scanTag(int start) {
+
+        Tag tag = m_tag;
+        tag.reset(m_html);
+        int[] b = m_bookmarks;
+        int state = 0;
+        boolean done = false;
+        b[0] = m_pos;
+        while (!done) {
+            b[state + 1] = m_pos;
+            int ch = read();
+            switch (state) {
+                case 0:
+                    // between attributes
+                    if ((ch == EOF) || (ch == '>') || (ch == '<')) {
+                        if (ch == '<') {
+                            unread();
+                            b[1] = m_pos;
+                        }
+                        addWhitespace(tag, b);
+                        done = true;
+                    } else if (!Character.isWhitespace((char)ch)) {
+                        addWhitespace(tag, b);
+                        state = 1;
+                    }
+                    break;
+                case 1:
+                    // attribute name
+                    if ((ch == EOF) || (ch == '>') || (ch == '<')) {
+                        if (ch == '<') {
+                            unread();
+                            b[2] = m_pos;
+                        }
+                        tag.add(b[1], b[2], -1, -1, (char)0);
+                        done = true;
+                    } else if (Character.isWhitespace((char)ch)) {
+                        b[6] = b[2];
+                        state = 6;
+                    } else if (ch == '=') {
+                        state = 2;
+                    }
+                    break;
+                case 2:
+                    // after the equals sign
+                    if ((ch == EOF) || (ch == '>')) {
+                        tag.add(b[1], b[2], b[2] + 1, -1, (char)0);
+                        done = true;
+                    } else if (ch == '\'') {
+                        state = 4;
+                        b[4] = b[3];
+                    } else if (ch == '"') {
+                        state = 5;
+                        b[5] = b[3];
+                    } else if (!Character.isWhitespace((char)ch)) {
+                        state = 3;
+                    }
+                    break;
+                case 3:
+                    // unquoted value
+                    if ((ch == EOF) || (ch == '>')) {
+                        tag.add(b[1], b[2], b[3], b[4], (char)0);
+                        done = true;
+                    } else if (Character.isWhitespace((char)ch)) {
+                        tag.add(b[1], b[2], b[3], b[4], (char)0);
+                        b[0] = b[4];
+                        state = 0;
+                    }
+                    break;
+                case 4:
+                    // single quoted value
+                    if (ch == EOF) {
+                        tag.add(b[1], b[2], b[4] + 1, b[5], '\'');
+                        done = true;
+                    } else if (ch == '\'') {
+                        tag.add(b[1], b[2], b[4] + 1, b[5], '\'');
+                        b[0] = b[5] + 1;
+                        state = 0;
+                    }
+                    break;
+                case 5:
+                    // double quoted value
+                    if (ch == EOF) {
+                        tag.add(b[1], b[2], b[5] + 1, b[6], '"');
+                        done = true;
+                    } else if (ch == '"') {
+                        tag.add(b[1], b[2], b[5] + 1, b[6], '"');
+                        b[0] = b[6] + 1;
+                        state = 0;
+                    }
+                    break;
+                default:
+                    // whitespace after an attribute name
+                    if ((ch != EOF) && Character.isWhitespace((char)ch)) {
+                        break;
+                    }
+                    if (ch == '=') {
+                        b[2] = b[6];
+                        b[3] = b[7];
+                        state = 2;
+                    } else {
+                        tag.add(b[1], b[2], -1, -1, (char)0);
+                        b[0] = b[6];
+                        unread();
+                        state = 0;
+                    }
+                    break;
+            }
+        }
+        return returnToken(TOKEN_TAG, start, m_pos);
+    }
+
+    /**
+     * Scans text up to the next tag.<p>
+     *
+     * @param start the start position
+     * @param quotesmart if <code>true</code>, quoted strings and Java comments are skipped
+     *
+     * @return the token type
+     */
+    private int scanText(int start, boolean quotesmart) {
+
+        int quote = 0;
+        boolean done = false;
+        while (!done) {
+            int ch = read();
+            if (ch == EOF) {
+                done = true;
+            } else if (ch == 0x1b) {
+                // JIS escape sequence
+                ch = read();
+                if (ch == EOF) {
+                    done = true;
+                } else if (ch == '$') {
+                    ch = read();
+                    if (ch == EOF) {
+                        done = true;
+                    } else if ((ch == '@') || (ch == 'B')) {
+                        scanJis();
+                    } else {
+                        unread();
+                        unread();
+                    }
+                } else {
+                    unread();
+                }
+            } else if (quotesmart && (quote == 0) && ((ch == '\'') || (ch == '"'))) {
+                quote = ch;
+            } else if (quotesmart && (quote != 0) && (ch == '\\')) {
+                ch = read();
+                if ((ch != EOF) && (ch != '\\') && (ch != quote)) {
+                    unread();
+                }
+            } else if (quotesmart && (ch == quote)) {
+                quote = 0;
+            } else if (quotesmart && (quote == 0) && (ch == '/')) {
+                ch = read();
+                if (ch == EOF) {
+                    done = true;
+                } else if (ch == '/') {
+                    do {
+                        ch = read();
+                    } while ((ch != EOF) && (ch != '\n'));
+                } else if (ch == '*') {
+                    scanComment();
+                } else {
+                    unread();
+                }
+            } else if ((quote == 0) && (ch == '<')) {
+                ch = read();
+                if (ch == EOF) {
+                    done = true;
+                } else if ((ch == '/')
+                    || Character.isLetter((char)ch)
+                    || (ch == '!')
+                    || (ch == '%')
+                    || (ch == '?')) {
+                    done = true;
+                    unread();
+                    unread();
+                } else {
+                    unread();
+                }
+            }
+        }
+        return returnToken(TOKEN_TEXT, start, m_pos);
+    }
+
+    /**
+     * Handles a start tag.<p>
+     *
+     * @param tag the tag
+     */
+    private void startTag(Tag tag) {
+
+        String name = tag.getTagName();
+        if (TAG_SCRIPT.equals(name) || TAG_STYLE.equals(name)) {
+            emitTag(tag);
+            scanCdata(name);
+        } else if (ENDERS.containsKey(name) && !tag.isEmptyXmlTag()) {
+            boolean object = TAG_OBJECT.equals(name);
+            if (object) {
+                // keep the content until the object is closed
+                m_objects += 1;
+            }
+            Tag emitted = emitTag(tag);
+            m_stack.add(new Element(name, emitted.getRawTagName(), object ? emitted : null));
+        } else {
+            addChild(emitTag(tag));
+        }
+    }
+
+    /**
+     * Moves the position back by one character.<p>
+     */
+    private void unread() {
+
+        m_pos -= 1;
+        if ((m_pos > 0) && (m_html.charAt(m_pos) == '\n') && (m_html.charAt(m_pos - 1) == '\r')) {
+            m_pos -= 1;
+        }
+    }
+}
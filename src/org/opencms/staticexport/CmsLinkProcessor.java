@@ -35,29 +35,30 @@ import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
 import org.opencms.relations.CmsLink;
 import org.opencms.relations.CmsRelationType;
-import org.opencms.util.CmsHtmlParser;
+import org.opencms.staticexport.CmsHtmlLinkScanner.Tag;
 import org.opencms.util.CmsMacroResolver;
 import org.opencms.util.CmsRequestUtil;
 import org.opencms.util.CmsStringUtil;
 
-import java.util.Vector;
-
-import org.htmlparser.Attribute;
-import org.htmlparser.Node;
-import org.htmlparser.Tag;
-import org.htmlparser.tags.ImageTag;
-import org.htmlparser.tags.LinkTag;
-import org.htmlparser.tags.ObjectTag;
-import org.htmlparser.util.ParserException;
-import org.htmlparser.util.SimpleNodeIterator;
-
 /**
- * Implements the HTML parser node visitor pattern to
- * exchange all links on the page.<p>
+ * Exchanges all links on the page, using a {@link CmsHtmlLinkScanner}.<p>
+ *
+ * The link processor was based on the org.htmlparser library before, and the following incompatible changes were
+ * made when it was replaced with the scanner:
+ * <ul>
+ * <li>The link processor no longer extends {@link org.opencms.util.CmsHtmlParser}.
+ * <li>The protected <code>process...Tag</code> methods, {@link #processLink(Tag, String, CmsRelationType)} and
+ * {@link #setAltAttributeFromTitle(Tag, String)} take a {@link CmsHtmlLinkScanner.Tag} instead of an
+ * org.htmlparser tag, and the param tags of an object tag are available with
+ * {@link CmsHtmlLinkScanner.Tag#getParams()}.
+ * <li>{@link #processLinks(String)} and {@link #replaceLinks(String)} no longer throw a
+ * <code>org.htmlparser.util.ParserException</code>.
+ * </ul>
+ * Subclasses overriding these methods have to be adjusted. The processed contents are the same as before.<p>
  *
  * @since 6.0.0
  */
-public class CmsLinkProcessor extends CmsHtmlParser {
+public class CmsLinkProcessor implements CmsHtmlLinkScanner.I_CmsTagHandler {
 
     /** Constant for the attribute name. */
     public static final String ATTRIBUTE_HREF = "href";
@@ -74,12 +75,21 @@ public class CmsLinkProcessor extends CmsHtmlParser {
     /** HTML start. */
     public static final String HTML_START = "<html><body>";
 
+    /** Constant for the tag name. */
+    public static final String TAG_A = "A";
+
     /** Constant for the tag name. */
     public static final String TAG_AREA = "AREA";
 
     /** Constant for the tag name. */
     public static final String TAG_EMBED = "EMBED";
 
+    /** Constant for the tag name. */
+    public static final String TAG_IMG = "IMG";
+
+    /** Constant for the tag name. */
+    public static final String TAG_OBJECT = "OBJECT";
+
     /** Constant for the tag name. */
     public static final String TAG_PARAM = "PARAM";
 
@@ -98,9 +108,6 @@ public class CmsLinkProcessor extends CmsHtmlParser {
     /** The current users OpenCms context, containing the users permission and site root context. */
     private CmsObject m_cms;
 
-    /** The selected encoding to use for parsing the HTML. */
-    private String m_encoding;
-
     /** The link table used for link macro replacements. */
     private CmsLinkTable m_linkTable;
 
@@ -113,19 +120,19 @@ public class CmsLinkProcessor extends CmsHtmlParser {
     /** Another OpenCms context based on the current users OpenCms context, but with the site root set to '/'. */
     private CmsObject m_rootCms;
 
+    /** The scanner used to find the tags. */
+    private CmsHtmlLinkScanner m_scanner;
+
     /**
      * Creates a new link processor.<p>
      *
      * @param cms the current users OpenCms context
      * @param linkTable the link table to use
-     * @param encoding the encoding to use for parsing the HTML content
+     * @param encoding the encoding of the HTML content, not needed since the content is processed as String
      * @param relativePath additional path for links with relative path (only used in "replace" mode)
      */
     public CmsLinkProcessor(CmsObject cms, CmsLinkTable linkTable, String encoding, String relativePath) {
 
-        // echo mode must be on for link processor
-        super(true);
-
         m_cms = cms;
         if (m_cms != null) {
             try {
@@ -137,8 +144,8 @@ public class CmsLinkProcessor extends CmsHtmlParser {
             }
         }
         m_linkTable = linkTable;
-        m_encoding = encoding;
         m_relativePath = relativePath;
+        m_scanner = new CmsHtmlLinkScanner(this);
     }
 
     /**
@@ -203,6 +210,27 @@ public class CmsLinkProcessor extends CmsHtmlParser {
         return m_linkTable;
     }
 
+    /**
+     * Processes a start tag found by the scanner.<p>
+     *
+     * @see org.opencms.staticexport.CmsHtmlLinkScanner.I_CmsTagHandler#handleTag(org.opencms.staticexport.CmsHtmlLinkScanner.Tag)
+     */
+    public void handleTag(Tag tag) {
+
+        String tagName = tag.getTagName();
+        if (TAG_A.equals(tagName)) {
+            processLinkTag(tag);
+        } else if (TAG_IMG.equals(tagName)) {
+            processImageTag(tag);
+        } else if (TAG_OBJECT.equals(tagName)) {
+            processObjectTag(tag);
+        } else if (TAG_EMBED.equals(tagName)) {
+            processEmbedTag(tag);
+        } else if (TAG_AREA.equals(tagName)) {
+            processAreaTag(tag);
+        }
+    }
+
     /**
      * Starts link processing for the given content in processing mode.<p>
      *
@@ -210,13 +238,11 @@ public class CmsLinkProcessor extends CmsHtmlParser {
      *
      * @param content the content to process
      * @return the processed content with replaced macros
-     *
-     * @throws ParserException if something goes wrong
      */
-    public String processLinks(String content) throws ParserException {
+    public String processLinks(String content) {
 
         m_mode = PROCESS_LINKS;
-        return process(content, m_encoding);
+        return m_scanner.process(content);
     }
 
     /**
@@ -226,39 +252,11 @@ public class CmsLinkProcessor extends CmsHtmlParser {
      *
      * @param content the content to process
      * @return the processed content with replaced links
-     *
-     * @throws ParserException if something goes wrong
      */
-    public String replaceLinks(String content) throws ParserException {
+    public String replaceLinks(String content) {
 
         m_mode = REPLACE_LINKS;
-        return process(content, m_encoding);
-    }
-
-    /**
-     * Visitor method to process a tag (start).<p>
-     *
-     * @param tag the tag to process
-     */
-    @Override
-    public void visitTag(Tag tag) {
-
-        if (tag instanceof LinkTag) {
-            processLinkTag((LinkTag)tag);
-        } else if (tag instanceof ImageTag) {
-            processImageTag((ImageTag)tag);
-        } else if (tag instanceof ObjectTag) {
-            processObjectTag((ObjectTag)tag);
-        } else {
-            // there are no specialized tag classes for these tags :(
-            if (TAG_EMBED.equals(tag.getTagName())) {
-                processEmbedTag(tag);
-            } else if (TAG_AREA.equals(tag.getTagName())) {
-                processAreaTag(tag);
-            }
-        }
-        // append text content of the tag (may have been changed by above methods)
-        super.visitTag(tag);
+        return m_scanner.process(content);
     }
 
     /**
@@ -289,7 +287,7 @@ public class CmsLinkProcessor extends CmsHtmlParser {
      *
      * @param tag the tag to process
      */
-    protected void processImageTag(ImageTag tag) {
+    protected void processImageTag(Tag tag) {
 
         processLink(tag, ATTRIBUTE_SRC, CmsRelationType.valueOf(tag.getTagName()));
     }
@@ -353,7 +351,7 @@ public class CmsLinkProcessor extends CmsHtmlParser {
                             // link management check
                             link.checkConsistency(m_cms);
 
-                            if ("IMG".equals(tag.getTagName()) || TAG_AREA.equals(tag.getTagName())) {
+                            if (TAG_IMG.equals(tag.getTagName()) || TAG_AREA.equals(tag.getTagName())) {
                                 // now ensure the image has the "alt" attribute set
                                 setAltAttributeFromTitle(tag, internalUri);
                             }
@@ -376,7 +374,7 @@ public class CmsLinkProcessor extends CmsHtmlParser {
      *
      * @param tag the tag to process
      */
-    protected void processLinkTag(LinkTag tag) {
+    protected void processLinkTag(Tag tag) {
 
         processLink(tag, ATTRIBUTE_HREF, CmsRelationType.valueOf(tag.getTagName()));
     }
@@ -386,7 +384,7 @@ public class CmsLinkProcessor extends CmsHtmlParser {
      *
      * @param tag the tag to process
      */
-    protected void processObjectTag(ObjectTag tag) {
+    protected void processObjectTag(Tag tag) {
 
         CmsRelationType type = CmsRelationType.valueOf(tag.getTagName());
         for (int i = 0; i < OBJECT_TAG_LINKED_ATTRIBS.length; i++) {
@@ -397,15 +395,8 @@ public class CmsLinkProcessor extends CmsHtmlParser {
                 break;
             }
         }
-        SimpleNodeIterator itChildren = tag.children();
-        while (itChildren.hasMoreNodes()) {
-            Node node = itChildren.nextNode();
-            if (node instanceof Tag) {
-                Tag childTag = (Tag)node;
-                if (TAG_PARAM.equals(childTag.getTagName())) {
-                    processLink(childTag, ATTRIBUTE_VALUE, type);
-                }
-            }
+        for (Tag param : tag.getParams()) {
+            processLink(param, ATTRIBUTE_VALUE, type);
         }
     }
 
@@ -433,12 +424,8 @@ public class CmsLinkProcessor extends CmsHtmlParser {
                     // property can't be read, ignore
                 }
             }
-            // some editors add a "/" at the end of the tag, we must make sure to insert before that
-            @SuppressWarnings("unchecked")
-            Vector<Attribute> attrs = tag.getAttributesEx();
-            // first element is always the tag name
-            attrs.add(1, new Attribute(" "));
-            attrs.add(2, new Attribute("alt", value == null ? "" : value, '"'));
+            // some editors add a "/" at the end of the tag, so the attribute is inserted after the tag name
+            tag.insertAttribute("alt", value == null ? "" : value);
         }
     }
 
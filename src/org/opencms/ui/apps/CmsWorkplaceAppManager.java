@@ -67,6 +67,7 @@ import org.opencms.ui.apps.linkvalidation.CmsLinkValidationFolder;
 import org.opencms.ui.apps.lists.CmsListManagerConfiguration;
 import org.opencms.ui.apps.logfile.CmsLogFileConfiguration;
 import org.opencms.ui.apps.modules.CmsModuleAppConfiguration;
+import org.opencms.ui.apps.profiling.CmsRequestProfilingConfiguration;
 import org.opencms.ui.apps.projects.CmsProjectManagerConfiguration;
 import org.opencms.ui.apps.projects.CmsProjectOverviewConfiguration;
 import org.opencms.ui.apps.publishqueue.CmsPublishQueueConfiguration;
@@ -803,6 +804,7 @@ public class CmsWorkplaceAppManager {
                 new CmsDbPropertiesAppConfiguration(),
                 new CmsSearchindexAppConfiguration(),
                 new CmsLogFileConfiguration(),
+                new CmsRequestProfilingConfiguration(),
                 new CmsSourceSearchAppConfiguration(),
                 new CmsListManagerConfiguration(),
                 new CmsSiteManagerConfiguration(),
@@ -1901,6 +1901,30 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String GUI_QUICK_LAUNCH_TITLE_0 = "GUI_QUICK_LAUNCH_TITLE_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUEST_PROFILING_ADMIN_TOOL_HELP_0 = "GUI_REQUEST_PROFILING_ADMIN_TOOL_HELP_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUEST_PROFILING_ADMIN_TOOL_NAME_0 = "GUI_REQUEST_PROFILING_ADMIN_TOOL_NAME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUEST_PROFILING_COUNT_0 = "GUI_REQUEST_PROFILING_COUNT_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUEST_PROFILING_DISABLED_0 = "GUI_REQUEST_PROFILING_DISABLED_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUEST_PROFILING_PERCENTILE_1 = "GUI_REQUEST_PROFILING_PERCENTILE_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUEST_PROFILING_RESET_0 = "GUI_REQUEST_PROFILING_RESET_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUEST_PROFILING_SAMPLE_INTERVAL_0 = "GUI_REQUEST_PROFILING_SAMPLE_INTERVAL_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUEST_PROFILING_SLOWEST_0 = "GUI_REQUEST_PROFILING_SLOWEST_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String GUI_RESOURCETYPE_APP_NAME_0 = "GUI_RESOURCETYPE_APP_NAME_0";
 
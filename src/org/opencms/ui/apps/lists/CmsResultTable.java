@@ -184,7 +184,7 @@ public class CmsResultTable extends CmsFileTable {
             if (resourceItem == null) {
                 resourceItem = m_container.addItem(itemId);
             }
-            fillItemDefault(resourceItem, cms, resource, locale);
+            fillItemDefault(resourceItem, cms, resource, locale, m_prefetchedData);
             for (I_ResourcePropertyProvider provider : m_propertyProviders) {
                 provider.addItemProperties(resourceItem, cms, resource, locale);
             }
@@ -203,4 +203,14 @@ public class CmsResultTable extends CmsFileTable {
         return m_dateFieldKey;
     }
 
+    /**
+     * @see org.opencms.ui.components.CmsResourceTable#isDeferringColumns()
+     */
+    @Override
+    protected boolean isDeferringColumns() {
+
+        // the items are search results, which can not be read again by the item id
+        return false;
+    }
+
 }
@@ -0,0 +1,170 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.ui.apps.profiling;
+
+import org.opencms.db.timing.CmsRequestProfile;
+import org.opencms.db.timing.CmsRequestProfilingHandler;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.ui.CmsVaadinUtils;
+import org.opencms.ui.FontOpenCms;
+import org.opencms.ui.apps.A_CmsWorkplaceApp;
+import org.opencms.ui.apps.Messages;
+import org.opencms.ui.components.CmsToolBar;
+import org.opencms.util.CmsStringUtil;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.vaadin.shared.ui.ContentMode;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.Button.ClickEvent;
+import com.vaadin.ui.Button.ClickListener;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.VerticalLayout;
+
+/**
+ * App showing the durations of the profiled requests and the breakdown of the slowest requests.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsRequestProfilingApp extends A_CmsWorkplaceApp {
+
+    /** The label showing the durations. */
+    private Label m_durations;
+
+    /** The label showing the slowest requests. */
+    private Label m_slowest;
+
+    /**
+     * @see org.opencms.ui.apps.A_CmsWorkplaceApp#getBreadCrumbForState(java.lang.String)
+     */
+    @Override
+    protected LinkedHashMap<String, String> getBreadCrumbForState(String state) {
+
+        LinkedHashMap<String, String> crumbs = new LinkedHashMap<String, String>();
+        if (CmsStringUtil.isEmptyOrWhitespaceOnly(state)) {
+            crumbs.put("", CmsVaadinUtils.getMessageText(Messages.GUI_REQUEST_PROFILING_ADMIN_TOOL_NAME_0));
+        }
+        return crumbs;
+    }
+
+    /**
+     * @see org.opencms.ui.apps.A_CmsWorkplaceApp#getComponentForState(java.lang.String)
+     */
+    @Override
+    protected Component getComponentForState(String state) {
+
+        m_rootLayout.setMainHeightFull(false);
+        final CmsRequestProfilingHandler handler = CmsRequestProfilingHandler.getInstance();
+        if (handler == null) {
+            return CmsVaadinUtils.getInfoLayout(Messages.GUI_REQUEST_PROFILING_DISABLED_0);
+        }
+        Button reset = CmsToolBar.createButton(
+            FontOpenCms.RESET,
+            CmsVaadinUtils.getMessageText(Messages.GUI_REQUEST_PROFILING_RESET_0));
+        reset.addClickListener(new ClickListener() {
+
+            private static final long serialVersionUID = 1L;
+
+            public void buttonClick(ClickEvent event) {
+
+                handler.reset();
+                update(handler);
+            }
+        });
+        m_uiContext.addToolbarButton(reset);
+
+        VerticalLayout layout = new VerticalLayout();
+        layout.setMargin(true);
+        m_durations = new Label();
+        m_durations.setContentMode(ContentMode.HTML);
+        layout.addComponent(m_durations);
+        m_slowest = new Label();
+        m_slowest.setContentMode(ContentMode.PREFORMATTED);
+        m_slowest.setCaption(CmsVaadinUtils.getMessageText(Messages.GUI_REQUEST_PROFILING_SLOWEST_0));
+        m_slowest.setWidth("100%");
+        layout.addComponent(m_slowest);
+        update(handler);
+        return layout;
+    }
+
+    /**
+     * @see org.opencms.ui.apps.A_CmsWorkplaceApp#getSubNavEntries(java.lang.String)
+     */
+    @Override
+    protected List<NavEntry> getSubNavEntries(String state) {
+
+        return null;
+    }
+
+    /**
+     * Updates the labels with the current statistics.<p>
+     *
+     * @param handler the request profiling handler
+     */
+    protected void update(CmsRequestProfilingHandler handler) {
+
+        StringBuffer durations = new StringBuffer("<table>");
+        appendRow(
+            durations,
+            CmsVaadinUtils.getMessageText(Messages.GUI_REQUEST_PROFILING_SAMPLE_INTERVAL_0),
+            String.valueOf(handler.getSampleInterval()));
+        appendRow(
+            durations,
+            CmsVaadinUtils.getMessageText(Messages.GUI_REQUEST_PROFILING_COUNT_0),
+            String.valueOf(handler.getProfiledRequestCount()));
+        for (int percentile : new int[] {50, 90, 99}) {
+            appendRow(
+                durations,
+                CmsVaadinUtils.getMessageText(Messages.GUI_REQUEST_PROFILING_PERCENTILE_1, String.valueOf(percentile)),
+                handler.getDurationPercentile(percentile) + " ms");
+        }
+        durations.append("</table>");
+        m_durations.setValue(durations.toString());
+
+        StringBuffer slowest = new StringBuffer();
+        for (CmsRequestProfile profile : handler.getSlowestProfiles()) {
+            slowest.append(profile.getBreakdown()).append("\n\n");
+        }
+        m_slowest.setValue(slowest.toString());
+    }
+
+    /**
+     * Appends a table row.<p>
+     *
+     * @param buffer the buffer to append the row to
+     * @param name the name
+     * @param value the value
+     */
+    private void appendRow(StringBuffer buffer, String name, String value) {
+
+        buffer.append("<tr><td>").append(CmsEncoder.escapeXml(name)).append("</td><td>");
+        buffer.append(CmsEncoder.escapeXml(value)).append("</td></tr>");
+    }
+}
@@ -59,6 +59,7 @@ import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
@@ -77,6 +78,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -290,6 +292,102 @@ public class CmsResourceTable extends CustomComponent {
 
             return getAllItemIds().size();
         }
+
+        /**
+         * Returns the ids of all items in the container, not considering any filters.<p>
+         *
+         * @return the item ids
+         */
+        protected List<?> getUnfilteredItemIds() {
+
+            return getAllItemIds();
+        }
+    }
+
+    /**
+     * Data read in bulk for all resources of a table, used to fill the items without reading it for each resource.<p>
+     */
+    public static class PrefetchedData {
+
+        /** The user and project names by id, filled while the items are filled. */
+        private Map<CmsUUID, String> m_nameCache = new HashMap<CmsUUID, String>();
+
+        /** The resources of the current project, <code>null</code> if not needed or not readable. */
+        private List<String> m_projectResources;
+
+        /** The properties by structure id, <code>null</code> if not needed or not readable. */
+        private Map<CmsUUID, List<CmsProperty>> m_properties;
+
+        /** The columns not to fill. */
+        private Set<CmsResourceTableProperty> m_skippedColumns;
+
+        /**
+         * Reads the data needed for the given columns of the given resources.<p>
+         *
+         * @param cms the CMS context
+         * @param resources the resources
+         * @param columns the columns of the table
+         * @param skippedColumns the columns not to fill
+         */
+        public PrefetchedData(
+            CmsObject cms,
+            Collection<CmsResource> resources,
+            Collection<?> columns,
+            Set<CmsResourceTableProperty> skippedColumns) {
+
+            m_skippedColumns = skippedColumns;
+            if (hasPropertyColumns(columns)) {
+                try {
+                    m_properties = cms.readPropertyObjects(resources, false);
+                } catch (CmsException e) {
+                    LOG.debug("Unable to read properties of the table resources.", e);
+                }
+            }
+            if (columns.contains(PROPERTY_INSIDE_PROJECT)) {
+                try {
+                    m_projectResources = cms.readProjectResources(cms.getRequestContext().getCurrentProject());
+                } catch (CmsException e) {
+                    LOG.debug("Unable to read the project resources.", e);
+                }
+            }
+        }
+
+        /**
+         * Returns the prefetched properties of a resource.<p>
+         *
+         * @param resource the resource
+         *
+         * @return the properties, or <code>null</code> if they have not been read
+         */
+        public List<CmsProperty> getProperties(CmsResource resource) {
+
+            return m_properties != null ? m_properties.get(resource.getStructureId()) : null;
+        }
+
+        /**
+         * Checks if a column should not be filled.<p>
+         *
+         * @param column the column
+         *
+         * @return <code>true</code> if the column should not be filled
+         */
+        public boolean isSkipped(CmsResourceTableProperty column) {
+
+            return (m_skippedColumns != null) && m_skippedColumns.contains(column);
+        }
+
+        /**
+         * Initializes a resource util object with the prefetched data.<p>
+         *
+         * @param resUtil the resource util object
+         */
+        public void prepare(CmsResourceUtil resUtil) {
+
+            resUtil.setNameCache(m_nameCache);
+            if (m_projectResources != null) {
+                resUtil.setProjectResources(m_projectResources);
+            }
+        }
     }
 
     /** Flag to mark columns as initially collapsed.*/
@@ -301,15 +399,35 @@ public class CmsResourceTable extends CustomComponent {
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsResourceTable.class);
 
+    /** The columns which are expensive to fill and therefore only filled when shown. */
+    private static final List<CmsResourceTableProperty> DEFERRABLE_COLUMNS = Collections.unmodifiableList(
+        Arrays.asList(PROPERTY_PERMISSIONS, PROPERTY_USER_CREATED, PROPERTY_USER_LOCKED, PROPERTY_USER_MODIFIED));
+
+    /** The columns which show resource properties. */
+    private static final List<CmsResourceTableProperty> PROPERTY_COLUMNS = Collections.unmodifiableList(
+        Arrays.asList(
+            PROPERTY_CACHE,
+            PROPERTY_COPYRIGHT,
+            PROPERTY_IN_NAVIGATION,
+            PROPERTY_NAVIGATION_POSITION,
+            PROPERTY_NAVIGATION_TEXT,
+            PROPERTY_TITLE));
+
     /** Serial version id. */
     private static final long serialVersionUID = 1L;
 
     /** The resource data container. */
     protected ItemContainer m_container = new ItemContainer();
 
+    /** The collapsed columns which have not been filled yet. */
+    protected Set<CmsResourceTableProperty> m_deferredColumns = new HashSet<CmsResourceTableProperty>();
+
     /** The table used to display the resource data. */
     protected Table m_fileTable = new Table();
 
+    /** The data read in bulk while the table is filled, <code>null</code> otherwise. */
+    protected transient PrefetchedData m_prefetchedData;
+
     /** Property provider for additional columns. */
     protected List<I_ResourcePropertyProvider> m_propertyProviders;
 
@@ -324,6 +442,12 @@ public class CmsResourceTable extends CustomComponent {
         m_fileTable.setContainerDataSource(m_container);
         setCompositionRoot(m_fileTable);
         m_fileTable.setRowHeaderMode(RowHeaderMode.HIDDEN);
+        m_fileTable.addColumnCollapseListener(event -> {
+            Object column = event.getPropertyId();
+            if (m_deferredColumns.contains(column) && !m_fileTable.isColumnCollapsed(column)) {
+                fillDeferredColumns();
+            }
+        });
     }
 
     /**
@@ -335,6 +459,25 @@ public class CmsResourceTable extends CustomComponent {
      */
     public static void fillItemDefault(Item resourceItem, CmsObject cms, CmsResource resource, Locale locale) {
 
+        fillItemDefault(resourceItem, cms, resource, locale, null);
+    }
+
+    /**
+     * Static helper method to initialize the 'standard' properties of a data item from a given resource.<p>
+     *
+     * @param resourceItem the resource item to fill
+     * @param cms the CMS context
+     * @param resource the resource
+     * @param locale the locale
+     * @param data the data read in bulk for all resources of the table, may be <code>null</code>
+     */
+    public static void fillItemDefault(
+        Item resourceItem,
+        CmsObject cms,
+        CmsResource resource,
+        Locale locale,
+        PrefetchedData data) {
+
         if (resource == null) {
             LOG.error("Error rendering item for 'null' resource");
             return;
@@ -349,15 +492,23 @@ public class CmsResourceTable extends CustomComponent {
             LOG.warn("CmsObject was 'null', using thread local CmsObject");
         }
         CmsResourceUtil resUtil = new CmsResourceUtil(cms, resource);
+        if (data != null) {
+            data.prepare(resUtil);
+        }
         Map<String, CmsProperty> resourceProps = null;
-        try {
-            List<CmsProperty> props = cms.readPropertyObjects(resource, false);
-            resourceProps = new HashMap<String, CmsProperty>();
-            for (CmsProperty prop : props) {
-                resourceProps.put(prop.getName(), prop);
+        if (hasPropertyColumns(resourceItem.getItemPropertyIds())) {
+            try {
+                List<CmsProperty> props = data != null ? data.getProperties(resource) : null;
+                if (props == null) {
+                    props = cms.readPropertyObjects(resource, false);
+                }
+                resourceProps = new HashMap<String, CmsProperty>();
+                for (CmsProperty prop : props) {
+                    resourceProps.put(prop.getName(), prop);
+                }
+            } catch (CmsException e1) {
+                LOG.debug("Unable to read properties for resource '" + resource.getRootPath() + "'.", e1);
             }
-        } catch (CmsException e1) {
-            LOG.debug("Unable to read properties for resource '" + resource.getRootPath() + "'.", e1);
         }
         I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(resource);
         if (resourceItem.getItemProperty(PROPERTY_TYPE_ICON) != null) {
@@ -472,7 +623,7 @@ public class CmsResourceTable extends CustomComponent {
             }
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_PERMISSIONS) != null) {
+        if ((resourceItem.getItemProperty(PROPERTY_PERMISSIONS) != null) && !isSkipped(data, PROPERTY_PERMISSIONS)) {
             resourceItem.getItemProperty(PROPERTY_PERMISSIONS).setValue(resUtil.getPermissionString());
         }
 
@@ -480,7 +631,8 @@ public class CmsResourceTable extends CustomComponent {
             resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED).setValue(Long.valueOf(resource.getDateLastModified()));
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_USER_MODIFIED) != null) {
+        if ((resourceItem.getItemProperty(PROPERTY_USER_MODIFIED) != null)
+            && !isSkipped(data, PROPERTY_USER_MODIFIED)) {
             resourceItem.getItemProperty(PROPERTY_USER_MODIFIED).setValue(resUtil.getUserLastModified());
         }
 
@@ -488,7 +640,7 @@ public class CmsResourceTable extends CustomComponent {
             resourceItem.getItemProperty(PROPERTY_DATE_CREATED).setValue(Long.valueOf(resource.getDateCreated()));
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_USER_CREATED) != null) {
+        if ((resourceItem.getItemProperty(PROPERTY_USER_CREATED) != null) && !isSkipped(data, PROPERTY_USER_CREATED)) {
             resourceItem.getItemProperty(PROPERTY_USER_CREATED).setValue(resUtil.getUserCreated());
         }
 
@@ -518,7 +670,7 @@ public class CmsResourceTable extends CustomComponent {
             resourceItem.getItemProperty(PROPERTY_STATE).setValue(resource.getState());
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_USER_LOCKED) != null) {
+        if ((resourceItem.getItemProperty(PROPERTY_USER_LOCKED) != null) && !isSkipped(data, PROPERTY_USER_LOCKED)) {
             resourceItem.getItemProperty(PROPERTY_USER_LOCKED).setValue(resUtil.getLockedByName());
         }
     }
@@ -600,9 +752,18 @@ public class CmsResourceTable extends CustomComponent {
         if (clearFilter) {
             m_container.removeAllContainerFilters();
         }
-        for (CmsResource resource : resources) {
-            fillItem(cms, resource, wpLocale);
+        m_deferredColumns.clear();
+        Set<CmsResourceTableProperty> skipped = new HashSet<CmsResourceTableProperty>();
+        if (isDeferringColumns()) {
+            List<Object> visible = Arrays.asList(m_fileTable.getVisibleColumns());
+            for (CmsResourceTableProperty column : DEFERRABLE_COLUMNS) {
+                if (visible.contains(column) && m_fileTable.isColumnCollapsed(column)) {
+                    skipped.add(column);
+                }
+            }
         }
+        fillItems(cms, resources, wpLocale, skipped);
+        m_deferredColumns.addAll(skipped);
         if (sort) {
             m_fileTable.sort();
         }
@@ -719,6 +880,30 @@ public class CmsResourceTable extends CustomComponent {
         m_fileTable.setValue(o);
     }
 
+    /**
+     * Fills the collapsed columns which have not been filled yet, e.g. because they have been expanded.<p>
+     */
+    protected void fillDeferredColumns() {
+
+        if (m_deferredColumns.isEmpty()) {
+            return;
+        }
+        m_deferredColumns.clear();
+        CmsObject cms = A_CmsUI.getCmsObject();
+        @SuppressWarnings("unchecked")
+        List<CmsUUID> ids = itemIdsToUUIDs((List<String>)m_container.getUnfilteredItemIds());
+        try {
+            List<CmsResource> resources = cms.readResources(ids, CmsResourceFilter.ALL);
+            fillItems(
+                cms,
+                resources,
+                OpenCms.getWorkplaceManager().getWorkplaceLocale(cms),
+                Collections.<CmsResourceTableProperty> emptySet());
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+    }
+
     /**
      * Fills the file item data.<p>
      *
@@ -732,12 +917,25 @@ public class CmsResourceTable extends CustomComponent {
         if (resourceItem == null) {
             resourceItem = m_container.addItem(resource.getStructureId().toString());
         }
-        fillItemDefault(resourceItem, cms, resource, locale);
+        fillItemDefault(resourceItem, cms, resource, locale, m_prefetchedData);
         for (I_ResourcePropertyProvider provider : m_propertyProviders) {
             provider.addItemProperties(resourceItem, cms, resource, locale);
         }
     }
 
+    /**
+     * Returns if collapsed columns which are expensive to fill are only filled once they are expanded.<p>
+     *
+     * This requires the item ids to be the structure ids of the resources, as the resources are read again
+     * by id when a column is expanded.<p>
+     *
+     * @return <code>true</code> if collapsed columns are filled deferred
+     */
+    protected boolean isDeferringColumns() {
+
+        return true;
+    }
+
     /**
      * Transforms the given item ids into UUIDs.<p>
      *
@@ -754,4 +952,59 @@ public class CmsResourceTable extends CustomComponent {
         return ids;
     }
 
+    /**
+     * Checks if one of the given columns shows resource properties.<p>
+     *
+     * @param columns the columns
+     *
+     * @return <code>true</code> if the properties of the resources are needed
+     */
+    private static boolean hasPropertyColumns(Collection<?> columns) {
+
+        for (CmsResourceTableProperty column : PROPERTY_COLUMNS) {
+            if (columns.contains(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a column should not be filled.<p>
+     *
+     * @param data the prefetched data, may be <code>null</code>
+     * @param column the column
+     *
+     * @return <code>true</code> if the column should not be filled
+     */
+    private static boolean isSkipped(PrefetchedData data, CmsResourceTableProperty column) {
+
+        return (data != null) && data.isSkipped(column);
+    }
+
+    /**
+     * Fills the items for the given resources, reading the data needed for all resources in bulk.<p>
+     *
+     * @param cms the CMS context
+     * @param resources the resources
+     * @param locale the workplace locale
+     * @param skippedColumns the columns not to fill
+     */
+    private void fillItems(
+        CmsObject cms,
+        List<CmsResource> resources,
+        Locale locale,
+        Set<CmsResourceTableProperty> skippedColumns) {
+
+        m_prefetchedData = new PrefetchedData(cms, resources, m_container.getContainerPropertyIds(), skippedColumns);
+        try {
+            for (CmsResource resource : resources) {
+                fillItem(cms, resource, locale);
+            }
+        } finally {
+            // the data is only valid while filling, single items updated later are read again
+            m_prefetchedData = null;
+        }
+    }
+
 }
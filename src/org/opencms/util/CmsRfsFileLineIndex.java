@@ -0,0 +1,338 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Index of the line offsets of a RFS text file, used to read any window of lines without reading the file
+ * from the start.<p>
+ *
+ * The index stores the byte offset of every {@link #CHECKPOINT_INTERVAL}th line, so reading a window only
+ * has to skip a few lines. The index is extended incrementally: each {@link #update()} only scans the bytes
+ * appended since the last update, which makes following a growing log file cheap. If the file was truncated
+ * or replaced, e.g. by log rotation, the index is rebuilt.<p>
+ *
+ * The file is accessed with memory mapped buffers. Lines are separated by <code>'\n'</code> bytes, so the
+ * index can only be used for files in encodings where the line feed is the single byte <code>0x0A</code>,
+ * see {@link #isSupported(Charset)}.<p>
+ *
+ * The indexes are kept per file, use {@link #getIndex(String)} to get the up to date index of a file.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsRfsFileLineIndex {
+
+    /**
+     * Handles the lines read from the file.<p>
+     */
+    public interface I_CmsLineHandler {
+
+        /**
+         * Handles a line.<p>
+         *
+         * @param lineNumber the number of the line, starting with 0
+         * @param line the line without the line separator
+         *
+         * @return <code>true</code> to continue reading, <code>false</code> to stop
+         */
+        boolean handleLine(long lineNumber, String line);
+    }
+
+    /** The number of lines between two stored offsets. */
+    public static final int CHECKPOINT_INTERVAL = 128;
+
+    /** The number of bytes at the start of the file used to detect a replaced file. */
+    private static final int HEAD_SIZE = 256;
+
+    /** The indexes by canonical file path, the least recently used indexes are dropped. */
+    private static final Map<String, CmsRfsFileLineIndex> INDEXES = new LinkedHashMap<String, CmsRfsFileLineIndex>(
+        16,
+        0.75f,
+        true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CmsRfsFileLineIndex> eldest) {
+
+            return size() > MAX_INDEXES;
+        }
+    };
+
+    /** The maximum size of a mapped region of the file. */
+    private static final int MAP_SIZE = 32 * 1024 * 1024;
+
+    /** The maximum number of kept indexes. */
+    private static final int MAX_INDEXES = 16;
+
+    /** The byte offsets of every {@link #CHECKPOINT_INTERVAL}th line. */
+    private long[] m_checkpoints = new long[] {0};
+
+    /** The number of used entries in the checkpoint array. */
+    private int m_checkpointCount = 1;
+
+    /** The length of the file up to and including the last line separator. */
+    private long m_completeLength;
+
+    /** The file. */
+    private File m_file;
+
+    /** The first bytes of the file, used to detect a replaced file. */
+    private byte[] m_head = new byte[0];
+
+    /** The length of the file at the last update. */
+    private long m_length;
+
+    /** The number of lines terminated by a line separator. */
+    private long m_lineCount;
+
+    /**
+     * Creates a new, empty index.<p>
+     *
+     * Use {@link #getIndex(String)} to share the indexes of the files.<p>
+     *
+     * @param file the file to index
+     */
+    public CmsRfsFileLineIndex(File file) {
+
+        m_file = file;
+    }
+
+    /**
+     * Returns the updated index for the given file.<p>
+     *
+     * @param path the path of the file
+     *
+     * @return the updated index
+     *
+     * @throws IOException if reading the file fails
+     */
+    public static CmsRfsFileLineIndex getIndex(String path) throws IOException {
+
+        File file = new File(path).getCanonicalFile();
+        CmsRfsFileLineIndex index;
+        synchronized (INDEXES) {
+            index = INDEXES.get(file.getPath());
+            if (index == null) {
+                index = new CmsRfsFileLineIndex(file);
+                INDEXES.put(file.getPath(), index);
+            }
+        }
+        index.update();
+        return index;
+    }
+
+    /**
+     * Checks if files in the given encoding can be indexed.<p>
+     *
+     * @param charset the encoding of the file
+     *
+     * @return <code>true</code> if the line feed is encoded as the single byte <code>0x0A</code>
+     */
+    public static boolean isSupported(Charset charset) {
+
+        return Arrays.equals(new byte[] {'\n'}, "\n".getBytes(charset))
+            && Arrays.equals(new byte[] {'\r'}, "\r".getBytes(charset));
+    }
+
+    /**
+     * Returns the number of lines of the file at the last update.<p>
+     *
+     * An unterminated last line is counted as a line.<p>
+     *
+     * @return the number of lines
+     */
+    public synchronized long getLineCount() {
+
+        return m_lineCount + (m_length > m_completeLength ? 1 : 0);
+    }
+
+    /**
+     * Reads the lines of the file starting with the given line, up to the end of the file at the last update
+     * or until the handler stops reading.<p>
+     *
+     * @param startLine the number of the first line to read, starting with 0
+     * @param charset the encoding of the file
+     * @param handler the handler for the lines
+     *
+     * @throws IOException if reading the file fails
+     */
+    public void readLines(long startLine, Charset charset, I_CmsLineHandler handler) throws IOException {
+
+        long offset;
+        long line;
+        long length;
+        synchronized (this) {
+            if (startLine >= getLineCount()) {
+                return;
+            }
+            int checkpoint = (int)(Math.max(0, startLine) / CHECKPOINT_INTERVAL);
+            offset = m_checkpoints[checkpoint];
+            line = (long)checkpoint * CHECKPOINT_INTERVAL;
+            length = m_length;
+        }
+        ByteArrayOutputStream lineBytes = new ByteArrayOutputStream(256);
+        try (FileChannel channel = FileChannel.open(m_file.toPath(), StandardOpenOption.READ)) {
+            while (offset < length) {
+                int size = (int)Math.min(MAP_SIZE, length - offset);
+                MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, offset, size);
+                for (int i = 0; i < size; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '\n') {
+                        if ((line >= startLine) && !handler.handleLine(line, decode(lineBytes, charset))) {
+                            return;
+                        }
+                        lineBytes.reset();
+                        line++;
+                    } else if (line >= startLine) {
+                        lineBytes.write(b);
+                    }
+                }
+                offset += size;
+            }
+            if ((lineBytes.size() > 0) && (line >= startLine)) {
+                // the last line is not terminated
+                handler.handleLine(line, decode(lineBytes, charset));
+            }
+        }
+    }
+
+    /**
+     * Extends the index by the lines appended since the last update.<p>
+     *
+     * If the file has been truncated or replaced since the last update, the index is rebuilt.<p>
+     *
+     * @throws IOException if reading the file fails
+     */
+    public synchronized void update() throws IOException {
+
+        try (FileChannel channel = FileChannel.open(m_file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            byte[] head = readHead(channel, length);
+            if ((length < m_length) || !startsWith(head, m_head)) {
+                // truncated or replaced
+                m_checkpoints = new long[] {0};
+                m_checkpointCount = 1;
+                m_completeLength = 0;
+                m_lineCount = 0;
+            }
+            m_head = head;
+            m_length = length;
+            long offset = m_completeLength;
+            while (offset < length) {
+                int size = (int)Math.min(MAP_SIZE, length - offset);
+                MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, offset, size);
+                for (int i = 0; i < size; i++) {
+                    if (buffer.get(i) == '\n') {
+                        m_lineCount++;
+                        m_completeLength = offset + i + 1;
+                        if ((m_lineCount % CHECKPOINT_INTERVAL) == 0) {
+                            addCheckpoint(m_completeLength);
+                        }
+                    }
+                }
+                offset += size;
+            }
+        }
+    }
+
+    /**
+     * Decodes a line, removing a trailing carriage return.<p>
+     *
+     * @param lineBytes the bytes of the line
+     * @param charset the encoding
+     *
+     * @return the line
+     */
+    private static String decode(ByteArrayOutputStream lineBytes, Charset charset) {
+
+        byte[] bytes = lineBytes.toByteArray();
+        int length = bytes.length;
+        if ((length > 0) && (bytes[length - 1] == '\r')) {
+            length--;
+        }
+        return new String(bytes, 0, length, charset);
+    }
+
+    /**
+     * Reads the first bytes of the file.<p>
+     *
+     * @param channel the file channel
+     * @param length the length of the file
+     *
+     * @return the first bytes of the file
+     *
+     * @throws IOException if reading the file fails
+     */
+    private static byte[] readHead(FileChannel channel, long length) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(HEAD_SIZE, length));
+        while (buffer.hasRemaining() && (channel.read(buffer, buffer.position()) >= 0)) {
+            // read until the buffer is full
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Checks if the given bytes start with the given prefix.<p>
+     *
+     * @param bytes the bytes
+     * @param prefix the prefix
+     *
+     * @return <code>true</code> if the bytes start with the prefix
+     */
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+
+        return (bytes.length >= prefix.length) && Arrays.equals(Arrays.copyOf(bytes, prefix.length), prefix);
+    }
+
+    /**
+     * Adds the offset of a line to the checkpoints.<p>
+     *
+     * @param offset the offset of the line
+     */
+    private void addCheckpoint(long offset) {
+
+        if (m_checkpointCount == m_checkpoints.length) {
+            m_checkpoints = Arrays.copyOf(m_checkpoints, m_checkpointCount * 2);
+        }
+        m_checkpoints[m_checkpointCount++] = offset;
+    }
+}
@@ -45,7 +45,14 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 
@@ -58,13 +65,146 @@ import org.apache.commons.logging.Log;
  * The portion of the file that is shown is defined by a "window" of "windowSize" lines of text
  * at a position "windowPosition" which is an enumeration of windows in ascending order. <p>
  *
+ * The lines are read with the help of a {@link CmsRfsFileLineIndex}, so that showing the end of a large log file
+ * does not read the whole file each time. The lines can be filtered by a pattern and, for log files, by the
+ * log level, and the lines appended to the file can be read for following a growing log file.<p>
+ *
  * @since 6.0.0
  */
 public class CmsRfsFileViewer implements Cloneable {
 
+    /**
+     * Collects the lines matching the filters.<p>
+     *
+     * For log files, the filters are applied to complete log entries, i.e. the line with the date and the level
+     * together with the following lines without date, e.g. of a stack trace.<p>
+     */
+    private static class LineFilter implements CmsRfsFileLineIndex.I_CmsLineHandler {
+
+        /** The lines of the current entry. */
+        private List<String> m_entry = new ArrayList<String>();
+
+        /** The level of the current entry, -1 if unknown. */
+        private int m_entryLevel = -1;
+
+        /** The pattern to find in the entries, <code>null</code> for all entries. */
+        private Pattern m_filter;
+
+        /** Flag indicating whether the file is a log file. */
+        private boolean m_isLogfile;
+
+        /** Flag indicating whether the last matching lines are kept, otherwise the first matching lines are kept. */
+        private boolean m_keepLast;
+
+        /** The maximum number of lines to collect. */
+        private int m_maxLines;
+
+        /** The minimum level of the entries, -1 for all entries. */
+        private int m_minLevel;
+
+        /** The collected lines. */
+        private Deque<String> m_result = new ArrayDeque<String>();
+
+        /**
+         * Creates a new line filter.<p>
+         *
+         * @param filter the pattern to find in the entries, <code>null</code> for all entries
+         * @param minLevel the minimum level of the entries, -1 for all entries
+         * @param isLogfile flag indicating whether the file is a log file
+         * @param maxLines the maximum number of lines to collect
+         * @param keepLast if <code>true</code> the last matching lines are kept, otherwise the first
+         */
+        LineFilter(Pattern filter, int minLevel, boolean isLogfile, int maxLines, boolean keepLast) {
+
+            m_filter = filter;
+            m_minLevel = minLevel;
+            m_isLogfile = isLogfile;
+            m_maxLines = maxLines;
+            m_keepLast = keepLast;
+        }
+
+        /**
+         * Returns the matching lines.<p>
+         *
+         * @return the matching lines
+         */
+        public Deque<String> getResult() {
+
+            finishEntry();
+            return m_result;
+        }
+
+        /**
+         * @see org.opencms.util.CmsRfsFileLineIndex.I_CmsLineHandler#handleLine(long, java.lang.String)
+         */
+        public boolean handleLine(long lineNumber, String line) {
+
+            if (m_isLogfile) {
+                Matcher header = LOG_ENTRY_HEADER.matcher(line);
+                if (header.lookingAt()) {
+                    finishEntry();
+                    m_entryLevel = LOG_LEVELS.indexOf(header.group(1));
+                }
+                m_entry.add(line);
+            } else {
+                m_entry.add(line);
+                finishEntry();
+            }
+            return m_keepLast || (m_result.size() < m_maxLines);
+        }
+
+        /**
+         * Adds the lines of the current entry to the result if the entry matches the filters.<p>
+         */
+        private void finishEntry() {
+
+            if (m_entry.isEmpty()) {
+                return;
+            }
+            if ((m_entryLevel >= m_minLevel) && matches()) {
+                for (String line : m_entry) {
+                    if (m_keepLast) {
+                        m_result.addLast(line);
+                        if (m_result.size() > m_maxLines) {
+                            m_result.removeFirst();
+                        }
+                    } else if (m_result.size() < m_maxLines) {
+                        m_result.addLast(line);
+                    }
+                }
+            }
+            m_entry.clear();
+        }
+
+        /**
+         * Checks if the current entry contains the filter pattern.<p>
+         *
+         * @return <code>true</code> if the current entry contains the filter pattern
+         */
+        private boolean matches() {
+
+            if (m_filter == null) {
+                return true;
+            }
+            for (String line : m_entry) {
+                if (m_filter.matcher(line).find()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     /** The log object for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsRfsFileViewer.class);
 
+    /** The pattern for the first line of a log entry, the first group is the log level. */
+    static final Pattern LOG_ENTRY_HEADER = Pattern.compile(
+        "\\d{1,2} \\S+ \\d{4} \\d{2}:\\d{2}:\\d{2}[,.]\\d{3} +(TRACE|DEBUG|INFO|WARN|ERROR|FATAL) ");
+
+    /** The log levels in ascending order. */
+    static final List<String> LOG_LEVELS = Arrays.asList("TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL");
+
     /** The path to the underlying file. */
     protected String m_filePath;
 
@@ -204,6 +344,24 @@ public class CmsRfsFileViewer implements Cloneable {
         return m_isLogfile;
     }
 
+    /**
+     * Returns the current number of lines of the underlying file.<p>
+     *
+     * Use this together with {@link #readAppendedLines(long)} to follow a growing file.<p>
+     *
+     * @return the current number of lines of the underlying file
+     *
+     * @throws CmsRfsException if the file can not be read
+     */
+    public long getLineCount() throws CmsRfsException {
+
+        try {
+            return CmsRfsFileLineIndex.getIndex(m_filePath).getLineCount();
+        } catch (IOException ioex) {
+            throw new CmsRfsException(Messages.get().container(Messages.ERR_FILE_ARG_ACCESS_1, m_filePath), ioex);
+        }
+    }
+
     /**
      * Returns the path denoting the root folder for all accessible files.<p>
      *
@@ -252,6 +410,33 @@ public class CmsRfsFileViewer implements Cloneable {
         return m_enabled;
     }
 
+    /**
+     * Returns the lines appended to the underlying file after the given number of lines.<p>
+     *
+     * Only the appended bytes are read from the file. At most the last "windowSize" lines are returned.
+     * If the file has been truncated or replaced meanwhile, e.g. by log rotation, the lines are returned
+     * from the start of the file.<p>
+     *
+     * @param lineCount the number of lines already read, as returned by {@link #getLineCount()}
+     *
+     * @return the appended lines, escaped for HTML output
+     *
+     * @throws CmsRfsException if the file can not be read
+     */
+    public String readAppendedLines(long lineCount) throws CmsRfsException {
+
+        try {
+            CmsRfsFileLineIndex index = CmsRfsFileLineIndex.getIndex(m_filePath);
+            long lines = index.getLineCount();
+            long startLine = lineCount > lines ? 0 : Math.max(lineCount, lines - m_windowSize);
+            LineFilter lineFilter = new LineFilter(null, -1, false, m_windowSize, true);
+            index.readLines(startLine, m_fileEncoding, lineFilter);
+            return toResult(lineFilter.getResult());
+        } catch (IOException ioex) {
+            throw new CmsRfsException(Messages.get().container(Messages.ERR_FILE_ARG_ACCESS_1, m_filePath), ioex);
+        }
+    }
+
     /**
      * Return the view portion of lines of text from the underlying file or an
      * empty String if <code>{@link #isEnabled()}</code> returns <code>false</code>.<p>
@@ -262,61 +447,62 @@ public class CmsRfsFileViewer implements Cloneable {
      */
     public String readFilePortion() throws CmsRfsException {
 
-        if (m_enabled) {
-            // if we want to view the log file we have to set the internal m_windowPos to the last window
-            // to view the end:
-            int lines = -1;
-            int startLine;
-            if (m_isLogfile) {
-                lines = scrollToFileEnd();
-                // for logfile mode we show the last window of window size:
-                // it could be possible that only 4 lines are in the last window
-                // (e.g.: 123 lines with windowsize 10 -> last window has 3 lines)
-                // so we ignore the window semantics and show the n last lines:
-                startLine = lines - m_windowSize;
-            } else {
-                m_windowPos = 0;
-                startLine = m_windowPos * m_windowSize;
-            }
-            LineNumberReader reader = null;
-            try {
-                // don't make the buffer too big, just big enough for windowSize lines (estimation: avg. of 200 characters per line)
-                // to save reading too much (this optimizes to read the first windows, much later windows will be slower...)
-                reader = new LineNumberReader(
-                    new BufferedReader(new InputStreamReader(new FileInputStream(m_filePath), m_fileEncoding)),
-                    m_windowSize * 200);
-                int currentLine = 0;
-                // skip the lines to the current window:
-                while (startLine > currentLine) {
-                    reader.readLine();
-                    currentLine++;
-                }
-                StringBuffer result = new StringBuffer();
-                String read = reader.readLine();
+        return readFilePortion(null, null);
+    }
 
-                for (int i = m_windowSize; (i > 0) && (read != null); i--) {
-                    result.append(read);
-                    result.append('\n');
-                    read = reader.readLine();
-                }
+    /**
+     * Return the view portion of the lines of text from the underlying file matching the given filters or an
+     * empty String if <code>{@link #isEnabled()}</code> returns <code>false</code>.<p>
+     *
+     * For a log file the last "windowSize" matching lines are returned, and the filters are applied to complete
+     * log entries, i.e. the line with the date and the level together with the following lines, e.g. of a stack
+     * trace. For other files the first "windowSize" matching lines are returned.<p>
+     *
+     * The filters are only supported for files in an encoding supported by {@link CmsRfsFileLineIndex}.<p>
+     *
+     * @param filter the pattern to find in the lines, or <code>null</code> for all lines
+     * @param minLevel the minimum log level of the entries, e.g. "WARN", or <code>null</code> for all entries,
+     *      only used for log files
+     *
+     * @return the view portion of the matching lines of text from the underlying file or an
+     *         empty String if <code>{@link #isEnabled()}</code> returns <code>false</code>
+     * @throws CmsRfsException if something goes wrong
+     */
+    public String readFilePortion(Pattern filter, String minLevel) throws CmsRfsException {
 
-                return CmsEncoder.escapeXml(result.toString());
-            } catch (IOException ioex) {
-                CmsRfsException ex = new CmsRfsException(
-                    Messages.get().container(Messages.ERR_FILE_ARG_ACCESS_1, m_filePath),
-                    ioex);
-                throw ex;
-            } finally {
-                if (reader != null) {
-                    try {
-                        reader.close();
-                    } catch (IOException e) {
-                        LOG.error(e.getLocalizedMessage(), e);
-                    }
+        if (!m_enabled) {
+            return Messages.get().getBundle().key(Messages.GUI_FILE_VIEW_NO_PREVIEW_0);
+        }
+        if (!CmsRfsFileLineIndex.isSupported(m_fileEncoding)) {
+            return readFilePortionSequential();
+        }
+        int level = -1;
+        if (m_isLogfile && (minLevel != null)) {
+            level = LOG_LEVELS.indexOf(minLevel.trim().toUpperCase(Locale.ENGLISH));
+            if (level < 0) {
+                throw new CmsIllegalArgumentException(
+                    Messages.get().container(Messages.ERR_LOG_LEVEL_UNKNOWN_1, minLevel));
+            }
+        }
+        try {
+            CmsRfsFileLineIndex index = CmsRfsFileLineIndex.getIndex(m_filePath);
+            long lines = index.getLineCount();
+            long startLine = 0;
+            if (m_isLogfile) {
+                // if 11.75 windows are available, we don't want to end on window nr. 10
+                m_windowPos = (int)Math.ceil((double)lines / (double)m_windowSize) - 1;
+                if ((filter == null) && (level < 0)) {
+                    // for logfile mode we show the n last lines, ignoring the window semantics
+                    startLine = Math.max(0, lines - m_windowSize);
                 }
+            } else {
+                m_windowPos = 0;
             }
-        } else {
-            return Messages.get().getBundle().key(Messages.GUI_FILE_VIEW_NO_PREVIEW_0);
+            LineFilter lineFilter = new LineFilter(filter, level, m_isLogfile, m_windowSize, m_isLogfile);
+            index.readLines(startLine, m_fileEncoding, lineFilter);
+            return toResult(lineFilter.getResult());
+        } catch (IOException ioex) {
+            throw new CmsRfsException(Messages.get().container(Messages.ERR_FILE_ARG_ACCESS_1, m_filePath), ioex);
         }
     }
 
@@ -640,6 +826,71 @@ public class CmsRfsFileViewer implements Cloneable {
 
     }
 
+    /**
+     * Reads the view portion of the underlying file line by line from the start of the file.<p>
+     *
+     * This is used for files in encodings not supported by {@link CmsRfsFileLineIndex}.<p>
+     *
+     * @return the view portion of lines of text from the underlying file
+     *
+     * @throws CmsRfsException if something goes wrong
+     */
+    private String readFilePortionSequential() throws CmsRfsException {
+
+        // if we want to view the log file we have to set the internal m_windowPos to the last window
+        // to view the end:
+        int lines = -1;
+        int startLine;
+        if (m_isLogfile) {
+            lines = scrollToFileEnd();
+            // for logfile mode we show the last window of window size:
+            // it could be possible that only 4 lines are in the last window
+            // (e.g.: 123 lines with windowsize 10 -> last window has 3 lines)
+            // so we ignore the window semantics and show the n last lines:
+            startLine = lines - m_windowSize;
+        } else {
+            m_windowPos = 0;
+            startLine = m_windowPos * m_windowSize;
+        }
+        LineNumberReader reader = null;
+        try {
+            // don't make the buffer too big, just big enough for windowSize lines (estimation: avg. of 200 characters per line)
+            // to save reading too much (this optimizes to read the first windows, much later windows will be slower...)
+            reader = new LineNumberReader(
+                new BufferedReader(new InputStreamReader(new FileInputStream(m_filePath), m_fileEncoding)),
+                m_windowSize * 200);
+            int currentLine = 0;
+            // skip the lines to the current window:
+            while (startLine > currentLine) {
+                reader.readLine();
+                currentLine++;
+            }
+            StringBuffer result = new StringBuffer();
+            String read = reader.readLine();
+
+            for (int i = m_windowSize; (i > 0) && (read != null); i--) {
+                result.append(read);
+                result.append('\n');
+                read = reader.readLine();
+            }
+
+            return CmsEncoder.escapeXml(result.toString());
+        } catch (IOException ioex) {
+            CmsRfsException ex = new CmsRfsException(
+                Messages.get().container(Messages.ERR_FILE_ARG_ACCESS_1, m_filePath),
+                ioex);
+            throw ex;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+        }
+    }
+
     /**
      * Internally sets the member <code>m_windowPos</code> to the last available
      * window of <code>m_windowSize</code> windows to let further calls to
@@ -687,4 +938,21 @@ public class CmsRfsFileViewer implements Cloneable {
         return lines;
     }
 
+    /**
+     * Joins the given lines and escapes them for HTML output.<p>
+     *
+     * @param lines the lines
+     *
+     * @return the escaped lines, each terminated by a line feed
+     */
+    private String toResult(Deque<String> lines) {
+
+        StringBuffer result = new StringBuffer();
+        for (String line : lines) {
+            result.append(line);
+            result.append('\n');
+        }
+        return CmsEncoder.escapeXml(result.toString());
+    }
+
 }
\ No newline at end of file
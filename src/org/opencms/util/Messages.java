@@ -88,6 +88,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_IOERROR_0 = "ERR_IOERROR_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_LOG_LEVEL_UNKNOWN_1 = "ERR_LOG_LEVEL_UNKNOWN_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_MISSING_RESOURCES_1 = "ERR_MISSING_RESOURCES_1";
 
@@ -213,6 +213,9 @@ public final class CmsResourceUtil {
     /** The message bundle for formatting dates, depends on the request locale. */
     private CmsMessages m_messages;
 
+    /** The user and project names by id, shared between instances for the same request, may be <code>null</code>. */
+    private Map<CmsUUID, String> m_nameCache;
+
     /** Reference project resources cache. */
     private List<String> m_projectResources;
 
@@ -610,8 +613,7 @@ public final class CmsResourceUtil {
             // user
             lockedBy = getLock().getUserId().toString();
             try {
-                lockedBy = getCurrentOuRelativeName(
-                    CmsPrincipal.readPrincipalIncludingHistory(getCms(), getLock().getUserId()).getName());
+                lockedBy = getPrincipalName(getLock().getUserId());
             } catch (Throwable e) {
                 lockedBy = e.getMessage();
             }
@@ -653,11 +655,18 @@ public final class CmsResourceUtil {
                 // the resource is unlocked and unchanged
                 return "";
             }
-            try {
-                return getCurrentOuRelativeName(getCms().readProject(pId).getName());
-            } catch (CmsDbEntryNotFoundException e) {
-                return getCurrentOuRelativeName(getCms().readHistoryProject(pId).getName());
+            String name = m_nameCache != null ? m_nameCache.get(pId) : null;
+            if (name == null) {
+                try {
+                    name = getCurrentOuRelativeName(getCms().readProject(pId).getName());
+                } catch (CmsDbEntryNotFoundException e) {
+                    name = getCurrentOuRelativeName(getCms().readHistoryProject(pId).getName());
+                }
+                if (m_nameCache != null) {
+                    m_nameCache.put(pId, name);
+                }
             }
+            return name;
         } catch (Throwable e) {
             LOG.error(e.getLocalizedMessage(), e);
             return "";
@@ -1272,8 +1281,7 @@ public final class CmsResourceUtil {
 
         String user = m_resource.getUserCreated().toString();
         try {
-            user = getCurrentOuRelativeName(
-                CmsPrincipal.readPrincipalIncludingHistory(getCms(), m_resource.getUserCreated()).getName());
+            user = getPrincipalName(m_resource.getUserCreated());
         } catch (Throwable e) {
             LOG.info(e.getLocalizedMessage());
         }
@@ -1289,8 +1297,7 @@ public final class CmsResourceUtil {
 
         String user = m_resource.getUserLastModified().toString();
         try {
-            user = getCurrentOuRelativeName(
-                CmsPrincipal.readPrincipalIncludingHistory(getCms(), m_resource.getUserLastModified()).getName());
+            user = getPrincipalName(m_resource.getUserLastModified());
         } catch (Throwable e) {
             LOG.info(e.getLocalizedMessage());
         }
@@ -1388,6 +1395,32 @@ public final class CmsResourceUtil {
         m_messages = null;
     }
 
+    /**
+     * Sets a cache for the user and project names.<p>
+     *
+     * Instances used for many resources of the same request can share the cache,
+     * so that every name is only read once.<p>
+     *
+     * @param nameCache the names by user or project id
+     */
+    public void setNameCache(Map<CmsUUID, String> nameCache) {
+
+        m_nameCache = nameCache;
+    }
+
+    /**
+     * Sets the resources of the reference project.<p>
+     *
+     * Instances used for many resources of the same request can share the project resources,
+     * so that they are only read once.<p>
+     *
+     * @param projectResources the root paths of the reference project resources
+     */
+    public void setProjectResources(List<String> projectResources) {
+
+        m_projectResources = projectResources;
+    }
+
     /**
      * Sets the project to use to check project state.<p>
      *
@@ -1481,6 +1514,27 @@ public final class CmsResourceUtil {
         return m_messages;
     }
 
+    /**
+     * Returns the name of a user relative to the current user's ou, using the name cache if available.<p>
+     *
+     * @param userId the user id
+     *
+     * @return the user name
+     *
+     * @throws CmsException if the user could not be read
+     */
+    private String getPrincipalName(CmsUUID userId) throws CmsException {
+
+        String name = m_nameCache != null ? m_nameCache.get(userId) : null;
+        if (name == null) {
+            name = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(getCms(), userId).getName());
+            if (m_nameCache != null) {
+                m_nameCache.put(userId, name);
+            }
+        }
+        return name;
+    }
+
     /**
      * Returns the reference project resources.<p>
      *
@@ -49,7 +49,6 @@ import org.apache.commons.logging.Log;
 
 import org.dom4j.Attribute;
 import org.dom4j.Element;
-import org.htmlparser.util.ParserException;
 
 /**
  * Describes the XML content type "OpenCmsHtml".<p>
@@ -355,12 +354,7 @@ public class CmsXmlHtmlValue extends A_CmsXmlContentValue {
 
                 // link processing: replace macros with links
                 CmsLinkProcessor linkProcessor = document.getLinkProcessor(cms, linkTable);
-                try {
-                    content = linkProcessor.processLinks(content);
-                } catch (ParserException e) {
-                    // should better not happen
-                    LOG.error(Messages.get().getBundle().key(Messages.ERR_XMLCONTENT_LINK_PROCESS_FAILED_0), e);
-                }
+                content = linkProcessor.processLinks(content);
             }
         }
         return content;
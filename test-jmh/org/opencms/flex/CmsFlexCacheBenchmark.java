@@ -0,0 +1,111 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import org.opencms.test.OpenCmsBenchmarkVfs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the key handling of the {@link CmsFlexCache}.<p>
+ *
+ * The flex cache registers with the memory monitor and the event manager, so OpenCms is set up
+ * with the {@link OpenCmsBenchmarkVfs}.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CmsFlexCacheBenchmark {
+
+    /** Typical cache directives of a JSP element. */
+    private static final String CACHE_DIRECTIVES = "uri; params=(page,category); session=(locale); timeout=60";
+
+    /** The number of keys in the cache. */
+    @Param({"100", "10000"})
+    public int m_keys;
+
+    /** The cache. */
+    private CmsFlexCache m_cache;
+
+    /** The index of the next key to look up. */
+    private int m_index;
+
+    /** The resource names of the cached keys. */
+    private String[] m_resources;
+
+    /**
+     * Creates a new cache key from the cache directives.<p>
+     *
+     * @return the cache key
+     */
+    @Benchmark
+    public CmsFlexCacheKey createKey() {
+
+        return new CmsFlexCacheKey("/sites/default/system/modules/test/elements/teaser.jsp", CACHE_DIRECTIVES, true);
+    }
+
+    /**
+     * Looks up cached keys.<p>
+     *
+     * @return the cache key
+     */
+    @Benchmark
+    public CmsFlexCacheKey getKey() {
+
+        m_index = (m_index + 7919) % m_keys;
+        return m_cache.getKey(m_resources[m_index]);
+    }
+
+    /**
+     * Creates a cache with the keys.<p>
+     *
+     * @param vfs the OpenCms instance
+     */
+    @Setup
+    public void setUp(OpenCmsBenchmarkVfs vfs) {
+
+        CmsFlexCacheConfiguration configuration = new CmsFlexCacheConfiguration();
+        configuration.initialize("true", "true", "10000000", "8000000", "100000", String.valueOf(m_keys * 2));
+        m_cache = new CmsFlexCache(configuration);
+        m_resources = new String[m_keys];
+        for (int i = 0; i < m_keys; i++) {
+            CmsFlexCacheKey key = new CmsFlexCacheKey("/sites/default/element" + i + ".jsp", CACHE_DIRECTIVES, true);
+            m_cache.putKey(key);
+            m_resources[i] = key.getResource();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.site;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsBenchmarkVfs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the site lookups of the {@link CmsSiteManagerImpl} configured by the test VFS.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CmsSiteManagerBenchmark {
+
+    /** The context. */
+    private CmsObject m_cms;
+
+    /** The site matcher of a request. */
+    private CmsSiteMatcher m_matcher;
+
+    /** The site manager. */
+    private CmsSiteManagerImpl m_siteManager;
+
+    /**
+     * Looks up the site of the current context.<p>
+     *
+     * @return the site
+     */
+    @Benchmark
+    public CmsSite getCurrentSite() {
+
+        return m_siteManager.getCurrentSite(m_cms);
+    }
+
+    /**
+     * Looks up the site of a root path.<p>
+     *
+     * @return the site
+     */
+    @Benchmark
+    public CmsSite getSiteForRootPath() {
+
+        return m_siteManager.getSiteForRootPath("/sites/default/folder1/subfolder11/index.html");
+    }
+
+    /**
+     * Matches the site for a request.<p>
+     *
+     * @return the site
+     */
+    @Benchmark
+    public CmsSite matchSite() {
+
+        return m_siteManager.matchSite(m_matcher);
+    }
+
+    /**
+     * Initializes the site manager and the context.<p>
+     *
+     * @param vfs the OpenCms instance
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Setup
+    public void setUp(OpenCmsBenchmarkVfs vfs) throws Exception {
+
+        m_siteManager = OpenCms.getSiteManager();
+        m_cms = vfs.getOnlineCmsObject();
+        m_matcher = new CmsSiteMatcher("http://localhost:8080");
+    }
+}
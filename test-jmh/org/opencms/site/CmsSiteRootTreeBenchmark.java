@@ -0,0 +1,94 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.site;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the site lookup with the {@link CmsSiteRootTree}.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CmsSiteRootTreeBenchmark {
+
+    /** The number of sites. */
+    @Param({"10", "1000"})
+    public int m_sites;
+
+    /** The index of the next path to look up. */
+    private int m_index;
+
+    /** The looked up root paths, one outside of all sites. */
+    private String[] m_paths;
+
+    /** The tree. */
+    private CmsSiteRootTree m_tree;
+
+    /**
+     * Looks up the site roots of root paths.<p>
+     *
+     * @return the site root
+     */
+    @Benchmark
+    public String getSiteRoot() {
+
+        m_index = (m_index + 1) % m_paths.length;
+        return m_tree.getSiteRoot(m_paths[m_index]);
+    }
+
+    /**
+     * Creates the tree.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        Map<String, CmsSite> sites = new HashMap<String, CmsSite>();
+        for (int i = 0; i < m_sites; i++) {
+            String siteRoot = (i % 10) == 0 ? "/shared/site" + i : "/sites/site" + i;
+            sites.put(siteRoot, new CmsSite(siteRoot, CmsSiteMatcher.DEFAULT_MATCHER));
+        }
+        m_tree = CmsSiteRootTree.create(sites);
+        m_paths = new String[] {
+            "/sites/site" + (m_sites - 1) + "/folder/subfolder/index.html",
+            "/shared/site0/images/logo.png",
+            "/sites/site1/",
+            "/system/modules/org.opencms.base/formatters/text.jsp"};
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.file.CmsObject;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.test.OpenCmsBenchmarkVfs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the link processing of rich text fields with the {@link CmsHtmlLinkScanner}.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CmsHtmlLinkScannerBenchmark {
+
+    /**
+     * Tag handler changing the links without VFS access.<p>
+     */
+    static class Handler implements CmsHtmlLinkScanner.I_CmsTagHandler {
+
+        /**
+         * @see org.opencms.staticexport.CmsHtmlLinkScanner.I_CmsTagHandler#handleTag(org.opencms.staticexport.CmsHtmlLinkScanner.Tag)
+         */
+        public void handleTag(CmsHtmlLinkScanner.Tag tag) {
+
+            String name = tag.getTagName();
+            String attr = "A".equals(name) ? "href" : ("IMG".equals(name) ? "src" : null);
+            if (attr != null) {
+                String value = tag.getAttribute(attr);
+                if (value != null) {
+                    tag.setAttribute(attr, "/opencms" + value);
+                }
+            }
+        }
+    }
+
+    /**
+     * State with the context for the link processor.<p>
+     */
+    @State(Scope.Benchmark)
+    public static class Vfs {
+
+        /** The context. */
+        CmsObject m_cms;
+
+        /**
+         * Initializes the context.<p>
+         *
+         * @param vfs the OpenCms instance
+         *
+         * @throws Exception if something goes wrong
+         */
+        @Setup
+        public void setUp(OpenCmsBenchmarkVfs vfs) throws Exception {
+
+            m_cms = vfs.getCmsObject();
+        }
+    }
+
+    /** The number of paragraphs of the rich text. */
+    @Param({"10", "1000"})
+    public int m_paragraphs;
+
+    /** The rich text. */
+    private String m_html;
+
+    /** The reused scanner. */
+    private CmsHtmlLinkScanner m_scanner;
+
+    /**
+     * Processes the links of the rich text with the link processor, as done when saving a content.<p>
+     *
+     * @param vfs the context state
+     *
+     * @return the processed text
+     */
+    @Benchmark
+    public String processLinks(Vfs vfs) {
+
+        CmsLinkProcessor processor = new CmsLinkProcessor(
+            vfs.m_cms,
+            new CmsLinkTable(),
+            CmsEncoder.ENCODING_UTF_8,
+            null);
+        return processor.processLinks(m_html);
+    }
+
+    /**
+     * Scans the rich text with a reused scanner.<p>
+     *
+     * @return the processed text
+     */
+    @Benchmark
+    public String scan() {
+
+        return m_scanner.process(m_html);
+    }
+
+    /**
+     * Creates the rich text.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        StringBuffer html = new StringBuffer();
+        for (int i = 0; i < m_paragraphs; i++) {
+            html.append("<h2>Heading ").append(i).append("</h2>\n");
+            html.append("<p>Some <strong>text</strong> with a <a href=\"/folder1/page").append((i % 4) + 1);
+            html.append(".html\" title=\"Page\">link</a> and an image <img src=\"/folder1/image1.gif\" alt=\"\">");
+            html.append(" and an <a href=\"http://www.opencms.org/\">external link</a>.</p>\n");
+            html.append("<ul><li>one<li>two</ul>\n");
+        }
+        m_html = html.toString();
+        m_scanner = new CmsHtmlLinkScanner(new Handler());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsBenchmarkVfs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the link substitution of the {@link CmsLinkManager} in the test VFS.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CmsLinkManagerBenchmark {
+
+    /** The link manager. */
+    private CmsLinkManager m_linkManager;
+
+    /** The offline context. */
+    private CmsObject m_offlineCms;
+
+    /** The online context. */
+    private CmsObject m_onlineCms;
+
+    /**
+     * Initializes the contexts.<p>
+     *
+     * @param vfs the OpenCms instance
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Setup
+    public void setUp(OpenCmsBenchmarkVfs vfs) throws Exception {
+
+        m_linkManager = OpenCms.getLinkManager();
+        m_offlineCms = vfs.getCmsObject();
+        m_onlineCms = vfs.getOnlineCmsObject();
+    }
+
+    /**
+     * Substitutes a link for a root path in another site.<p>
+     *
+     * @return the link
+     */
+    @Benchmark
+    public String substituteLinkForRootPath() {
+
+        return m_linkManager.substituteLinkForRootPath(m_onlineCms, "/system/modules/test/resources/style.css");
+    }
+
+    /**
+     * Substitutes a link in the offline project.<p>
+     *
+     * @return the link
+     */
+    @Benchmark
+    public String substituteLinkOffline() {
+
+        return m_linkManager.substituteLink(m_offlineCms, "/folder1/page1.html");
+    }
+
+    /**
+     * Substitutes a link in the online project, where the static export rules are evaluated.<p>
+     *
+     * @return the link
+     */
+    @Benchmark
+    public String substituteLinkOnline() {
+
+        return m_linkManager.substituteLink(m_onlineCms, "/folder1/page1.html");
+    }
+}
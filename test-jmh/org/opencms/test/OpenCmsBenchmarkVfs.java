@@ -0,0 +1,116 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.test;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.CmsException;
+import org.opencms.main.OpenCms;
+
+import org.apache.logging.log4j.core.appender.OpenCmsTestLogAppender;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark state providing an OpenCms instance with the "simpletest" VFS in an in-memory HSQLDB database,
+ * set up with the infrastructure of the {@link OpenCmsTestCase}.<p>
+ *
+ * Benchmarks which need a {@link CmsObject} declare this state as parameter of their benchmark methods.
+ * OpenCms is set up once per benchmark fork and removed after the benchmark.<p>
+ *
+ * The test system properties <code>test.data.path</code>, <code>test.webapp.path</code> and
+ * <code>test.build.folder</code> have to be set for the forked JVMs, which the <code>jmh</code> task does.<p>
+ */
+@State(Scope.Benchmark)
+public class OpenCmsBenchmarkVfs {
+
+    /** The import folder of the VFS. */
+    public static final String IMPORT_FOLDER = "simpletest";
+
+    /** The admin context, <code>null</code> if OpenCms is not set up. */
+    private static CmsObject m_cms;
+
+    /**
+     * Returns a new context of the Admin user in the "Offline" project with the site root "/sites/default/".<p>
+     *
+     * @return the context
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public CmsObject getCmsObject() throws CmsException {
+
+        return OpenCms.initCmsObject(m_cms);
+    }
+
+    /**
+     * Returns a new context of the Guest user in the "Online" project with the site root "/sites/default/".<p>
+     *
+     * @return the context
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public CmsObject getOnlineCmsObject() throws CmsException {
+
+        CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        cms.getRequestContext().setSiteRoot(m_cms.getRequestContext().getSiteRoot());
+        return cms;
+    }
+
+    /**
+     * Sets up OpenCms.<p>
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        synchronized (OpenCmsBenchmarkVfs.class) {
+            if (m_cms == null) {
+                // the constructor initializes the test configuration
+                new OpenCmsTestCase(OpenCmsBenchmarkVfs.class.getName());
+                m_cms = OpenCmsTestCase.setupOpenCms(IMPORT_FOLDER, "/");
+                // errors logged while measuring must not abort the benchmark
+                OpenCmsTestLogAppender.setBreakOnError(false);
+            }
+        }
+    }
+
+    /**
+     * Removes OpenCms.<p>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        synchronized (OpenCmsBenchmarkVfs.class) {
+            if (m_cms != null) {
+                OpenCmsTestCase.removeOpenCms(OpenCmsBenchmarkVfs.class.getName());
+                m_cms = null;
+            }
+        }
+    }
+}
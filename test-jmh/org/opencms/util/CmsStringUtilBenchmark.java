@@ -0,0 +1,100 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for frequently used helpers of the {@link CmsStringUtil}.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CmsStringUtilBenchmark {
+
+    /** A list of values as used in configurations and properties. */
+    private String m_list = "/system/modules/, /sites/default/, /shared/, /system/galleries/, /system/workplace/";
+
+    /** A text containing macros. */
+    private String m_text = "Welcome to ${site}, the ${site} start page links to ${site}/index.html.";
+
+    /** A text with surrounding white space. */
+    private String m_whitespace = "    \t  \n  ";
+
+    /**
+     * Checks if a string contains only white space.<p>
+     *
+     * @return the result of the check
+     */
+    @Benchmark
+    public boolean isEmptyOrWhitespaceOnly() {
+
+        return CmsStringUtil.isEmptyOrWhitespaceOnly(m_whitespace);
+    }
+
+    /**
+     * Joins paths.<p>
+     *
+     * @return the joined path
+     */
+    @Benchmark
+    public String joinPaths() {
+
+        return CmsStringUtil.joinPaths("/sites/default/", "/system/modules/", "org.opencms.base/", "/formatters");
+    }
+
+    /**
+     * Splits a list of values.<p>
+     *
+     * @return the values
+     */
+    @Benchmark
+    public List<String> splitAsList() {
+
+        return CmsStringUtil.splitAsList(m_list, ',', true);
+    }
+
+    /**
+     * Replaces all occurrences of a string.<p>
+     *
+     * @return the text with the replacements
+     */
+    @Benchmark
+    public String substitute() {
+
+        return CmsStringUtil.substitute(m_text, "${site}", "OpenCms");
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for parsing and formatting {@link CmsUUID}s.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CmsUUIDBenchmark {
+
+    /** A UUID. */
+    private CmsUUID m_uuid = new CmsUUID("c300ba5c-01e8-3727-b305-5dcc9ccae1ee");
+
+    /** The string representation of a UUID. */
+    private String m_value = "4b65369f-1266-11db-8360-bf0f6fbae1f4";
+
+    /**
+     * Checks if a string is a valid UUID.<p>
+     *
+     * @return the result of the check
+     */
+    @Benchmark
+    public boolean isValidUUID() {
+
+        return CmsUUID.isValidUUID(m_value);
+    }
+
+    /**
+     * Parses a UUID.<p>
+     *
+     * @return the UUID
+     */
+    @Benchmark
+    public CmsUUID parse() {
+
+        return new CmsUUID(m_value);
+    }
+
+    /**
+     * Formats a UUID.<p>
+     *
+     * @return the string representation
+     */
+    @Benchmark
+    public String toStringValue() {
+
+        return m_uuid.toString();
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.test.load;
+
+import org.opencms.db.timing.CmsRequestProfilingHandler;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypeJsp;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.main.OpenCms;
+import org.opencms.main.OpenCmsServlet;
+import org.opencms.test.OpenCmsTestCase;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.core.appender.OpenCmsTestLogAppender;
+
+/**
+ * Load test which renders the pages of a generated site with concurrent requests through the OpenCms servlet.<p>
+ *
+ * The test sets up OpenCms with the "simpletest" VFS in an in-memory HSQLDB database like the unit tests,
+ * generates text files, binary files and JSP pages in the site "/sites/default/", publishes them and then
+ * starts OpenCms with the {@link OpenCmsServlet}. The requests are GET requests of anonymous visitors to the
+ * online project, made with mock request and response objects, so no network and no servlet container is
+ * involved. Some of the generated resources get most of the requests, like the popular pages of a real site.<p>
+ *
+ * The JSP pages are cached in the Flex cache. There is no JSP engine, so the execution of the compiled JSP
+ * is simulated by {@link CmsLoadTestServletContext}, which means the JSP requests measure the JSP loader and the
+ * Flex cache, but not the JSP code.<p>
+ *
+ * After a warm up run, the measured run reports the throughput, the latency percentiles, the allocation rate of
+ * the request threads, the garbage collections, the Flex cache hit ratio and the hit ratios of the OpenCms
+ * caches. Every request is profiled by the {@link CmsRequestProfilingHandler} to count the cache accesses, unless
+ * the system property {@link CmsRequestProfilingHandler#PARAM_SAMPLE_INTERVAL} is set.<p>
+ *
+ * The test is configured with system properties, e.g. <code>-Dopencms.loadtest.threads=16</code>, see the
+ * <code>PARAM_</code> constants. The <code>loadTest</code> Gradle task sets them from project properties.<p>
+ */
+public class CmsLoadTest {
+
+    /**
+     * Executes requests in its own thread and records the results.<p>
+     */
+    class Worker implements Callable<Worker> {
+
+        /** The number of bytes allocated by the thread, -1 if not supported by the JVM. */
+        long m_allocatedBytes = -1;
+
+        /** The number of response bytes. */
+        long m_bytes;
+
+        /** The number of failed requests. */
+        int m_errors;
+
+        /** The number of requests to JSP pages. */
+        int m_jspRequests;
+
+        /** The latencies of the requests in nanoseconds. */
+        long[] m_latencies;
+
+        /** The random generator for selecting the requested resources. */
+        Random m_random;
+
+        /**
+         * Creates a new worker.<p>
+         *
+         * @param requests the number of requests to execute
+         * @param seed the seed for selecting the requested resources
+         */
+        Worker(int requests, long seed) {
+
+            m_latencies = new long[requests];
+            m_random = new Random(seed);
+        }
+
+        /**
+         * @see java.util.concurrent.Callable#call()
+         */
+        public Worker call() throws Exception {
+
+            long allocatedBytes = getAllocatedBytes();
+            for (int i = 0; i < m_latencies.length; i++) {
+                // most requests go to the first resources
+                String uri = m_uris.get((int)(Math.pow(m_random.nextDouble(), SKEW) * m_uris.size()));
+                CmsLoadTestRequest req = new CmsLoadTestRequest(m_context, uri);
+                CmsLoadTestResponse res = new CmsLoadTestResponse();
+                long start = System.nanoTime();
+                m_servlet.service(req, res);
+                m_latencies[i] = System.nanoTime() - start;
+                if (res.getStatus() >= 400) {
+                    m_errors++;
+                }
+                m_bytes += res.getBytesWritten();
+                if (uri.endsWith(".jsp")) {
+                    m_jspRequests++;
+                }
+            }
+            if (allocatedBytes >= 0) {
+                m_allocatedBytes = getAllocatedBytes() - allocatedBytes;
+            }
+            return this;
+        }
+    }
+
+    /** The system property for the percentage of binary files among the generated files. */
+    public static final String PARAM_BINARY_PERCENT = "opencms.loadtest.binary";
+
+    /** The system property for the number of generated files. */
+    public static final String PARAM_FILES = "opencms.loadtest.files";
+
+    /** The system property for the size of the HTML written by a JSP in bytes. */
+    public static final String PARAM_FRAGMENT_SIZE = "opencms.loadtest.fragment";
+
+    /** The system property for the number of generated JSP pages. */
+    public static final String PARAM_PAGES = "opencms.loadtest.pages";
+
+    /** The system property for the number of measured requests. */
+    public static final String PARAM_REQUESTS = "opencms.loadtest.requests";
+
+    /** The system property for the number of concurrent request threads. */
+    public static final String PARAM_THREADS = "opencms.loadtest.threads";
+
+    /** The system property for the number of warm up requests. */
+    public static final String PARAM_WARMUP = "opencms.loadtest.warmup";
+
+    /** The VFS folder of the generated site. */
+    private static final String FOLDER = "/loadtest/";
+
+    /** The seed of the random generators, so that runs with the same configuration are comparable. */
+    private static final long SEED = 4711L;
+
+    /** The exponent for selecting the requested resources, the higher the more requests go to the first ones. */
+    private static final double SKEW = 3.0;
+
+    /** The servlet context. */
+    private CmsLoadTestServletContext m_context;
+
+    /** The OpenCms servlet. */
+    private OpenCmsServlet m_servlet;
+
+    /** The number of concurrent request threads. */
+    private int m_threads = Integer.getInteger(PARAM_THREADS, 8).intValue();
+
+    /** The site paths of the requested resources. */
+    private List<String> m_uris = new ArrayList<String>();
+
+    /**
+     * Runs the load test.<p>
+     *
+     * @param args not used
+     *
+     * @throws Exception if something goes wrong
+     */
+    public static void main(String[] args) throws Exception {
+
+        if (System.getProperty(CmsRequestProfilingHandler.PARAM_SAMPLE_INTERVAL) == null) {
+            // profile every request to count the cache accesses, has to be set before OpenCms is started
+            System.setProperty(CmsRequestProfilingHandler.PARAM_SAMPLE_INTERVAL, "1");
+        }
+        CmsLoadTest test = new CmsLoadTest();
+        try {
+            test.setUp();
+            test.run("Warm up", Integer.getInteger(PARAM_WARMUP, 5000).intValue());
+            test.run("Measurement", Integer.getInteger(PARAM_REQUESTS, 20000).intValue());
+        } finally {
+            test.tearDown();
+        }
+        // background threads of OpenCms and the database may keep the JVM alive
+        System.exit(0);
+    }
+
+    /**
+     * Executes the given number of requests with the configured number of threads and prints the results.<p>
+     *
+     * @param name the name of the run
+     * @param requests the number of requests
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void run(String name, int requests) throws Exception {
+
+        CmsRequestProfilingHandler profiling = CmsRequestProfilingHandler.getInstance();
+        if (profiling != null) {
+            profiling.reset();
+        }
+        long jspExecutions = m_context.getJspExecutions();
+        long[] collections = getGarbageCollections();
+        List<Worker> workers = new ArrayList<Worker>();
+        for (int i = 0; i < m_threads; i++) {
+            workers.add(new Worker((requests / m_threads) + (i < (requests % m_threads) ? 1 : 0), SEED + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(m_threads);
+        long start = System.nanoTime();
+        try {
+            for (Future<Worker> future : executor.invokeAll(workers)) {
+                // throws an exception if a worker failed
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long duration = System.nanoTime() - start;
+        jspExecutions = m_context.getJspExecutions() - jspExecutions;
+        long[] collectionsAfter = getGarbageCollections();
+
+        long[] latencies = new long[requests];
+        int pos = 0;
+        long allocatedBytes = 0;
+        long bytes = 0;
+        int errors = 0;
+        int jspRequests = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.m_latencies, 0, latencies, pos, worker.m_latencies.length);
+            pos += worker.m_latencies.length;
+            allocatedBytes = (allocatedBytes < 0) || (worker.m_allocatedBytes < 0)
+            ? -1
+            : allocatedBytes + worker.m_allocatedBytes;
+            bytes += worker.m_bytes;
+            errors += worker.m_errors;
+            jspRequests += worker.m_jspRequests;
+        }
+        Arrays.sort(latencies);
+        double seconds = duration / 1000000000.0;
+
+        StringBuffer report = new StringBuffer();
+        report.append(
+            format(
+                "\n----- %s: %d requests to %d resources with %d threads -----\n",
+                name,
+                Integer.valueOf(requests),
+                Integer.valueOf(m_uris.size()),
+                Integer.valueOf(m_threads)));
+        report.append(format("Duration      : %.1f s\n", Double.valueOf(seconds)));
+        report.append(format("Throughput    : %.1f requests/s\n", Double.valueOf(requests / seconds)));
+        report.append(format("Errors        : %d\n", Integer.valueOf(errors)));
+        report.append(
+            format(
+                "Latency       : p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms\n",
+                Double.valueOf(getPercentile(latencies, 50) / 1000000.0),
+                Double.valueOf(getPercentile(latencies, 90) / 1000000.0),
+                Double.valueOf(getPercentile(latencies, 99) / 1000000.0),
+                Double.valueOf(latencies[latencies.length - 1] / 1000000.0)));
+        if (allocatedBytes >= 0) {
+            report.append(
+                format(
+                    "Allocation    : %.1f MB/s, %.1f KB/request\n",
+                    Double.valueOf(allocatedBytes / seconds / (1024 * 1024)),
+                    Double.valueOf((double)allocatedBytes / requests / 1024)));
+        }
+        report.append(
+            format(
+                "GC            : %d collections, %d ms\n",
+                Long.valueOf(collectionsAfter[0] - collections[0]),
+                Long.valueOf(collectionsAfter[1] - collections[1])));
+        report.append(format("Response size : %.1f KB/request\n", Double.valueOf((double)bytes / requests / 1024)));
+        report.append(
+            format(
+                "Flex cache    : %d JSP requests, %d JSP executions, %d%% hit ratio, %d entries\n",
+                Integer.valueOf(jspRequests),
+                Long.valueOf(jspExecutions),
+                Long.valueOf(jspRequests > 0 ? ((jspRequests - jspExecutions) * 100) / jspRequests : 0),
+                Integer.valueOf(OpenCms.getFlexCache().size())));
+        if (profiling != null) {
+            for (String cache : profiling.getCacheStatistics()) {
+                report.append("Cache         : ").append(cache).append('\n');
+            }
+        }
+        System.out.println(report);
+    }
+
+    /**
+     * Sets up OpenCms with the generated site and starts the servlet.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void setUp() throws Exception {
+
+        // the constructor initializes the test configuration
+        new OpenCmsTestCase(CmsLoadTest.class.getName());
+        CmsObject cms = OpenCmsTestCase.setupOpenCms("simpletest", "/");
+        OpenCmsTestLogAppender.setBreakOnError(false);
+
+        cms.createResource(FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        OpenCmsTestCase.generateContent(
+            cms,
+            FOLDER,
+            Integer.getInteger(PARAM_FILES, 1000).intValue(),
+            Integer.getInteger(PARAM_BINARY_PERCENT, 20).intValue() / 100.0);
+        int pages = Integer.getInteger(PARAM_PAGES, 200).intValue();
+        byte[] content = "<%@ page session=\"false\" %>\n<h1>Page</h1>\n".getBytes(CmsEncoder.ENCODING_UTF_8);
+        for (int i = 0; i < pages; i++) {
+            cms.createResource(
+                FOLDER + "page" + i + ".jsp",
+                OpenCms.getResourceManager().getResourceType(CmsResourceTypeJsp.getJSPTypeId()),
+                content,
+                Collections.singletonList(new CmsProperty(CmsPropertyDefinition.PROPERTY_CACHE, "uri", null)));
+        }
+        OpenCms.getPublishManager().publishResource(cms, FOLDER);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        for (CmsResource resource : cms.readResources(FOLDER, CmsResourceFilter.DEFAULT_FILES, true)) {
+            m_uris.add(cms.getSitePath(resource));
+        }
+        Collections.shuffle(m_uris, new Random(SEED));
+
+        m_context = new CmsLoadTestServletContext(
+            OpenCmsTestCase.getTestDataPath("WEB-INF/"),
+            Integer.getInteger(PARAM_FRAGMENT_SIZE, 4096).intValue());
+        m_servlet = OpenCmsTestCase.startOpenCmsServlet(m_context.createServletConfig());
+        // errors logged while measuring must not abort the test
+        OpenCmsTestLogAppender.setBreakOnError(false);
+    }
+
+    /**
+     * Stops the servlet and removes OpenCms.<p>
+     */
+    public void tearDown() {
+
+        if (m_servlet != null) {
+            m_servlet.destroy();
+        }
+        OpenCmsTestCase.removeOpenCms(CmsLoadTest.class.getName());
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread.<p>
+     *
+     * @return the number of allocated bytes, or -1 if not supported by the JVM
+     */
+    private static long getAllocatedBytes() {
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number and the accumulated time of the garbage collections.<p>
+     *
+     * @return the number of collections at index 0 and the time in milliseconds at index 1
+     */
+    private static long[] getGarbageCollections() {
+
+        long[] result = new long[2];
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            result[0] += Math.max(0, bean.getCollectionCount());
+            result[1] += Math.max(0, bean.getCollectionTime());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the given percentile of the sorted values.<p>
+     *
+     * @param sorted the sorted values
+     * @param percentile the percentile, between 0 and 100
+     *
+     * @return the percentile
+     */
+    private static long getPercentile(long[] sorted, double percentile) {
+
+        int rank = (int)Math.ceil((percentile / 100.0) * sorted.length);
+        return sorted[Math.min(Math.max(rank - 1, 0), sorted.length - 1)];
+    }
+
+    /**
+     * Formats a line of the report.<p>
+     *
+     * @param pattern the pattern
+     * @param args the arguments
+     *
+     * @return the formatted line
+     */
+    private String format(String pattern, Object... args) {
+
+        return String.format(Locale.ENGLISH, pattern, args);
+    }
+}
@@ -0,0 +1,585 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.test.load;
+
+import org.opencms.test.OpenCmsTestServletRequest;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpSession;
+
+/**
+ * GET request of an anonymous visitor without session for the load test.<p>
+ *
+ * Methods not needed for rendering pages are not implemented.<p>
+ */
+public class CmsLoadTestRequest extends HttpServletRequestWrapper {
+
+    /** The attributes. */
+    private Map<String, Object> m_attributes = new HashMap<String, Object>();
+
+    /** The character encoding. */
+    private String m_characterEncoding;
+
+    /** The servlet context. */
+    private CmsLoadTestServletContext m_context;
+
+    /** The headers. */
+    private Map<String, String> m_headers = new HashMap<String, String>();
+
+    /** The path in the site. */
+    private String m_pathInfo;
+
+    /**
+     * Creates a new request.<p>
+     *
+     * @param context the servlet context
+     * @param pathInfo the path of the requested resource in the site
+     */
+    public CmsLoadTestRequest(CmsLoadTestServletContext context, String pathInfo) {
+
+        super(new OpenCmsTestServletRequest());
+        m_context = context;
+        m_pathInfo = pathInfo;
+        m_headers.put("accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
+        m_headers.put("accept-language", "en");
+        m_headers.put("host", getServerName() + ":" + getServerPort());
+        m_headers.put("user-agent", "Mozilla/5.0 (X11; Linux x86_64) OpenCms load test");
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getAttribute(java.lang.String)
+     */
+    @Override
+    public Object getAttribute(String name) {
+
+        return m_attributes.get(name);
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getAttributeNames()
+     */
+    @Override
+    public Enumeration<String> getAttributeNames() {
+
+        return Collections.enumeration(m_attributes.keySet());
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getAuthType()
+     */
+    @Override
+    public String getAuthType() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getCharacterEncoding()
+     */
+    @Override
+    public String getCharacterEncoding() {
+
+        return m_characterEncoding;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getContentLength()
+     */
+    @Override
+    public int getContentLength() {
+
+        return -1;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getContentType()
+     */
+    @Override
+    public String getContentType() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getContextPath()
+     */
+    @Override
+    public String getContextPath() {
+
+        return CmsLoadTestServletContext.CONTEXT_PATH;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getCookies()
+     */
+    @Override
+    public Cookie[] getCookies() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getDateHeader(java.lang.String)
+     */
+    @Override
+    public long getDateHeader(String name) {
+
+        return -1;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getDispatcherType()
+     */
+    @Override
+    public DispatcherType getDispatcherType() {
+
+        return DispatcherType.REQUEST;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getHeader(java.lang.String)
+     */
+    @Override
+    public String getHeader(String name) {
+
+        return m_headers.get(name.toLowerCase());
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getHeaderNames()
+     */
+    @Override
+    public Enumeration<String> getHeaderNames() {
+
+        return Collections.enumeration(m_headers.keySet());
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getHeaders(java.lang.String)
+     */
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+
+        String value = getHeader(name);
+        if (value == null) {
+            return Collections.emptyEnumeration();
+        }
+        return Collections.enumeration(Collections.singleton(value));
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getIntHeader(java.lang.String)
+     */
+    @Override
+    public int getIntHeader(String name) {
+
+        String value = getHeader(name);
+        return value == null ? -1 : Integer.parseInt(value);
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getLocalAddr()
+     */
+    @Override
+    public String getLocalAddr() {
+
+        return "127.0.0.1";
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getLocale()
+     */
+    @Override
+    public Locale getLocale() {
+
+        return Locale.ENGLISH;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getLocales()
+     */
+    @Override
+    public Enumeration<Locale> getLocales() {
+
+        return Collections.enumeration(Collections.singleton(getLocale()));
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getLocalName()
+     */
+    @Override
+    public String getLocalName() {
+
+        return getServerName();
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getLocalPort()
+     */
+    @Override
+    public int getLocalPort() {
+
+        return getServerPort();
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getMethod()
+     */
+    @Override
+    public String getMethod() {
+
+        return "GET";
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getParameter(java.lang.String)
+     */
+    @Override
+    public String getParameter(String name) {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getParameterMap()
+     */
+    @Override
+    public Map<String, String[]> getParameterMap() {
+
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getParameterNames()
+     */
+    @Override
+    public Enumeration<String> getParameterNames() {
+
+        return Collections.emptyEnumeration();
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getParameterValues(java.lang.String)
+     */
+    @Override
+    public String[] getParameterValues(String name) {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getPathInfo()
+     */
+    @Override
+    public String getPathInfo() {
+
+        return m_pathInfo;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getPathTranslated()
+     */
+    @Override
+    public String getPathTranslated() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getProtocol()
+     */
+    @Override
+    public String getProtocol() {
+
+        return "HTTP/1.1";
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getQueryString()
+     */
+    @Override
+    public String getQueryString() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getRemoteAddr()
+     */
+    @Override
+    public String getRemoteAddr() {
+
+        return "127.0.0.1";
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getRemoteHost()
+     */
+    @Override
+    public String getRemoteHost() {
+
+        return getRemoteAddr();
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getRemotePort()
+     */
+    @Override
+    public int getRemotePort() {
+
+        return 49152;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getRemoteUser()
+     */
+    @Override
+    public String getRemoteUser() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getRequestDispatcher(java.lang.String)
+     */
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+
+        return m_context.getRequestDispatcher(path);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getRequestedSessionId()
+     */
+    @Override
+    public String getRequestedSessionId() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getRequestURI()
+     */
+    @Override
+    public String getRequestURI() {
+
+        return getContextPath() + getServletPath() + m_pathInfo;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getRequestURL()
+     */
+    @Override
+    public StringBuffer getRequestURL() {
+
+        StringBuffer result = new StringBuffer(64);
+        result.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort());
+        return result.append(getRequestURI());
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getScheme()
+     */
+    @Override
+    public String getScheme() {
+
+        return "http";
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getServerName()
+     */
+    @Override
+    public String getServerName() {
+
+        return "localhost";
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getServerPort()
+     */
+    @Override
+    public int getServerPort() {
+
+        return 8080;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getServletContext()
+     */
+    @Override
+    public ServletContext getServletContext() {
+
+        return m_context;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getServletPath()
+     */
+    @Override
+    public String getServletPath() {
+
+        return CmsLoadTestServletContext.SERVLET_PATH;
+    }
+
+    /**
+     * Returns <code>null</code>, since the requests are made by anonymous visitors without session.<p>
+     *
+     * @see javax.servlet.http.HttpServletRequestWrapper#getSession()
+     */
+    @Override
+    public HttpSession getSession() {
+
+        return null;
+    }
+
+    /**
+     * Returns <code>null</code>, since the requests are made by anonymous visitors without session.<p>
+     *
+     * @see javax.servlet.http.HttpServletRequestWrapper#getSession(boolean)
+     */
+    @Override
+    public HttpSession getSession(boolean create) {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getUserPrincipal()
+     */
+    @Override
+    public Principal getUserPrincipal() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#isAsyncStarted()
+     */
+    @Override
+    public boolean isAsyncStarted() {
+
+        return false;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#isAsyncSupported()
+     */
+    @Override
+    public boolean isAsyncSupported() {
+
+        return false;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#isRequestedSessionIdFromCookie()
+     */
+    @Override
+    public boolean isRequestedSessionIdFromCookie() {
+
+        return false;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#isRequestedSessionIdFromURL()
+     */
+    @Override
+    public boolean isRequestedSessionIdFromURL() {
+
+        return false;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#isRequestedSessionIdValid()
+     */
+    @Override
+    public boolean isRequestedSessionIdValid() {
+
+        return false;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#isSecure()
+     */
+    @Override
+    public boolean isSecure() {
+
+        return false;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#isUserInRole(java.lang.String)
+     */
+    @Override
+    public boolean isUserInRole(String role) {
+
+        return false;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#removeAttribute(java.lang.String)
+     */
+    @Override
+    public void removeAttribute(String name) {
+
+        m_attributes.remove(name);
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#setAttribute(java.lang.String, java.lang.Object)
+     */
+    @Override
+    public void setAttribute(String name, Object value) {
+
+        if (value == null) {
+            m_attributes.remove(name);
+        } else {
+            m_attributes.put(name, value);
+        }
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#setCharacterEncoding(java.lang.String)
+     */
+    @Override
+    public void setCharacterEncoding(String env) {
+
+        m_characterEncoding = env;
+    }
+}
@@ -0,0 +1,492 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.test.load;
+
+import org.opencms.test.OpenCmsTestServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response for the load test which discards the written content and only counts the bytes.<p>
+ */
+public class CmsLoadTestResponse extends HttpServletResponseWrapper {
+
+    /** The number of bytes written. */
+    private long m_bytes;
+
+    /** The character encoding. */
+    private String m_characterEncoding = "ISO-8859-1";
+
+    /** Flag indicating whether the response is committed. */
+    private boolean m_committed;
+
+    /** The content type. */
+    private String m_contentType;
+
+    /** The headers. */
+    private Map<String, List<String>> m_headers = new LinkedHashMap<String, List<String>>();
+
+    /** The locale. */
+    private Locale m_locale = Locale.ENGLISH;
+
+    /** The output stream. */
+    private ServletOutputStream m_outputStream = new ServletOutputStream() {
+
+        @Override
+        public boolean isReady() {
+
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+
+            m_bytes += len;
+        }
+
+        @Override
+        public void write(int b) {
+
+            m_bytes++;
+        }
+    };
+
+    /** The status. */
+    private int m_status = HttpServletResponse.SC_OK;
+
+    /** The writer, created on demand. */
+    private PrintWriter m_writer;
+
+    /**
+     * Creates a new response.<p>
+     */
+    public CmsLoadTestResponse() {
+
+        super(new OpenCmsTestServletResponse());
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#addCookie(javax.servlet.http.Cookie)
+     */
+    @Override
+    public void addCookie(Cookie cookie) {
+
+        addHeader("Set-Cookie", cookie.getName() + "=" + cookie.getValue());
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#addDateHeader(java.lang.String, long)
+     */
+    @Override
+    public void addDateHeader(String name, long date) {
+
+        addHeader(name, String.valueOf(date));
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#addHeader(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void addHeader(String name, String value) {
+
+        List<String> values = m_headers.get(name);
+        if (values == null) {
+            values = new ArrayList<String>(1);
+            m_headers.put(name, values);
+        }
+        values.add(value);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#addIntHeader(java.lang.String, int)
+     */
+    @Override
+    public void addIntHeader(String name, int value) {
+
+        addHeader(name, String.valueOf(value));
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#containsHeader(java.lang.String)
+     */
+    @Override
+    public boolean containsHeader(String name) {
+
+        return m_headers.containsKey(name);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#encodeRedirectUrl(java.lang.String)
+     */
+    @Deprecated
+    @Override
+    public String encodeRedirectUrl(String url) {
+
+        return url;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#encodeRedirectURL(java.lang.String)
+     */
+    @Override
+    public String encodeRedirectURL(String url) {
+
+        return url;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#encodeUrl(java.lang.String)
+     */
+    @Deprecated
+    @Override
+    public String encodeUrl(String url) {
+
+        return url;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#encodeURL(java.lang.String)
+     */
+    @Override
+    public String encodeURL(String url) {
+
+        return url;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#flushBuffer()
+     */
+    @Override
+    public void flushBuffer() {
+
+        if (m_writer != null) {
+            m_writer.flush();
+        }
+        m_committed = true;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getBufferSize()
+     */
+    @Override
+    public int getBufferSize() {
+
+        return 0;
+    }
+
+    /**
+     * Returns the number of bytes written, after flushing the writer.<p>
+     *
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+
+        if (m_writer != null) {
+            m_writer.flush();
+        }
+        return m_bytes;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getCharacterEncoding()
+     */
+    @Override
+    public String getCharacterEncoding() {
+
+        return m_characterEncoding;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getContentType()
+     */
+    @Override
+    public String getContentType() {
+
+        return m_contentType;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#getHeader(java.lang.String)
+     */
+    @Override
+    public String getHeader(String name) {
+
+        List<String> values = m_headers.get(name);
+        return values == null ? null : values.get(0);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#getHeaderNames()
+     */
+    @Override
+    public Collection<String> getHeaderNames() {
+
+        return m_headers.keySet();
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#getHeaders(java.lang.String)
+     */
+    @Override
+    public Collection<String> getHeaders(String name) {
+
+        List<String> values = m_headers.get(name);
+        return values == null ? Collections.<String> emptyList() : values;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getLocale()
+     */
+    @Override
+    public Locale getLocale() {
+
+        return m_locale;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getOutputStream()
+     */
+    @Override
+    public ServletOutputStream getOutputStream() {
+
+        return m_outputStream;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#getStatus()
+     */
+    @Override
+    public int getStatus() {
+
+        return m_status;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getWriter()
+     */
+    @Override
+    public PrintWriter getWriter() throws IOException {
+
+        if (m_writer == null) {
+            m_writer = new PrintWriter(new OutputStreamWriter(m_outputStream, m_characterEncoding));
+        }
+        return m_writer;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#isCommitted()
+     */
+    @Override
+    public boolean isCommitted() {
+
+        return m_committed;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#reset()
+     */
+    @Override
+    public void reset() {
+
+        resetBuffer();
+        m_headers.clear();
+        m_status = HttpServletResponse.SC_OK;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#resetBuffer()
+     */
+    @Override
+    public void resetBuffer() {
+
+        if (m_committed) {
+            throw new IllegalStateException();
+        }
+        if (m_writer != null) {
+            m_writer.flush();
+        }
+        m_bytes = 0;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#sendError(int)
+     */
+    @Override
+    public void sendError(int sc) {
+
+        m_status = sc;
+        m_committed = true;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#sendError(int, java.lang.String)
+     */
+    @Override
+    public void sendError(int sc, String msg) {
+
+        sendError(sc);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#sendRedirect(java.lang.String)
+     */
+    @Override
+    public void sendRedirect(String location) {
+
+        setHeader("Location", location);
+        sendError(HttpServletResponse.SC_MOVED_TEMPORARILY);
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setBufferSize(int)
+     */
+    @Override
+    public void setBufferSize(int size) {
+
+        // the content is not buffered
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setCharacterEncoding(java.lang.String)
+     */
+    @Override
+    public void setCharacterEncoding(String charset) {
+
+        if (m_writer == null) {
+            m_characterEncoding = charset;
+        }
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setContentLength(int)
+     */
+    @Override
+    public void setContentLength(int len) {
+
+        setIntHeader("Content-Length", len);
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setContentLengthLong(long)
+     */
+    @Override
+    public void setContentLengthLong(long len) {
+
+        setHeader("Content-Length", String.valueOf(len));
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setContentType(java.lang.String)
+     */
+    @Override
+    public void setContentType(String type) {
+
+        m_contentType = type;
+        int pos = type == null ? -1 : type.indexOf("charset=");
+        if (pos >= 0) {
+            setCharacterEncoding(type.substring(pos + 8).trim());
+        }
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setDateHeader(java.lang.String, long)
+     */
+    @Override
+    public void setDateHeader(String name, long date) {
+
+        setHeader(name, String.valueOf(date));
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setHeader(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void setHeader(String name, String value) {
+
+        m_headers.remove(name);
+        addHeader(name, value);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setIntHeader(java.lang.String, int)
+     */
+    @Override
+    public void setIntHeader(String name, int value) {
+
+        setHeader(name, String.valueOf(value));
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setLocale(java.util.Locale)
+     */
+    @Override
+    public void setLocale(Locale loc) {
+
+        m_locale = loc;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setStatus(int)
+     */
+    @Override
+    public void setStatus(int sc) {
+
+        m_status = sc;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setStatus(int, java.lang.String)
+     */
+    @Deprecated
+    @Override
+    public void setStatus(int sc, String sm) {
+
+        m_status = sc;
+    }
+}
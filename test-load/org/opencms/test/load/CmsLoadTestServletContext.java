@@ -0,0 +1,602 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.test.load;
+
+import org.opencms.main.OpenCmsServlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.EventListener;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterRegistration;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.Servlet;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRegistration;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.SessionCookieConfig;
+import javax.servlet.SessionTrackingMode;
+import javax.servlet.descriptor.JspConfigDescriptor;
+
+/**
+ * Servlet context of the OpenCms web application for the load test.<p>
+ *
+ * There is no JSP engine, so the request dispatchers simulate the compiled JSP pages: each execution of a JSP
+ * writes a fixed HTML fragment and is counted. Since the JSP loader only dispatches to the JSP on a miss of the
+ * Flex cache, the executions show how well the Flex cache works.<p>
+ */
+public class CmsLoadTestServletContext implements ServletContext {
+
+    /** The context path of the web application. */
+    public static final String CONTEXT_PATH = "/opencms";
+
+    /** The servlet path of the OpenCms servlet. */
+    public static final String SERVLET_PATH = "/opencms";
+
+    /** The attributes. */
+    private Map<String, Object> m_attributes = new ConcurrentHashMap<String, Object>();
+
+    /** The HTML fragment written by each JSP execution. */
+    private String m_fragment;
+
+    /** The initialization parameters. */
+    private Map<String, String> m_initParameters = new HashMap<String, String>();
+
+    /** The number of JSP executions. */
+    private AtomicLong m_jspExecutions = new AtomicLong();
+
+    /** The web application folder. */
+    private File m_webappFolder;
+
+    /**
+     * Creates a new servlet context.<p>
+     *
+     * @param webInfPath the path of the "WEB-INF" folder with the OpenCms configuration
+     * @param fragmentSize the size of the HTML fragment written by each JSP execution
+     */
+    public CmsLoadTestServletContext(String webInfPath, int fragmentSize) {
+
+        m_webappFolder = new File(webInfPath).getAbsoluteFile().getParentFile();
+        m_initParameters.put(OpenCmsServlet.SERVLET_PARAM_OPEN_CMS_HOME, webInfPath);
+        m_initParameters.put(OpenCmsServlet.SERVLET_PARAM_OPEN_CMS_SERVLET, SERVLET_PATH + "/*");
+        m_initParameters.put(OpenCmsServlet.SERVLET_PARAM_DEFAULT_WEB_APPLICATION, "ROOT");
+        m_initParameters.put(OpenCmsServlet.SERVLET_PARAM_WEB_APPLICATION_CONTEXT, CONTEXT_PATH.substring(1));
+        StringBuffer fragment = new StringBuffer(fragmentSize + 16);
+        fragment.append("<p>");
+        while (fragment.length() < fragmentSize) {
+            fragment.append("Lorem ipsum dolor sit amet. ");
+        }
+        fragment.append("</p>\n");
+        m_fragment = fragment.toString();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addFilter(java.lang.String, java.lang.Class)
+     */
+    public FilterRegistration.Dynamic addFilter(String filterName, Class<? extends Filter> filterClass) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addFilter(java.lang.String, javax.servlet.Filter)
+     */
+    public FilterRegistration.Dynamic addFilter(String filterName, Filter filter) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addFilter(java.lang.String, java.lang.String)
+     */
+    public FilterRegistration.Dynamic addFilter(String filterName, String className) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addListener(java.lang.Class)
+     */
+    public void addListener(Class<? extends EventListener> listenerClass) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addListener(java.lang.String)
+     */
+    public void addListener(String className) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addListener(java.util.EventListener)
+     */
+    public <T extends EventListener> void addListener(T t) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addServlet(java.lang.String, java.lang.Class)
+     */
+    public ServletRegistration.Dynamic addServlet(String servletName, Class<? extends Servlet> servletClass) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addServlet(java.lang.String, javax.servlet.Servlet)
+     */
+    public ServletRegistration.Dynamic addServlet(String servletName, Servlet servlet) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#addServlet(java.lang.String, java.lang.String)
+     */
+    public ServletRegistration.Dynamic addServlet(String servletName, String className) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates the configuration of the OpenCms servlet.<p>
+     *
+     * @return the servlet configuration
+     */
+    public ServletConfig createServletConfig() {
+
+        return new ServletConfig() {
+
+            public String getInitParameter(String name) {
+
+                return null;
+            }
+
+            public Enumeration<String> getInitParameterNames() {
+
+                return Collections.emptyEnumeration();
+            }
+
+            public ServletContext getServletContext() {
+
+                return CmsLoadTestServletContext.this;
+            }
+
+            public String getServletName() {
+
+                return "OpenCmsServlet";
+            }
+        };
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#createFilter(java.lang.Class)
+     */
+    public <T extends Filter> T createFilter(Class<T> clazz) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#createListener(java.lang.Class)
+     */
+    public <T extends EventListener> T createListener(Class<T> clazz) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#createServlet(java.lang.Class)
+     */
+    public <T extends Servlet> T createServlet(Class<T> clazz) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#declareRoles(java.lang.String[])
+     */
+    public void declareRoles(String... roleNames) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getAttribute(java.lang.String)
+     */
+    public Object getAttribute(String name) {
+
+        return m_attributes.get(name);
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getAttributeNames()
+     */
+    public Enumeration<String> getAttributeNames() {
+
+        return Collections.enumeration(m_attributes.keySet());
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getClassLoader()
+     */
+    public ClassLoader getClassLoader() {
+
+        return getClass().getClassLoader();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getContext(java.lang.String)
+     */
+    public ServletContext getContext(String uripath) {
+
+        return uripath.startsWith(CONTEXT_PATH) ? this : null;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getContextPath()
+     */
+    public String getContextPath() {
+
+        return CONTEXT_PATH;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getDefaultSessionTrackingModes()
+     */
+    public Set<SessionTrackingMode> getDefaultSessionTrackingModes() {
+
+        return Collections.singleton(SessionTrackingMode.COOKIE);
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getEffectiveMajorVersion()
+     */
+    public int getEffectiveMajorVersion() {
+
+        return getMajorVersion();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getEffectiveMinorVersion()
+     */
+    public int getEffectiveMinorVersion() {
+
+        return getMinorVersion();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getEffectiveSessionTrackingModes()
+     */
+    public Set<SessionTrackingMode> getEffectiveSessionTrackingModes() {
+
+        return getDefaultSessionTrackingModes();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getFilterRegistration(java.lang.String)
+     */
+    public FilterRegistration getFilterRegistration(String filterName) {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getFilterRegistrations()
+     */
+    public Map<String, ? extends FilterRegistration> getFilterRegistrations() {
+
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getInitParameter(java.lang.String)
+     */
+    public String getInitParameter(String name) {
+
+        return m_initParameters.get(name);
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getInitParameterNames()
+     */
+    public Enumeration<String> getInitParameterNames() {
+
+        return Collections.enumeration(m_initParameters.keySet());
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getJspConfigDescriptor()
+     */
+    public JspConfigDescriptor getJspConfigDescriptor() {
+
+        return null;
+    }
+
+    /**
+     * Returns the number of JSP executions.<p>
+     *
+     * @return the number of JSP executions
+     */
+    public long getJspExecutions() {
+
+        return m_jspExecutions.get();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getMajorVersion()
+     */
+    public int getMajorVersion() {
+
+        return 3;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getMimeType(java.lang.String)
+     */
+    public String getMimeType(String file) {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getMinorVersion()
+     */
+    public int getMinorVersion() {
+
+        return 1;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getNamedDispatcher(java.lang.String)
+     */
+    public RequestDispatcher getNamedDispatcher(String name) {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getRealPath(java.lang.String)
+     */
+    public String getRealPath(String path) {
+
+        return new File(m_webappFolder, path).getPath();
+    }
+
+    /**
+     * Returns a request dispatcher simulating the execution of the compiled JSP for the given path.<p>
+     *
+     * @see javax.servlet.ServletContext#getRequestDispatcher(java.lang.String)
+     */
+    public RequestDispatcher getRequestDispatcher(String path) {
+
+        return new RequestDispatcher() {
+
+            public void forward(ServletRequest request, ServletResponse response) throws IOException {
+
+                response.resetBuffer();
+                include(request, response);
+            }
+
+            public void include(ServletRequest request, ServletResponse response) throws IOException {
+
+                m_jspExecutions.incrementAndGet();
+                PrintWriter writer = response.getWriter();
+                writer.print("<div class=\"");
+                writer.print(path);
+                writer.print("\">");
+                writer.print(m_fragment);
+                writer.print("</div>\n");
+            }
+        };
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getResource(java.lang.String)
+     */
+    public URL getResource(String path) throws MalformedURLException {
+
+        return new File(m_webappFolder, path).toURI().toURL();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getResourceAsStream(java.lang.String)
+     */
+    public InputStream getResourceAsStream(String path) {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getResourcePaths(java.lang.String)
+     */
+    public Set<String> getResourcePaths(String path) {
+
+        return Collections.emptySet();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getServerInfo()
+     */
+    public String getServerInfo() {
+
+        return "OpenCms load test";
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getServlet(java.lang.String)
+     */
+    @Deprecated
+    public Servlet getServlet(String name) throws ServletException {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getServletContextName()
+     */
+    public String getServletContextName() {
+
+        return "OpenCms";
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getServletNames()
+     */
+    @Deprecated
+    public Enumeration<String> getServletNames() {
+
+        return Collections.emptyEnumeration();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getServletRegistration(java.lang.String)
+     */
+    public ServletRegistration getServletRegistration(String servletName) {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getServletRegistrations()
+     */
+    public Map<String, ? extends ServletRegistration> getServletRegistrations() {
+
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getServlets()
+     */
+    @Deprecated
+    public Enumeration<Servlet> getServlets() {
+
+        return Collections.emptyEnumeration();
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getSessionCookieConfig()
+     */
+    public SessionCookieConfig getSessionCookieConfig() {
+
+        return null;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#getVirtualServerName()
+     */
+    public String getVirtualServerName() {
+
+        return "localhost";
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#log(java.lang.Exception, java.lang.String)
+     */
+    @Deprecated
+    public void log(Exception exception, String msg) {
+
+        log(msg, exception);
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#log(java.lang.String)
+     */
+    public void log(String msg) {
+
+        System.out.println(msg);
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#log(java.lang.String, java.lang.Throwable)
+     */
+    public void log(String message, Throwable throwable) {
+
+        System.out.println(message);
+        throwable.printStackTrace(System.out);
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#removeAttribute(java.lang.String)
+     */
+    public void removeAttribute(String name) {
+
+        m_attributes.remove(name);
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#setAttribute(java.lang.String, java.lang.Object)
+     */
+    public void setAttribute(String name, Object object) {
+
+        if (object == null) {
+            m_attributes.remove(name);
+        } else {
+            m_attributes.put(name, object);
+        }
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#setInitParameter(java.lang.String, java.lang.String)
+     */
+    public boolean setInitParameter(String name, String value) {
+
+        if (m_initParameters.containsKey(name)) {
+            return false;
+        }
+        m_initParameters.put(name, value);
+        return true;
+    }
+
+    /**
+     * @see javax.servlet.ServletContext#setSessionTrackingModes(java.util.Set)
+     */
+    public void setSessionTrackingModes(Set<SessionTrackingMode> sessionTrackingModes) {
+
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.ade.galleries;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.main.OpenCms;
+import org.opencms.search.galleries.CmsGallerySearchResultList;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the {@link CmsGalleryCache}.<p>
+ */
+public class TestCmsGalleryCache extends OpenCmsTestCase {
+
+    /** The password of the test users. */
+    private static final String PASSWORD = "secret";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsGalleryCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsGalleryCache.class.getName());
+
+        suite.addTest(new TestCmsGalleryCache("testFingerprintKeySeparation"));
+        suite.addTest(new TestCmsGalleryCache("testInvalidationOnAccessControlChange"));
+        suite.addTest(new TestCmsGalleryCache("testInvalidationOnGroupChange"));
+        suite.addTest(new TestCmsGalleryCache("testCachedValueNotModified"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the cached values are not modified by calculating the pages of a copy.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCachedValueNotModified() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the cached values are not modified by the paging");
+
+        final CmsGallerySearchResultList results = new CmsGallerySearchResultList();
+        results.setHitCount(25);
+        CmsGalleryCache cache = CmsGalleryCache.getInstance();
+        CmsGallerySearchResultList cached = cache.get(
+            cms,
+            CmsGalleryCache.KIND_SEARCH,
+            "immutable",
+            null,
+            false,
+            () -> results);
+
+        // the gallery service calculates the pages on a copy of the shared list
+        CmsGallerySearchResultList page = new CmsGallerySearchResultList(cached);
+        page.calculatePages(2, 10);
+        assertEquals(25, page.getHitCount());
+        assertEquals(3, page.getPageCount());
+        assertEquals(2, page.getResultPage());
+
+        CmsGallerySearchResultList cachedAgain = cache.get(
+            cms,
+            CmsGalleryCache.KIND_SEARCH,
+            "immutable",
+            null,
+            false,
+            () -> new CmsGallerySearchResultList());
+        assertSame(results, cachedAgain);
+        assertEquals(25, cachedAgain.getHitCount());
+        assertEquals(0, cachedAgain.getPageCount());
+        assertEquals(0, cachedAgain.getResultPage());
+    }
+
+    /**
+     * Tests that users with the same groups share the entries, and users with other groups do not.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFingerprintKeySeparation() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the separation of the cache entries by permission fingerprint");
+
+        createTestUser(cms, "galleryUser1", OpenCms.getDefaultUsers().getGroupUsers());
+        createTestUser(cms, "galleryUser2", OpenCms.getDefaultUsers().getGroupUsers());
+        createTestUser(cms, "galleryAdmin", OpenCms.getDefaultUsers().getGroupAdministrators());
+        CmsObject cms1 = getUserCms(cms, "galleryUser1");
+        CmsObject cms2 = getUserCms(cms, "galleryUser2");
+        CmsObject cmsAdmin = getUserCms(cms, "galleryAdmin");
+
+        CmsGalleryCache cache = CmsGalleryCache.getInstance();
+        assertEquals(cache.getPermissionFingerprint(cms1), cache.getPermissionFingerprint(cms2));
+        assertFalse(cache.getPermissionFingerprint(cms1).equals(cache.getPermissionFingerprint(cmsAdmin)));
+
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("value", getCounted(cms1, "separation", loads));
+        assertEquals(1, loads.get());
+        // same groups, shared entry
+        assertEquals("value", getCounted(cms2, "separation", loads));
+        assertEquals(1, loads.get());
+        // other groups, separate entry
+        assertEquals("value", getCounted(cmsAdmin, "separation", loads));
+        assertEquals(2, loads.get());
+        // other project, separate entry
+        CmsObject online = OpenCms.initCmsObject(cms1);
+        online.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        assertEquals("value", getCounted(online, "separation", loads));
+        assertEquals(3, loads.get());
+    }
+
+    /**
+     * Tests that the fingerprints are recomputed after the access control entries of a user have been changed.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testInvalidationOnAccessControlChange() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the fingerprint invalidation on access control changes");
+
+        createTestUser(cms, "galleryAceUser", OpenCms.getDefaultUsers().getGroupUsers());
+        createTestUser(cms, "galleryOtherUser", OpenCms.getDefaultUsers().getGroupUsers());
+        CmsObject aceCms = getUserCms(cms, "galleryAceUser");
+        CmsObject otherCms = getUserCms(cms, "galleryOtherUser");
+
+        CmsGalleryCache cache = CmsGalleryCache.getInstance();
+        String sharedFingerprint = cache.getPermissionFingerprint(otherCms);
+        assertEquals(sharedFingerprint, cache.getPermissionFingerprint(aceCms));
+        AtomicInteger loads = new AtomicInteger();
+        getCounted(otherCms, "ace", loads);
+        assertEquals(1, loads.get());
+
+        // the first access control entry of the user separates the entries
+        cms.lockResource("/folder1/");
+        cms.chacc("/folder1/", I_CmsPrincipal.PRINCIPAL_USER, "galleryAceUser", "+r");
+        String aceFingerprint = cache.getPermissionFingerprint(aceCms);
+        assertFalse(sharedFingerprint.equals(aceFingerprint));
+        assertEquals(sharedFingerprint, cache.getPermissionFingerprint(otherCms));
+        getCounted(aceCms, "ace", loads);
+        assertEquals(2, loads.get());
+
+        // without access control entries, the entries are shared again
+        cms.rmacc("/folder1/", I_CmsPrincipal.PRINCIPAL_USER, "galleryAceUser");
+        cms.unlockResource("/folder1/");
+        assertEquals(sharedFingerprint, cache.getPermissionFingerprint(aceCms));
+    }
+
+    /**
+     * Tests that the fingerprints are recomputed after the groups of a user have been changed.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testInvalidationOnGroupChange() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the fingerprint invalidation on group changes");
+
+        createTestUser(cms, "galleryGroupUser", OpenCms.getDefaultUsers().getGroupUsers());
+        createTestUser(cms, "galleryGroupOther", OpenCms.getDefaultUsers().getGroupUsers());
+        CmsObject groupCms = getUserCms(cms, "galleryGroupUser");
+        CmsObject otherCms = getUserCms(cms, "galleryGroupOther");
+
+        CmsGalleryCache cache = CmsGalleryCache.getInstance();
+        String sharedFingerprint = cache.getPermissionFingerprint(otherCms);
+        assertEquals(sharedFingerprint, cache.getPermissionFingerprint(groupCms));
+
+        cms.addUserToGroup("galleryGroupUser", OpenCms.getDefaultUsers().getGroupAdministrators());
+        assertFalse(sharedFingerprint.equals(cache.getPermissionFingerprint(groupCms)));
+
+        cms.removeUserFromGroup("galleryGroupUser", OpenCms.getDefaultUsers().getGroupAdministrators());
+        assertEquals(sharedFingerprint, cache.getPermissionFingerprint(groupCms));
+    }
+
+    /**
+     * Creates a test user in the given group.<p>
+     *
+     * @param cms the admin cms context
+     * @param name the user name
+     * @param group the group name
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createTestUser(CmsObject cms, String name, String group) throws Exception {
+
+        cms.createUser(name, PASSWORD, "", null);
+        cms.addUserToGroup(name, group);
+    }
+
+    /**
+     * Reads a value from the cache, counting the loads.<p>
+     *
+     * @param cms the cms context
+     * @param key the key
+     * @param loads the load counter
+     *
+     * @return the value
+     *
+     * @throws Exception if something goes wrong
+     */
+    private String getCounted(CmsObject cms, String key, final AtomicInteger loads) throws Exception {
+
+        return CmsGalleryCache.getInstance().get(cms, CmsGalleryCache.KIND_GALLERIES, key, null, true, () -> {
+            loads.incrementAndGet();
+            return "value";
+        });
+    }
+
+    /**
+     * Returns a cms context for the given user in the offline project.<p>
+     *
+     * @param cms the admin cms context
+     * @param name the user name
+     *
+     * @return the cms context of the user
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getUserCms(CmsObject cms, String name) throws Exception {
+
+        CmsObject userCms = OpenCms.initCmsObject(cms);
+        userCms.loginUser(name, PASSWORD);
+        userCms.getRequestContext().setCurrentProject(cms.getRequestContext().getCurrentProject());
+        return userCms;
+    }
+}
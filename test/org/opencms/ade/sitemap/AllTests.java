@@ -55,7 +55,8 @@ public class AllTests {
         TestSuite suite = new TestSuite("Tests for package " + AllTests.class.getPackage().getName());
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
-        suite.addTest(new TestSuite(TestNavPosCalculator.class));
+        suite.addTest(new TestSuite(TestNavPosCalculator.class));
+        suite.addTest(TestCmsSitemapEntryCache.suite());
         //$JUnit-END$
         return suite;
     }
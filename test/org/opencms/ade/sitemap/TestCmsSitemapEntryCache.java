@@ -0,0 +1,224 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.ade.sitemap;
+
+import org.opencms.ade.sitemap.shared.CmsClientSitemapEntry;
+import org.opencms.ade.sitemap.shared.CmsClientSitemapEntry.EntryType;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the {@link CmsSitemapEntryCache}.<p>
+ *
+ * The sitemap editor only loads one level of children in advance and reads deeper levels later, so the cached
+ * client entries of a folder must be invalidated by changes anywhere below it.<p>
+ */
+public class TestCmsSitemapEntryCache extends OpenCmsTestCase {
+
+    /** The folder containing the test resources. */
+    private static final String FOLDER = "/sitemapcache/";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsSitemapEntryCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsSitemapEntryCache.class.getName());
+
+        suite.addTest(new TestCmsSitemapEntryCache("testCachedEntriesCopied"));
+        suite.addTest(new TestCmsSitemapEntryCache("testInvalidation"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that changes of the returned client entries do not change the cached entries.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCachedEntriesCopied() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the cached client entries are copied");
+
+        CmsResource folder = cms.createResource(
+            "/sitemapcopy/",
+            OpenCms.getResourceManager().getResourceType(CmsResourceTypeFolder.getStaticTypeName()));
+        AtomicInteger loads = new AtomicInteger();
+        CmsClientSitemapEntry first = getEntry(cms, folder, loads);
+        first.setPosition(3);
+        first.getSubEntries().add(new CmsClientSitemapEntry());
+
+        CmsClientSitemapEntry second = getEntry(cms, folder, loads);
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        assertEquals(-1, second.getPosition());
+        assertTrue(second.getSubEntries().isEmpty());
+        assertEquals(folder.getStructureId(), second.getId());
+        assertEquals(cms.getSitePath(folder), second.getSitePath());
+    }
+
+    /**
+     * Tests that the cached client entries are removed when resources in and above their folders are changed.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testInvalidation() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the invalidation of the cached client entries");
+
+        int folderType = OpenCms.getResourceManager().getResourceType(
+            CmsResourceTypeFolder.getStaticTypeName()).getTypeId();
+        int plainType = OpenCms.getResourceManager().getResourceType(
+            CmsResourceTypePlain.getStaticTypeName()).getTypeId();
+        CmsResource folder = cms.createResource(FOLDER, folderType);
+        CmsResource sub = cms.createResource(FOLDER + "sub/", folderType);
+        CmsResource page = cms.createResource(FOLDER + "sub/page.html", plainType);
+        cms.createResource(FOLDER + "sub/deep/", folderType);
+        cms.createResource("/othercache/", folderType);
+
+        assertEquals(3, countLoads(cms, folder, sub, page));
+        assertEquals(0, countLoads(cms, folder, sub, page));
+
+        // changes in other folders do not matter
+        cms.createResource("/othercache/file.txt", plainType);
+        assertEquals(0, countLoads(cms, folder, sub, page));
+
+        // a change below the first level of children, which is loaded later by the sitemap editor
+        cms.createResource(FOLDER + "sub/deep/file.txt", plainType);
+        assertEquals(2, countLoads(cms, folder, sub, page));
+
+        // lock changes are not ignored, since the entries show the lock state, and the changed folder is a parent
+        cms.unlockResource(FOLDER);
+        assertEquals(3, countLoads(cms, folder, sub, page));
+
+        // changes of a parent folder remove the entries below it
+        cms.lockResource(FOLDER);
+        cms.writePropertyObject(FOLDER, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Changed", null));
+        assertEquals(3, countLoads(cms, folder, sub, page));
+        cms.unlockResource(FOLDER);
+        assertEquals(3, countLoads(cms, folder, sub, page));
+
+        // publishing changes the state of all entries
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertEquals(3, countLoads(cms, folder, sub, page));
+    }
+
+    /**
+     * Reads the client entries of the given resources and returns how many of them were not cached.<p>
+     *
+     * @param cms the cms context
+     * @param resources the resources
+     *
+     * @return the number of loaded entries
+     *
+     * @throws Exception if something goes wrong
+     */
+    private int countLoads(CmsObject cms, CmsResource... resources) throws Exception {
+
+        AtomicInteger loads = new AtomicInteger();
+        for (CmsResource resource : resources) {
+            getEntry(cms, resource, loads);
+        }
+        return loads.get();
+    }
+
+    /**
+     * Reads the client entry of a resource from the cache.<p>
+     *
+     * @param cms the cms context
+     * @param resource the resource
+     * @param loads counts the entries which were not cached
+     *
+     * @return the client entry
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsClientSitemapEntry getEntry(CmsObject cms, final CmsResource resource, final AtomicInteger loads)
+    throws Exception {
+
+        final String sitePath = cms.getSitePath(resource);
+        return CmsSitemapEntryCache.getInstance().get(cms, resource, false, Locale.ENGLISH, () -> {
+            loads.incrementAndGet();
+            CmsClientSitemapEntry entry = new CmsClientSitemapEntry();
+            entry.setId(resource.getStructureId());
+            entry.setEntryType(resource.isFolder() ? EntryType.folder : EntryType.leaf);
+            entry.setName(resource.getName());
+            entry.setSitePath(sitePath);
+            entry.setVfsPath(sitePath);
+            return entry;
+        });
+    }
+}
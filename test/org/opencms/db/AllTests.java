@@ -27,6 +27,7 @@
 
 package org.opencms.db;
 
+import org.opencms.db.timing.TestCmsRequestProfilingHandler;
 import org.opencms.test.OpenCmsTestProperties;
 
 import junit.framework.Test;
@@ -62,9 +63,15 @@ public final class AllTests {
         // $JUnit-BEGIN$
         suite.addTest(TestQueryProperties.suite());
         suite.addTest(TestPublishHistory.suite());
+        suite.addTest(TestHistoryPrune.suite());
         suite.addTest(TestSubscriptionManager.suite());
         suite.addTest(TestAliases.suite());
         suite.addTest(TestUrlNameMapping.suite());
+        suite.addTest(new TestSuite(TestCmsLogWriter.class));
+        suite.addTest(new TestSuite(TestCmsContentStore.class));
+        suite.addTest(new TestSuite(TestCmsVisitBuffer.class));
+        suite.addTest(new TestSuite(TestCmsDbPoolV11.class));
+        suite.addTest(new TestSuite(TestCmsRequestProfilingHandler.class));
         // $JUnit-END$
         return suite;
     }
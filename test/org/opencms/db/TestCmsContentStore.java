@@ -0,0 +1,143 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.CmsDataAccessException;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for the content store.<p>
+ */
+public class TestCmsContentStore extends TestCase {
+
+    /** The temporary store directory. */
+    private File m_directory;
+
+    /**
+     * Tests that small contents are kept in the database.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testSmallContent() throws Exception {
+
+        CmsContentStore store = new CmsContentStore(m_directory, 200);
+        byte[] content = "small".getBytes(StandardCharsets.UTF_8);
+        assertSame(content, store.store(content));
+        assertSame(content, store.resolve(content));
+        assertEquals(0, m_directory.list().length);
+    }
+
+    /**
+     * Tests that large contents are stored once and can be read back.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testStoreAndResolve() throws Exception {
+
+        CmsContentStore store = new CmsContentStore(m_directory, 200);
+        byte[] content = createContent(1000);
+        byte[] reference = store.store(content);
+        assertTrue(CmsContentStore.isReference(reference));
+        assertTrue(Arrays.equals(content, store.resolve(reference)));
+        // storing the same content again results in the same reference
+        assertTrue(Arrays.equals(reference, store.store(content.clone())));
+    }
+
+    /**
+     * Tests that a content which looks like a reference is stored, so it can be read back unchanged.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testContentLookingLikeReference() throws Exception {
+
+        CmsContentStore store = new CmsContentStore(m_directory, 200);
+        byte[] fake = store.store(createContent(1000));
+        byte[] reference = store.store(fake);
+        assertFalse(Arrays.equals(fake, reference));
+        assertTrue(Arrays.equals(fake, store.resolve(reference)));
+    }
+
+    /**
+     * Tests that a disabled store does not change contents, but fails on references.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testDisabled() throws Exception {
+
+        byte[] content = createContent(10000);
+        assertSame(content, CmsContentStore.DISABLED.store(content));
+        byte[] reference = new CmsContentStore(m_directory, 200).store(content);
+        try {
+            CmsContentStore.DISABLED.resolve(reference);
+            fail("Resolving a reference without store must fail");
+        } catch (CmsDataAccessException e) {
+            // expected
+        }
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        m_directory = Files.createTempDirectory("opencms-contentstore").toFile();
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() {
+
+        CmsFileUtil.purgeDirectory(m_directory);
+    }
+
+    /**
+     * Creates some test content.<p>
+     *
+     * @param size the content size
+     *
+     * @return the content
+     */
+    private byte[] createContent(int size) {
+
+        byte[] result = new byte[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = (byte)(i % 251);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsRequestContext;
+import org.opencms.file.CmsUser;
+import org.opencms.util.CmsUUID;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the read/write splitting of the {@link CmsDbPoolV11} with two in-memory HSQLDB databases.<p>
+ */
+public class TestCmsDbPoolV11 extends TestCase {
+
+    /** The name of the test pool. */
+    private static final String POOL = "test";
+
+    /**
+     * Tests that the online project is read from the primary database while it is written and in the consistency
+     * window afterwards.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testConsistencyWindow() throws Exception {
+
+        CmsDbPoolV11 pool = new CmsDbPoolV11(createConfiguration("window", 60000), POOL);
+        try {
+            assertEquals("replica", readDatabase(pool.getReadConnection()));
+            pool.startOnlineWrite();
+            assertTrue(pool.isConsistencyGuardActive());
+            assertEquals("primary", readDatabase(pool.getReadConnection()));
+            pool.finishOnlineWrite();
+            assertTrue(pool.isConsistencyGuardActive());
+            assertEquals("primary", readDatabase(pool.getReadConnection()));
+            assertEquals(1, pool.getReplicaReadCount());
+            assertEquals(2, pool.getGuardedReadCount());
+        } finally {
+            pool.close();
+        }
+
+        pool = new CmsDbPoolV11(createConfiguration("nowindow", 0), POOL);
+        try {
+            pool.startOnlineWrite();
+            pool.startOnlineWrite();
+            pool.finishOnlineWrite();
+            // another write is still running
+            assertEquals("primary", readDatabase(pool.getReadConnection()));
+            pool.finishOnlineWrite();
+            assertFalse(pool.isConsistencyGuardActive());
+            assertEquals("replica", readDatabase(pool.getReadConnection()));
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Tests that the pool statistics are available via JMX.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testMBean() throws Exception {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(CmsDbPoolV11.MBEAN_NAME_PREFIX + POOL);
+        CmsDbPoolV11 pool = new CmsDbPoolV11(createConfiguration("mbean", 1000), POOL);
+        try {
+            readDatabase(pool.getReadConnection());
+            assertEquals(Boolean.TRUE, server.getAttribute(name, "ReplicaConfigured"));
+            assertEquals(Long.valueOf(1), server.getAttribute(name, "ReplicaReadCount"));
+            assertEquals(Long.valueOf(1000), server.getAttribute(name, "ConsistencyWindow"));
+            assertEquals("opencms:" + POOL, server.getAttribute(name, "PoolUrl"));
+        } finally {
+            pool.close();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    /**
+     * Tests that the read connections are connections to the replica and all other connections are
+     * connections to the primary database.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReadConnection() throws Exception {
+
+        CmsDbPoolV11 pool = new CmsDbPoolV11(createConfiguration("read", 1000), POOL);
+        try {
+            assertTrue(pool.isReplicaConfigured());
+            assertFalse(pool.isConsistencyGuardActive());
+            assertEquals("replica", readDatabase(pool.getReadConnection()));
+            assertEquals("primary", readDatabase(pool.getConnection()));
+            assertEquals(1, pool.getReplicaReadCount());
+            assertEquals(0, pool.getGuardedReadCount());
+
+            // the replica is read only
+            Connection con = pool.getReadConnection();
+            try {
+                assertTrue(con.isReadOnly());
+            } finally {
+                con.close();
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Tests that the SQL manager uses the replica only for reading the online project in the online project, and
+     * the primary database when the online project is read in an offline project, e.g. in a write operation.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReadConnectionByProject() throws Exception {
+
+        CmsDbPoolV11 pool = new CmsDbPoolV11(createConfiguration("project", 1000), POOL);
+        CmsDriverManager.m_pools.put(pool.getPoolUrl(), pool);
+        try {
+            org.opencms.db.generic.CmsSqlManager sqlManager = new org.opencms.db.generic.CmsSqlManager();
+            sqlManager.init(0, pool.getPoolUrl());
+            CmsDbContext onlineDbc = createDbContext(CmsProject.ONLINE_PROJECT_ID);
+            CmsDbContext offlineDbc = createDbContext(new CmsUUID());
+
+            assertEquals(
+                "replica",
+                readDatabase(sqlManager.getReadConnection(onlineDbc, CmsProject.ONLINE_PROJECT_ID)));
+            // an offline project reading the online project must see the current state
+            assertEquals(
+                "primary",
+                readDatabase(sqlManager.getReadConnection(offlineDbc, CmsProject.ONLINE_PROJECT_ID)));
+            assertEquals(
+                "primary",
+                readDatabase(sqlManager.getReadConnection(offlineDbc, offlineDbc.currentProject().getUuid())));
+            assertEquals(
+                "primary",
+                readDatabase(sqlManager.getReadConnection(new CmsDbContext(), CmsProject.ONLINE_PROJECT_ID)));
+            assertEquals(1, pool.getReplicaReadCount());
+        } finally {
+            CmsDriverManager.m_pools.remove(pool.getPoolUrl());
+            pool.close();
+        }
+    }
+
+    /**
+     * Tests that an unreachable replica does not prevent the pool from being created, and that the primary
+     * database is used instead.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUnreachableReplica() throws Exception {
+
+        CmsParameterConfiguration config = createConfiguration("unreachable", 0);
+        config.put(
+            CmsDbPoolV11.KEY_DATABASE_POOL + "." + POOL + ".replica.jdbcUrl",
+            "jdbc:hsqldb:hsql://localhost:1/unreachable");
+        CmsDbPoolV11 pool = new CmsDbPoolV11(config, POOL);
+        try {
+            assertTrue(pool.isReplicaConfigured());
+            // the replica pool is not started before the first read
+            assertEquals(0, pool.getReplicaActiveConnections());
+            assertEquals("primary", readDatabase(pool.getReadConnection()));
+            assertEquals(1, pool.getReplicaFailureCount());
+            // the replica is not tried again immediately
+            assertEquals("primary", readDatabase(pool.getReadConnection()));
+            assertEquals(1, pool.getReplicaFailureCount());
+            assertEquals(0, pool.getReplicaReadCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Tests that all connections are connections to the primary database if no replica is configured.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testWithoutReplica() throws Exception {
+
+        CmsParameterConfiguration config = createConfiguration("single", 1000);
+        config.remove(CmsDbPoolV11.KEY_DATABASE_POOL + "." + POOL + ".replica.jdbcUrl");
+        CmsDbPoolV11 pool = new CmsDbPoolV11(config, POOL);
+        try {
+            assertFalse(pool.isReplicaConfigured());
+            assertEquals("primary", readDatabase(pool.getReadConnection()));
+            assertEquals(0, pool.getReplicaReadCount());
+            assertEquals(0, pool.getReplicaActiveConnections());
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Creates the configuration of a pool with a replica, and the primary and replica databases.<p>
+     *
+     * @param name the name of the databases
+     * @param consistencyWindow the consistency window
+     *
+     * @return the configuration
+     *
+     * @throws SQLException if creating the databases fails
+     */
+    private CmsParameterConfiguration createConfiguration(String name, int consistencyWindow) throws SQLException {
+
+        String prefix = CmsDbPoolV11.KEY_DATABASE_POOL + "." + POOL + ".";
+        CmsParameterConfiguration config = new CmsParameterConfiguration();
+        config.put(prefix + "jdbcDriver", "org.hsqldb.jdbcDriver");
+        config.put(prefix + "jdbcUrl", "jdbc:hsqldb:mem:" + name + "primary");
+        config.put(prefix + "connects", "1");
+        config.put(prefix + "v11.maximumPoolSize", "2");
+        config.put(prefix + "replica.jdbcUrl", "jdbc:hsqldb:mem:" + name + "replica");
+        config.put(prefix + "replica.consistencyWindow", String.valueOf(consistencyWindow));
+        config.put(prefix + "replica.v11.maximumPoolSize", "2");
+        createDatabase("jdbc:hsqldb:mem:" + name + "primary", "primary");
+        createDatabase("jdbc:hsqldb:mem:" + name + "replica", "replica");
+        return config;
+    }
+
+    /**
+     * Creates a database context for a request in the given project.<p>
+     *
+     * @param projectId the id of the current project
+     *
+     * @return the database context
+     */
+    private CmsDbContext createDbContext(CmsUUID projectId) {
+
+        CmsProject project = new CmsProject(
+            projectId,
+            "test",
+            "",
+            new CmsUUID(),
+            new CmsUUID(),
+            new CmsUUID(),
+            0,
+            0,
+            CmsProject.PROJECT_TYPE_NORMAL);
+        return new CmsDbContext(
+            new CmsRequestContext(
+                new CmsUser(),
+                project,
+                "/",
+                null,
+                "/",
+                false,
+                Locale.ENGLISH,
+                "UTF-8",
+                "127.0.0.1",
+                0,
+                null,
+                null,
+                null));
+    }
+
+    /**
+     * Creates a database with a table containing the name of the database.<p>
+     *
+     * @param url the JDBC url of the database
+     * @param name the name of the database
+     *
+     * @throws SQLException if creating the database fails
+     */
+    private void createDatabase(String url, String name) throws SQLException {
+
+        try (Connection con = DriverManager.getConnection(url, "SA", "");
+            Statement stmt = con.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS TEST_DATABASE");
+            stmt.execute("CREATE TABLE TEST_DATABASE (NAME VARCHAR(32))");
+            stmt.execute("INSERT INTO TEST_DATABASE VALUES ('" + name + "')");
+        }
+    }
+
+    /**
+     * Reads the name of the database and closes the connection.<p>
+     *
+     * @param con the connection
+     *
+     * @return the name of the database
+     *
+     * @throws SQLException if reading fails
+     */
+    private String readDatabase(Connection con) throws SQLException {
+
+        try (Statement stmt = con.createStatement();
+            ResultSet res = stmt.executeQuery("SELECT NAME FROM TEST_DATABASE")) {
+            assertTrue(res.next());
+            return res.getString(1);
+        } finally {
+            con.close();
+        }
+    }
+}
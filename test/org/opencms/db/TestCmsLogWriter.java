@@ -0,0 +1,184 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.db.log.CmsLogEntry;
+import org.opencms.db.log.CmsLogEntryType;
+import org.opencms.util.CmsUUID;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for the log writer.<p>
+ */
+public class TestCmsLogWriter extends TestCase {
+
+    /**
+     * Tests that the capacity is reported to the producer and no entry is dropped.<p>
+     */
+    public void testCapacity() {
+
+        CmsLogWriter writer = new CmsLogWriter(2, 3, 1000);
+        assertTrue(writer.add(createEntry()));
+        assertTrue(writer.add(createEntry()));
+        assertTrue(writer.add(createEntry()));
+        assertFalse(writer.add(createEntry()));
+        assertEquals(1, writer.getOverflowCount());
+        assertEquals(4, writer.size());
+        assertEquals(4, writer.drain().size());
+        assertTrue(writer.isEmpty());
+        assertEquals(4, writer.getWrittenCount());
+    }
+
+    /**
+     * Tests that draining keeps the insertion order.<p>
+     */
+    public void testDrainOrder() {
+
+        CmsLogWriter writer = new CmsLogWriter(100, 1000, 1000);
+        List<CmsLogEntry> entries = new ArrayList<CmsLogEntry>();
+        for (int i = 0; i < 10; i++) {
+            CmsLogEntry entry = createEntry();
+            entries.add(entry);
+            writer.add(entry);
+        }
+        assertEquals(entries, writer.drain());
+        assertEquals(Collections.emptyList(), writer.drain());
+    }
+
+    /**
+     * Tests that only the entries of failed batch rows are written again.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFailedBatchRows() throws Exception {
+
+        List<CmsLogEntry> batch = new ArrayList<CmsLogEntry>();
+        for (int i = 0; i < 4; i++) {
+            batch.add(createEntry());
+        }
+        // a driver continuing after the failed row
+        List<CmsLogEntry> failed = org.opencms.db.generic.CmsSqlManager.getFailedBatchRows(
+            batch,
+            new BatchUpdateException(new int[] {1, Statement.EXECUTE_FAILED, 1, 1}));
+        assertEquals(Collections.singletonList(batch.get(1)), failed);
+        // a driver stopping at the failed row
+        failed = org.opencms.db.generic.CmsSqlManager.getFailedBatchRows(
+            batch,
+            new BatchUpdateException(new int[] {1, 1}));
+        assertEquals(batch.subList(2, 4), failed);
+        // without update counts nothing is known about the written rows
+        SQLException e = new SQLException("connection lost");
+        try {
+            org.opencms.db.generic.CmsSqlManager.getFailedBatchRows(batch, e);
+            fail("the exception must be thrown again");
+        } catch (SQLException e1) {
+            assertSame(e, e1);
+        }
+    }
+
+    /**
+     * Tests that reaching the batch size triggers the background flush.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFlushOnBatchSize() throws Exception {
+
+        final CmsLogWriter writer = new CmsLogWriter(5, 100, 60000);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<CmsLogEntry> written = Collections.synchronizedList(new ArrayList<CmsLogEntry>());
+        writer.start(new CmsLogWriter.I_CmsLogFlushAction() {
+
+            public void flush() {
+
+                written.addAll(writer.drain());
+                latch.countDown();
+            }
+        });
+        try {
+            for (int i = 0; i < 5; i++) {
+                writer.add(createEntry());
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(5, written.size());
+        } finally {
+            writer.shutDown();
+        }
+    }
+
+    /**
+     * Tests that the entries of a failed flush are returned again before the entries queued in the meantime.<p>
+     */
+    public void testRequeue() {
+
+        CmsLogWriter writer = new CmsLogWriter(100, 1000, 1000);
+        CmsLogEntry first = createEntry();
+        CmsLogEntry second = createEntry();
+        CmsLogEntry third = createEntry();
+        writer.add(first);
+        writer.add(second);
+        List<CmsLogEntry> failed = writer.drain();
+        writer.add(third);
+        writer.requeue(failed);
+        assertEquals(3, writer.size());
+        assertEquals(2, writer.getRequeuedCount());
+        // the flush fails again
+        failed = writer.drain();
+        assertEquals(3, failed.size());
+        writer.requeue(failed);
+        assertEquals(failed, writer.drain());
+        assertEquals(Arrays.asList(first, second, third), failed);
+        assertTrue(writer.isEmpty());
+        assertEquals(3, writer.getWrittenCount());
+    }
+
+    /**
+     * Creates a log entry for testing.<p>
+     *
+     * @return a new log entry
+     */
+    private CmsLogEntry createEntry() {
+
+        return new CmsLogEntry(
+            new CmsUUID(),
+            System.currentTimeMillis(),
+            new CmsUUID(),
+            CmsLogEntryType.RESOURCE_CREATED,
+            null);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for the visit buffer.<p>
+ */
+public class TestCmsVisitBuffer extends TestCase {
+
+    /**
+     * Tests that visits of the same user and resource are coalesced to the latest visit.<p>
+     */
+    public void testCoalesce() {
+
+        final List<CmsVisitEntry> written = new ArrayList<CmsVisitEntry>();
+        CmsVisitBuffer buffer = new CmsVisitBuffer(visits -> written.addAll(visits), 100, 60000);
+        CmsUUID user = new CmsUUID();
+        CmsUUID resource = new CmsUUID();
+        buffer.add(new CmsVisitEntry(user, 2000L, resource));
+        buffer.add(new CmsVisitEntry(user, 1000L, resource));
+        buffer.add(new CmsVisitEntry(user, 1500L, new CmsUUID()));
+        buffer.add(new CmsVisitEntry(new CmsUUID(), 1500L, resource));
+
+        assertEquals(Long.valueOf(2000L), buffer.getPendingVisit(user, resource));
+        assertEquals(2, buffer.getPendingVisits(user).size());
+        assertTrue(buffer.flush());
+        assertEquals(3, written.size());
+        assertEquals(4, buffer.getAddedCount());
+        assertEquals(3, buffer.getWrittenCount());
+        assertTrue(buffer.getPendingVisits(user).isEmpty());
+    }
+
+    /**
+     * Tests that the visits are kept in the buffer if writing them fails.<p>
+     */
+    public void testFailedFlush() {
+
+        final List<CmsVisitEntry> written = new ArrayList<CmsVisitEntry>();
+        final boolean[] fail = new boolean[] {true};
+        CmsVisitBuffer buffer = new CmsVisitBuffer(visits -> {
+            if (fail[0]) {
+                throw new IllegalStateException("database not available");
+            }
+            written.addAll(visits);
+        }, 100, 60000);
+        CmsUUID user = new CmsUUID();
+        CmsUUID resource = new CmsUUID();
+        buffer.add(new CmsVisitEntry(user, 1000L, resource));
+
+        assertFalse(buffer.flush());
+        assertEquals(1, buffer.getFailedFlushCount());
+        assertEquals(Long.valueOf(1000L), buffer.getPendingVisit(user, resource));
+
+        fail[0] = false;
+        assertTrue(buffer.flush());
+        assertEquals(1, written.size());
+        assertEquals(1000L, written.get(0).getDate());
+        assertNull(buffer.getPendingVisit(user, resource));
+    }
+
+    /**
+     * Tests that reaching the batch size triggers the background flush and that the visits are
+     * visible to readers while they are written.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFlushOnBatchSize() throws Exception {
+
+        final CountDownLatch flushing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<CmsVisitEntry> written = Collections.synchronizedList(new ArrayList<CmsVisitEntry>());
+        CmsVisitBuffer buffer = new CmsVisitBuffer(visits -> {
+            flushing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            written.addAll(visits);
+        }, 3, 60000);
+        buffer.start();
+        try {
+            CmsUUID user = new CmsUUID();
+            for (int i = 0; i < 3; i++) {
+                buffer.add(new CmsVisitEntry(user, 1000L + i, new CmsUUID()));
+            }
+            assertTrue(flushing.await(10, TimeUnit.SECONDS));
+            Map<CmsUUID, Long> pending = buffer.getPendingVisits(user);
+            assertEquals(3, pending.size());
+            release.countDown();
+        } finally {
+            buffer.shutDown();
+        }
+        assertEquals(3, written.size());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.history.I_CmsHistoryResource;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests that pruning the history with set based queries gives the same result as deleting the
+ * historical versions resource by resource.<p>
+ */
+public class TestHistoryPrune extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestHistoryPrune(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestHistoryPrune.class.getName());
+
+        suite.addTest(new TestHistoryPrune("testPruneModesEqual"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Builds the same history in two folders, prunes the first one resource by resource and the second one
+     * with set based queries, and compares the remaining versions.<p>
+     *
+     * The moved file is only pruned by the cleanup of the subresources of the deleted folder,
+     * since it still exists and is not a prune candidate itself.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPruneModesEqual() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that both history pruning modes delete the same versions");
+
+        createHistory(cms, "/prune1/");
+        cms.deleteHistoricalVersions(2, 0, -1, new CmsShellReport(cms.getRequestContext().getLocale()));
+        Map<String, Integer> expected = readHistory(cms, "/prune1/");
+
+        createHistory(cms, "/prune2/");
+        Map<String, Integer> before = readHistory(cms, "/prune2/");
+        cms.pruneHistoricalVersions(2, 0, -1, false, new CmsShellReport(cms.getRequestContext().getLocale()));
+        Map<String, Integer> pruned = readHistory(cms, "/prune2/");
+
+        assertEquals(expected, pruned);
+        // the deleted folder is gone, and with it all versions of its former subresource
+        assertTrue(before.containsKey("deleted:x/"));
+        assertFalse(pruned.containsKey("deleted:x/"));
+        assertTrue(before.get("y/child.txt").intValue() > 0);
+        assertEquals(0, pruned.get("y/child.txt").intValue());
+        assertEquals(2, pruned.get("keep.txt").intValue());
+    }
+
+    /**
+     * Creates a folder with some history below the given folder.<p>
+     *
+     * A file is changed several times, and another file is moved out of a folder which is deleted afterwards.<p>
+     *
+     * @param cms the cms context
+     * @param root the folder to create
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createHistory(CmsObject cms, String root) throws Exception {
+
+        cms.createResource(root, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(root + "x/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(root + "y/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(root + "keep.txt", CmsResourceTypePlain.getStaticTypeId(), "0".getBytes(), null);
+        cms.createResource(root + "x/child.txt", CmsResourceTypePlain.getStaticTypeId(), "0".getBytes(), null);
+        publish(cms);
+
+        for (int i = 1; i <= 3; i++) {
+            writeContent(cms, root + "keep.txt", String.valueOf(i));
+            writeContent(cms, root + "x/child.txt", String.valueOf(i));
+            publish(cms);
+        }
+
+        cms.lockResource(root + "x/child.txt");
+        cms.moveResource(root + "x/child.txt", root + "y/child.txt");
+        publish(cms);
+
+        cms.lockResource(root + "x/");
+        cms.deleteResource(root + "x/", CmsResource.DELETE_PRESERVE_SIBLINGS);
+        publish(cms);
+    }
+
+    /**
+     * Publishes the offline project.<p>
+     *
+     * @param cms the cms context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void publish(CmsObject cms) throws Exception {
+
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+
+    /**
+     * Reads the number of historical versions of the resources below the given folder.<p>
+     *
+     * @param cms the cms context
+     * @param root the folder
+     *
+     * @return the number of versions by path relative to the folder, deleted resources are prefixed with "deleted:"
+     *
+     * @throws Exception if something goes wrong
+     */
+    private Map<String, Integer> readHistory(CmsObject cms, String root) throws Exception {
+
+        Map<String, Integer> result = new TreeMap<String, Integer>();
+        for (String path : new String[] {"keep.txt", "y/", "y/child.txt"}) {
+            result.put(path, Integer.valueOf(cms.readAllAvailableVersions(root + path).size()));
+        }
+        for (I_CmsHistoryResource deleted : cms.readDeletedResources(root, true)) {
+            String path = cms.getRequestContext().removeSiteRoot(deleted.getRootPath()).substring(root.length());
+            result.put("deleted:" + path, Integer.valueOf(deleted.getVersion()));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the content of a file.<p>
+     *
+     * @param cms the cms context
+     * @param path the path of the file
+     * @param content the new content
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void writeContent(CmsObject cms, String path, String content) throws Exception {
+
+        cms.lockResource(path);
+        CmsFile file = cms.readFile(path);
+        file.setContents(content.getBytes());
+        cms.writeFile(file);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db.timing;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link CmsRequestProfilingHandler}.<p>
+ */
+public class TestCmsRequestProfilingHandler extends TestCase {
+
+    /**
+     * Tests that the driver calls and cache accesses are attributed to the profile of the current thread.<p>
+     */
+    public void testBreakdown() {
+
+        CmsRequestProfilingHandler handler = new CmsRequestProfilingHandler(1, 10);
+        handler.putTime("ignored", 1000L);
+        CmsRequestProfile profile = handler.startRequest("GET /index.html");
+        assertNotNull(profile);
+        // nested requests are attributed to the outer request
+        assertNull(handler.startRequest("job nested"));
+        String key = "public abstract org.opencms.file.CmsResource org.opencms.db.I_CmsVfsDriver.readResource("
+            + "org.opencms.db.CmsDbContext,org.opencms.util.CmsUUID,java.lang.String,boolean)";
+        handler.putTime(key, 2000000L);
+        handler.putTime(key, 1000000L);
+        handler.putTime("public void org.opencms.db.I_CmsUserDriver.readUser()", 500000L);
+        profile.addCacheAccess(CacheType.RESOURCE, true);
+        profile.addCacheAccess(CacheType.RESOURCE, false);
+        profile.addCacheAccess(CacheType.PROPERTY, true);
+        handler.finishRequest(profile);
+        handler.putTime(key, 1000L);
+
+        assertEquals(3, profile.getDriverCallCount());
+        assertEquals(3500000L, profile.getDriverNanos());
+        assertEquals(2, profile.getCacheHits());
+        assertEquals(1, profile.getCacheMisses());
+        assertEquals("I_CmsVfsDriver.readResource", CmsRequestProfile.getShortMethodName(key));
+        String breakdown = profile.getBreakdown();
+        assertTrue(breakdown, breakdown.startsWith("GET /index.html: "));
+        assertTrue(breakdown, breakdown.contains("\n    I_CmsVfsDriver.readResource: 2 calls, 3 ms\n"));
+        assertTrue(breakdown, breakdown.contains("\n    cache RESOURCE: 1 hits, 1 misses"));
+        assertEquals(1, handler.getProfiledRequestCount());
+        assertEquals(1, handler.getSlowestRequests().size());
+        assertEquals(1, handler.getCacheAccesses().get(CacheType.RESOURCE)[1]);
+        assertTrue(handler.getCacheStatistics().contains("RESOURCE: 1 hits, 1 misses, 50% hit ratio"));
+        assertTrue(handler.getCacheStatistics().contains("PROPERTY: 1 hits, 0 misses, 100% hit ratio"));
+        handler.reset();
+        assertTrue(handler.getCacheAccesses().isEmpty());
+    }
+
+    /**
+     * Tests the percentiles and the slowest requests.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPercentilesAndSlowest() throws Exception {
+
+        CmsRequestProfilingHandler handler = new CmsRequestProfilingHandler(1, 2);
+        assertEquals(0, handler.getDurationPercentile50());
+        for (int i = 0; i < 3; i++) {
+            CmsRequestProfile profile = handler.startRequest("request " + i);
+            Thread.sleep(i * 20);
+            handler.finishRequest(profile);
+        }
+        assertEquals(3, handler.getProfiledRequestCount());
+        assertTrue(handler.getDurationPercentile99() >= 40);
+        assertTrue(handler.getDurationPercentile50() >= 20);
+        assertTrue(handler.getDurationPercentile50() <= handler.getDurationPercentile90());
+        assertEquals(2, handler.getSlowestProfiles().size());
+        assertEquals("request 2", handler.getSlowestProfiles().get(0).getName());
+        assertEquals("request 1", handler.getSlowestProfiles().get(1).getName());
+
+        handler.reset();
+        assertEquals(0, handler.getProfiledRequestCount());
+        assertEquals(0, handler.getDurationPercentile90());
+        assertTrue(handler.getSlowestRequests().isEmpty());
+    }
+
+    /**
+     * Tests that only every nth request is profiled.<p>
+     */
+    public void testSampling() {
+
+        CmsRequestProfilingHandler handler = new CmsRequestProfilingHandler(3, 10);
+        int profiled = 0;
+        for (int i = 0; i < 9; i++) {
+            CmsRequestProfile profile = handler.startRequest("request " + i);
+            if (profile != null) {
+                profiled++;
+                handler.finishRequest(profile);
+            }
+        }
+        assertEquals(3, profiled);
+        assertEquals(3, handler.getProfiledRequestCount());
+    }
+}
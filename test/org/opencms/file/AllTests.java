@@ -95,6 +95,7 @@ public final class AllTests {
         suite.addTest(TestUndoChanges.suite());
         suite.addTest(TestUser.suite());
         suite.addTest(TestLinkRewriter.suite());
+        suite.addTest(new TestSuite(TestCmsRequestReadCache.class));
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,163 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.file;
+
+import org.opencms.db.CmsResourceState;
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link CmsRequestReadCache} and its invalidation by the {@link CmsRequestContext}.<p>
+ */
+public class TestCmsRequestReadCache extends TestCase {
+
+    /**
+     * Tests that the cache returns copies of the cached resources and properties.<p>
+     */
+    public void testCopies() {
+
+        CmsRequestReadCache cache = new CmsRequestReadCache();
+        CmsResource resource = createResource("/sites/default/index.html");
+        cache.putResource(resource, CmsResourceFilter.DEFAULT);
+        // changing the read resource does not change the cache
+        resource.setDateLastModified(4711L);
+
+        CmsResource cached = cache.getResource(resource.getStructureId(), CmsResourceFilter.DEFAULT);
+        assertEquals(resource, cached);
+        assertNotSame(resource, cached);
+        assertEquals(1000L, cached.getDateLastModified());
+        cached.setDateLastModified(4711L);
+        CmsResource byPath = cache.getResource(resource.getRootPath(), CmsResourceFilter.DEFAULT);
+        assertEquals(1000L, byPath.getDateLastModified());
+        assertNotSame(byPath, cache.getResource(resource.getRootPath(), CmsResourceFilter.DEFAULT));
+        assertNull(cache.getResource(resource.getRootPath(), CmsResourceFilter.ALL));
+
+        CmsProperty property = new CmsProperty("Title", "title", null);
+        cache.putPropertyObject(resource, "Title", false, Locale.ENGLISH, property);
+        property.setStructureValue("changed");
+        CmsProperty cachedProperty = cache.getPropertyObject(resource, "Title", false, Locale.ENGLISH);
+        assertEquals("title", cachedProperty.getStructureValue());
+        assertNotSame(cachedProperty, cache.getPropertyObject(resource, "Title", false, Locale.ENGLISH));
+        assertNull(cache.getPropertyObject(resource, "Title", true, Locale.ENGLISH));
+
+        // the shared null property is frozen and not copied
+        cache.putPropertyObject(resource, "Description", false, null, CmsProperty.getNullProperty());
+        assertSame(CmsProperty.getNullProperty(), cache.getPropertyObject(resource, "Description", false, null));
+
+        cache.putPropertyObjects(resource, false, Collections.singletonList(property));
+        cache.getPropertyObjects(resource, false).clear();
+        assertEquals(1, cache.getPropertyObjects(resource, false).size());
+    }
+
+    /**
+     * Tests that the request context clears the cache if the user, project or request time changes.<p>
+     */
+    public void testInvalidation() {
+
+        CmsProject online = createProject(CmsProject.ONLINE_PROJECT_ID);
+        CmsRequestContext context = new CmsRequestContext(
+            new CmsUser(new CmsUUID(), "Guest", "", "", "", "", 0, 0, 0, null),
+            online,
+            "/index.html",
+            null,
+            "/sites/default",
+            false,
+            Locale.ENGLISH,
+            "UTF-8",
+            "127.0.0.1",
+            1000L,
+            null,
+            null,
+            "");
+        CmsRequestReadCache cache = new CmsRequestReadCache();
+        context.setReadCache(cache);
+        CmsResource resource = createResource("/sites/default/index.html");
+
+        cache.putResource(resource, CmsResourceFilter.DEFAULT);
+        context.setRequestTime(1000L);
+        context.setCurrentProject(createProject(CmsProject.ONLINE_PROJECT_ID));
+        assertEquals("same request time and project keep the cache", 2, cache.size());
+        context.setRequestTime(2000L);
+        assertEquals("a new request time clears the cache", 0, cache.size());
+
+        cache.putResource(resource, CmsResourceFilter.DEFAULT);
+        context.setCurrentProject(createProject(new CmsUUID()));
+        assertEquals("a new project clears the cache", 0, cache.size());
+
+        cache.putResource(resource, CmsResourceFilter.DEFAULT);
+        context.switchUser(new CmsUser(new CmsUUID(), "Admin", "", "", "", "", 0, 0, 0, null), online, "");
+        assertEquals("a new user clears the cache", 0, cache.size());
+    }
+
+    /**
+     * Creates a project.<p>
+     *
+     * @param id the project id
+     *
+     * @return the project
+     */
+    private CmsProject createProject(CmsUUID id) {
+
+        CmsUUID group = new CmsUUID();
+        return new CmsProject(id, "p" + id, "", new CmsUUID(), group, group, 0, 0, CmsProject.PROJECT_TYPE_NORMAL);
+    }
+
+    /**
+     * Creates a resource.<p>
+     *
+     * @param rootPath the root path
+     *
+     * @return the resource
+     */
+    private CmsResource createResource(String rootPath) {
+
+        return new CmsResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            rootPath,
+            1,
+            false,
+            0,
+            CmsProject.ONLINE_PROJECT_ID,
+            CmsResourceState.STATE_UNCHANGED,
+            0,
+            new CmsUUID(),
+            1000L,
+            new CmsUUID(),
+            0,
+            Long.MAX_VALUE,
+            1,
+            10,
+            1000L,
+            1);
+    }
+}
@@ -27,10 +27,14 @@
 
 package org.opencms.file;
 
+import org.opencms.db.CmsBulkDeleteContext;
 import org.opencms.db.CmsResourceState;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.lock.CmsLockType;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsTestEventListener;
+import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsAccessControlEntry;
 import org.opencms.security.CmsPermissionViolationException;
@@ -38,9 +42,13 @@ import org.opencms.security.CmsRole;
 import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -83,6 +91,7 @@ public class TestDeletion extends OpenCmsTestCase {
         suite.addTest(new TestDeletion("testDeleteFolderWithLockedSiblings"));
         suite.addTest(new TestDeletion("testDeleteFolderWithLockedResources"));
         suite.addTest(new TestDeletion("testDeleteWithoutWritePermissions"));
+        suite.addTest(new TestDeletion("testBulkDelete"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -174,6 +183,75 @@ public class TestDeletion extends OpenCmsTestCase {
         cms.deleteGroup(testGroup2.getName());
     }
 
+    /**
+     * Tests that a bulk delete flushes the caches and fires the event only when it is finished.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testBulkDelete() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing bulk delete");
+
+        cms.createResource("bulkFolder", CmsResourceTypeFolder.getStaticTypeId());
+        CmsResource file1 = cms.createResource(
+            "bulkFolder/file1.txt",
+            CmsResourceTypePlain.getStaticTypeId(),
+            "test1".getBytes(),
+            null);
+        CmsResource file2 = cms.createResource(
+            "bulkFolder/file2.txt",
+            CmsResourceTypePlain.getStaticTypeId(),
+            "test2".getBytes(),
+            null);
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsTestEventListener listener = new CmsTestEventListener();
+        OpenCms.addCmsEventListener(listener, new int[] {I_CmsEventListener.EVENT_RESOURCE_DELETED});
+        try {
+            cms.lockResource(file1);
+            cms.lockResource(file2);
+
+            // a cached property list must survive the deletions of the bulk delete
+            String cacheKey = "bulkFolder-test";
+            OpenCms.getMemoryMonitor().cachePropertyList(cacheKey, Collections.<CmsProperty> emptyList());
+
+            cms.startBulkDelete();
+            assertNotNull(cms.getRequestContext().getAttribute(CmsBulkDeleteContext.ATTRIBUTE_BULK_DELETE));
+            cms.deleteResource(file1, CmsResource.DELETE_PRESERVE_SIBLINGS);
+            cms.deleteResource(file2, CmsResource.DELETE_PRESERVE_SIBLINGS);
+            assertTrue(listener.getEvents().isEmpty());
+            assertNotNull(OpenCms.getMemoryMonitor().getCachedPropertyList(cacheKey));
+
+            cms.finishBulkDelete();
+            assertNull(cms.getRequestContext().getAttribute(CmsBulkDeleteContext.ATTRIBUTE_BULK_DELETE));
+            assertNull(OpenCms.getMemoryMonitor().getCachedPropertyList(cacheKey));
+
+            // a single event for both deleted resources
+            assertEquals(1, listener.getEvents().size());
+            CmsEvent event = (CmsEvent)listener.getEvents().get(0);
+            Set<CmsUUID> deletedIds = new HashSet<CmsUUID>();
+            for (Object resource : (List<?>)event.getData().get(I_CmsEventListener.KEY_RESOURCES)) {
+                deletedIds.add(((CmsResource)resource).getStructureId());
+            }
+            assertTrue(deletedIds.contains(file1.getStructureId()));
+            assertTrue(deletedIds.contains(file2.getStructureId()));
+
+            // the cached resources have been flushed by the event
+            assertTrue(cms.readResource("bulkFolder/file1.txt", CmsResourceFilter.ALL).getState().isDeleted());
+            assertTrue(cms.readResource("bulkFolder/file2.txt", CmsResourceFilter.ALL).getState().isDeleted());
+
+            // finishing again does nothing
+            cms.finishBulkDelete();
+            assertEquals(1, listener.getEvents().size());
+        } finally {
+            OpenCms.removeCmsEventListener(listener);
+        }
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+
     /**
      * Tests to delete a folder after deleting a subresource with lock.<p>
      *
@@ -33,6 +33,11 @@ import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -73,6 +78,10 @@ public class TestReadResource extends OpenCmsTestCase {
         suite.addTest(new TestReadResource("testReadAfterExpirationDateIgnore"));
         suite.addTest(new TestReadResource("testReadWithResourceID"));
         suite.addTest(new TestReadResource("testReadWithWrongResourceID"));
+        suite.addTest(new TestReadResource("testReadResourcesWithIds"));
+        suite.addTest(new TestReadResource("testReadResourceCursor"));
+        suite.addTest(new TestReadResource("testReadPropertyObjectsOfResources"));
+        suite.addTest(new TestReadResource("testRequestReadCache"));
         suite.addTest(new TestReadResource("testReadFileWithResourceID"));
 
         TestSetup wrapper = new TestSetup(suite) {
@@ -340,6 +349,123 @@ public class TestReadResource extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Test iterating a subtree with a resource cursor in small batches.<p>
+     *
+     * @throws Throwable if something is wrong
+     */
+    public void testReadResourceCursor() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        for (CmsResourceFilter filter : new CmsResourceFilter[] {
+            CmsResourceFilter.DEFAULT,
+            CmsResourceFilter.DEFAULT_FILES}) {
+            for (boolean readTree : new boolean[] {false, true}) {
+                List<CmsResource> expected = cms.readResources("/", filter, readTree);
+                assertTrue(expected.size() > 3);
+                List<String> expectedPaths = new ArrayList<String>();
+                for (CmsResource resource : expected) {
+                    expectedPaths.add(resource.getRootPath());
+                }
+                Collections.sort(expectedPaths);
+
+                // batch sizes smaller than, equal to and larger than the number of resources
+                for (int batchSize : new int[] {1, 3, expected.size(), expected.size() + 1}) {
+                    CmsResourceCursor cursor = cms.readResourceCursor("/", filter, readTree, batchSize);
+                    List<String> paths = new ArrayList<String>();
+                    while (cursor.hasNext()) {
+                        paths.add(cursor.next().getRootPath());
+                    }
+                    // the database collation may differ from the Java string order
+                    Collections.sort(paths);
+                    assertEquals(expectedPaths, paths);
+                    assertEquals(expected.size(), cursor.getCount());
+                    assertFalse(cursor.hasNext());
+                }
+            }
+        }
+    }
+
+    /**
+     * Test reading several resources by their structure ids at once.<p>
+     *
+     * @throws Throwable if something is wrong
+     */
+    public void testReadResourcesWithIds() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        List<CmsResource> children = cms.readResources("/folder1/", CmsResourceFilter.DEFAULT, false);
+        assertTrue(children.size() > 1);
+        List<CmsUUID> ids = new ArrayList<CmsUUID>();
+        for (CmsResource child : children) {
+            ids.add(child.getStructureId());
+        }
+        // missing ids are skipped
+        ids.add(1, new CmsUUID("a7b5d298-b3ab-11d8-b3e3-514d35713fed"));
+
+        List<CmsResource> resources = cms.readResources(ids, CmsResourceFilter.DEFAULT);
+        assertEquals(children.size(), resources.size());
+        for (int i = 0; i < children.size(); i++) {
+            assertEquals(children.get(i).getStructureId(), resources.get(i).getStructureId());
+            assertEquals(children.get(i).getRootPath(), resources.get(i).getRootPath());
+        }
+        assertTrue(cms.readResources(new ArrayList<CmsUUID>(), CmsResourceFilter.DEFAULT).isEmpty());
+    }
+
+    /**
+     * Test reading the properties of several resources at once.<p>
+     *
+     * @throws Throwable if something is wrong
+     */
+    public void testReadPropertyObjectsOfResources() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        List<CmsResource> resources = cms.readResources("/folder1/", CmsResourceFilter.DEFAULT, true);
+        for (boolean search : new boolean[] {false, true}) {
+            Map<CmsUUID, List<CmsProperty>> properties = cms.readPropertyObjects(resources, search);
+            assertEquals(resources.size(), properties.size());
+            for (CmsResource resource : resources) {
+                assertEquals(
+                    CmsProperty.toMap(cms.readPropertyObjects(resource, search)),
+                    CmsProperty.toMap(properties.get(resource.getStructureId())));
+            }
+        }
+    }
+
+    /**
+     * Test the request scoped read cache.<p>
+     *
+     * @throws Throwable if something is wrong
+     */
+    public void testRequestReadCache() throws Throwable {
+
+        String path = "/folder1/subfolder11/index.html";
+        CmsObject cms = OpenCms.initCmsObject(getCmsObject());
+        cms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsRequestReadCache cache = new CmsRequestReadCache();
+        cms.getRequestContext().setReadCache(cache);
+
+        CmsResource resource = cms.readResource(path);
+        assertSame(resource, cms.readResource(path));
+        assertSame(resource, cms.readResource(resource.getStructureId()));
+        assertEquals(2, cache.getHits());
+        // a different filter is a different entry
+        assertNotSame(resource, cms.readResource(path, CmsResourceFilter.ALL));
+
+        List<CmsProperty> properties = cms.readPropertyObjects(resource, true);
+        assertEquals(properties, cms.readPropertyObjects(resource, true));
+        assertNotSame(properties, cms.readPropertyObjects(resource, true));
+
+        // changing the request time clears the cache
+        cms.getRequestContext().setRequestTime(cms.getRequestContext().getRequestTime() + 1);
+        assertEquals(0, cache.size());
+
+        // the cache is not used offline
+        cms.getRequestContext().setCurrentProject(getCmsObject().getRequestContext().getCurrentProject());
+        cms.readResource(path);
+        assertEquals(0, cache.size());
+    }
+
     /**
      * Test readFile with the structure id.<p>
      *
@@ -0,0 +1,247 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.gwt;
+
+import org.opencms.gwt.CmsGwtServiceContext.MethodStatistics;
+import org.opencms.test.OpenCmsTestCase;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.ObjectName;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * Unit tests for the call limit of the {@link CmsGwtServiceContext}.<p>
+ */
+public class TestCmsGwtServiceContext extends OpenCmsTestCase {
+
+    /** A successful response. */
+    private static final String RESPONSE = "//OK[]";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsGwtServiceContext(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the statistics are available as MXBean.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testMBean() throws Exception {
+
+        CmsGwtServiceContext context = createContext("TestMBeanService", 2);
+        context.invoke("method", () -> RESPONSE);
+
+        ObjectName name = new ObjectName(CmsGwtServiceContext.MBEAN_NAME_PREFIX + "TestMBeanService");
+        assertEquals(
+            Integer.valueOf(2),
+            ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MaxCalls"));
+        assertEquals(
+            Long.valueOf(0),
+            ManagementFactory.getPlatformMBeanServer().getAttribute(name, "RejectedCallCount"));
+        assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MethodStatistics"));
+
+        context.shutdown();
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    /**
+     * Tests that the calls are not limited by default.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNoLimitByDefault() throws Exception {
+
+        CmsGwtServiceContext context = new CmsGwtServiceContext("TestUnlimitedService");
+        assertEquals(0, context.getMaxCalls());
+        assertEquals(RESPONSE, context.invoke("method", () -> RESPONSE));
+        assertEquals(0, context.getRejectedCallCount());
+        context.shutdown();
+    }
+
+    /**
+     * Tests that calls are rejected if no slot becomes free while they are queued, and accepted again
+     * after a slot is free.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPermitExhaustion() throws Exception {
+
+        final CmsGwtServiceContext context = createContext("TestExhaustedService", 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread slowCall = new Thread(new Runnable() {
+
+            public void run() {
+
+                try {
+                    context.invoke("slow", () -> {
+                        started.countDown();
+                        try {
+                            finish.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return RESPONSE;
+                    });
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            }
+        });
+        slowCall.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        try {
+            context.invoke("fast", () -> RESPONSE);
+            fail("Call should have been rejected");
+        } catch (CmsRpcException e) {
+            // expected, the only slot is used
+        }
+        // the call has waited for the configured time, but not until the slot is free
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waited >= 900);
+        assertTrue(waited < 5000);
+        assertEquals(1, context.getRejectedCallCount());
+
+        finish.countDown();
+        slowCall.join();
+        assertNull(error.get());
+        assertEquals(RESPONSE, context.invoke("fast", () -> RESPONSE));
+        assertEquals(1, context.getRejectedCallCount());
+        assertEquals(1, context.getMethodStatistics().get("slow").getCallCount());
+        // rejected calls are not recorded as calls of the method
+        assertEquals(1, context.getMethodStatistics().get("fast").getCallCount());
+        context.shutdown();
+    }
+
+    /**
+     * Tests that a call is queued until a running call has finished.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testQueuedCall() throws Exception {
+
+        final CmsGwtServiceContext context = createContext("TestQueuedService", 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread slowCall = new Thread(new Runnable() {
+
+            public void run() {
+
+                try {
+                    context.invoke("slow", () -> {
+                        started.countDown();
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return RESPONSE;
+                    });
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            }
+        });
+        slowCall.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // the call waits for the slot of the slow call instead of failing
+        assertEquals(RESPONSE, context.invoke("queued", () -> RESPONSE));
+        slowCall.join();
+        assertNull(error.get());
+        assertEquals(0, context.getRejectedCallCount());
+        context.shutdown();
+    }
+
+    /**
+     * Tests that the slot of a call is released if the call throws an exception.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReleaseOnException() throws Exception {
+
+        CmsGwtServiceContext context = createContext("TestFailingService", 1);
+        try {
+            context.invoke("broken", () -> {
+                throw new IllegalStateException("broken");
+            });
+            fail("Call should have failed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            context.invoke("unserializable", () -> {
+                throw new SerializationException("unserializable");
+            });
+            fail("Call should have failed");
+        } catch (SerializationException e) {
+            // expected
+        }
+
+        // the only slot is free again
+        assertEquals(RESPONSE, context.invoke("working", () -> RESPONSE));
+        assertEquals(0, context.getRejectedCallCount());
+        MethodStatistics broken = context.getMethodStatistics().get("broken");
+        assertEquals(1, broken.getCallCount());
+        assertEquals(1, broken.getFailureCount());
+        assertEquals(0, context.getMethodStatistics().get("working").getFailureCount());
+        context.shutdown();
+    }
+
+    /**
+     * Creates a service context with the given call limit, where calls wait at most one second for a slot.<p>
+     *
+     * @param name the service name
+     * @param maxCalls the maximum number of concurrent calls
+     *
+     * @return the service context
+     */
+    private CmsGwtServiceContext createContext(String name, int maxCalls) {
+
+        System.setProperty(CmsGwtServiceContext.PROPERTY_MAX_CALLS + "." + name, String.valueOf(maxCalls));
+        System.setProperty(CmsGwtServiceContext.PROPERTY_CALL_WAIT, "1");
+        CmsGwtServiceContext context = new CmsGwtServiceContext(name);
+        assertEquals(maxCalls, context.getMaxCalls());
+        return context;
+    }
+}
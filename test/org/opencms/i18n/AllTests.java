@@ -63,6 +63,7 @@ public final class AllTests {
         suite.addTestSuite(TestCmsLocaleManager.class);
         suite.addTestSuite(TestCmsMessages.class);
         suite.addTestSuite(TestCmsModuleMessageBundles.class);
+        suite.addTestSuite(TestCmsResourceBundleLoader.class);
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,112 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.i18n;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the additional bundles of the {@link CmsResourceBundleLoader}.<p>
+ */
+public class TestCmsResourceBundleLoader extends TestCase {
+
+    /** The base name used for the test bundles. */
+    private static final String BASE_NAME = "org.opencms.test.additional";
+
+    /**
+     * Tests that failed lookups are not cached when a bundle is added later.<p>
+     */
+    public void testAddAfterFailedLookup() {
+
+        assertMissing(BASE_NAME + ".add");
+        CmsResourceBundleLoader.addBundleToCache(BASE_NAME + ".add", Locale.ENGLISH, createBundle("added"));
+        assertEquals("added", CmsResourceBundleLoader.getBundle(BASE_NAME + ".add", Locale.ENGLISH).getString("key"));
+        CmsResourceBundleLoader.flushBundleCache(BASE_NAME + ".add", true);
+        assertMissing(BASE_NAME + ".add");
+    }
+
+    /**
+     * Tests replacing and removing bundles.<p>
+     */
+    public void testReplaceBundles() {
+
+        Map<Locale, I_CmsResourceBundle> first = Collections.<Locale, I_CmsResourceBundle> singletonMap(
+            Locale.ENGLISH,
+            createBundle("first"));
+        CmsResourceBundleLoader.replaceBundles(
+            Collections.<String> emptySet(),
+            Collections.singletonMap(BASE_NAME, first));
+        assertEquals("first", CmsResourceBundleLoader.getBundle(BASE_NAME, Locale.ENGLISH).getString("key"));
+
+        Map<Locale, I_CmsResourceBundle> second = Collections.<Locale, I_CmsResourceBundle> singletonMap(
+            Locale.ENGLISH,
+            createBundle("second"));
+        CmsResourceBundleLoader.replaceBundles(
+            Collections.singleton(BASE_NAME),
+            Collections.singletonMap(BASE_NAME, second));
+        assertEquals("second", CmsResourceBundleLoader.getBundle(BASE_NAME, Locale.ENGLISH).getString("key"));
+
+        CmsResourceBundleLoader.replaceBundles(
+            Collections.singleton(BASE_NAME),
+            Collections.<String, Map<Locale, I_CmsResourceBundle>> emptyMap());
+        assertMissing(BASE_NAME);
+    }
+
+    /**
+     * Asserts that no bundle is found for the base name.<p>
+     *
+     * @param baseName the base name
+     */
+    private void assertMissing(String baseName) {
+
+        try {
+            CmsResourceBundleLoader.getBundle(baseName, Locale.ENGLISH);
+            fail("bundle " + baseName + " should not be found");
+        } catch (MissingResourceException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Creates a bundle with a single message.<p>
+     *
+     * @param value the message
+     *
+     * @return the bundle
+     */
+    private CmsListResourceBundle createBundle(String value) {
+
+        CmsListResourceBundle bundle = new CmsListResourceBundle();
+        bundle.addMessage("key", value);
+        return bundle;
+    }
+}
@@ -27,11 +27,14 @@
 
 package org.opencms.importexport;
 
+import org.opencms.db.CmsBulkImportContext;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsVfsException;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypeImage;
 import org.opencms.file.types.CmsResourceTypeJsp;
@@ -41,7 +44,10 @@ import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.lock.CmsLockFilter;
+import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsTestEventListener;
+import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.module.CmsModule.ExportMode;
 import org.opencms.relations.CmsCategory;
@@ -59,6 +65,7 @@ import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.test.OpenCmsTestResourceConfigurableFilter;
 import org.opencms.test.OpenCmsTestResourceFilter;
 import org.opencms.util.CmsDateUtil;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsResourceTranslator;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.xml.CmsXmlEntityResolver;
@@ -70,9 +77,13 @@ import org.opencms.xml.page.CmsXmlPageFactory;
 import java.io.File;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -125,6 +136,9 @@ public class TestCmsImportExport extends OpenCmsTestCase {
         suite.addTest(new TestCmsImportExport("testImportChangedContent"));
         suite.addTest(new TestCmsImportExport("testImportRelations"));
         suite.addTest(new TestCmsImportExport("testImportContentIssue"));
+        suite.addTest(new TestCmsImportExport("testImportBulkMode"));
+        suite.addTest(new TestCmsImportExport("testImportBulkModeChunks"));
+        suite.addTest(new TestCmsImportExport("testExportUnreadableFile"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -144,6 +158,262 @@ public class TestCmsImportExport extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests that a file which can not be read is skipped, while the other files are exported.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testExportUnreadableFile() throws Exception {
+
+        CmsObject cms = getCmsObject();
+
+        echo("Testing the export of a folder containing an unreadable file.");
+
+        String folder = "/exportunreadable/";
+        String zipExportFilename = OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(
+            "packages/testExportUnreadableFile.zip");
+
+        try {
+            cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+            for (String name : new String[] {"file1.txt", "unreadable.txt", "file2.txt"}) {
+                cms.createResource(folder + name, CmsResourceTypePlain.getStaticTypeId(), name.getBytes(), null);
+            }
+            cms.unlockResource(folder);
+
+            List exportPaths = new ArrayList(1);
+            exportPaths.add(folder);
+            CmsExportParameters params = new CmsExportParameters(
+                zipExportFilename,
+                null,
+                true,
+                false,
+                false,
+                exportPaths,
+                false,
+                true,
+                0,
+                true,
+                false,
+                ExportMode.DEFAULT);
+            CmsShellReport report = new CmsShellReport(cms.getRequestContext().getLocale());
+            CmsExport export = new CmsExport(cms, report) {
+
+                @Override
+                protected byte[] readContent(CmsResource file) throws CmsException {
+
+                    if (file.getName().equals("unreadable.txt")) {
+                        throw new CmsVfsException(
+                            Messages.get().container(Messages.ERR_IMPORTEXPORT_ERROR_READING_FILE_1, file.getName()));
+                    }
+                    return super.readContent(file);
+                }
+            };
+            // the export must not fail
+            export.exportData(params);
+            assertTrue(report.hasError());
+
+            try (ZipFile zip = new ZipFile(zipExportFilename)) {
+                List<String> names = new ArrayList<String>();
+                for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
+                    names.add(e.nextElement().getName());
+                }
+                assertTrue(names.toString(), names.contains("exportunreadable/file1.txt"));
+                assertTrue(names.toString(), names.contains("exportunreadable/file2.txt"));
+                assertFalse(names.toString(), names.contains("exportunreadable/unreadable.txt"));
+                assertEquals(
+                    "file2.txt",
+                    new String(CmsFileUtil.readFully(zip.getInputStream(zip.getEntry("exportunreadable/file2.txt")))));
+
+                // the manifest only contains the exported files
+                String manifest = new String(
+                    CmsFileUtil.readFully(zip.getInputStream(zip.getEntry(CmsImportExportManager.EXPORT_MANIFEST))),
+                    CmsEncoder.ENCODING_UTF_8);
+                assertTrue(manifest.contains("exportunreadable/file1.txt"));
+                assertTrue(manifest.contains("exportunreadable/file2.txt"));
+                assertFalse(manifest.contains("unreadable.txt"));
+            }
+        } finally {
+            try {
+                if (zipExportFilename != null) {
+                    File file = new File(zipExportFilename);
+                    if (file.exists()) {
+                        file.delete();
+                    }
+                }
+            } catch (Throwable t) {
+                // intentionally left blank
+            }
+        }
+    }
+
+    /**
+     * Tests the import of a resource with permissions and relations in bulk mode.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testImportBulkMode() throws Exception {
+
+        CmsObject cms = getCmsObject();
+
+        echo("Testing the import of a resource with permissions and relations in bulk mode.");
+
+        String filename = "/folder1/page2.html";
+        String zipExportFilename = OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(
+            "packages/testImportBulkMode.zip");
+
+        try {
+            // set permissions and add a relation
+            cms.lockResource(filename);
+            cms.chacc(filename, I_CmsPrincipal.PRINCIPAL_USER, "test1", "+r-v");
+            CmsCategoryService catService = CmsCategoryService.getInstance();
+            CmsCategory cat = catService.createCategory(cms, null, "bulk", "title", "description", null);
+            catService.addResourceToCategory(cms, filename, cat.getPath());
+            cms.unlockResource(filename);
+
+            // export the file
+            CmsVfsImportExportHandler vfsExportHandler = new CmsVfsImportExportHandler();
+            List exportPaths = new ArrayList(1);
+            exportPaths.add(filename);
+            CmsExportParameters params = new CmsExportParameters(
+                zipExportFilename,
+                null,
+                true,
+                false,
+                false,
+                exportPaths,
+                false,
+                true,
+                0,
+                true,
+                false,
+                ExportMode.DEFAULT);
+            vfsExportHandler.setExportParams(params);
+            OpenCms.getImportExportManager().exportData(
+                cms,
+                vfsExportHandler,
+                new CmsShellReport(cms.getRequestContext().getLocale()));
+
+            // change permissions and remove the relation
+            cms.lockResource(filename);
+            cms.chacc(filename, I_CmsPrincipal.PRINCIPAL_USER, "test1", "-r+v");
+            cms.chacc(filename, I_CmsPrincipal.PRINCIPAL_USER, "test2", "+r+w");
+            catService.removeResourceFromCategory(cms, filename, cat.getPath());
+            cms.unlockResource(filename);
+            assertTrue(
+                cms.getRelationsForResource(filename, CmsRelationFilter.TARGETS.filterNotDefinedInContent()).isEmpty());
+
+            // re-import the exported files in bulk mode
+            CmsImportParameters importParams = new CmsImportParameters(zipExportFilename, "/", false);
+            importParams.setBulkMode(true);
+            OpenCms.getImportExportManager().importData(
+                cms,
+                new CmsShellReport(cms.getRequestContext().getLocale()),
+                importParams);
+
+            // the bulk import is finished
+            assertNull(cms.getRequestContext().getAttribute(CmsBulkImportContext.ATTRIBUTE_BULK_IMPORT));
+
+            // the relation is imported
+            List relations = cms.getRelationsForResource(
+                filename,
+                CmsRelationFilter.TARGETS.filterNotDefinedInContent());
+            assertEquals(1, relations.size());
+            assertRelation(
+                new CmsRelation(cms.readResource(filename), cms.readResource(cat.getId()), CmsRelationType.CATEGORY),
+                (CmsRelation)relations.get(0));
+
+            // publish the file
+            cms.unlockResource(filename);
+            OpenCms.getPublishManager().publishResource(
+                cms,
+                filename,
+                true,
+                new CmsShellReport(cms.getRequestContext().getLocale()));
+            OpenCms.getPublishManager().waitWhileRunning();
+
+            // the imported aces replace the existing ones
+            assertPermissionString(cms, filename, cms.readUser("test1"), "+r-v-i-l");
+            assertPermissionString(cms, filename, cms.readUser("test2"), null);
+        } finally {
+            try {
+                if (zipExportFilename != null) {
+                    File file = new File(zipExportFilename);
+                    if (file.exists()) {
+                        file.delete();
+                    }
+                }
+            } catch (Throwable t) {
+                // intentionally left blank
+            }
+        }
+    }
+
+    /**
+     * Tests that the caches are flushed and events are fired for each chunk of a bulk import.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testImportBulkModeChunks() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that a bulk import is flushed in chunks.");
+
+        cms.createResource("/bulkChunks", CmsResourceTypeFolder.getStaticTypeId());
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        for (int i = 0; i < 5; i++) {
+            resources.add(
+                cms.createResource(
+                    "/bulkChunks/file" + i + ".txt",
+                    CmsResourceTypePlain.getStaticTypeId(),
+                    ("content " + i).getBytes(),
+                    null));
+        }
+
+        CmsTestEventListener listener = new CmsTestEventListener();
+        OpenCms.addCmsEventListener(listener, new int[] {I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED});
+        try {
+            String cacheKey = "bulkChunks-test";
+            OpenCms.getMemoryMonitor().cachePropertyList(cacheKey, Collections.<CmsProperty> emptyList());
+
+            cms.startBulkImport();
+            // use a small chunk size instead of the default
+            CmsBulkImportContext bulkImport = new CmsBulkImportContext(2);
+            cms.getRequestContext().setAttribute(CmsBulkImportContext.ATTRIBUTE_BULK_IMPORT, bulkImport);
+
+            cms.importResource(cms.getSitePath(resources.get(0)), resources.get(0), "import 0".getBytes(), null);
+            assertTrue(listener.getEvents().isEmpty());
+            assertNotNull(OpenCms.getMemoryMonitor().getCachedPropertyList(cacheKey));
+
+            // the first chunk is flushed
+            cms.importResource(cms.getSitePath(resources.get(1)), resources.get(1), "import 1".getBytes(), null);
+            assertEquals(1, listener.getEvents().size());
+            assertNull(OpenCms.getMemoryMonitor().getCachedPropertyList(cacheKey));
+            assertTrue(bulkImport.getResources().isEmpty());
+
+            for (int i = 2; i < 5; i++) {
+                cms.importResource(
+                    cms.getSitePath(resources.get(i)),
+                    resources.get(i),
+                    ("import " + i).getBytes(),
+                    null);
+            }
+            assertEquals(2, listener.getEvents().size());
+            assertEquals(1, bulkImport.getResources().size());
+
+            // the remaining resource is flushed when finishing
+            cms.finishBulkImport();
+            assertEquals(3, listener.getEvents().size());
+            int count = 0;
+            for (Object event : listener.getEvents()) {
+                count += ((List<?>)((CmsEvent)event).getData().get(I_CmsEventListener.KEY_RESOURCES)).size();
+            }
+            assertEquals(5, count);
+            assertEquals("import 4", new String(cms.readFile(cms.getSitePath(resources.get(4))).getContents()));
+        } finally {
+            OpenCms.removeCmsEventListener(listener);
+        }
+    }
+
     /**
      * Tests the import of a resource that has been edited.<p>
      *
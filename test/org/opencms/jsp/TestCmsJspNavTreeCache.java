@@ -0,0 +1,389 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jsp;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.flex.CmsFlexRequestContextInfo;
+import org.opencms.jsp.CmsJspNavBuilder.Visibility;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsRequestUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the {@link CmsJspNavTreeCache} used by the {@link CmsJspNavBuilder} in the online project.<p>
+ *
+ * The navigation of the offline project is built without the cache, so after publishing it is used as reference
+ * for the cached online navigation.<p>
+ */
+public class TestCmsJspNavTreeCache extends OpenCmsTestCase {
+
+    /** The folder containing the test navigation. */
+    private static final String FOLDER = "/navtest/";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsJspNavTreeCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsJspNavTreeCache.class.getName());
+
+        suite.addTest(new TestCmsJspNavTreeCache("testCachedEqualsUncached"));
+        suite.addTest(new TestCmsJspNavTreeCache("testInvalidationOnPublish"));
+        suite.addTest(new TestCmsJspNavTreeCache("testFilterAndPermissions"));
+        suite.addTest(new TestCmsJspNavTreeCache("testContextDates"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the cached online navigation is the same as the uncached navigation of the offline project.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCachedEqualsUncached() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the cached navigation equals the uncached navigation");
+
+        createNavResource(cms, FOLDER, 1);
+        createNavResource(cms, FOLDER + "a.html", 2);
+        createNavResource(cms, FOLDER + "b.html", 1);
+        createNavResource(cms, FOLDER + "sub/", 3);
+        createNavResource(cms, FOLDER + "sub/index.html", 1);
+        createNavResource(cms, FOLDER + "sub/c.html", 2);
+        cms.createResource(
+            FOLDER + "hidden.html",
+            OpenCms.getResourceManager().getResourceType(CmsResourceTypePlain.getStaticTypeName()));
+        publish(cms);
+
+        CmsObject online = getOnlineCms(cms);
+        assertNotNull(CmsJspNavTreeCache.getInstance());
+        List<CmsJspNavElement> offlineNav = new CmsJspNavBuilder(cms).getSiteNavigation(FOLDER, -1);
+        assertEquals(5, offlineNav.size());
+        assertNavigation(offlineNav, new CmsJspNavBuilder(online).getSiteNavigation(FOLDER, -1));
+        // the second request is served from the cache
+        int cachedLevels = CmsJspNavTreeCache.getInstance().size();
+        assertTrue(cachedLevels > 0);
+        assertNavigation(offlineNav, new CmsJspNavBuilder(online).getSiteNavigation(FOLDER, -1));
+        assertEquals(cachedLevels, CmsJspNavTreeCache.getInstance().size());
+
+        assertNavigation(
+            new CmsJspNavBuilder(cms).getNavigationForFolder(FOLDER, Visibility.all, CmsResourceFilter.DEFAULT),
+            new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER, Visibility.all, CmsResourceFilter.DEFAULT));
+        assertNavigation(
+            new CmsJspNavBuilder(cms).getNavigationTreeForFolder(FOLDER + "sub/", 0, 3),
+            new CmsJspNavBuilder(online).getNavigationTreeForFolder(FOLDER + "sub/", 0, 3));
+    }
+
+    /**
+     * Tests that the online context dates are updated with the cached resources.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testContextDates() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the context dates of the cached navigation");
+
+        // use a separate folder, so the release dates of the other tests do not interfere
+        String folder = "/navdates/";
+        long released = System.currentTimeMillis() + (2L * 24 * 60 * 60 * 1000);
+        createNavResource(cms, folder, 1);
+        createNavResource(cms, folder + "index.html", 1);
+        createNavResource(cms, folder + "released.html", 2);
+        cms.setDateReleased(folder + "released.html", released, false);
+        publish(cms);
+
+        CmsObject online = getOnlineCms(cms);
+        // fill the cache
+        new CmsJspNavBuilder(online).getNavigationForFolder(folder);
+        CmsFlexRequestContextInfo info = new CmsFlexRequestContextInfo();
+        online.getRequestContext().setAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED, info);
+        List<CmsJspNavElement> nav = new CmsJspNavBuilder(online).getNavigationForFolder(folder);
+        assertEquals(getSitePaths(nav).toString(), 1, nav.size());
+        // the unreleased resource is filtered, but its release date must still expire the Flex cache entry
+        assertEquals(released, info.getDateExpires());
+        assertEquals(
+            online.readResource(folder + "released.html", CmsResourceFilter.ALL).getDateLastModified(),
+            info.getDateLastModified());
+    }
+
+    /**
+     * Tests that the resource filter, the release dates and the permissions are applied to the cached entries.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFilterAndPermissions() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the resource filter and permissions of the cached navigation");
+
+        createNavResource(cms, FOLDER + "future.html", 4);
+        cms.setDateReleased(FOLDER + "future.html", System.currentTimeMillis() + (24L * 60 * 60 * 1000), false);
+        createNavResource(cms, FOLDER + "expired.html", 5);
+        cms.setDateExpired(FOLDER + "expired.html", System.currentTimeMillis() - (60 * 1000), false);
+        createNavResource(cms, FOLDER + "secret.html", 6);
+        cms.chacc(
+            FOLDER + "secret.html",
+            I_CmsPrincipal.PRINCIPAL_USER,
+            OpenCms.getDefaultUsers().getUserGuest(),
+            "-r");
+        createNavResource(cms, FOLDER + "unreleased/", 7);
+        createNavResource(cms, FOLDER + "unreleased/index.html", 1);
+        cms.setDateReleased(
+            FOLDER + "unreleased/index.html",
+            System.currentTimeMillis() + (24L * 60 * 60 * 1000),
+            false);
+        publish(cms);
+
+        CmsObject online = getOnlineCms(cms);
+        List<String> nav = getSitePaths(new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER));
+        assertTrue(nav.contains(FOLDER + "secret.html"));
+        assertFalse(nav.contains(FOLDER + "future.html"));
+        assertFalse(nav.contains(FOLDER + "expired.html"));
+        // folders with an unreleased default file are not shown either
+        assertFalse(nav.contains(FOLDER + "unreleased/"));
+
+        List<String> all = getSitePaths(
+            new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER, Visibility.navigation, CmsResourceFilter.ALL));
+        assertTrue(all.contains(FOLDER + "future.html"));
+        assertTrue(all.contains(FOLDER + "expired.html"));
+        assertTrue(all.contains(FOLDER + "unreleased/"));
+        assertNavigation(
+            new CmsJspNavBuilder(cms).getNavigationForFolder(FOLDER, Visibility.navigation, CmsResourceFilter.ALL),
+            new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER, Visibility.navigation, CmsResourceFilter.ALL));
+
+        // the guest user shares the cached level, but must not see the resource denied to the guest user
+        CmsObject guest = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        guest.getRequestContext().setSiteRoot(cms.getRequestContext().getSiteRoot());
+        List<String> guestNav = getSitePaths(new CmsJspNavBuilder(guest).getNavigationForFolder(FOLDER));
+        assertFalse(guestNav.contains(FOLDER + "secret.html"));
+        assertTrue(guestNav.contains(FOLDER + "a.html"));
+        assertEquals(nav.size() - 1, guestNav.size());
+    }
+
+    /**
+     * Tests that publishing removes the changed levels from the cache.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testInvalidationOnPublish() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the invalidation of the cached navigation on publish");
+
+        CmsObject online = getOnlineCms(cms);
+        List<CmsJspNavElement> before = new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER);
+        assertFalse(getSitePaths(before).contains(FOLDER + "new.html"));
+
+        // new resource
+        createNavResource(cms, FOLDER + "new.html", 5);
+        publish(cms);
+        List<CmsJspNavElement> nav = new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER);
+        assertEquals(before.size() + 1, nav.size());
+        assertTrue(getSitePaths(nav).contains(FOLDER + "new.html"));
+
+        // changed property
+        cms.lockResource(FOLDER + "a.html");
+        cms.writePropertyObject(
+            FOLDER + "a.html",
+            new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, "changed", null));
+        publish(cms);
+        assertEquals(
+            "changed",
+            new CmsJspNavBuilder(online).getNavigationForResource(FOLDER + "a.html").getNavText());
+
+        // changed default file of a sub folder
+        cms.lockResource(FOLDER + "sub/index.html");
+        cms.setDateReleased(FOLDER + "sub/index.html", System.currentTimeMillis() + (24L * 60 * 60 * 1000), false);
+        publish(cms);
+        assertFalse(
+            getSitePaths(new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER)).contains(FOLDER + "sub/"));
+        cms.lockResource(FOLDER + "sub/index.html");
+        cms.setDateReleased(FOLDER + "sub/index.html", 0, false);
+        publish(cms);
+        assertTrue(
+            getSitePaths(new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER)).contains(FOLDER + "sub/"));
+
+        // deleted resource
+        cms.lockResource(FOLDER + "new.html");
+        cms.deleteResource(FOLDER + "new.html", CmsResource.DELETE_PRESERVE_SIBLINGS);
+        publish(cms);
+        assertNavigation(before, new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER));
+
+        // moved folder, the levels below it must be read again
+        assertEquals(2, new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER + "sub/").size());
+        cms.lockResource(FOLDER + "sub/");
+        cms.moveResource(FOLDER + "sub/", FOLDER + "moved/");
+        publish(cms);
+        assertTrue(new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER + "sub/").isEmpty());
+        assertEquals(2, new CmsJspNavBuilder(online).getNavigationForFolder(FOLDER + "moved/").size());
+        cms.lockResource(FOLDER + "moved/");
+        cms.moveResource(FOLDER + "moved/", FOLDER + "sub/");
+        publish(cms);
+
+        // clearing the caches removes all levels
+        OpenCms.fireCmsEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, null);
+        assertEquals(0, CmsJspNavTreeCache.getInstance().size());
+    }
+
+    /**
+     * Compares two navigations.<p>
+     *
+     * @param expected the expected navigation
+     * @param actual the actual navigation
+     */
+    private void assertNavigation(List<CmsJspNavElement> expected, List<CmsJspNavElement> actual) {
+
+        assertEquals(getSitePaths(expected), getSitePaths(actual));
+        for (int i = 0; i < expected.size(); i++) {
+            CmsJspNavElement e = expected.get(i);
+            CmsJspNavElement a = actual.get(i);
+            assertEquals(e.getSitePath(), e.getNavPosition(), a.getNavPosition(), 0);
+            assertEquals(e.getSitePath(), e.getNavText(), a.getNavText());
+            assertEquals(e.getSitePath(), e.getTitle(), a.getTitle());
+            assertEquals(e.getSitePath(), e.getNavTreeLevel(), a.getNavTreeLevel());
+            assertEquals(e.getSitePath(), e.getProperties(), a.getProperties());
+            assertEquals(e.getSitePath(), e.getResource().getStructureId(), a.getResource().getStructureId());
+        }
+    }
+
+    /**
+     * Creates a resource with navigation properties.<p>
+     *
+     * @param cms the offline context
+     * @param path the site path, folders end with a slash
+     * @param navPos the navigation position
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createNavResource(CmsObject cms, String path, int navPos) throws Exception {
+
+        String type = path.endsWith("/")
+        ? CmsResourceTypeFolder.getStaticTypeName()
+        : CmsResourceTypePlain.getStaticTypeName();
+        cms.createResource(path, OpenCms.getResourceManager().getResourceType(type));
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, String.valueOf(navPos), null));
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, "Nav " + path, null));
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Title " + path, null));
+        cms.writePropertyObjects(path, properties);
+    }
+
+    /**
+     * Returns an online administrator context for the site of the given context.<p>
+     *
+     * @param cms the offline context
+     *
+     * @return the online context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getOnlineCms(CmsObject cms) throws Exception {
+
+        CmsObject online = OpenCms.initCmsObject(cms);
+        online.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        return online;
+    }
+
+    /**
+     * Returns the site paths of a navigation.<p>
+     *
+     * @param navigation the navigation
+     *
+     * @return the site paths
+     */
+    private List<String> getSitePaths(List<CmsJspNavElement> navigation) {
+
+        List<String> result = new ArrayList<String>();
+        for (CmsJspNavElement element : navigation) {
+            result.add(element.getSitePath());
+        }
+        return result;
+    }
+
+    /**
+     * Publishes the offline project.<p>
+     *
+     * @param cms the offline context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void publish(CmsObject cms) throws Exception {
+
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link CmsStartupTaskRunner}.<p>
+ */
+public class TestCmsStartupTaskRunner extends TestCase {
+
+    /**
+     * Tests that a failing task stops its dependent tasks and the failure is thrown.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFailure() throws Exception {
+
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(3);
+        runner.add("a", () -> {
+            throw new CmsException(Messages.get().container(Messages.ERR_STARTUP_TASK_FAILED_0));
+        });
+        runner.add("b", () -> executed.add("b"), "a");
+        runner.add("c", () -> executed.add("c"));
+        try {
+            runner.run();
+            fail("Exception expected");
+        } catch (CmsException e) {
+            assertEquals(Messages.ERR_STARTUP_TASK_FAILED_0, e.getMessageContainer().getKey());
+        }
+        assertEquals(Collections.singletonList("c"), executed);
+        String timeline = runner.getTimeline().toString();
+        assertTrue(timeline, timeline.contains("failed"));
+        assertTrue(timeline, timeline.contains("not started"));
+    }
+
+    /**
+     * Tests that independent tasks run concurrently while dependencies are respected.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testParallel() throws Exception {
+
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch latch = new CountDownLatch(2);
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(4);
+        runner.add("base", () -> executed.add("base"));
+        // these two tasks can only finish if they run at the same time
+        runner.add("left", () -> {
+            await(latch);
+            executed.add("left");
+        }, "base");
+        runner.add("right", () -> {
+            await(latch);
+            executed.add("right");
+        }, "base");
+        runner.add("last", () -> executed.add("last"), "left", "right");
+        runner.run();
+
+        assertEquals(4, executed.size());
+        assertEquals("base", executed.get(0));
+        assertEquals("last", executed.get(3));
+        assertEquals(5, runner.getTimeline().size());
+    }
+
+    /**
+     * Tests running the tasks sequentially and the validation of the dependencies.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSequential() throws Exception {
+
+        final List<String> executed = new ArrayList<String>();
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(1);
+        runner.add("a", () -> executed.add("a"));
+        runner.add("b", () -> executed.add("b"));
+        runner.add("c", () -> executed.add("c"), "a");
+        try {
+            runner.add("d", () -> executed.add("d"), "e");
+            fail("Unknown dependency not detected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            runner.add("a", () -> executed.add("a"));
+            fail("Duplicate task not detected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        runner.run();
+        assertEquals(3, executed.size());
+        assertEquals("a", executed.get(0));
+        assertEquals("b", executed.get(1));
+        assertEquals("c", executed.get(2));
+    }
+
+    /**
+     * Counts down the latch and waits for the other tasks.<p>
+     *
+     * @param latch the latch
+     */
+    void await(CountDownLatch latch) {
+
+        latch.countDown();
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            fail(e.getMessage());
+        }
+    }
+}
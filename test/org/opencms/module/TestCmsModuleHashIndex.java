@@ -0,0 +1,170 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.module;
+
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.io.File;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link CmsModuleHashIndex} and the {@link CmsModuleUpdatePlan}.<p>
+ */
+public class TestCmsModuleHashIndex extends TestCase {
+
+    /**
+     * Tests that stored hashes are only used while content date and length of the resource match.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testHashIndex() throws Exception {
+
+        File file = File.createTempFile("opencms-test-hashes_", ".properties");
+        file.deleteOnExit();
+        CmsUUID id = new CmsUUID();
+        String hash = CmsModuleHashIndex.computeHash("content".getBytes("UTF-8"));
+        assertEquals(64, hash.length());
+
+        CmsModuleHashIndex index = new CmsModuleHashIndex(file);
+        index.put(createFile(id, "/a.txt", 7, 1000L), hash);
+        index.write();
+
+        CmsModuleHashIndex read = new CmsModuleHashIndex(file);
+        read.read();
+        assertEquals(1, read.size());
+        assertEquals(hash, read.getHash(createFile(id, "/moved.txt", 7, 1000L)));
+        assertNull("content date changed", read.getHash(createFile(id, "/a.txt", 7, 2000L)));
+        assertNull("length changed", read.getHash(createFile(id, "/a.txt", 8, 1000L)));
+        assertNull("unknown resource", read.getHash(createFile(new CmsUUID(), "/a.txt", 7, 1000L)));
+
+        read.removeModified(Collections.singletonList(createFile(id, "/a.txt", 7, 3000L)));
+        assertEquals(0, read.size());
+    }
+
+    /**
+     * Tests the actions and the estimated cost of an update plan.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPlan() throws Exception {
+
+        CmsResourceImportData created = createData("/new.txt", "new");
+        CmsResourceImportData changed = createData("/changed.txt", "changed");
+        CmsResourceImportData moved = createData("/moved.txt", "moved");
+        CmsResourceImportData unchanged = createData("/unchanged.txt", "unchanged");
+        try {
+            CmsModuleUpdatePlan plan = new CmsModuleUpdatePlan("org.test", 2);
+            plan.addEntry(new CmsModuleUpdatePlan.Entry(1, created, null, false, false, null));
+            plan.addEntry(new CmsModuleUpdatePlan.Entry(2, changed, changed.getResource(), false, true, null));
+            plan.addEntry(new CmsModuleUpdatePlan.Entry(3, moved, moved.getResource(), true, false, null));
+            plan.addEntry(
+                new CmsModuleUpdatePlan.Entry(
+                    4,
+                    unchanged,
+                    unchanged.getResource(),
+                    false,
+                    false,
+                    unchanged.getContentHash()));
+            plan.addDeletion(createFile(new CmsUUID(), "/deleted.txt", 1, 0L));
+
+            assertEquals(CmsModuleUpdatePlan.Action.CREATE, plan.getEntries().get(0).getAction());
+            assertTrue(plan.getEntries().get(0).isImport());
+            assertEquals(1, plan.getCount(CmsModuleUpdatePlan.Action.CREATE));
+            assertEquals(1, plan.getCount(CmsModuleUpdatePlan.Action.UPDATE));
+            assertEquals(1, plan.getCount(CmsModuleUpdatePlan.Action.MOVE));
+            assertEquals(1, plan.getCount(CmsModuleUpdatePlan.Action.UNCHANGED));
+            assertEquals("new".length() + "changed".length(), plan.getBytesToWrite());
+            assertEquals(
+                CmsModuleUpdatePlan.COST_CREATE
+                    + CmsModuleUpdatePlan.COST_UPDATE
+                    + CmsModuleUpdatePlan.COST_MOVE
+                    + (2 * CmsModuleUpdatePlan.COST_CHECK)
+                    + CmsModuleUpdatePlan.COST_DELETE,
+                plan.getEstimatedCost());
+            assertTrue(plan.hasChanges());
+        } finally {
+            created.cleanUp();
+            changed.cleanUp();
+            moved.cleanUp();
+            unchanged.cleanUp();
+        }
+    }
+
+    /**
+     * Creates the import data for a text file.<p>
+     *
+     * @param path the path
+     * @param text the content
+     *
+     * @return the import data
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsResourceImportData createData(String path, String text) throws Exception {
+
+        byte[] content = text.getBytes("UTF-8");
+        CmsResource resource = createFile(new CmsUUID(), path, content.length, 0L);
+        return new CmsResourceImportData(resource, path, content, null, null, null, true, true);
+    }
+
+    /**
+     * Creates a file resource.<p>
+     *
+     * @param structureId the structure id
+     * @param rootPath the root path
+     * @param length the content length
+     * @param dateContent the content date
+     *
+     * @return the resource
+     */
+    private CmsResource createFile(CmsUUID structureId, String rootPath, int length, long dateContent) {
+
+        return new CmsResource(
+            structureId,
+            new CmsUUID(),
+            rootPath,
+            1,
+            false,
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.STATE_UNCHANGED,
+            0L,
+            CmsUUID.getNullUUID(),
+            0L,
+            CmsUUID.getNullUUID(),
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            1,
+            length,
+            dateContent,
+            0);
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.scheduler.jobs;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.scheduler.CmsScheduleManager;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the job for deleting expired resources.<p>
+ */
+public class TestCmsDeleteExpiredResourcesJob extends OpenCmsTestCase {
+
+    /** The number of days the test resources are expired. */
+    private static final int EXPIRED_DAYS = 10;
+
+    /** The property value which prevents the deletion. */
+    private static final String PROPERTY_VALUE_NEVER = CmsDeleteExpiredResourcesJob.PROPERTY_VALUE_DELETE_EXPIRED_NEVER;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsDeleteExpiredResourcesJob(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsDeleteExpiredResourcesJob.class.getName());
+
+        suite.addTest(new TestCmsDeleteExpiredResourcesJob("testPropertyOverride"));
+        suite.addTest(new TestCmsDeleteExpiredResourcesJob("testMaxDeletionsResume"));
+        suite.addTest(new TestCmsDeleteExpiredResourcesJob("testCheckpointDiscardedOnParameterChange"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that a stopped run is not resumed after the parameters of the job have been changed.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCheckpointDiscardedOnParameterChange() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the checkpoint is discarded after changing the job parameters");
+
+        cms.createResource("/changed/", CmsResourceTypeFolder.getStaticTypeId());
+        createExpiredFile(cms, "/changed/a.txt", PROPERTY_VALUE_NEVER);
+        createExpiredFile(cms, "/changed/b.txt", null);
+        createExpiredFile(cms, "/changed/c.txt", null);
+        publish(cms);
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_FOLDER, "/changed/");
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_EXPIRATIONSDAYS, "0");
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_MAXDELETIONS, "1");
+        runJob("changed", parameters);
+        assertExisting(cms, "/changed/a.txt", "/changed/c.txt");
+        assertDeleted(cms, "/changed/b.txt");
+
+        allowDeletion(cms, "/changed/a.txt");
+        // the changed parameters start the job from the beginning again
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_BATCHSIZE, "10");
+        runJob("changed", parameters);
+        assertExisting(cms, "/changed/c.txt");
+        assertDeleted(cms, "/changed/a.txt");
+    }
+
+    /**
+     * Tests that a run stops after the maximum number of deletions, and the next run continues after
+     * the last processed resource.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testMaxDeletionsResume() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that a job stopped after the maximum number of deletions is resumed");
+
+        cms.createResource("/limited/", CmsResourceTypeFolder.getStaticTypeId());
+        createExpiredFile(cms, "/limited/a.txt", PROPERTY_VALUE_NEVER);
+        createExpiredFile(cms, "/limited/b.txt", null);
+        createExpiredFile(cms, "/limited/c.txt", null);
+        createExpiredFile(cms, "/limited/d.txt", null);
+        createExpiredFile(cms, "/limited/e.txt", null);
+        publish(cms);
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_FOLDER, "/limited/");
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_EXPIRATIONSDAYS, "0");
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_MAXDELETIONS, "2");
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_BATCHSIZE, "2");
+
+        // the first run stops in the middle of the second batch
+        runJob("limited", parameters);
+        assertDeleted(cms, "/limited/b.txt", "/limited/c.txt");
+        assertExisting(cms, "/limited/a.txt", "/limited/d.txt", "/limited/e.txt");
+
+        // a.txt is before the checkpoint, so the next run must not process it again
+        allowDeletion(cms, "/limited/a.txt");
+        runJob("limited", parameters);
+        assertDeleted(cms, "/limited/d.txt", "/limited/e.txt");
+        assertExisting(cms, "/limited/a.txt");
+
+        // the second run has processed all resources, so the third run starts from the beginning
+        runJob("limited", parameters);
+        assertDeleted(cms, "/limited/a.txt");
+    }
+
+    /**
+     * Tests the "delete.expired" property override with the properties read in batches.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPropertyOverride() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the delete.expired property override");
+
+        cms.createResource("/expired/", CmsResourceTypeFolder.getStaticTypeId());
+        createExpiredFile(cms, "/expired/a.txt", null);
+        createExpiredFile(cms, "/expired/b.txt", Boolean.TRUE.toString());
+        createExpiredFile(cms, "/expired/c.txt", PROPERTY_VALUE_NEVER);
+        createExpiredFile(cms, "/expired/d.txt", Boolean.FALSE.toString());
+        createExpiredFile(cms, "/expired/e.txt", String.valueOf(EXPIRED_DAYS * 10));
+        createExpiredFile(cms, "/expired/f.txt", String.valueOf(EXPIRED_DAYS / 2));
+        createExpiredFile(cms, "/expired/g.txt", CmsDeleteExpiredResourcesJob.PROPERTY_VALUE_DELETE_EXPIRED_NONE);
+        // the property of the folder is inherited
+        cms.createResource(
+            "/expired/keep/",
+            CmsResourceTypeFolder.getStaticTypeId(),
+            null,
+            Collections.singletonList(
+                new CmsProperty(CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED, PROPERTY_VALUE_NEVER, null)));
+        createExpiredFile(cms, "/expired/keep/h.txt", null);
+        publish(cms);
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_FOLDER, "/expired/");
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_EXPIRATIONSDAYS, String.valueOf(EXPIRED_DAYS / 2));
+        parameters.put(CmsDeleteExpiredResourcesJob.PARAM_BATCHSIZE, "3");
+        runJob("expired", parameters);
+
+        assertDeleted(cms, "/expired/a.txt", "/expired/b.txt", "/expired/f.txt");
+        assertExisting(cms, "/expired/c.txt", "/expired/d.txt", "/expired/e.txt", "/expired/g.txt");
+        assertExisting(cms, "/expired/keep/h.txt");
+    }
+
+    /**
+     * Sets the "delete.expired" property of a resource to "true" and publishes it.<p>
+     *
+     * @param cms the cms context
+     * @param path the path of the resource
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void allowDeletion(CmsObject cms, String path) throws Exception {
+
+        CmsResource resource = cms.readResource(path, CmsResourceFilter.ALL);
+        cms.lockResource(resource);
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        properties.add(
+            new CmsProperty(CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED, Boolean.TRUE.toString(), null));
+        cms.writePropertyObjects(resource, properties);
+        publish(cms);
+    }
+
+    /**
+     * Asserts that the given resources have been deleted.<p>
+     *
+     * @param cms the cms context
+     * @param paths the paths of the resources
+     */
+    private void assertDeleted(CmsObject cms, String... paths) {
+
+        for (String path : paths) {
+            assertFalse(path, cms.existsResource(path, CmsResourceFilter.ALL));
+        }
+    }
+
+    /**
+     * Asserts that the given resources still exist.<p>
+     *
+     * @param cms the cms context
+     * @param paths the paths of the resources
+     */
+    private void assertExisting(CmsObject cms, String... paths) {
+
+        for (String path : paths) {
+            assertTrue(path, cms.existsResource(path, CmsResourceFilter.ALL));
+        }
+    }
+
+    /**
+     * Creates a plain file which has been expired for {@link #EXPIRED_DAYS} days.<p>
+     *
+     * @param cms the cms context
+     * @param path the path of the file
+     * @param deleteExpired the value of the "delete.expired" property, or <code>null</code>
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createExpiredFile(CmsObject cms, String path, String deleteExpired) throws Exception {
+
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        if (deleteExpired != null) {
+            properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED, deleteExpired, null));
+        }
+        CmsResource resource = cms.createResource(
+            path,
+            CmsResourceTypePlain.getStaticTypeId(),
+            path.getBytes(),
+            properties);
+        long expired = System.currentTimeMillis() - (EXPIRED_DAYS * 24L * 60 * 60 * 1000);
+        cms.setDateExpired(resource, expired, false);
+    }
+
+    /**
+     * Publishes the offline project.<p>
+     *
+     * @param cms the cms context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void publish(CmsObject cms) throws Exception {
+
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+
+    /**
+     * Runs the job with a new cms context, as the scheduler does.<p>
+     *
+     * @param jobName the name of the job
+     * @param parameters the job parameters
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void runJob(String jobName, Map<String, String> parameters) throws Exception {
+
+        CmsObject cms = OpenCms.initCmsObject(getCmsObject());
+        cms.getRequestContext().setAttribute(CmsScheduleManager.ATTRIBUTE_JOB_NAME, jobName);
+        new CmsDeleteExpiredResourcesJob().deleteExpiredResources(
+            cms,
+            new HashMap<String, String>(parameters),
+            System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.site;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for the site root prefix tree.<p>
+ */
+public class TestCmsSiteRootTree extends TestCase {
+
+    /**
+     * Tests the lookup of sites for root paths.<p>
+     */
+    public void testLookup() {
+
+        CmsSiteRootTree tree = CmsSiteRootTree.create(createSites("/sites/default", "/sites/demo", "/shared", "/"));
+
+        assertEquals("/sites/default", tree.getSiteRoot("/sites/default"));
+        assertEquals("/sites/default", tree.getSiteRoot("/sites/default/"));
+        assertEquals("/sites/default", tree.getSiteRoot("/sites/default/index.html"));
+        assertEquals("/sites/demo", tree.getSiteRoot("/sites/demo/a/b/c.html"));
+        assertEquals("/shared", tree.getSiteRoot("/shared/file.txt"));
+        assertEquals("/sites/demo", tree.getSite("/sites/demo/").getSiteRoot());
+
+        assertNull(tree.getSiteRoot("/sites/defaultx/index.html"));
+        assertNull(tree.getSiteRoot("/sites/"));
+        assertNull(tree.getSiteRoot("/system/modules/"));
+        assertNull(tree.getSiteRoot("/"));
+        assertNull(tree.getSiteRoot(""));
+        assertNull(tree.getSiteRoot("sites/default/"));
+        assertNull(tree.getSite("/other"));
+    }
+
+    /**
+     * Tests that the longest matching site root wins.<p>
+     */
+    public void testLongestPrefix() {
+
+        CmsSiteRootTree tree = CmsSiteRootTree.create(createSites("/sites/a", "/sites/a/b", "/sites/ab"));
+
+        assertEquals("/sites/a", tree.getSiteRoot("/sites/a/c"));
+        assertEquals("/sites/a/b", tree.getSiteRoot("/sites/a/b"));
+        assertEquals("/sites/a/b", tree.getSiteRoot("/sites/a/b/c"));
+        assertEquals("/sites/ab", tree.getSiteRoot("/sites/ab/c"));
+    }
+
+    /**
+     * Tests the lookup with many sites below the same folder.<p>
+     */
+    public void testManySites() {
+
+        String[] roots = new String[300];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = "/sites/site" + i;
+        }
+        CmsSiteRootTree tree = CmsSiteRootTree.create(createSites(roots));
+        for (int i = 0; i < roots.length; i++) {
+            assertEquals(roots[i], tree.getSiteRoot(roots[i] + "/folder/index.html"));
+        }
+        assertNull(tree.getSiteRoot("/sites/site300/index.html"));
+    }
+
+    /**
+     * Creates a site map for the given site roots.<p>
+     *
+     * @param siteRoots the site roots
+     *
+     * @return the sites by site root
+     */
+    private Map<String, CmsSite> createSites(String... siteRoots) {
+
+        Map<String, CmsSite> result = new HashMap<String, CmsSite>();
+        for (String siteRoot : siteRoots) {
+            result.put(siteRoot, new CmsSite(siteRoot, CmsSiteMatcher.DEFAULT_MATCHER));
+        }
+        return result;
+    }
+}
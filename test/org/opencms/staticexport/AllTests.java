@@ -64,6 +64,8 @@ public final class AllTests {
         suite.addTest(TestSecure.suite());
         suite.addTest(TestCmsExternalLinksValidator.suite());
         suite.addTest(TestExportScaledImage.suite());
+        suite.addTest(new TestSuite(TestCmsHtmlLinkScanner.class));
+        suite.addTest(TestCmsLinkProcessorCompatibility.suite());
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,151 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link CmsHtmlLinkScanner}.<p>
+ *
+ * The expected results are the results of the org.htmlparser based link processing used before.<p>
+ */
+public class TestCmsHtmlLinkScanner extends TestCase {
+
+    /**
+     * Tag handler which changes the links like the link processor, but without VFS access.<p>
+     *
+     * The links are put in brackets and a blank is appended, so that unquoted values need quotes.
+     * Images without alt attribute get one.<p>
+     */
+    static class TestHandler implements CmsHtmlLinkScanner.I_CmsTagHandler {
+
+        /**
+         * @see org.opencms.staticexport.CmsHtmlLinkScanner.I_CmsTagHandler#handleTag(org.opencms.staticexport.CmsHtmlLinkScanner.Tag)
+         */
+        public void handleTag(CmsHtmlLinkScanner.Tag tag) {
+
+            String name = tag.getTagName();
+            if ("A".equals(name) || "AREA".equals(name)) {
+                change(tag, "href");
+            } else if ("IMG".equals(name)) {
+                change(tag, "src");
+                if (tag.getAttribute("alt") == null) {
+                    tag.insertAttribute("alt", "t x");
+                }
+            } else if ("OBJECT".equals(name)) {
+                change(tag, "data");
+                for (CmsHtmlLinkScanner.Tag param : tag.getParams()) {
+                    change(param, "value");
+                }
+            }
+        }
+
+        /**
+         * Changes an attribute value.<p>
+         *
+         * @param tag the tag
+         * @param attr the attribute name
+         */
+        private void change(CmsHtmlLinkScanner.Tag tag, String attr) {
+
+            String value = tag.getAttribute(attr);
+            if (value != null) {
+                tag.setAttribute(attr, "[" + value + " z]");
+            }
+        }
+    }
+
+    /**
+     * Tests that the links in attributes are changed and everything else is kept.<p>
+     */
+    public void testLinks() {
+
+        assertProcessed(
+            "<p>Text <a href=\"a.html\">link</a> and <img src='b.png' alt=\"\"/></p>",
+            "<p>Text <a href=\"[a.html z]\">link</a> and <img src=\"[b.png z]\" alt=\"\"/></p>");
+        assertProcessed(
+            "<A\r\nHREF=\"x y.html\" >q</A ><img src=i.png>",
+            "<A\r\nHREF=\"[x y.html z]\" >q</A ><img alt=\"t x\" src=\"[i.png z]\">");
+        assertProcessed("a < b <a href='say \"hi\" x'>", "a < b <a href='[say \"hi\" x z]'></a>");
+    }
+
+    /**
+     * Tests that missing end tags are inserted.<p>
+     */
+    public void testMissingEndTags() {
+
+        assertProcessed(
+            "<ul><li><a href=a.html>one<li>two</ul>",
+            "<ul><li><a href=\"[a.html z]\">one</a></li><li>two</li></ul>");
+        assertProcessed(
+            "<% if (x) { %><a href=\"j.html\"><% } %>",
+            "<% if (x) { %><a href=\"[j.html z]\"><% } %></a>");
+    }
+
+    /**
+     * Tests that the param tags of an object are handled with the object.<p>
+     */
+    public void testObjectParams() {
+
+        assertProcessed(
+            "<object data=\"o.swf\"><param name=\"movie\" value=\"m.swf\"><embed src=\"e.swf\"></object>",
+            "<object data=\"[o.swf z]\"><param name=\"movie\" value=\"[m.swf z]\"><embed src=\"e.swf\"></object>");
+    }
+
+    /**
+     * Tests that scripts and comments are not changed.<p>
+     */
+    public void testScriptsAndComments() {
+
+        assertProcessed(
+            "<script>document.write('<a href=\"s.html\">');</script><!-- <a href=\"c.html\"> --><a href=\"t.html\">t</a>",
+            "<script>document.write('<a href=\"s.html\">');</script><!-- <a href=\"c.html\"> --><a href=\"[t.html z]\">t</a>");
+    }
+
+    /**
+     * Tests that a scanner can be reused.<p>
+     */
+    public void testReuse() {
+
+        CmsHtmlLinkScanner scanner = new CmsHtmlLinkScanner(new TestHandler());
+        assertEquals("<object data=\"[d z]\"></object>", scanner.process("<object data=d>"));
+        assertEquals("<a href=\"[x z]\"></a>", scanner.process("<a href=x>"));
+        assertEquals("", scanner.process(""));
+    }
+
+    /**
+     * Processes the HTML and compares the result.<p>
+     *
+     * @param html the HTML
+     * @param expected the expected result
+     */
+    private void assertProcessed(String html, String expected) {
+
+        assertEquals(expected, new CmsHtmlLinkScanner(new TestHandler()).process(html));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.file.CmsObject;
+import org.opencms.relations.CmsLink;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Compares the results of the {@link CmsLinkProcessor} with the results of the org.htmlparser based
+ * {@link CmsHtmlParserLinkProcessor} used before.<p>
+ */
+public class TestCmsLinkProcessorCompatibility extends OpenCmsTestCase {
+
+    /** The HTML contents with links to compare the link processing for. */
+    private static final String[] CORPUS = {
+        "<p>Text <a href=\"/folder1/index.html\">link</a> and <img src=\"/folder1/image1.gif\" alt=\"\"/></p>",
+        "<a href=\"/folder1/page1.html?a=1&amp;b=2#top\">query</a><a href=\"http://www.opencms.org/\">ext</a>",
+        "<img src=\"/folder1/image2.gif\"><img src='/folder2/image1.gif' title=\"x\" />",
+        "<A\r\nHREF=\"/folder2/index.html\" TARGET=_blank>upper</A ><AREA href=\"/folder1/page2.html\">",
+        "<a href=../folder2/page1.html>relative</a><a href=\"mailto:test@opencms.org\">mail</a>",
+        "<a href=\"%(link0)\">macro</a><a name=\"anchor\">no link</a><a href=\"\">empty</a>",
+        "<ul><li><a href=\"/folder1/page3.html\">one<li>two</ul><table><tr><td><img src=/folder1/image1.gif></table>",
+        "<object codebase=\"/folder1/\" data=\"/folder1/page4.html\">"
+            + "<param name=\"movie\" value=\"/folder1/image1.gif\">"
+            + "<param name=\"flashvars\" value=\"/folder2/index.html?\">"
+            + "<embed src=\"/folder2/image2.gif\"></object>",
+        "<object data=\"/folder1/image2.gif\"><param name=\"src\" value=\"/folder1/page1.html&\"></object>",
+        "<embed src=\"/folder1/image1.gif\" pluginspage=\"http://www.example.org/plugin\">",
+        "<script>document.write('<a href=\"/folder1/index.html\">');</script>"
+            + "<!-- <a href=\"/folder1/page1.html\"> --><a href=\"/folder2/page2.html\">after</a>",
+        "<% if (x) { %><a href=\"/folder1/index.html\"><% } %>",
+        "a < b <a href='say \"hi\" /folder1/index.html'>quotes</a> &amp; &nbsp; &#228;",
+        "<div class=\"c\" data-x=\"/folder1/index.html\"><span><b>unclosed <i>tags</div>",
+        "<p>no links at all</p>",
+        ""};
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsLinkProcessorCompatibility(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsLinkProcessorCompatibility.class.getName());
+
+        suite.addTest(new TestCmsLinkProcessorCompatibility("testReplaceLinks"));
+        suite.addTest(new TestCmsLinkProcessorCompatibility("testProcessLinks"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that processing the macros creates the same links as before.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testProcessLinks() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Comparing the link processing with the org.htmlparser based implementation");
+        cms.getRequestContext().setSiteRoot("/sites/default/");
+        for (String html : CORPUS) {
+            // use the same macro content and link table for both implementations
+            CmsLinkTable linkTable = new CmsLinkTable();
+            String content = new CmsLinkProcessor(cms, linkTable, "UTF-8", "/folder1/").replaceLinks(html);
+            String expected = new CmsHtmlParserLinkProcessor(cms, linkTable, "UTF-8", null).processLinks(content);
+            String result = new CmsLinkProcessor(cms, linkTable, "UTF-8", null).processLinks(content);
+            assertEquals(html, expected, result);
+        }
+    }
+
+    /**
+     * Tests that replacing the links with macros creates the same content and link table as before.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReplaceLinks() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Comparing the link replacement with the org.htmlparser based implementation");
+        cms.getRequestContext().setSiteRoot("/sites/default/");
+        for (String html : CORPUS) {
+            CmsLinkTable expectedTable = new CmsLinkTable();
+            String expected = new CmsHtmlParserLinkProcessor(cms, expectedTable, "UTF-8", "/folder1/").replaceLinks(
+                html);
+            CmsLinkTable resultTable = new CmsLinkTable();
+            String result = new CmsLinkProcessor(cms, resultTable, "UTF-8", "/folder1/").replaceLinks(html);
+            assertEquals(html, expected, result);
+            assertEquals(html, describe(expectedTable), describe(resultTable));
+        }
+    }
+
+    /**
+     * Returns a description of all links in the link table.<p>
+     *
+     * @param linkTable the link table
+     *
+     * @return the description of the links
+     */
+    private List<String> describe(CmsLinkTable linkTable) {
+
+        List<String> result = new ArrayList<String>();
+        Iterator<CmsLink> it = linkTable.iterator();
+        while (it.hasNext()) {
+            CmsLink link = it.next();
+            result.add(
+                link.getName()
+                    + "|"
+                    + link.getType()
+                    + "|"
+                    + link.isInternal()
+                    + "|"
+                    + link.getTarget()
+                    + "|"
+                    + link.getQuery()
+                    + "|"
+                    + link.getAnchor());
+        }
+        return result;
+    }
+}
@@ -86,6 +86,7 @@ public final class AllTests {
         suite.addTest(org.opencms.setup.AllTests.suite());
         suite.addTest(org.opencms.ade.configuration.AllTests.suite());
         suite.addTest(org.opencms.ade.containerpage.inherited.AllTests.suite());
+        suite.addTest(org.opencms.ade.galleries.AllTests.suite());
         suite.addTest(org.opencms.ade.sitemap.AllTests.suite());
         suite.addTest(org.opencms.cache.AllTests.suite());
         suite.addTest(org.opencms.configuration.AllTests.suite());
@@ -95,8 +96,10 @@ public final class AllTests {
         suite.addTest(org.opencms.file.types.AllTests.suite());
         suite.addTest(org.opencms.file.wrapper.AllTests.suite());
         suite.addTest(org.opencms.flex.AllTests.suite());
+        suite.addTest(org.opencms.gwt.AllTests.suite());
         suite.addTest(org.opencms.i18n.AllTests.suite());
         suite.addTest(org.opencms.importexport.AllTests.suite());
+        suite.addTest(org.opencms.jsp.AllTests.suite());
         suite.addTest(org.opencms.jsp.decorator.AllTests.suite());
         suite.addTest(org.opencms.jsp.search.config.AllTests.suite());
         suite.addTest(org.opencms.jsp.search.config.parser.AllTests.suite());
@@ -109,6 +112,7 @@ public final class AllTests {
         suite.addTest(org.opencms.publish.AllTests.suite());
         suite.addTest(org.opencms.relations.AllTests.suite());
         suite.addTest(org.opencms.scheduler.AllTests.suite());
+        suite.addTest(org.opencms.scheduler.jobs.AllTests.suite());
         suite.addTest(org.opencms.search.AllTests.suite());
         suite.addTest(org.opencms.search.extractors.AllTests.suite());
         suite.addTest(org.opencms.search.gallery.AllTests.suite());
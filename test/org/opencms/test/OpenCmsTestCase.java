@@ -51,6 +51,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsShell;
 import org.opencms.main.CmsSystemInfo;
 import org.opencms.main.OpenCms;
+import org.opencms.main.OpenCmsServlet;
 import org.opencms.publish.CmsPublishJobBase;
 import org.opencms.publish.CmsPublishJobInfoBean;
 import org.opencms.relations.CmsRelation;
@@ -87,6 +88,9 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+
 import org.apache.commons.io.filefilter.FileFilterUtils;
 import org.apache.logging.log4j.core.appender.OpenCmsTestLogAppender;
 
@@ -1242,6 +1246,37 @@ public class OpenCmsTestCase extends TestCase {
         return cms;
     }
 
+    /**
+     * Shuts down the OpenCms shell and starts OpenCms again with a servlet, so that requests
+     * can be processed by the servlet like in a servlet container.<p>
+     *
+     * The database set up by {@link #setupOpenCms(String, String)} is kept. Call {@link OpenCmsServlet#destroy()}
+     * before removing OpenCms with {@link #removeOpenCms(String)}.<p>
+     *
+     * @param config the servlet configuration, with a servlet context providing the test data "WEB-INF" folder
+     *
+     * @return the initialized servlet
+     *
+     * @throws ServletException if the servlet can not be initialized
+     */
+    public static OpenCmsServlet startOpenCmsServlet(ServletConfig config) throws ServletException {
+
+        // turn off exceptions after error logging during startup (won't work otherwise)
+        OpenCmsTestLogAppender.setBreakOnError(false);
+        System.out.println("\n\n\n----- Starting OpenCms servlet -----");
+
+        // the shell instance is kept for removing OpenCms, exiting it again has no effect
+        m_shell.exit();
+        OpenCmsServlet servlet = new OpenCmsServlet();
+        servlet.init(config);
+        if (OpenCms.getRunLevel() != OpenCms.RUNLEVEL_4_SERVLET_ACCESS) {
+            throw new ServletException("Unable to start OpenCms servlet, runlevel is " + OpenCms.getRunLevel());
+        }
+
+        OpenCmsTestLogAppender.setBreakOnError(true);
+        return servlet;
+    }
+
     /**
      * Adds an additional path to the list of test data configuration files.<p>
      *
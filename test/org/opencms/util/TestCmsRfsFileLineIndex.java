@@ -0,0 +1,236 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link CmsRfsFileLineIndex} and the file viewer reading lines with it.<p>
+ */
+public class TestCmsRfsFileLineIndex extends TestCase {
+
+    /** The test file. */
+    private File m_file;
+
+    /**
+     * Tests that the appended lines are read after updating the index.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAppendedLines() throws Exception {
+
+        write(false, "a\r\nb\nc");
+        CmsRfsFileLineIndex index = new CmsRfsFileLineIndex(m_file);
+        index.update();
+        assertEquals(3, index.getLineCount());
+        assertEquals("[2:c]", readLines(index, 2));
+
+        // the unterminated last line is continued
+        write(true, "d\ne\n");
+        index.update();
+        assertEquals(4, index.getLineCount());
+        assertEquals("[2:cd, 3:e]", readLines(index, 2));
+        assertEquals("[0:a, 1:b, 2:cd, 3:e]", readLines(index, 0));
+
+        CmsRfsFileViewer viewer = createViewer(false, 10);
+        long lines = viewer.getLineCount();
+        write(true, "f\n<g>\n");
+        assertEquals("f\n&lt;g&gt;\n", viewer.readAppendedLines(lines));
+        assertEquals("", viewer.readAppendedLines(lines + 2));
+    }
+
+    /**
+     * Tests filtering the entries of a log file by pattern and level.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFilter() throws Exception {
+
+        write(
+            false,
+            "18 Oct 2026 10:00:00,001  INFO [Foo:  1] starting\n"
+                + "18 Oct 2026 10:00:01,002 ERROR [Foo:  2] failed\n"
+                + "java.lang.Exception: broken\n"
+                + "\tat Foo.bar(Foo.java:2)\n"
+                + "18 Oct 2026 10:00:02,003  WARN [Bar:  3] slow\n"
+                + "18 Oct 2026 10:00:03,004 DEBUG [Bar:  4] broken cache\n");
+        CmsRfsFileViewer viewer = createViewer(true, 10);
+        assertEquals(
+            "18 Oct 2026 10:00:01,002 ERROR [Foo:  2] failed\n"
+                + "java.lang.Exception: broken\n"
+                + "\tat Foo.bar(Foo.java:2)\n"
+                + "18 Oct 2026 10:00:02,003  WARN [Bar:  3] slow\n",
+            viewer.readFilePortion(null, "warn"));
+        assertEquals(
+            "18 Oct 2026 10:00:01,002 ERROR [Foo:  2] failed\n"
+                + "java.lang.Exception: broken\n"
+                + "\tat Foo.bar(Foo.java:2)\n"
+                + "18 Oct 2026 10:00:03,004 DEBUG [Bar:  4] broken cache\n",
+            viewer.readFilePortion(Pattern.compile("broken"), null));
+        assertEquals(
+            "18 Oct 2026 10:00:01,002 ERROR [Foo:  2] failed\n"
+                + "java.lang.Exception: broken\n"
+                + "\tat Foo.bar(Foo.java:2)\n",
+            viewer.readFilePortion(Pattern.compile("broken"), "ERROR"));
+    }
+
+    /**
+     * Tests reading windows of a file with many lines.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReadWindow() throws Exception {
+
+        StringBuffer content = new StringBuffer();
+        for (int i = 0; i < 1000; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        write(false, content.toString());
+        CmsRfsFileLineIndex index = CmsRfsFileLineIndex.getIndex(m_file.getPath());
+        assertEquals(1000, index.getLineCount());
+        final List<String> lines = new ArrayList<String>();
+        index.readLines(300, StandardCharsets.UTF_8, (lineNumber, line) -> {
+            assertEquals("line " + lineNumber, line);
+            lines.add(line);
+            return lines.size() < 3;
+        });
+        assertEquals("[line 300, line 301, line 302]", lines.toString());
+
+        CmsRfsFileViewer viewer = createViewer(true, 2);
+        assertEquals("line 998\nline 999\n", viewer.readFilePortion());
+        assertEquals(499, viewer.getWindowPos());
+        viewer.setIsLogfile(false);
+        assertEquals("line 0\nline 1\n", viewer.readFilePortion());
+    }
+
+    /**
+     * Tests that the index is rebuilt if the file is replaced.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReplacedFile() throws Exception {
+
+        write(false, "first\nsecond\nthird\n");
+        CmsRfsFileLineIndex index = new CmsRfsFileLineIndex(m_file);
+        index.update();
+        assertEquals(3, index.getLineCount());
+
+        // rotated file with the same length
+        write(false, "FIRST\nSECOND\nTHIRD\n");
+        index.update();
+        assertEquals("[0:FIRST, 1:SECOND, 2:THIRD]", readLines(index, 0));
+
+        // truncated file
+        write(false, "x\n");
+        index.update();
+        assertEquals(1, index.getLineCount());
+        assertEquals("[0:x]", readLines(index, 0));
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        m_file = File.createTempFile("opencms-test", ".log");
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() {
+
+        m_file.delete();
+    }
+
+    /**
+     * Creates a file viewer for the test file.<p>
+     *
+     * @param isLogfile if the file should be treated as log file
+     * @param windowSize the window size
+     *
+     * @return the file viewer
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsRfsFileViewer createViewer(boolean isLogfile, int windowSize) throws Exception {
+
+        CmsRfsFileViewer viewer = new CmsRfsFileViewer();
+        viewer.setFilePath(m_file.getPath());
+        viewer.setFileEncoding("UTF-8");
+        viewer.setIsLogfile(isLogfile);
+        viewer.setWindowSize(windowSize);
+        return viewer;
+    }
+
+    /**
+     * Reads the lines of the test file starting with the given line.<p>
+     *
+     * @param index the index
+     * @param startLine the first line
+     *
+     * @return the lines with their line numbers
+     *
+     * @throws IOException if reading fails
+     */
+    private String readLines(CmsRfsFileLineIndex index, long startLine) throws IOException {
+
+        final List<String> lines = new ArrayList<String>();
+        index.readLines(startLine, StandardCharsets.UTF_8, (lineNumber, line) -> {
+            lines.add(lineNumber + ":" + line);
+            return true;
+        });
+        return lines.toString();
+    }
+
+    /**
+     * Writes the test file.<p>
+     *
+     * @param append if the content should be appended
+     * @param content the content to write
+     *
+     * @throws IOException if writing fails
+     */
+    private void write(boolean append, String content) throws IOException {
+
+        try (OutputStream out = new FileOutputStream(m_file, append)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -340,6 +340,9 @@ CREATE INDEX CMS_OFFLINE_STRUCTURE_06_IDX
 CREATE INDEX CMS_OFFLINE_STRUCTURE_07_IDX
     ON CMS_OFFLINE_STRUCTURE (RESOURCE_PATH);
 
+CREATE INDEX CMS_OFFLINE_STRUCTURE_08_IDX
+    ON CMS_OFFLINE_STRUCTURE (DATE_EXPIRED);
+
 CREATE TABLE CMS_ONLINE_STRUCTURE (
     STRUCTURE_ID VARCHAR(36) NOT NULL,
     RESOURCE_ID VARCHAR(36) NOT NULL,
@@ -341,6 +341,9 @@ CREATE NONCLUSTERED INDEX CMS_OFFLINE_STRUCTURE_06_IDX
 
 CREATE NONCLUSTERED INDEX CMS_OFFLINE_STRUCTURE_07_IDX 
     ON CMS_OFFLINE_STRUCTURE (RESOURCE_ID);
+
+CREATE NONCLUSTERED INDEX CMS_OFFLINE_STRUCTURE_08_IDX 
+    ON CMS_OFFLINE_STRUCTURE (DATE_EXPIRED);
                             
 CREATE TABLE CMS_ONLINE_STRUCTURE (
     STRUCTURE_ID NVARCHAR(36)  NOT NULL,
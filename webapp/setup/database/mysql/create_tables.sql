@@ -261,7 +261,8 @@ CREATE TABLE CMS_OFFLINE_STRUCTURE (
     INDEX STRUCTURE_STATE_IDX (STRUCTURE_STATE),
     INDEX PARENT_ID_IDX (PARENT_ID),
     INDEX RESOURCE_PATH_IDX (RESOURCE_PATH(255)),
-    INDEX RESOURCE_ID_IDX (RESOURCE_ID)
+    INDEX RESOURCE_ID_IDX (RESOURCE_ID),
+    INDEX DATE_EXPIRED_IDX (DATE_EXPIRED)
 ) ENGINE = MYISAM CHARACTER SET UTF8;
 
 CREATE TABLE CMS_ONLINE_STRUCTURE (
@@ -386,6 +386,10 @@ CREATE INDEX CMS_OFFLINE_STRUCTURE_06_IDX
     ON CMS_OFFLINE_STRUCTURE (RESOURCE_ID)
     TABLESPACE ${indexTablespace};
 
+CREATE INDEX CMS_OFFLINE_STRUCTURE_08_IDX
+    ON CMS_OFFLINE_STRUCTURE (DATE_EXPIRED)
+    TABLESPACE ${indexTablespace};
+
 CREATE TABLE CMS_ONLINE_STRUCTURE (
     STRUCTURE_ID VARCHAR2(36) NOT NULL,
     RESOURCE_ID VARCHAR2(36) NOT NULL,
@@ -52,6 +52,7 @@ DROP INDEX CMS_OFFLINE_STRUCTURE_04_IDX;
 DROP INDEX CMS_OFFLINE_STRUCTURE_05_IDX;
 DROP INDEX CMS_OFFLINE_STRUCTURE_06_IDX;
 DROP INDEX CMS_OFFLINE_STRUCTURE_07_IDX;
+DROP INDEX CMS_OFFLINE_STRUCTURE_08_IDX;
 DROP TABLE CMS_OFFLINE_STRUCTURE;
 DROP INDEX ONLINE_ACCESSCONTROL_01_IDX;
 DROP INDEX ONLINE_ACCESSCONTROL_02_IDX;